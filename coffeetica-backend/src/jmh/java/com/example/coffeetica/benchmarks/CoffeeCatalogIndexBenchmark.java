@@ -0,0 +1,97 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.index.CoffeeCatalogIndex;
+import com.example.coffeetica.coffee.mappers.CoffeeMapperImpl;
+import com.example.coffeetica.coffee.mappers.RoasteryMapperImpl;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of answering a filtered, sorted coffee listing page from the
+ * {@link CoffeeCatalogIndex}, for a synthetic catalog of {@code catalogSize} coffees.
+ * The repository is a mock that only supplies the catalog on load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoffeeCatalogIndexBenchmark {
+
+    private static final String[] NOTES = {"Chocolate", "Caramel", "Blackcurrant", "Jasmine", "Lemon", "Hazelnut"};
+    private static final String[] METHODS = {"Washed", "Natural", "Honey", "Anaerobic"};
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private CoffeeCatalogIndex catalogIndex;
+    private CoffeeFilterKey noFilters;
+    private CoffeeFilterKey allFilters;
+    private Pageable byNamePage;
+
+    @Setup
+    public void setUp() {
+        List<RoasteryEntity> roasteries = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            RoasteryEntity roastery = new RoasteryEntity();
+            roastery.setId((long) i);
+            roastery.setName("Roastery " + i);
+            roasteries.add(roastery);
+        }
+
+        List<CoffeeEntity> coffees = new ArrayList<>();
+        for (int i = 1; i <= catalogSize; i++) {
+            CoffeeEntity coffee = new CoffeeEntity();
+            coffee.setId((long) i);
+            coffee.setName("Coffee " + i);
+            coffee.setCountryOfOrigin("Country " + (i % 30));
+            coffee.setRegion(Region.values()[i % Region.values().length]);
+            coffee.setRoastLevel(RoastLevel.values()[i % RoastLevel.values().length]);
+            coffee.setFlavorProfile(FlavorProfile.values()[i % FlavorProfile.values().length]);
+            coffee.setFlavorNotes(new HashSet<>(List.of(NOTES[i % NOTES.length], NOTES[(i / 7) % NOTES.length])));
+            coffee.setProcessingMethod(METHODS[i % METHODS.length]);
+            coffee.setProductionYear(2015 + i % 10);
+            coffee.setRoastery(roasteries.get(i % roasteries.size()));
+            coffees.add(coffee);
+        }
+
+        CoffeeRepository coffeeRepository = Mockito.mock(CoffeeRepository.class);
+        Mockito.when(coffeeRepository.findAllWithDetails()).thenReturn(coffees);
+        catalogIndex = new CoffeeCatalogIndex(coffeeRepository, new CoffeeMapperImpl(new RoasteryMapperImpl()), true);
+        catalogIndex.rebuild();
+
+        noFilters = CoffeeFilterKey.of(null, null, null, null, null, null, null, null, null, null);
+        allFilters = CoffeeFilterKey.of("coffee", "country", Region.AFRICA, null, null,
+                Set.of("chocolate", "lemon"), "wash", 2018, 2024, null);
+        byNamePage = PageRequest.of(2, 9, Sort.by("name").ascending());
+    }
+
+    @Benchmark
+    public Page<CoffeeDTO> noFilters() {
+        return catalogIndex.findPage(noFilters, byNamePage).orElseThrow();
+    }
+
+    @Benchmark
+    public Page<CoffeeDTO> allFilters() {
+        return catalogIndex.findPage(allFilters, byNamePage).orElseThrow();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.mappers.CoffeeMapper;
+import com.example.coffeetica.coffee.mappers.CoffeeMapperImpl;
+import com.example.coffeetica.coffee.mappers.RoasteryMapperImpl;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a {@link CoffeeEntity} (with roastery and flavor notes) to the DTOs
+ * returned by the coffee listing and details endpoints, comparing the generated
+ * {@link CoffeeMapper} with the reflective {@link ModelMapper} configuration it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoffeeMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private CoffeeMapper coffeeMapper;
+    private CoffeeEntity coffee;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        modelMapper.typeMap(CoffeeEntity.class, CoffeeDetailsDTO.class)
+                .addMappings(mapper -> {
+                    mapper.skip(CoffeeDetailsDTO::setLatestReviews);
+                    mapper.skip(CoffeeDetailsDTO::setTotalReviewsCount);
+                    mapper.skip(CoffeeDetailsDTO::setAverageRating);
+                });
+
+        coffeeMapper = new CoffeeMapperImpl(new RoasteryMapperImpl());
+        coffee = CoffeeTestData.createTestCoffeeEntity();
+    }
+
+    @Benchmark
+    public CoffeeDTO modelMapperToCoffeeDTO() {
+        return modelMapper.map(coffee, CoffeeDTO.class);
+    }
+
+    @Benchmark
+    public CoffeeDetailsDTO modelMapperToCoffeeDetailsDTO() {
+        return modelMapper.map(coffee, CoffeeDetailsDTO.class);
+    }
+
+    @Benchmark
+    public CoffeeDTO mapStructToCoffeeDTO() {
+        return coffeeMapper.toDTO(coffee);
+    }
+
+    @Benchmark
+    public CoffeeDetailsDTO mapStructToCoffeeDetailsDTO() {
+        return coffeeMapper.toDetailsDTO(coffee);
+    }
+}
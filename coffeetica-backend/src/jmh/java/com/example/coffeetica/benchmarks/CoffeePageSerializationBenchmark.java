@@ -0,0 +1,52 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a page of coffees to JSON, as returned by {@code GET /api/coffees}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoffeePageSerializationBenchmark {
+
+    @Param({"9", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<CoffeeDTO> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<CoffeeDTO> coffees = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            CoffeeDTO coffee = CoffeeTestData.createTestCoffeeDTO();
+            coffee.setId((long) i);
+            coffee.setName("Coffee " + i);
+            coffees.add(coffee);
+        }
+        page = new PageImpl<>(coffees, PageRequest.of(0, pageSize), 1_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
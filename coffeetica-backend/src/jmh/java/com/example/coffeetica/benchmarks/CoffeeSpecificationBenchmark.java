@@ -0,0 +1,80 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.specification.CoffeeSpecification;
+import com.example.coffeetica.user.models.RoleEntity;
+import com.example.coffeetica.user.models.UserEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the criteria predicate of a coffee listing with
+ * {@link CoffeeSpecification#filterByAttributes}, without and with every filter set.
+ * <p>
+ * Hibernate is bootstrapped against an in-memory H2 database only to obtain
+ * a {@link CriteriaBuilder}; no query is executed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoffeeSpecificationBenchmark {
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(CoffeeEntity.class)
+                .addAnnotatedClass(RoasteryEntity.class)
+                .addAnnotatedClass(ReviewEntity.class)
+                .addAnnotatedClass(UserEntity.class)
+                .addAnnotatedClass(RoleEntity.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate noFilters() {
+        return toPredicate(CoffeeSpecification.filterByAttributes(
+                null, null, null, null, null, null, null, null, null, null));
+    }
+
+    @Benchmark
+    public Predicate allFilters() {
+        return toPredicate(CoffeeSpecification.filterByAttributes(
+                "brazil", "bra", Region.SOUTH_AMERICA, RoastLevel.MEDIUM, FlavorProfile.NUTTY,
+                Set.of("chocolate", "nuts"), "washed", 2020, 2024, "Best Roastery"));
+    }
+
+    private Predicate toPredicate(Specification<CoffeeEntity> specification) {
+        CriteriaQuery<CoffeeEntity> query = criteriaBuilder.createQuery(CoffeeEntity.class);
+        Root<CoffeeEntity> root = query.from(CoffeeEntity.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
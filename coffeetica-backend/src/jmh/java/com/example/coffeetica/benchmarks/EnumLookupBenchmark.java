@@ -0,0 +1,41 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving enum constants from their display names, as done for every enum
+ * request parameter and JSON property. The last declared constant of each enum is looked
+ * up, written in a different case, which is the worst case of a linear scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumLookupBenchmark {
+
+    private String region = "central america";
+    private String roastLevel = "DARK";
+    private String flavorProfile = "wine";
+
+    @Benchmark
+    public Region region() {
+        return Region.fromDisplayName(region);
+    }
+
+    @Benchmark
+    public RoastLevel roastLevel() {
+        return RoastLevel.fromDisplayName(roastLevel);
+    }
+
+    @Benchmark
+    public FlavorProfile flavorProfile() {
+        return FlavorProfile.fromDisplayName(flavorProfile);
+    }
+}
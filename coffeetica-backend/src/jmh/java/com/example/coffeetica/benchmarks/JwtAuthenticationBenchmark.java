@@ -0,0 +1,72 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.user.security.AuthenticatedUser;
+import com.example.coffeetica.user.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in the {@code JwtAuthenticationFilter},
+ * and the cost of issuing a token at login.
+ * <p>
+ * {@code legacyValidateThenExtract} reproduces the former approach: a new parser built from
+ * the raw secret string for validation, and another one to extract the subject, each verifying
+ * the HS512 signature. The other benchmarks use {@link JwtTokenProvider} with a single
+ * pre-keyed parse, without and with the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    static final String SECRET =
+            "dGhpcy1pcy1hLXZlcnktbG9uZy1zZWNyZXQta2V5LWZvci10ZXN0aW5nLWhzNTEyLXNpZ25hdHVyZXMtb25seS0xMjM0NTY3ODkw";
+    static final long EXPIRATION_MS = 3_600_000;
+
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 0);
+        cachedProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 10_000);
+        user = new AuthenticatedUser(42L, "benchmarkUser", null, Set.of("User"), 0);
+        token = cachedProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedProvider.generateToken(user);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String legacyValidateThenExtract() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        Claims claims = Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> singleParse() {
+        return uncachedProvider.getPrincipalFromJWT(token);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> cachedVerification() {
+        return cachedProvider.getPrincipalFromJWT(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.coffeetica.benchmarks;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.search.SuggestionIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of typeahead lookups in the {@link SuggestionIndex} for a
+ * synthetic catalog of {@code catalogSize} coffees, sampled so that the reported
+ * percentiles can be checked against the 2 ms p99 budget. A one-letter prefix hits
+ * the memoized path, a longer one the scanned path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionIndexBenchmark {
+
+    private static final String[] ORIGINS = {"Ethiopia", "Kenya", "Colombia", "Brazil", "Guatemala", "Rwanda"};
+    private static final String[] NOTES = {"Chocolate", "Caramel", "Blackcurrant", "Jasmine", "Lemon", "Hazelnut"};
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private SuggestionIndex suggestionIndex;
+
+    @Setup
+    public void setUp() {
+        List<RoasteryEntity> roasteries = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            RoasteryEntity roastery = new RoasteryEntity();
+            roastery.setId((long) i);
+            roastery.setName("Roastery " + i);
+            roasteries.add(roastery);
+        }
+
+        List<CoffeeEntity> coffees = new ArrayList<>();
+        for (int i = 1; i <= catalogSize; i++) {
+            CoffeeEntity coffee = new CoffeeEntity();
+            coffee.setId((long) i);
+            coffee.setName(ORIGINS[i % ORIGINS.length] + " Lot " + i);
+            coffee.setFlavorNotes(new HashSet<>(List.of(NOTES[i % NOTES.length], NOTES[(i / 7) % NOTES.length])));
+            coffee.setReviewCount(i % 40);
+            coffee.setRoastery(roasteries.get(i % roasteries.size()));
+            coffees.add(coffee);
+        }
+
+        CoffeeRepository coffeeRepository = Mockito.mock(CoffeeRepository.class);
+        RoasteryRepository roasteryRepository = Mockito.mock(RoasteryRepository.class);
+        Mockito.when(coffeeRepository.findAllWithDetails()).thenReturn(coffees);
+        Mockito.when(roasteryRepository.findAll()).thenReturn(roasteries);
+        suggestionIndex = new SuggestionIndex(coffeeRepository, roasteryRepository);
+        suggestionIndex.rebuild();
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> shortPrefix() {
+        return suggestionIndex.suggest("e", 8);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> longPrefix() {
+        return suggestionIndex.suggest("kenya lot 12", 8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.coffeetica.coffee.cache;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caches the total number of coffees matching a filter, so that flipping through the
+ * pages of the same filtered listing does not re-run the COUNT query on every request.
+ * <p>
+ * Entries expire after a short TTL ({@code app.catalog.count-cache.ttl}), and the whole
+ * cache is cleared once any coffee or roastery write commits.
+ */
+@Component
+public class CoffeeCountCache {
+
+    private final Cache<CoffeeFilterKey, Long> counts;
+
+    /**
+     * Constructs a new {@link CoffeeCountCache}.
+     *
+     * @param ttl how long a cached total stays valid
+     * @param maximumSize the maximum number of cached filter combinations
+     */
+    public CoffeeCountCache(@Value("${app.catalog.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${app.catalog.count-cache.maximum-size:1000}") long maximumSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the cached total for a filter, if present and not expired.
+     *
+     * @param key the normalized filter
+     * @return the total, or empty if not cached
+     */
+    public Optional<Long> get(CoffeeFilterKey key) {
+        return Optional.ofNullable(counts.getIfPresent(key));
+    }
+
+    /**
+     * Caches the total for a filter.
+     *
+     * @param key the normalized filter
+     * @param total the number of matching coffees
+     */
+    public void put(CoffeeFilterKey key, long total) {
+        counts.put(key, total);
+    }
+
+    /**
+     * Drops all cached totals.
+     */
+    public void invalidateAll() {
+        counts.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        invalidateAll();
+    }
+}
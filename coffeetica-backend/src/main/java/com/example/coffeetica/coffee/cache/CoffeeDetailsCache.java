@@ -0,0 +1,83 @@
+package com.example.coffeetica.coffee.cache;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caches coffee details for the views that show a coffee next to other content
+ * (a roastery's featured coffee, a user's favorite coffee), so that opening a profile
+ * does not re-run the details and latest-reviews queries every time.
+ * <p>
+ * An entry is dropped once a change to its coffee or its ratings commits, and the whole
+ * cache once a roastery changes. Edits to the text of a review do not change any rating,
+ * so the latest reviews shown may lag behind those for up to the TTL
+ * ({@code app.catalog.details-cache.ttl}).
+ */
+@Component
+public class CoffeeDetailsCache {
+
+    private final Cache<Long, CoffeeDetailsDTO> details;
+
+    /**
+     * Constructs a new {@link CoffeeDetailsCache}.
+     *
+     * @param ttl how long cached details stay valid
+     * @param maximumSize the maximum number of cached coffees
+     */
+    public CoffeeDetailsCache(@Value("${app.catalog.details-cache.ttl:60s}") Duration ttl,
+                              @Value("${app.catalog.details-cache.maximum-size:1000}") long maximumSize) {
+        this.details = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the cached details of a coffee, loading and caching them if absent.
+     * Coffees that do not exist are not cached.
+     *
+     * @param coffeeId the ID of the coffee
+     * @param loader loads the details on a cache miss
+     * @return the details, or empty if the coffee does not exist
+     */
+    public Optional<CoffeeDetailsDTO> get(Long coffeeId, Function<Long, Optional<CoffeeDetailsDTO>> loader) {
+        return Optional.ofNullable(details.get(coffeeId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Drops all cached details.
+     */
+    public void invalidateAll() {
+        details.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        details.invalidate(event.getCoffeeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(CoffeeRatingChangedEvent event) {
+        if (event.isAll()) {
+            invalidateAll();
+        } else {
+            details.invalidateAll(event.getCoffeeIds());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        invalidateAll();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.coffeetica.coffee.cache;
+
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The normalized tuple of coffee filter criteria, used as a cache key.
+ * <p>
+ * Mirrors how {@code CoffeeSpecification} interprets the criteria: text is lower-cased
+ * (the filters are case-insensitive), blank values are ignored, and flavor notes are
+ * sorted, so equivalent requests share a key regardless of casing or parameter order.
+ */
+public final class CoffeeFilterKey {
+
+    private final String name;
+    private final String countryOfOrigin;
+    private final Region region;
+    private final RoastLevel roastLevel;
+    private final FlavorProfile flavorProfile;
+    private final SortedSet<String> flavorNotes;
+    private final String processingMethod;
+    private final Integer minProductionYear;
+    private final Integer maxProductionYear;
+    private final String roasteryName;
+
+    private CoffeeFilterKey(String name,
+                            String countryOfOrigin,
+                            Region region,
+                            RoastLevel roastLevel,
+                            FlavorProfile flavorProfile,
+                            SortedSet<String> flavorNotes,
+                            String processingMethod,
+                            Integer minProductionYear,
+                            Integer maxProductionYear,
+                            String roasteryName) {
+        this.name = name;
+        this.countryOfOrigin = countryOfOrigin;
+        this.region = region;
+        this.roastLevel = roastLevel;
+        this.flavorProfile = flavorProfile;
+        this.flavorNotes = flavorNotes;
+        this.processingMethod = processingMethod;
+        this.minProductionYear = minProductionYear;
+        this.maxProductionYear = maxProductionYear;
+        this.roasteryName = roasteryName;
+    }
+
+    /**
+     * Builds the normalized key for the given filter criteria.
+     *
+     * @return the key
+     */
+    public static CoffeeFilterKey of(String name,
+                                     String countryOfOrigin,
+                                     Region region,
+                                     RoastLevel roastLevel,
+                                     FlavorProfile flavorProfile,
+                                     Set<String> flavorNotes,
+                                     String processingMethod,
+                                     Integer minProductionYear,
+                                     Integer maxProductionYear,
+                                     String roasteryName) {
+        SortedSet<String> normalizedNotes = null;
+        if (flavorNotes != null && !flavorNotes.isEmpty()) {
+            normalizedNotes = new TreeSet<>();
+            for (String note : flavorNotes) {
+                if (note != null) {
+                    normalizedNotes.add(note.toLowerCase());
+                }
+            }
+        }
+        return new CoffeeFilterKey(
+                normalize(name), normalize(countryOfOrigin), region, roastLevel, flavorProfile,
+                normalizedNotes, normalize(processingMethod), minProductionYear, maxProductionYear,
+                normalize(roasteryName)
+        );
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.toLowerCase();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCountryOfOrigin() {
+        return countryOfOrigin;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public RoastLevel getRoastLevel() {
+        return roastLevel;
+    }
+
+    public FlavorProfile getFlavorProfile() {
+        return flavorProfile;
+    }
+
+    public SortedSet<String> getFlavorNotes() {
+        return flavorNotes;
+    }
+
+    public String getProcessingMethod() {
+        return processingMethod;
+    }
+
+    public Integer getMinProductionYear() {
+        return minProductionYear;
+    }
+
+    public Integer getMaxProductionYear() {
+        return maxProductionYear;
+    }
+
+    public String getRoasteryName() {
+        return roasteryName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CoffeeFilterKey that)) return false;
+        return Objects.equals(name, that.name)
+                && Objects.equals(countryOfOrigin, that.countryOfOrigin)
+                && region == that.region
+                && roastLevel == that.roastLevel
+                && flavorProfile == that.flavorProfile
+                && Objects.equals(flavorNotes, that.flavorNotes)
+                && Objects.equals(processingMethod, that.processingMethod)
+                && Objects.equals(minProductionYear, that.minProductionYear)
+                && Objects.equals(maxProductionYear, that.maxProductionYear)
+                && Objects.equals(roasteryName, that.roasteryName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName);
+    }
+}
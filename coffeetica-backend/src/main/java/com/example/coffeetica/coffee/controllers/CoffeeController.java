@@ -1,17 +1,21 @@
 package com.example.coffeetica.coffee.controllers;
 
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.images.ImageStore.StoredImage;
 import com.example.coffeetica.coffee.models.CoffeeDTO;
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
 import com.example.coffeetica.coffee.models.enums.FlavorProfile;
 import com.example.coffeetica.coffee.models.enums.Region;
 import com.example.coffeetica.coffee.models.enums.RoastLevel;
 import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.utility.CursorPage;
 
 import jakarta.validation.Valid;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,11 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Set;
-import java.util.UUID;
 
 
 /**
@@ -37,21 +37,17 @@ import java.util.UUID;
 public class CoffeeController {
 
     private final CoffeeService coffeeService;
-
-    /**
-     * A file path for uploading coffee images, configured in application.properties,
-     * e.g. app.upload.coffees-path=/uploads/coffees/
-     */
-    @Value("${app.upload.coffees-path}")
-    private String coffeesUploadPath;
+    private final ImageStore imageStore;
 
     /**
      * Constructs a new {@link CoffeeController}.
      *
      * @param coffeeService the coffee service
+     * @param imageStore the content-addressed store of uploaded images
      */
-    public CoffeeController(CoffeeService coffeeService) {
+    public CoffeeController(CoffeeService coffeeService, ImageStore imageStore) {
         this.coffeeService = coffeeService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -71,11 +67,12 @@ public class CoffeeController {
      * @param size page size
      * @param sortBy sort field
      * @param direction sort direction (asc/desc)
-     * @return a page of matching coffees
+     * @param slice if true, returns a slice without total counts (no COUNT query)
+     * @return a page (or slice) of matching coffees
      */
     @GetMapping
     @PreAuthorize("permitAll()")
-    public Page<CoffeeDTO> getCoffees(
+    public Slice<CoffeeDTO> getCoffees(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String countryOfOrigin,
             @RequestParam(required = false) Region region,
@@ -89,13 +86,30 @@ public class CoffeeController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "9") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "false") boolean slice
     ) {
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name())
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
+        if (slice) {
+            return coffeeService.findCoffeesSlice(
+                    name,
+                    countryOfOrigin,
+                    region,
+                    roastLevel,
+                    flavorProfile,
+                    flavorNotes,
+                    processingMethod,
+                    minProductionYear,
+                    maxProductionYear,
+                    roasteryName,
+                    pageable
+            );
+        }
+
         return coffeeService.findCoffees(
                 name,
                 countryOfOrigin,
@@ -111,6 +125,130 @@ public class CoffeeController {
         );
     }
 
+    /**
+     * Retrieves coffees filtered by optional criteria using keyset (cursor) pagination.
+     * Selected instead of {@link #getCoffees} when the {@code limit} parameter is present;
+     * the response carries no total count, so deep pages cost the same as the first one.
+     *
+     * @param name coffee name filter (optional)
+     * @param countryOfOrigin coffee origin country filter (optional)
+     * @param region coffee region (optional)
+     * @param roastLevel coffee roast level (optional)
+     * @param flavorProfile coffee flavor profile (optional)
+     * @param flavorNotes set of flavor notes (optional)
+     * @param processingMethod coffee processing method (optional)
+     * @param minProductionYear min production year (optional)
+     * @param maxProductionYear max production year (optional)
+     * @param roasteryName roastery name filter (optional)
+     * @param cursor the {@code nextCursor} of the previous page (optional, omit for the first page)
+     * @param limit page size (at most {@value CursorPage#MAX_LIMIT})
+     * @param sortBy sort field
+     * @param direction sort direction (asc/desc)
+     * @return the matching coffees and the cursor of the next page
+     */
+    @GetMapping(params = "limit")
+    @PreAuthorize("permitAll()")
+    public CursorPage<CoffeeDTO> getCoffeesByCursor(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String countryOfOrigin,
+            @RequestParam(required = false) Region region,
+            @RequestParam(required = false) RoastLevel roastLevel,
+            @RequestParam(required = false) FlavorProfile flavorProfile,
+            @RequestParam(required = false) Set<String> flavorNotes,
+            @RequestParam(required = false) String processingMethod,
+            @RequestParam(required = false) Integer minProductionYear,
+            @RequestParam(required = false) Integer maxProductionYear,
+            @RequestParam(required = false) String roasteryName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction
+    ) {
+        Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name())
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        return coffeeService.findCoffeesByCursor(
+                name,
+                countryOfOrigin,
+                region,
+                roastLevel,
+                flavorProfile,
+                flavorNotes,
+                processingMethod,
+                minProductionYear,
+                maxProductionYear,
+                roasteryName,
+                cursor,
+                limit,
+                sort
+        );
+    }
+
+    /**
+     * Counts the coffees matching the filter per value of each facet, so that the filter UI
+     * can show how many coffees every option yields. Takes the same filter parameters as
+     * {@link #getCoffees}.
+     *
+     * @param name coffee name filter (optional)
+     * @param countryOfOrigin coffee origin country filter (optional)
+     * @param region coffee region (optional)
+     * @param roastLevel coffee roast level (optional)
+     * @param flavorProfile coffee flavor profile (optional)
+     * @param flavorNotes set of flavor notes (optional)
+     * @param processingMethod coffee processing method (optional)
+     * @param minProductionYear min production year (optional)
+     * @param maxProductionYear max production year (optional)
+     * @param roasteryName roastery name filter (optional)
+     * @return the total number of matches and the counts per facet value
+     */
+    @GetMapping("/facets")
+    @PreAuthorize("permitAll()")
+    public CoffeeFacetsDTO getCoffeeFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String countryOfOrigin,
+            @RequestParam(required = false) Region region,
+            @RequestParam(required = false) RoastLevel roastLevel,
+            @RequestParam(required = false) FlavorProfile flavorProfile,
+            @RequestParam(required = false) Set<String> flavorNotes,
+            @RequestParam(required = false) String processingMethod,
+            @RequestParam(required = false) Integer minProductionYear,
+            @RequestParam(required = false) Integer maxProductionYear,
+            @RequestParam(required = false) String roasteryName
+    ) {
+        return coffeeService.findCoffeeFacets(
+                name,
+                countryOfOrigin,
+                region,
+                roastLevel,
+                flavorProfile,
+                flavorNotes,
+                processingMethod,
+                minProductionYear,
+                maxProductionYear,
+                roasteryName
+        );
+    }
+
+    /**
+     * Searches coffees by free text, ranked by relevance and rating.
+     *
+     * @param q the search text, matched against names, roasteries, origins,
+     *          processing methods and flavor notes
+     * @param page page index
+     * @param size page size
+     * @return a page of matching coffees, best matches first
+     */
+    @GetMapping("/search")
+    @PreAuthorize("permitAll()")
+    public Page<CoffeeDTO> searchCoffees(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "9") int size
+    ) {
+        return coffeeService.searchCoffees(q, PageRequest.of(page, size));
+    }
+
     /**
      * Retrieves detailed information about a specific coffee by its ID.
      *
@@ -175,7 +313,9 @@ public class CoffeeController {
 
     /**
      * Uploads an image file for the specified coffee, updating its image URL.
-     * Validates that the file is non-empty, and only Admin can perform this operation.
+     * The file is streamed into the content-addressed image store, where identical
+     * uploads share one file; empty, oversized and non-image files are rejected
+     * with 400 Bad Request. Only Admin can perform this operation.
      *
      * @param id the coffee ID
      * @param file the multipart file to upload
@@ -185,27 +325,10 @@ public class CoffeeController {
     @PreAuthorize("hasRole('Admin')")
     public ResponseEntity<String> uploadCoffeeImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("No file provided");
-            }
-
-            // Example file size check (e.g., limit to ~5MB)
-            if (file.getSize() > 5_000_000) {
-                return ResponseEntity.badRequest().body("File too large");
-            }
-
-            // Generate a unique file name
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path uploadPath = Paths.get(coffeesUploadPath);
-            Files.createDirectories(uploadPath);
-
-            // Save file to disk
-            Path filePath = uploadPath.resolve(fileName);
-            Files.write(filePath, file.getBytes());
+            StoredImage image = imageStore.store(file);
 
             // Update DB with image URL
-            String imageUrl = "coffees/" + fileName;
-
+            String imageUrl = image.url();
             coffeeService.updateCoffeeImageUrl(id, imageUrl);
 
             return ResponseEntity.ok("File uploaded successfully: " + imageUrl);
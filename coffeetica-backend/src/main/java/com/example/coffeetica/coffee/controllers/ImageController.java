@@ -0,0 +1,40 @@
+package com.example.coffeetica.coffee.controllers;
+
+import com.example.coffeetica.coffee.images.ImageRenditionProcessor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for maintaining the coffee and roastery images.
+ */
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    private final ImageRenditionProcessor imageRenditionProcessor;
+
+    /**
+     * Constructs a new {@link ImageController}.
+     *
+     * @param imageRenditionProcessor the processor generating image renditions
+     */
+    public ImageController(ImageRenditionProcessor imageRenditionProcessor) {
+        this.imageRenditionProcessor = imageRenditionProcessor;
+    }
+
+    /**
+     * Regenerates the renditions of all coffee and roastery images in the background,
+     * e.g. for images uploaded before renditions existed. Only Admin can perform this operation.
+     *
+     * @return 202 Accepted with the number of images queued
+     */
+    @PostMapping("/reprocess")
+    @PreAuthorize("hasRole('Admin')")
+    public ResponseEntity<String> reprocessImages() {
+        int queued = imageRenditionProcessor.reprocessAll();
+        return ResponseEntity.accepted().body("Re-processing " + queued + " images");
+    }
+}
@@ -3,6 +3,7 @@ package com.example.coffeetica.coffee.controllers;
 import com.example.coffeetica.coffee.models.ReviewDTO;
 import com.example.coffeetica.coffee.models.ReviewRequestDTO;
 import com.example.coffeetica.coffee.services.ReviewService;
+import com.example.coffeetica.utility.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -47,6 +48,27 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.findAllReviews(pageable));
     }
 
+    /**
+     * Retrieves all reviews using keyset (cursor) pagination, newest first by default.
+     * Selected instead of {@link #getAllReviews} when the {@code limit} parameter is present.
+     *
+     * @param cursor the {@code nextCursor} of the previous page (optional, omit for the first page)
+     * @param limit page size (at most {@value CursorPage#MAX_LIMIT})
+     * @param sortBy sorting field
+     * @param direction sort direction (asc/desc)
+     * @return the reviews and the cursor of the next page
+     */
+    @GetMapping(value = "/all", params = "limit")
+    @PreAuthorize("permitAll()")
+    public CursorPage<ReviewDTO> getAllReviewsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+
+        return reviewService.findReviewsByCursor(null, null, cursor, limit, toSort(sortBy, direction));
+    }
+
     /**
      * Retrieves reviews filtered by optional coffee or user ID, with pagination and sorting.
      *
@@ -83,6 +105,37 @@ public class ReviewController {
         return Page.empty();
     }
 
+    /**
+     * Retrieves reviews filtered by coffee or user ID using keyset (cursor) pagination.
+     * Selected instead of {@link #getReviews} when the {@code limit} parameter is present.
+     *
+     * @param coffeeId the coffee ID to filter by (optional)
+     * @param userId the user ID to filter by (optional)
+     * @param cursor the {@code nextCursor} of the previous page (optional, omit for the first page)
+     * @param limit page size (at most {@value CursorPage#MAX_LIMIT})
+     * @param sortBy sorting field
+     * @param direction sort direction (asc/desc)
+     * @return the matching reviews and the cursor of the next page
+     */
+    @GetMapping(params = "limit")
+    @PreAuthorize("permitAll()")
+    public CursorPage<ReviewDTO> getReviewsByCursor(
+            @RequestParam(required = false) Long coffeeId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+
+        if (userId != null) {
+            return reviewService.findReviewsByCursor(null, userId, cursor, limit, toSort(sortBy, direction));
+        } else if (coffeeId != null) {
+            return reviewService.findReviewsByCursor(coffeeId, null, cursor, limit, toSort(sortBy, direction));
+        }
+
+        return CursorPage.empty();
+    }
+
     /**
      * Retrieves a single review by its ID.
      *
@@ -162,4 +215,17 @@ public class ReviewController {
         reviewService.deleteReview(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Builds a single-property sort from the request parameters.
+     *
+     * @param sortBy sorting field
+     * @param direction sort direction (asc/desc)
+     * @return the sort
+     */
+    private static Sort toSort(String sortBy, String direction) {
+        return direction.equalsIgnoreCase(Sort.Direction.ASC.name())
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+    }
 }
@@ -1,12 +1,13 @@
 package com.example.coffeetica.coffee.controllers;
 
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.images.ImageStore.StoredImage;
 import com.example.coffeetica.coffee.models.CoffeeDTO;
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
 import com.example.coffeetica.coffee.models.RoasteryDTO;
 import com.example.coffeetica.coffee.services.CoffeeService;
 import com.example.coffeetica.coffee.services.RoasteryService;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,10 +22,6 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Optional;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
 
 
 /**
@@ -37,23 +34,21 @@ public class RoasteryController {
 
     private final RoasteryService roasteryService;
     private final CoffeeService coffeeService;
-
-    /**
-     * A file path for uploading roastery images, configured in application.properties.
-     * For example: app.upload.roasteries-path=/uploads/roasteries/
-     */
-    @Value("${app.upload.roasteries-path}")
-    private String roasteriesUploadPath;
+    private final ImageStore imageStore;
 
     /**
      * Constructs a new {@link RoasteryController}.
      *
      * @param roasteryService the roastery service
      * @param coffeeService the coffee service
+     * @param imageStore the content-addressed store of uploaded images
      */
-    public RoasteryController(RoasteryService roasteryService, CoffeeService coffeeService) {
+    public RoasteryController(RoasteryService roasteryService,
+                              CoffeeService coffeeService,
+                              ImageStore imageStore) {
         this.roasteryService = roasteryService;
         this.coffeeService = coffeeService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -205,7 +200,9 @@ public class RoasteryController {
 
     /**
      * Uploads an image file for the specified roastery and updates its image URL.
-     * Validates file non-emptiness and checks size as a basic example.
+     * The file is streamed into the content-addressed image store, where identical
+     * uploads share one file; empty, oversized and non-image files are rejected
+     * with 400 Bad Request.
      *
      * @param id the roastery ID
      * @param file the multipart file to upload
@@ -216,26 +213,10 @@ public class RoasteryController {
     public ResponseEntity<String> uploadRoasteryImage(@PathVariable Long id,
                                                       @RequestParam("file") MultipartFile file) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("No file provided");
-            }
-            // Example file size check (e.g., limit to ~5MB)
-            if (file.getSize() > 5_000_000) {
-                return ResponseEntity.badRequest().body("File too large");
-            }
-
-            // Generate a unique file name
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path uploadPath = Paths.get(roasteriesUploadPath); // read from @Value property
-            Files.createDirectories(uploadPath);
-
-            // Save file to disk
-            Path filePath = uploadPath.resolve(fileName);
-            Files.write(filePath, file.getBytes());
+            StoredImage image = imageStore.store(file);
 
             // Update database with image URL
-            String imageUrl = "roasteries/" + fileName;
-
+            String imageUrl = image.url();
             roasteryService.updateRoasteryImageUrl(id, imageUrl);
 
             return ResponseEntity.ok("File uploaded successfully: " + imageUrl);
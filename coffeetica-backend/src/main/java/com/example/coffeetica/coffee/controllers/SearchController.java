@@ -0,0 +1,46 @@
+package com.example.coffeetica.coffee.controllers;
+
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.services.SearchService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for catalog-wide search helpers.
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Constructs a new {@link SearchController}.
+     *
+     * @param searchService the search service
+     */
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Suggests coffee names, roastery names and flavor notes while the user types.
+     *
+     * @param q the typed text; completions match its start or the start of any word
+     * @param limit the maximum number of suggestions (at most 20)
+     * @return the suggestions, most popular first
+     */
+    @GetMapping("/suggest")
+    @PreAuthorize("permitAll()")
+    public List<SuggestionDTO> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return searchService.suggest(q, limit);
+    }
+}
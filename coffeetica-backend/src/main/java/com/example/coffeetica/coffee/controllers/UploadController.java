@@ -0,0 +1,169 @@
+package com.example.coffeetica.coffee.controllers;
+
+import com.example.coffeetica.coffee.images.ImageFile;
+import com.example.coffeetica.coffee.images.ImageFiles;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the uploaded coffee and roastery images under {@code /uploads/**}.
+ * <p>
+ * Headers are answered from the file's metadata alone: the content length, a strong
+ * entity tag derived from the content hash, and {@code Cache-Control: immutable} for
+ * content-addressed URLs (legacy URLs are revalidated instead). Conditional requests
+ * ({@code If-None-Match}) and single byte ranges ({@code Range}, {@code If-Range}) are
+ * honoured. On Tomcat the bytes are handed to the connector's sendfile support, so they
+ * go from the page cache to the socket without being copied through the JVM heap;
+ * other containers fall back to a channel transfer.
+ */
+@Controller
+public class UploadController {
+
+    private static final String PATH_PREFIX = "/uploads/";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final ImageFiles imageFiles;
+
+    /**
+     * Constructs a new {@link UploadController}.
+     *
+     * @param imageFiles the lookup of uploaded image files
+     */
+    public UploadController(ImageFiles imageFiles) {
+        this.imageFiles = imageFiles;
+    }
+
+    /**
+     * Serves an uploaded image, or a byte range of it.
+     *
+     * @param request the request, whose path names the image relative to the uploads root
+     * @param response the response the image is written to
+     * @throws IOException if the image cannot be read or sent
+     */
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @PreAuthorize("permitAll()")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String url = URL_PATH_HELPER.getPathWithinApplication(request).substring(PATH_PREFIX.length());
+        Optional<ImageFile> found = imageFiles.find(url);
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ImageFile file = found.get();
+
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = file.length() - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(file.etag()))) {
+            Optional<HttpRange> requested = parseSingleRange(range);
+            if (requested.isPresent()) {
+                start = requested.get().getRangeStart(file.length());
+                end = requested.get().getRangeEnd(file.length());
+                if (start >= file.length() || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + end + "/" + file.length());
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(file.mediaType());
+        response.setContentLengthLong(count);
+        if (RequestMethod.HEAD.name().equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response.getOutputStream());
+    }
+
+    /**
+     * Parses a {@code Range} header; multiple ranges and malformed headers are ignored,
+     * which serves the whole image.
+     */
+    private static Optional<HttpRange> parseSingleRange(String header) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? Optional.of(ranges.get(0)) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against an entity tag, comparing weakly
+     * as the header requires.
+     */
+    private static boolean matchesAny(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void transfer(ImageFile file, long start, long count, OutputStream output) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.coffeetica.coffee.events;
+
+/**
+ * Published when a coffee is created, updated or deleted, so that derived
+ * read-side structures (caches, indexes) can refresh themselves.
+ */
+public class CoffeeChangedEvent {
+
+    private final Long coffeeId;
+    private final boolean deleted;
+
+    public CoffeeChangedEvent(Long coffeeId, boolean deleted) {
+        this.coffeeId = coffeeId;
+        this.deleted = deleted;
+    }
+
+    public Long getCoffeeId() {
+        return coffeeId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
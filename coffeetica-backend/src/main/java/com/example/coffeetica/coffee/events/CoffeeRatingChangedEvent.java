@@ -0,0 +1,36 @@
+package com.example.coffeetica.coffee.events;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when the rating aggregates of coffees change, i.e. when reviews are
+ * written or the aggregates are recomputed, so that rating-aware read-side
+ * structures (such as the search ranking) can refresh themselves.
+ */
+public class CoffeeRatingChangedEvent {
+
+    private final Set<Long> coffeeIds;
+
+    /**
+     * @param coffeeIds the IDs of the affected coffees, or {@code null} if any coffee may be affected
+     */
+    public CoffeeRatingChangedEvent(Collection<Long> coffeeIds) {
+        this.coffeeIds = coffeeIds != null ? Set.copyOf(coffeeIds) : null;
+    }
+
+    /**
+     * @return an event for a change that may have affected any coffee
+     */
+    public static CoffeeRatingChangedEvent ofAll() {
+        return new CoffeeRatingChangedEvent(null);
+    }
+
+    public Set<Long> getCoffeeIds() {
+        return coffeeIds;
+    }
+
+    public boolean isAll() {
+        return coffeeIds == null;
+    }
+}
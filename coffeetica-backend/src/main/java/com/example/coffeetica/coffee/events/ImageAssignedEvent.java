@@ -0,0 +1,38 @@
+package com.example.coffeetica.coffee.events;
+
+/**
+ * Published when a coffee or roastery is given a new image, so that the renditions
+ * of the image can be generated once the change is committed.
+ */
+public class ImageAssignedEvent {
+
+    /**
+     * The kind of catalog entry showing the image.
+     */
+    public enum Owner {
+        COFFEE,
+        ROASTERY
+    }
+
+    private final Owner owner;
+    private final Long ownerId;
+    private final String imageUrl;
+
+    public ImageAssignedEvent(Owner owner, Long ownerId, String imageUrl) {
+        this.owner = owner;
+        this.ownerId = ownerId;
+        this.imageUrl = imageUrl;
+    }
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+}
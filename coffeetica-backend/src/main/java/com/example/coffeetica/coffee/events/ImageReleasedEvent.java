@@ -0,0 +1,18 @@
+package com.example.coffeetica.coffee.events;
+
+/**
+ * Published when the last reference to an image is released. Its files are deleted
+ * only once the release commits; a rolled-back release keeps them.
+ */
+public class ImageReleasedEvent {
+
+    private final String imageUrl;
+
+    public ImageReleasedEvent(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.coffeetica.coffee.events;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when a roastery is created, updated or deleted. Deleting a roastery
+ * also removes its coffees, and renaming it changes how its coffees are filtered.
+ */
+public class RoasteryChangedEvent {
+
+    private final Long roasteryId;
+    private final boolean deleted;
+    private final Set<Long> deletedCoffeeIds;
+
+    public RoasteryChangedEvent(Long roasteryId, boolean deleted) {
+        this(roasteryId, deleted, Set.of());
+    }
+
+    /**
+     * @param deletedCoffeeIds the IDs of the coffees deleted together with the roastery
+     */
+    public RoasteryChangedEvent(Long roasteryId, boolean deleted, Collection<Long> deletedCoffeeIds) {
+        this.roasteryId = roasteryId;
+        this.deleted = deleted;
+        this.deletedCoffeeIds = Set.copyOf(deletedCoffeeIds);
+    }
+
+    public Long getRoasteryId() {
+        return roasteryId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Set<Long> getDeletedCoffeeIds() {
+        return deletedCoffeeIds;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.coffeetica.coffee.featured;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the featured coffee stored on each roastery current, so that serving it is
+ * a keyed lookup instead of aggregating all reviews of the roastery per request.
+ * <p>
+ * Changes are applied before the publishing transaction commits, so a review and the
+ * featured coffee it affects become visible together; only the roasteries of the
+ * changed coffees are re-evaluated, from the coffees' denormalized rating aggregates.
+ * The affected roasteries are locked first, so that concurrent reviews of coffees of the
+ * same roastery re-select its featured coffee one after the other, each seeing the
+ * aggregates the previous one committed. All roasteries are re-evaluated at startup,
+ * which also applies a changed threshold, and by the rating reconciliation.
+ */
+@Component
+public class FeaturedCoffeeUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeaturedCoffeeUpdater.class);
+
+    private final RoasteryRepository roasteryRepository;
+    private final int minReviews;
+
+    /**
+     * Constructs a new {@link FeaturedCoffeeUpdater}.
+     *
+     * @param roasteryRepository the repository storing the featured coffees
+     * @param minReviews the minimum number of reviews a coffee needs to be featured
+     */
+    public FeaturedCoffeeUpdater(RoasteryRepository roasteryRepository,
+                                 @Value("${app.roastery.featured-coffee.min-reviews:3}") int minReviews) {
+        this.roasteryRepository = roasteryRepository;
+        this.minReviews = Math.max(1, minReviews);
+    }
+
+    /**
+     * Selects the featured coffee of every roastery.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshAll() {
+        int updated = roasteryRepository.refreshAllFeaturedCoffees(minReviews);
+        logger.info("Selected featured coffees of {} roasteries", updated);
+    }
+
+    /**
+     * Re-selects the featured coffee of the roasteries whose coffees were rated.
+     *
+     * @param event the rating change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRatingChanged(CoffeeRatingChangedEvent event) {
+        if (event.isAll()) {
+            roasteryRepository.lockAllRoasteries();
+            roasteryRepository.refreshAllFeaturedCoffees(minReviews);
+        } else if (!event.getCoffeeIds().isEmpty()) {
+            refresh(event.getCoffeeIds());
+        }
+    }
+
+    /**
+     * Re-selects the featured coffee of the roasteries a coffee was added to,
+     * moved between or deleted from.
+     *
+     * @param event the coffee change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        refresh(List.of(event.getCoffeeId()));
+    }
+
+    private void refresh(Collection<Long> coffeeIds) {
+        roasteryRepository.lockFeaturedCoffeeRoasteries(coffeeIds);
+        roasteryRepository.refreshFeaturedCoffees(coffeeIds, minReviews);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.coffeetica.coffee.images;
+
+import java.nio.file.Path;
+
+/**
+ * An image file ready to be served, with the headers known before reading its content.
+ *
+ * @param path the file on disk
+ * @param mediaType the content type of the image
+ * @param length the size of the file in bytes
+ * @param etag the strong entity tag, quoted, derived from the content hash
+ * @param immutable whether the URL is content-addressed and its content never changes
+ */
+public record ImageFile(Path path, String mediaType, long length, String etag, boolean immutable) {
+}
@@ -0,0 +1,64 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageReleasedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes the files of released images in the background.
+ * <p>
+ * Deletions run only after the release has committed, so a rolled-back delete or image
+ * change keeps its files, and on a single background thread, so requests never wait on
+ * the filesystem. Deletions lost on shutdown or failure are caught up by the
+ * {@link com.example.coffeetica.coffee.jobs.OrphanedImageSweeper}.
+ */
+@Component
+public class ImageFileCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageFileCleaner.class);
+
+    private final ImageStore imageStore;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@link ImageFileCleaner}.
+     *
+     * @param imageStore the store deleting the files
+     */
+    public ImageFileCleaner(ImageStore imageStore) {
+        this.imageStore = imageStore;
+        this.executor = Executors.newSingleThreadExecutor(ImageRenditionProcessor.daemonThreads("image-cleanup-"));
+    }
+
+    /**
+     * Schedules the deletion of a released image once the release is committed.
+     *
+     * @param event the release of the image
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageReleased(ImageReleasedEvent event) {
+        executor.execute(() -> delete(event.getImageUrl()));
+    }
+
+    private void delete(String imageUrl) {
+        try {
+            imageStore.deleteReleased(imageUrl);
+        } catch (Exception e) {
+            logger.warn("Failed to delete released image {}", imageUrl, e);
+        }
+    }
+
+    /**
+     * Stops the background thread; pending deletions are left to the sweeper.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.exceptions.InvalidImageException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Looks up uploaded images for serving.
+ * <p>
+ * Content-addressed images and their renditions carry their hash in the file name, which
+ * becomes their entity tag as is. Legacy images ({@code coffees/...}, {@code roasteries/...})
+ * are hashed once and the tag is cached for as long as the file keeps its size and
+ * modification time. Only files with an image extension are served, so temporary files
+ * of uploads and renditions in progress stay hidden.
+ */
+@Component
+public class ImageFiles {
+
+    private static final Pattern HASHED_URL =
+            Pattern.compile("images/[0-9a-f]{2}/([0-9a-f]{64}(?:-[a-z]+)?)\\.[a-z]+");
+
+    private final ImageStore imageStore;
+    private final Cache<String, LegacyTag> legacyTags;
+
+    /**
+     * The entity tag of a legacy image, valid while the file is unchanged.
+     */
+    private record LegacyTag(long length, FileTime lastModified, String etag) {
+    }
+
+    /**
+     * Constructs a new {@link ImageFiles}.
+     *
+     * @param imageStore the store resolving image URLs to files
+     * @param maximumSize the maximum number of cached legacy entity tags
+     */
+    public ImageFiles(ImageStore imageStore,
+                      @Value("${app.images.serving.etag-cache.maximum-size:10000}") long maximumSize) {
+        this.imageStore = imageStore;
+        this.legacyTags = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Finds the image file behind a URL.
+     *
+     * @param url the image URL relative to the uploads root
+     * @return the file, or empty if there is no such image
+     * @throws IOException if the file cannot be read
+     */
+    public Optional<ImageFile> find(String url) throws IOException {
+        Optional<ImageType> type = ImageStore.typeOf(url);
+        if (type.isEmpty()) {
+            return Optional.empty();
+        }
+        Path path;
+        BasicFileAttributes attributes;
+        try {
+            path = imageStore.resolve(url);
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (InvalidImageException | NoSuchFileException e) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        String mediaType = type.get().getMediaType();
+        Matcher hashed = HASHED_URL.matcher(url);
+        if (hashed.matches()) {
+            return Optional.of(new ImageFile(path, mediaType, attributes.size(), quote(hashed.group(1)), true));
+        }
+        String etag = legacyTag(url, path, attributes);
+        return Optional.of(new ImageFile(path, mediaType, attributes.size(), etag, false));
+    }
+
+    private String legacyTag(String url, Path path, BasicFileAttributes attributes) throws IOException {
+        LegacyTag cached = legacyTags.getIfPresent(url);
+        if (cached != null && cached.length() == attributes.size()
+                && cached.lastModified().equals(attributes.lastModifiedTime())) {
+            return cached.etag();
+        }
+        String etag = quote(ImageStore.hashFile(path));
+        legacyTags.put(url, new LegacyTag(attributes.size(), attributes.lastModifiedTime(), etag));
+        return etag;
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
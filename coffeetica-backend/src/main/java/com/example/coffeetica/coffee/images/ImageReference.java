@@ -0,0 +1,10 @@
+package com.example.coffeetica.coffee.images;
+
+/**
+ * A coffee or roastery together with the URL of its image.
+ *
+ * @param id the ID of the coffee or roastery
+ * @param imageUrl the URL of its image
+ */
+public record ImageReference(Long id, String imageUrl) {
+}
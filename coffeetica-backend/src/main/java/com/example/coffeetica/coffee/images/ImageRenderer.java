@@ -0,0 +1,297 @@
+package com.example.coffeetica.coffee.images;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Generates the {@link ImageRendition renditions} and the inline placeholder of an image.
+ * <p>
+ * Sources are decoded with subsampling, so even a large upload is read at roughly twice
+ * the biggest rendition. They are turned upright according to their EXIF orientation,
+ * flattened onto white and re-encoded as plain JPEGs without any metadata, which drops
+ * EXIF data such as camera details and GPS positions. Renditions are written to a
+ * temporary file and renamed into place, so readers never see a partial file.
+ * <p>
+ * Formats without an ImageIO decoder (WebP) are left without renditions.
+ */
+@Component
+public class ImageRenderer {
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    /**
+     * The longest edge of the placeholder, which the browser blurs while upscaling.
+     */
+    private static final int PLACEHOLDER_SIZE = 16;
+    private static final float PLACEHOLDER_QUALITY = 0.5f;
+    private static final String PLACEHOLDER_PREFIX = "data:image/jpeg;base64,";
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final ImageStore imageStore;
+
+    /**
+     * Constructs a new {@link ImageRenderer}.
+     *
+     * @param imageStore the store resolving images and their renditions to files
+     */
+    public ImageRenderer(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    /**
+     * Generates the renditions of an image. Renditions that already exist, e.g. for
+     * an image shared with another coffee, are reused unless {@code overwrite} is set.
+     *
+     * @param imageUrl the URL of the source image
+     * @param overwrite whether to regenerate existing renditions
+     * @return the renditions, or empty if the image format cannot be decoded
+     * @throws IOException if the source cannot be read or a rendition cannot be written
+     */
+    public Optional<ImageRenditions> render(String imageUrl, boolean overwrite) throws IOException {
+        Path source = imageStore.resolve(imageUrl);
+        String sha256 = ImageStore.sha256Of(imageUrl).orElse(null);
+        if (sha256 == null) {
+            // Legacy images are not named after their content
+            sha256 = ImageStore.hashFile(source);
+        }
+
+        Map<ImageRendition, Path> targets = new EnumMap<>(ImageRendition.class);
+        for (ImageRendition rendition : ImageRendition.values()) {
+            targets.put(rendition, imageStore.resolve(rendition.urlFor(sha256)));
+        }
+
+        BufferedImage smallest;
+        if (!overwrite && targets.values().stream().allMatch(Files::isRegularFile)) {
+            smallest = ImageIO.read(targets.get(ImageRendition.THUMBNAIL).toFile());
+        } else {
+            Optional<BufferedImage> decoded = decode(source);
+            if (decoded.isEmpty()) {
+                return Optional.empty();
+            }
+            BufferedImage image = decoded.get();
+            smallest = image;
+            // From the largest rendition down, each one scaled from the previous
+            ImageRendition[] renditions = ImageRendition.values();
+            for (int i = renditions.length - 1; i >= 0; i--) {
+                smallest = scale(smallest, renditions[i].getMaxSize());
+                writeAtomically(smallest, targets.get(renditions[i]));
+            }
+        }
+        if (smallest == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ImageRenditions(
+                ImageRendition.THUMBNAIL.urlFor(sha256),
+                ImageRendition.CARD.urlFor(sha256),
+                ImageRendition.FULL.urlFor(sha256),
+                placeholder(smallest)));
+    }
+
+    /**
+     * Decodes an image upright and without transparency, subsampled to at least twice
+     * the size of the largest rendition.
+     */
+    static Optional<BufferedImage> decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longest / (2 * ImageRendition.FULL.getMaxSize()));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return Optional.of(flatten(image, readOrientation(source)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Draws an image onto an opaque white canvas, applying an EXIF orientation.
+     */
+    static BufferedImage flatten(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // Maps source to target coordinates for each of the eight EXIF orientations
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> new AffineTransform();
+        };
+        boolean rotated = orientation >= 5 && orientation <= 8;
+
+        BufferedImage flat = new BufferedImage(rotated ? h : w, rotated ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = flat.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, flat.getWidth(), flat.getHeight());
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return flat;
+    }
+
+    /**
+     * Scales an image so that its longest edge is at most {@code maxSize}, halving it
+     * repeatedly with bilinear filtering, which keeps large reductions from aliasing.
+     */
+    static BufferedImage scale(BufferedImage image, int maxSize) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= maxSize) {
+            return image;
+        }
+        double ratio = (double) maxSize / longest;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage current = image;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static String placeholder(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeJpeg(scale(image, PLACEHOLDER_SIZE), bytes, PLACEHOLDER_QUALITY);
+        return PLACEHOLDER_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private static void writeAtomically(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), ".rendition-", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                writeJpeg(image, output, JPEG_QUALITY);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Encodes an image as a baseline JPEG. No metadata is passed to the writer,
+     * so the output carries nothing but the JFIF header and the pixels.
+     */
+    private static void writeJpeg(BufferedImage image, OutputStream output, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation of a JPEG from its APP1 segment.
+     *
+     * @return the orientation (1 to 8), 1 if the file has none or is not a JPEG
+     */
+    static int readOrientation(Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = input.readUnsignedShort();
+                // Metadata precedes the start of scan
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = input.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    input.skipNBytes(length);
+                    continue;
+                }
+                int orientation = exifOrientation(input.readNBytes(length));
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * @return the orientation stored in an APP1 segment, 1 if absent, 0 if it is not EXIF (e.g. XMP)
+     */
+    private static int exifOrientation(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i'
+                || segment[3] != 'f' || segment[4] != 0 || segment[5] != 0) {
+            return 0;
+        }
+        // TIFF structure: byte order ("II" or "MM"), magic 42, offset of the first IFD
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+}
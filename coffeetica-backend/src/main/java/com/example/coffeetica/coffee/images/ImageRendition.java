@@ -0,0 +1,55 @@
+package com.example.coffeetica.coffee.images;
+
+/**
+ * The downscaled JPEG copies generated for every coffee and roastery image.
+ * <p>
+ * Renditions live in the image store next to their source and are named after the
+ * source's hash, {@code images/ab/<sha256>-<suffix>.jpg}, so an image shared by several
+ * coffees is rendered once and its renditions are deleted together with it.
+ */
+public enum ImageRendition {
+
+    /**
+     * Small previews, e.g. in search suggestions and admin tables.
+     */
+    THUMBNAIL("thumb", 200),
+
+    /**
+     * Catalog list cards.
+     */
+    CARD("card", 600),
+
+    /**
+     * Detail pages.
+     */
+    FULL("full", 1600);
+
+    private final String suffix;
+    private final int maxSize;
+
+    ImageRendition(String suffix, int maxSize) {
+        this.suffix = suffix;
+        this.maxSize = maxSize;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return the longest edge of the rendition in pixels; smaller sources are not upscaled
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Builds the URL of this rendition of an image.
+     *
+     * @param sha256 the hash of the source image
+     * @return the URL relative to the uploads root
+     */
+    public String urlFor(String sha256) {
+        return ImageStore.URL_PREFIX + sha256.substring(0, 2) + "/" + sha256 + "-" + suffix + ".jpg";
+    }
+}
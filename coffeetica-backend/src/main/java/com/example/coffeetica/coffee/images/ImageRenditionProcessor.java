@@ -0,0 +1,183 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageAssignedEvent;
+import com.example.coffeetica.coffee.events.ImageAssignedEvent.Owner;
+import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.coffee.services.RoasteryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates image renditions in the background, off the upload request.
+ * <p>
+ * Newly assigned images are queued once their assignment is committed and rendered on a
+ * fixed pool of {@code app.images.renditions.threads} workers. At most
+ * {@code app.images.renditions.queue-capacity} images wait at a time: when the queue is
+ * full a new image is skipped (it keeps being served in its original size) rather than
+ * holding up the request, and {@link #reprocessAll()} catches up on it later. The results
+ * are stored on the coffee or roastery only if it still shows the same image.
+ */
+@Component
+public class ImageRenditionProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionProcessor.class);
+
+    private final ImageRenderer imageRenderer;
+    private final CoffeeService coffeeService;
+    private final RoasteryService roasteryService;
+
+    private final ExecutorService workers;
+    private final ExecutorService bulkFeeder;
+
+    /**
+     * Permits for the new images waiting or being rendered, bounding the queue of the workers.
+     */
+    private final Semaphore capacity;
+
+    /**
+     * Permits for the re-processed images in flight, one per worker, so that a bulk run
+     * never fills the queue ahead of new uploads.
+     */
+    private final Semaphore bulkCapacity;
+
+    /**
+     * Constructs a new {@link ImageRenditionProcessor}.
+     *
+     * @param imageRenderer the renderer generating the renditions
+     * @param coffeeService the service storing the renditions of coffee images
+     * @param roasteryService the service storing the renditions of roastery images
+     * @param threads the number of worker threads
+     * @param queueCapacity the most images waiting for a worker
+     */
+    public ImageRenditionProcessor(ImageRenderer imageRenderer,
+                                   CoffeeService coffeeService,
+                                   RoasteryService roasteryService,
+                                   @Value("${app.images.renditions.threads:2}") int threads,
+                                   @Value("${app.images.renditions.queue-capacity:100}") int queueCapacity) {
+        this.imageRenderer = imageRenderer;
+        this.coffeeService = coffeeService;
+        this.roasteryService = roasteryService;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("image-renditions-"));
+        this.bulkFeeder = Executors.newSingleThreadExecutor(daemonThreads("image-reprocess-"));
+        this.capacity = new Semaphore(threads + queueCapacity);
+        this.bulkCapacity = new Semaphore(threads);
+    }
+
+    /**
+     * Queues a newly assigned image once the assignment is committed.
+     *
+     * @param event the image assignment
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageAssigned(ImageAssignedEvent event) {
+        submit(event.getOwner(), event.getOwnerId(), event.getImageUrl());
+    }
+
+    /**
+     * Queues an image for rendering, unless the queue is full.
+     *
+     * @param owner the kind of catalog entry showing the image
+     * @param ownerId the ID of the coffee or roastery
+     * @param imageUrl the URL of the image
+     * @return whether the image was queued
+     */
+    public boolean submit(Owner owner, Long ownerId, String imageUrl) {
+        if (!capacity.tryAcquire()) {
+            logger.warn("Rendition queue is full, skipping {} of {} {}", imageUrl, owner, ownerId);
+            return false;
+        }
+        workers.execute(() -> process(owner, ownerId, imageUrl, false, capacity));
+        return true;
+    }
+
+    /**
+     * Regenerates the renditions of every coffee and roastery image in the background,
+     * e.g. for images uploaded before renditions existed. Images are fed to the workers
+     * one per worker at a time, so new uploads keep their place in the queue.
+     *
+     * @return the number of images queued for re-processing
+     */
+    public int reprocessAll() {
+        List<ImageReference> coffees = coffeeService.findCoffeeImageReferences();
+        List<ImageReference> roasteries = roasteryService.findRoasteryImageReferences();
+        bulkFeeder.execute(() -> {
+            try {
+                for (ImageReference coffee : coffees) {
+                    feed(Owner.COFFEE, coffee);
+                }
+                for (ImageReference roastery : roasteries) {
+                    feed(Owner.ROASTERY, roastery);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        int total = coffees.size() + roasteries.size();
+        logger.info("Re-processing {} images", total);
+        return total;
+    }
+
+    private void feed(Owner owner, ImageReference reference) throws InterruptedException {
+        bulkCapacity.acquire();
+        workers.execute(() -> process(owner, reference.id(), reference.imageUrl(), true, bulkCapacity));
+    }
+
+    private void process(Owner owner, Long ownerId, String imageUrl, boolean overwrite, Semaphore permits) {
+        try {
+            Optional<ImageRenditions> renditions = imageRenderer.render(imageUrl, overwrite);
+            if (renditions.isEmpty()) {
+                logger.info("No renditions for {}: the format cannot be decoded", imageUrl);
+                return;
+            }
+            if (owner == Owner.COFFEE) {
+                coffeeService.updateCoffeeImageRenditions(ownerId, imageUrl, renditions.get());
+            } else {
+                roasteryService.updateRoasteryImageRenditions(ownerId, imageUrl, renditions.get());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to render {} of {} {}", imageUrl, owner, ownerId, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Stops the workers; images still queued are picked up by the next re-processing.
+     */
+    @PreDestroy
+    public void shutdown() {
+        bulkFeeder.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Creates daemon threads named with a prefix and a counter.
+     *
+     * @param prefix the prefix of the thread names
+     * @return the thread factory
+     */
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.coffeetica.coffee.images;
+
+/**
+ * The renditions generated for an image.
+ *
+ * @param thumbnailUrl the URL of the {@link ImageRendition#THUMBNAIL} rendition
+ * @param cardUrl the URL of the {@link ImageRendition#CARD} rendition
+ * @param fullUrl the URL of the {@link ImageRendition#FULL} rendition
+ * @param placeholder a {@code data:} URI of a tiny, blurry preview shown while the image loads
+ */
+public record ImageRenditions(String thumbnailUrl, String cardUrl, String fullUrl, String placeholder) {
+}
@@ -0,0 +1,339 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageReleasedEvent;
+import com.example.coffeetica.coffee.images.ImageUploadReceiver.ReceivedImage;
+import com.example.coffeetica.coffee.models.ImageBlobEntity;
+import com.example.coffeetica.coffee.repositories.ImageBlobRepository;
+import com.example.coffeetica.exceptions.InvalidImageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The content-addressed store of coffee and roastery images.
+ * <p>
+ * Images are stored once per content under {@code app.upload.images-path}, named after
+ * their SHA-256, and referenced by URLs of the form {@code images/ab/<sha256>.<ext>}.
+ * Such a URL never changes its content, so it can be cached forever. Each blob counts the
+ * coffees and roasteries referencing it; the services call {@link #reference(String)} and
+ * {@link #release(String)} in the transaction that changes an image URL. Releasing the last
+ * reference publishes an {@link ImageReleasedEvent}, and the files are deleted in the
+ * background once that transaction commits (see {@link ImageFileCleaner}).
+ * <p>
+ * Images uploaded before the store existed ({@code coffees/...}, {@code roasteries/...})
+ * are not shared and are deleted from their legacy directories when released.
+ */
+@Component
+public class ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    /**
+     * The prefix of the URLs of content-addressed images.
+     */
+    public static final String URL_PREFIX = "images/";
+
+    private static final String COFFEES_PREFIX = "coffees/";
+    private static final String ROASTERIES_PREFIX = "roasteries/";
+
+    private static final Pattern BLOB_URL = Pattern.compile("images/[0-9a-f]{2}/([0-9a-f]{64})\\.([a-z]+)");
+    private static final Pattern BLOB_FILE_URL = Pattern.compile("images/[0-9a-f]{2}/([0-9a-f]{64})(?:-[a-z]+)?\\.[a-z]+");
+
+    private final ImageUploadReceiver imageUploadReceiver;
+    private final ImageBlobRepository imageBlobRepository;
+    private final Path imagesPath;
+    private final Path coffeesPath;
+    private final Path roasteriesPath;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * An image in the store.
+     *
+     * @param url the URL of the image relative to the uploads root
+     * @param sha256 the hex-encoded SHA-256 of the content
+     * @param type the format of the image
+     * @param size the size in bytes
+     */
+    public record StoredImage(String url, String sha256, ImageType type, long size) {
+    }
+
+    /**
+     * Constructs a new {@link ImageStore}.
+     *
+     * @param imageUploadReceiver the receiver streaming uploads to disk
+     * @param imageBlobRepository the repository of blobs and their reference counts
+     * @param imagesPath the directory of the content-addressed images
+     * @param coffeesPath the legacy directory of coffee images
+     * @param roasteriesPath the legacy directory of roastery images
+     * @param eventPublisher the publisher for image release events
+     */
+    public ImageStore(ImageUploadReceiver imageUploadReceiver,
+                      ImageBlobRepository imageBlobRepository,
+                      @Value("${app.upload.images-path:/uploads/images/}") String imagesPath,
+                      @Value("${app.upload.coffees-path}") String coffeesPath,
+                      @Value("${app.upload.roasteries-path}") String roasteriesPath,
+                      ApplicationEventPublisher eventPublisher) {
+        this.imageUploadReceiver = imageUploadReceiver;
+        this.imageBlobRepository = imageBlobRepository;
+        this.imagesPath = Paths.get(imagesPath).toAbsolutePath().normalize();
+        this.coffeesPath = Paths.get(coffeesPath).toAbsolutePath().normalize();
+        this.roasteriesPath = Paths.get(roasteriesPath).toAbsolutePath().normalize();
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Streams an uploaded image into the store. The image is not referenced yet:
+     * pass its URL to {@link #reference(String)} when assigning it.
+     *
+     * @param file the uploaded file
+     * @return the stored image
+     * @throws InvalidImageException if the file is empty, too large or not a supported image
+     * @throws IOException if the file cannot be read or written
+     */
+    public StoredImage store(MultipartFile file) throws IOException {
+        ReceivedImage received = imageUploadReceiver.receive(file, imagesPath);
+        return new StoredImage(URL_PREFIX + received.fileName(), received.sha256(), received.type(), received.size());
+    }
+
+    /**
+     * Extracts the content hash from the URL of a content-addressed image.
+     *
+     * @param url an image URL, may be null
+     * @return the SHA-256, or empty for legacy or foreign URLs
+     */
+    public static Optional<String> sha256Of(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = BLOB_URL.matcher(url);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    /**
+     * Extracts the content hash from the URL of a content-addressed image or of one
+     * of its renditions.
+     *
+     * @param url a file URL
+     * @return the SHA-256 of the image the file belongs to, or empty for other files
+     */
+    public static Optional<String> blobSha256Of(String url) {
+        Matcher matcher = BLOB_FILE_URL.matcher(url);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    /**
+     * Resolves an image URL, content-addressed or legacy, to its file.
+     *
+     * @param url an image URL relative to the uploads root
+     * @return the file of the image
+     * @throws InvalidImageException if the URL lies outside the upload directories
+     */
+    public Path resolve(String url) {
+        String prefix = url == null ? null : Stream.of(URL_PREFIX, COFFEES_PREFIX, ROASTERIES_PREFIX)
+                .filter(url::startsWith)
+                .findFirst()
+                .orElse(null);
+        if (prefix == null) {
+            throw new InvalidImageException("Not an uploaded image: " + url);
+        }
+        Path directory = directoryOf(prefix);
+        Path file = directory.resolve(url.substring(prefix.length())).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new InvalidImageException("Not an uploaded image: " + url);
+        }
+        return file;
+    }
+
+    private Path directoryOf(String prefix) {
+        return switch (prefix) {
+            case URL_PREFIX -> imagesPath;
+            case COFFEES_PREFIX -> coffeesPath;
+            default -> roasteriesPath;
+        };
+    }
+
+    /**
+     * Records a new reference to an image, registering its blob on first use.
+     * URLs outside the store are ignored.
+     *
+     * @param url the URL being assigned, may be null
+     * @throws InvalidImageException if the URL names a content-addressed image that does not exist
+     */
+    @Transactional
+    public void reference(String url) {
+        Optional<String> sha256 = sha256Of(url);
+        if (sha256.isEmpty() || imageBlobRepository.adjustReferenceCount(sha256.get(), 1) > 0) {
+            return;
+        }
+        Path file = resolve(url);
+        ImageType type = typeOf(url).orElse(null);
+        if (type == null || !Files.isRegularFile(file)) {
+            throw new InvalidImageException("Image not found: " + url);
+        }
+        ImageBlobEntity blob = new ImageBlobEntity();
+        blob.setSha256(sha256.get());
+        blob.setPath(url);
+        blob.setMediaType(type.getMediaType());
+        blob.setSizeBytes(sizeOf(file));
+        blob.setReferenceCount(1);
+        if (!imageBlobRepository.insertIfAbsent(blob)) {
+            // A concurrent first reference registered the blob in the meantime
+            imageBlobRepository.adjustReferenceCount(sha256.get(), 1);
+        }
+    }
+
+    /**
+     * Drops a reference to an image. Once nothing references it, the image is scheduled
+     * for deletion together with its renditions, after the transaction commits.
+     *
+     * @param url the URL no longer assigned, may be null
+     */
+    @Transactional
+    public void release(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        Optional<String> sha256 = sha256Of(url);
+        if (sha256.isPresent()) {
+            imageBlobRepository.adjustReferenceCount(sha256.get(), -1);
+            if (imageBlobRepository.deleteIfUnreferenced(sha256.get()) > 0) {
+                eventPublisher.publishEvent(new ImageReleasedEvent(url));
+            }
+        } else if (url.startsWith(COFFEES_PREFIX) || url.startsWith(ROASTERIES_PREFIX)) {
+            eventPublisher.publishEvent(new ImageReleasedEvent(url));
+        }
+    }
+
+    /**
+     * Deletes the files of a released image, together with its renditions. A
+     * content-addressed image uploaded and referenced again since its release is kept.
+     *
+     * @param url the URL of the released image
+     */
+    public void deleteReleased(String url) {
+        Optional<String> sha256 = sha256Of(url);
+        if (sha256.isEmpty()) {
+            deleteFile(resolve(url));
+            return;
+        }
+        if (imageBlobRepository.existsById(sha256.get())) {
+            logger.info("Keeping {}, it was referenced again since its release", url);
+            return;
+        }
+        deleteFile(resolve(url));
+        for (ImageRendition rendition : ImageRendition.values()) {
+            deleteFile(resolve(rendition.urlFor(sha256.get())));
+        }
+    }
+
+    /**
+     * Lists the files in the upload directories, content-addressed and legacy, including
+     * renditions and temporary files. The stream must be closed.
+     *
+     * @return the URLs of the files relative to the uploads root
+     * @throws IOException if a directory cannot be read
+     */
+    public Stream<String> listFiles() throws IOException {
+        Stream<String> urls = Stream.empty();
+        for (String prefix : List.of(URL_PREFIX, COFFEES_PREFIX, ROASTERIES_PREFIX)) {
+            Path directory = directoryOf(prefix);
+            if (Files.isDirectory(directory)) {
+                Stream<String> files = Files.walk(directory)
+                        .filter(Files::isRegularFile)
+                        .map(file -> prefix + directory.relativize(file).toString().replace('\\', '/'));
+                urls = Stream.concat(urls, files);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Picks the registered blobs out of a batch of hashes.
+     *
+     * @param sha256s the hashes to look up
+     * @return the hashes that have a blob
+     */
+    @Transactional(readOnly = true)
+    public Set<String> findStored(Collection<String> sha256s) {
+        return sha256s.isEmpty() ? Set.of() : new HashSet<>(imageBlobRepository.findExistingSha256In(sha256s));
+    }
+
+    /**
+     * Deletes a file that nothing references.
+     *
+     * @param url the URL of the file
+     */
+    public void deleteOrphan(String url) {
+        deleteFile(resolve(url));
+    }
+
+    /**
+     * Determines the format of an image from the extension of its URL.
+     *
+     * @param url an image URL
+     * @return the format, or empty if the URL does not end in an image extension
+     */
+    static Optional<ImageType> typeOf(String url) {
+        return ImageType.fromExtension(url.substring(url.lastIndexOf('.') + 1));
+    }
+
+    /**
+     * Computes the SHA-256 of a file, e.g. of a legacy image not named after its content.
+     *
+     * @param file the file to hash
+     * @return the hex-encoded SHA-256
+     * @throws IOException if the file cannot be read
+     */
+    static String hashFile(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+                input.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new InvalidImageException("Image not readable: " + file.getFileName());
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            if (Files.deleteIfExists(file)) {
+                logger.info("Deleted unreferenced image file {}", file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete unreferenced image file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.coffeetica.coffee.images;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The image formats accepted for coffee and roastery images, recognized by their
+ * leading magic bytes rather than by the client-supplied content type or file name.
+ */
+public enum ImageType {
+
+    JPEG("jpg", "image/jpeg"),
+    PNG("png", "image/png"),
+    GIF("gif", "image/gif"),
+    WEBP("webp", "image/webp");
+
+    /**
+     * The number of leading bytes needed to recognize every supported format.
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_MAGIC = {'G', 'I', 'F', '8', '7', 'a'};
+    private static final byte[] GIF89_MAGIC = {'G', 'I', 'F', '8', '9', 'a'};
+    private static final byte[] RIFF_MAGIC = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP_MAGIC = {'W', 'E', 'B', 'P'};
+
+    private final String extension;
+    private final String mediaType;
+
+    ImageType(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Looks up the format stored under a file extension. Legacy uploads keep the
+     * extension of the client's file name, so any case and {@code jpeg} are accepted.
+     *
+     * @param extension the extension without the dot, e.g. {@code jpg}
+     * @return the format, or empty if the extension is not one of an image
+     */
+    public static Optional<ImageType> fromExtension(String extension) {
+        if (extension.equalsIgnoreCase("jpeg")) {
+            return Optional.of(JPEG);
+        }
+        return Arrays.stream(values())
+                .filter(type -> type.extension.equalsIgnoreCase(extension))
+                .findFirst();
+    }
+
+    /**
+     * Recognizes the format of an image from its first bytes.
+     *
+     * @param header up to {@link #HEADER_LENGTH} leading bytes of the file
+     * @return the format, or empty if the bytes do not start a supported image
+     */
+    public static Optional<ImageType> detect(byte[] header) {
+        if (startsWith(header, 0, JPEG_MAGIC)) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, 0, PNG_MAGIC)) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, 0, GIF87_MAGIC) || startsWith(header, 0, GIF89_MAGIC)) {
+            return Optional.of(GIF);
+        }
+        // RIFF container: "RIFF", 4-byte length, "WEBP"
+        if (startsWith(header, 0, RIFF_MAGIC) && startsWith(header, 8, WEBP_MAGIC)) {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int offset, byte[] magic) {
+        return header.length >= offset + magic.length
+                && Arrays.equals(header, offset, offset + magic.length, magic, 0, magic.length);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.exceptions.InvalidImageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Writes uploaded images to disk without buffering them on the heap.
+ * <p>
+ * Multipart parts are spooled to disk by the servlet container; the receiver streams
+ * such a part into a temporary file next to its destination through a {@link FileChannel},
+ * recognizing the format from the leading bytes and computing the SHA-256 of the content
+ * on the way. The size limit ({@code app.upload.max-image-size}) is enforced while copying,
+ * so an oversized upload is abandoned as soon as it crosses the limit.
+ * <p>
+ * A complete file is atomically renamed to a name derived from its hash,
+ * {@code <first two hex digits>/<sha256>.<extension>}, so identical uploads share one
+ * file and a name always denotes the same content. Readers never see a partial image.
+ */
+@Component
+public class ImageUploadReceiver {
+
+    /**
+     * The most bytes copied per {@link FileChannel#transferFrom} call.
+     */
+    private static final long TRANSFER_CHUNK = 64 * 1024;
+
+    private final long maxImageBytes;
+
+    /**
+     * An image written to its destination.
+     *
+     * @param fileName the path of the file relative to the destination directory
+     * @param type the format recognized from the content
+     * @param sha256 the hex-encoded SHA-256 of the content
+     * @param size the size in bytes
+     */
+    public record ReceivedImage(String fileName, ImageType type, String sha256, long size) {
+    }
+
+    /**
+     * Constructs a new {@link ImageUploadReceiver}.
+     *
+     * @param maxImageSize the largest accepted image
+     */
+    public ImageUploadReceiver(@Value("${app.upload.max-image-size:5MB}") DataSize maxImageSize) {
+        this.maxImageBytes = maxImageSize.toBytes();
+    }
+
+    /**
+     * Streams an uploaded image into the content-addressed file for its hash in the
+     * given directory. An existing file of the same content is replaced by the new copy.
+     *
+     * @param file the uploaded file
+     * @param directory the destination directory, created if missing
+     * @return the stored image
+     * @throws InvalidImageException if the file is empty, too large or not a supported image
+     * @throws IOException if the file cannot be read or written
+     */
+    public ReceivedImage receive(MultipartFile file, Path directory) throws IOException {
+        if (file.isEmpty()) {
+            throw new InvalidImageException("No file provided");
+        }
+        // The declared size is checked up front; the limit is enforced again while copying
+        if (file.getSize() > maxImageBytes) {
+            throw tooLarge();
+        }
+
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            ImageType type;
+            long size;
+            try (InputStream input = file.getInputStream();
+                 FileChannel output = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                byte[] header = input.readNBytes(ImageType.HEADER_LENGTH);
+                type = ImageType.detect(header)
+                        .orElseThrow(() -> new InvalidImageException("Unsupported image format"));
+                digest.update(header);
+                output.write(ByteBuffer.wrap(header));
+                size = header.length;
+
+                ReadableByteChannel source = Channels.newChannel(new DigestInputStream(input, digest));
+                long transferred;
+                // Asks for at most one byte past the limit, so an oversized upload stops there
+                while ((transferred = output.transferFrom(source, size,
+                        Math.min(TRANSFER_CHUNK, maxImageBytes + 1 - size))) > 0) {
+                    size += transferred;
+                    if (size > maxImageBytes) {
+                        throw tooLarge();
+                    }
+                }
+                output.force(true);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String fileName = sha256.substring(0, 2) + "/" + sha256 + "." + type.getExtension();
+            Path target = directory.resolve(fileName);
+            Files.createDirectories(target.getParent());
+            // rename(2) replaces an existing file of the same content atomically
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            return new ReceivedImage(fileName, type, sha256, size);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private InvalidImageException tooLarge() {
+        return new InvalidImageException("File too large, the limit is " + maxImageBytes + " bytes");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.coffeetica.coffee.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Applies the catalog changes recorded for an in-memory index on a single background
+ * thread, coalescing the changes that arrive while a refresh is pending into one run.
+ * <p>
+ * Change listeners record the affected coffees and roasteries, which costs the
+ * committing request thread a set insert and a flag check. The refresh then receives
+ * everything recorded so far in its own read-only transaction, so a burst of writes
+ * rebuilds the index once rather than once per write.
+ * <p>
+ * Changes are recorded from the start, but applied only once the index has been loaded
+ * and calls {@link #start()}, so that writes committing during the initial load are not
+ * lost. A failed refresh puts its changes back and is retried after a delay.
+ */
+public final class BackgroundRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundRefresher.class);
+
+    /**
+     * The changes handed to a refresh.
+     *
+     * @param coffeeIds the coffees changed, added or deleted
+     * @param roasteryIds the roasteries changed or deleted
+     * @param all whether any coffee may have changed, e.g. after a rating reconciliation
+     */
+    public record Changes(Set<Long> coffeeIds, Set<Long> roasteryIds, boolean all) {
+
+        boolean isEmpty() {
+            return coffeeIds.isEmpty() && roasteryIds.isEmpty() && !all;
+        }
+    }
+
+    private final Executor executor;
+    private final Executor retryExecutor;
+    private final TransactionOperations transactions;
+    private final Consumer<Changes> refresh;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Set<Long> pendingCoffeeIds = new HashSet<>();
+    private final Set<Long> pendingRoasteryIds = new HashSet<>();
+    private boolean pendingAll;
+    private boolean started;
+
+    /**
+     * Constructs a refresher running on its own daemon thread.
+     *
+     * @param threadName the name of the background thread
+     * @param transactionManager the transaction manager for the read-only refresh transactions
+     * @param retryDelay how long to wait before retrying a failed refresh
+     * @param refresh the refresh, applying the given changes
+     */
+    public BackgroundRefresher(String threadName, PlatformTransactionManager transactionManager,
+                               Duration retryDelay, Consumer<Changes> refresh) {
+        ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = service;
+        this.retryExecutor = task -> service.schedule(task, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        this.transactions = readOnlyTransactions(transactionManager);
+        this.refresh = refresh;
+    }
+
+    /**
+     * Constructs a refresher on the given executor, e.g. a direct one in tests.
+     * Failed refreshes are retried on the same executor, without delay.
+     *
+     * @param executor the executor running the refresh; it must run one refresh at a time
+     * @param transactions the transactions the refresh runs in
+     * @param refresh the refresh, applying the given changes
+     */
+    public BackgroundRefresher(Executor executor, TransactionOperations transactions, Consumer<Changes> refresh) {
+        this.executor = executor;
+        this.retryExecutor = executor;
+        this.transactions = transactions;
+        this.refresh = refresh;
+    }
+
+    private static TransactionOperations readOnlyTransactions(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * Records changed, added or deleted coffees.
+     *
+     * @param coffeeIds the IDs of the coffees
+     */
+    public void coffeesChanged(Collection<Long> coffeeIds) {
+        synchronized (this) {
+            pendingCoffeeIds.addAll(coffeeIds);
+        }
+        request();
+    }
+
+    /**
+     * Records a changed or deleted roastery.
+     *
+     * @param roasteryId the ID of the roastery
+     */
+    public void roasteryChanged(Long roasteryId) {
+        synchronized (this) {
+            pendingRoasteryIds.add(roasteryId);
+        }
+        request();
+    }
+
+    /**
+     * Records a change that may have affected any coffee.
+     */
+    public void allChanged() {
+        synchronized (this) {
+            pendingAll = true;
+        }
+        request();
+    }
+
+    /**
+     * Starts applying changes, including those recorded while the index was loading.
+     * Called once the index is loaded; later calls have no effect.
+     */
+    public void start() {
+        synchronized (this) {
+            started = true;
+        }
+        request();
+    }
+
+    private void request() {
+        synchronized (this) {
+            if (!started || (pendingCoffeeIds.isEmpty() && pendingRoasteryIds.isEmpty() && !pendingAll)) {
+                return;
+            }
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::run);
+        }
+    }
+
+    private synchronized Changes drain() {
+        Changes changes = new Changes(Set.copyOf(pendingCoffeeIds), Set.copyOf(pendingRoasteryIds), pendingAll);
+        pendingCoffeeIds.clear();
+        pendingRoasteryIds.clear();
+        pendingAll = false;
+        return changes;
+    }
+
+    private synchronized void restore(Changes changes) {
+        pendingCoffeeIds.addAll(changes.coffeeIds());
+        pendingRoasteryIds.addAll(changes.roasteryIds());
+        pendingAll |= changes.all();
+    }
+
+    private void run() {
+        // Cleared first, so that changes recorded during the refresh schedule another one
+        scheduled.set(false);
+        Changes changes = drain();
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            transactions.executeWithoutResult(status -> refresh.accept(changes));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh the index, retrying", e);
+            restore(changes);
+            retryExecutor.execute(this::request);
+        }
+    }
+
+    /**
+     * Stops the background thread; the next startup reloads the index in full.
+     */
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+}
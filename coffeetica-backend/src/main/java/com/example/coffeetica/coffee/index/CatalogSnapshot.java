@@ -0,0 +1,281 @@
+package com.example.coffeetica.coffee.index;
+
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.models.FacetCountDTO;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable, point-in-time view of the catalog: the coffees ordered by ID, and one
+ * bitmap per attribute value marking the positions of the coffees that have it.
+ * <p>
+ * Filters are answered by intersecting bitmaps. Text filters keep the "contains"
+ * semantics of {@code CoffeeSpecification} by OR-ing the bitmaps of all dictionary
+ * values that contain the search term; the dictionaries hold distinct values only,
+ * so they stay small compared to the catalog.
+ */
+final class CatalogSnapshot {
+
+    /**
+     * Sort properties the snapshot can order by, mapped to their comparators.
+     * Ties are broken by ID so that pages are stable.
+     */
+    private static final Map<String, Comparator<IndexedCoffee>> SORTABLE = Map.of(
+            "name", Comparator.comparing(IndexedCoffee::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                    .thenComparing(IndexedCoffee::getId),
+            "productionYear", Comparator.comparing((IndexedCoffee coffee) -> coffee.getDto().getProductionYear(),
+                            Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+                    .thenComparing(IndexedCoffee::getId)
+    );
+
+    private static final BitSet NONE = new BitSet();
+
+    private final IndexedCoffee[] coffees;
+    private final Map<Region, BitSet> regions = new EnumMap<>(Region.class);
+    private final Map<RoastLevel, BitSet> roastLevels = new EnumMap<>(RoastLevel.class);
+    private final Map<FlavorProfile, BitSet> flavorProfiles = new EnumMap<>(FlavorProfile.class);
+    private final Map<String, BitSet> countries = new HashMap<>();
+    private final Map<String, BitSet> processingMethods = new HashMap<>();
+    private final Map<String, BitSet> roasteries = new HashMap<>();
+    private final Map<String, BitSet> flavorNotes = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> productionYears = new TreeMap<>();
+    /**
+     * The first-seen spelling of each lower-cased dictionary value, used as facet label.
+     */
+    private final Map<String, String> labels = new HashMap<>();
+    private final Map<String, int[]> sortOrders = new HashMap<>();
+
+    /**
+     * Builds the bitmaps and sort orders for the given coffees.
+     *
+     * @param coffees the coffees, ordered by ID
+     */
+    CatalogSnapshot(List<IndexedCoffee> coffees) {
+        this.coffees = coffees.toArray(IndexedCoffee[]::new);
+
+        for (int position = 0; position < this.coffees.length; position++) {
+            IndexedCoffee coffee = this.coffees[position];
+            CoffeeDTO dto = coffee.getDto();
+            mark(regions, dto.getRegion(), position);
+            mark(roastLevels, dto.getRoastLevel(), position);
+            mark(flavorProfiles, dto.getFlavorProfile(), position);
+            mark(countries, coffee.getCountryOfOrigin(), position);
+            mark(processingMethods, coffee.getProcessingMethod(), position);
+            mark(roasteries, coffee.getRoasteryName(), position);
+            mark(productionYears, dto.getProductionYear(), position);
+            if (dto.getFlavorNotes() != null) {
+                for (String note : dto.getFlavorNotes()) {
+                    mark(flavorNotes, note.toLowerCase(), position);
+                    labels.putIfAbsent(note.toLowerCase(), note);
+                }
+            }
+            label(coffee.getProcessingMethod(), dto.getProcessingMethod());
+            label(coffee.getRoasteryName(), dto.getRoastery() != null ? dto.getRoastery().getName() : null);
+        }
+
+        SORTABLE.forEach((property, comparator) -> sortOrders.put(property, IntStream.range(0, this.coffees.length)
+                .boxed()
+                .sorted(Comparator.comparing(position -> this.coffees[position], comparator))
+                .mapToInt(Integer::intValue)
+                .toArray()));
+    }
+
+    private static <K> void mark(Map<K, BitSet> bitmaps, K value, int position) {
+        if (value != null) {
+            bitmaps.computeIfAbsent(value, key -> new BitSet()).set(position);
+        }
+    }
+
+    private void label(String key, String label) {
+        if (key != null) {
+            labels.putIfAbsent(key, label);
+        }
+    }
+
+    /**
+     * @return the indexed coffees, ordered by ID
+     */
+    List<IndexedCoffee> coffees() {
+        return List.of(coffees);
+    }
+
+    /**
+     * Checks whether the snapshot can order its results by the given property.
+     *
+     * @param property the sort property
+     * @return true for {@code id} and the properties with a precomputed order
+     */
+    static boolean isSortable(String property) {
+        return "id".equals(property) || SORTABLE.containsKey(property);
+    }
+
+    /**
+     * Computes the positions of all coffees matching the filter.
+     *
+     * @param filter the normalized filter criteria
+     * @return a new bitmap of the matching positions
+     */
+    BitSet match(CoffeeFilterKey filter) {
+        BitSet result = new BitSet(coffees.length);
+        result.set(0, coffees.length);
+
+        if (filter.getRegion() != null) {
+            result.and(regions.getOrDefault(filter.getRegion(), NONE));
+        }
+        if (filter.getRoastLevel() != null) {
+            result.and(roastLevels.getOrDefault(filter.getRoastLevel(), NONE));
+        }
+        if (filter.getFlavorProfile() != null) {
+            result.and(flavorProfiles.getOrDefault(filter.getFlavorProfile(), NONE));
+        }
+        if (filter.getRoasteryName() != null) {
+            result.and(roasteries.getOrDefault(filter.getRoasteryName(), NONE));
+        }
+        if (filter.getCountryOfOrigin() != null) {
+            result.and(union(countries, value -> value.contains(filter.getCountryOfOrigin())));
+        }
+        if (filter.getProcessingMethod() != null) {
+            result.and(union(processingMethods, value -> value.contains(filter.getProcessingMethod())));
+        }
+        if (filter.getFlavorNotes() != null) {
+            // Like the specification, a coffee matches if any of its notes contains any requested note
+            Set<String> requested = filter.getFlavorNotes();
+            result.and(union(flavorNotes, value -> requested.stream().anyMatch(value::contains)));
+        }
+        if (filter.getMinProductionYear() != null || filter.getMaxProductionYear() != null) {
+            result.and(union(yearRange(filter.getMinProductionYear(), filter.getMaxProductionYear()).values()));
+        }
+        if (filter.getName() != null) {
+            // Names are nearly unique, so they are matched per candidate instead of through a dictionary
+            for (int position = result.nextSetBit(0); position >= 0; position = result.nextSetBit(position + 1)) {
+                if (!coffees[position].getName().contains(filter.getName())) {
+                    result.clear(position);
+                }
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<Integer, BitSet> yearRange(Integer min, Integer max) {
+        NavigableMap<Integer, BitSet> years = productionYears;
+        if (min != null) {
+            years = years.tailMap(min, true);
+        }
+        if (max != null) {
+            years = years.headMap(max, true);
+        }
+        return years;
+    }
+
+    private static BitSet union(Map<String, BitSet> dictionary, Predicate<String> valueFilter) {
+        List<BitSet> matching = new ArrayList<>();
+        dictionary.forEach((value, bitmap) -> {
+            if (valueFilter.test(value)) {
+                matching.add(bitmap);
+            }
+        });
+        return union(matching);
+    }
+
+    private static BitSet union(Collection<BitSet> bitmaps) {
+        BitSet result = new BitSet();
+        for (BitSet bitmap : bitmaps) {
+            result.or(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the matching coffees per value of every facet by intersecting each value's
+     * bitmap with the matches.
+     *
+     * @param matches the positions of the matching coffees
+     * @return the facet counts
+     */
+    CoffeeFacetsDTO facets(BitSet matches) {
+        CoffeeFacetsDTO facets = new CoffeeFacetsDTO();
+        facets.setTotal(matches.cardinality());
+        facets.setRegions(FacetCountDTO.forEnum(Region.values(),
+                count(regions, matches, new EnumMap<>(Region.class)), Region::getDisplayName));
+        facets.setRoastLevels(FacetCountDTO.forEnum(RoastLevel.values(),
+                count(roastLevels, matches, new EnumMap<>(RoastLevel.class)), RoastLevel::getDisplayName));
+        facets.setFlavorProfiles(FacetCountDTO.forEnum(FlavorProfile.values(),
+                count(flavorProfiles, matches, new EnumMap<>(FlavorProfile.class)), FlavorProfile::getDisplayName));
+        facets.setFlavorNotes(FacetCountDTO.byCount(labelled(count(flavorNotes, matches, new HashMap<>()))));
+        facets.setProcessingMethods(FacetCountDTO.byCount(labelled(count(processingMethods, matches, new HashMap<>()))));
+        facets.setRoasteries(FacetCountDTO.byCount(labelled(count(roasteries, matches, new HashMap<>()))));
+        facets.setProductionYears(FacetCountDTO.inKeyOrder(count(productionYears, matches, new TreeMap<>())));
+        return facets;
+    }
+
+    private static <K, M extends Map<K, Long>> M count(Map<K, BitSet> bitmaps, BitSet matches, M counts) {
+        bitmaps.forEach((value, bitmap) -> {
+            BitSet intersection = (BitSet) bitmap.clone();
+            intersection.and(matches);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                counts.put(value, (long) count);
+            }
+        });
+        return counts;
+    }
+
+    private Map<String, Long> labelled(Map<String, Long> counts) {
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((key, count) -> result.put(labels.getOrDefault(key, key), count));
+        return result;
+    }
+
+    /**
+     * Returns a window of the matching coffees in the requested order.
+     *
+     * @param matches the positions of the matching coffees
+     * @param property the sort property, one of the {@link #isSortable sortable} ones
+     * @param descending whether to reverse the order
+     * @param offset the number of matching coffees to skip
+     * @param limit the maximum number of coffees to return
+     * @return the coffee DTOs of the window
+     */
+    List<CoffeeDTO> page(BitSet matches, String property, boolean descending, long offset, int limit) {
+        List<CoffeeDTO> content = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        long skipped = 0;
+
+        if ("id".equals(property)) {
+            // Positions are already ordered by ID: walk the bitmap itself
+            int position = descending ? matches.previousSetBit(coffees.length - 1) : matches.nextSetBit(0);
+            while (position >= 0 && content.size() < limit) {
+                if (skipped++ >= offset) {
+                    content.add(coffees[position].getDto());
+                }
+                position = descending ? matches.previousSetBit(position - 1) : matches.nextSetBit(position + 1);
+            }
+            return content;
+        }
+
+        int[] order = sortOrders.get(property);
+        for (int i = 0; i < order.length && content.size() < limit; i++) {
+            int position = order[descending ? order.length - 1 - i : i];
+            if (matches.get(position) && skipped++ >= offset) {
+                content.add(coffees[position].getDto());
+            }
+        }
+        return content;
+    }
+}
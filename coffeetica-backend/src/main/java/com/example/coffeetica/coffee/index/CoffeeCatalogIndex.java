@@ -0,0 +1,231 @@
+package com.example.coffeetica.coffee.index;
+
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.index.BackgroundRefresher.Changes;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.mappers.CoffeeMapper;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * An in-memory index of the whole coffee catalog that answers filtered listings
+ * and facet counts without touching the database.
+ * <p>
+ * The index is loaded once the application is ready and kept current through the
+ * catalog change events: a changed coffee is reloaded on its own, a changed roastery
+ * (renamed, or deleted with its coffees) reloads the whole catalog. The events only
+ * record what changed; a {@link BackgroundRefresher} applies everything recorded so far,
+ * including changes committed while the index was loading, and builds one new
+ * {@link CatalogSnapshot} that replaces the previous one atomically, so writes never pay
+ * for the rebuild and readers never block or see a half-applied update. Listings may lag
+ * a committed change until the refresh has run.
+ * <p>
+ * Queries return empty while the index is disabled ({@code app.catalog.index.enabled})
+ * or not yet loaded, or when the requested sort order is not indexed; callers then
+ * fall back to the database.
+ */
+@Component
+public class CoffeeCatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoffeeCatalogIndex.class);
+
+    private final CoffeeRepository coffeeRepository;
+    private final CoffeeMapper coffeeMapper;
+    private final boolean enabled;
+
+    private volatile CatalogSnapshot snapshot;
+
+    private final BackgroundRefresher refresher;
+
+    /**
+     * Constructs a new {@link CoffeeCatalogIndex}.
+     *
+     * @param coffeeRepository the repository the catalog is loaded from
+     * @param coffeeMapper the mapper producing the served DTOs
+     * @param enabled whether listings are served from the index
+     * @param transactionManager the transaction manager for the background refreshes
+     * @param retryDelay how long to wait before retrying a failed refresh
+     */
+    @Autowired
+    public CoffeeCatalogIndex(CoffeeRepository coffeeRepository,
+                              CoffeeMapper coffeeMapper,
+                              @Value("${app.catalog.index.enabled:true}") boolean enabled,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.catalog.index.refresh-retry-delay:5s}") Duration retryDelay) {
+        this.coffeeRepository = coffeeRepository;
+        this.coffeeMapper = coffeeMapper;
+        this.enabled = enabled;
+        this.refresher = new BackgroundRefresher("catalog-index-refresh", transactionManager, retryDelay,
+                this::refresh);
+    }
+
+    /**
+     * Constructs a {@link CoffeeCatalogIndex} refreshing on the given executor, without transactions.
+     */
+    CoffeeCatalogIndex(CoffeeRepository coffeeRepository, CoffeeMapper coffeeMapper, boolean enabled,
+                       Executor executor) {
+        this.coffeeRepository = coffeeRepository;
+        this.coffeeMapper = coffeeMapper;
+        this.enabled = enabled;
+        this.refresher = new BackgroundRefresher(executor, TransactionOperations.withoutTransaction(), this::refresh);
+    }
+
+    /**
+     * Finds a page of coffees matching the filter, including the total number of matches.
+     *
+     * @param filter the normalized filter criteria
+     * @param pageable pagination and sorting info
+     * @return the page, or empty if the index cannot answer the query
+     */
+    public Optional<Page<CoffeeDTO>> findPage(CoffeeFilterKey filter, Pageable pageable) {
+        return query(filter, pageable).map(result ->
+                new PageImpl<>(result.content(), pageable, result.total()));
+    }
+
+    /**
+     * Finds a slice of coffees matching the filter.
+     *
+     * @param filter the normalized filter criteria
+     * @param pageable pagination and sorting info
+     * @return the slice, or empty if the index cannot answer the query
+     */
+    public Optional<Slice<CoffeeDTO>> findSlice(CoffeeFilterKey filter, Pageable pageable) {
+        return query(filter, pageable).map(result -> new SliceImpl<>(result.content(), pageable,
+                pageable.isPaged() && pageable.getOffset() + result.content().size() < result.total()));
+    }
+
+    /**
+     * Counts the coffees matching the filter per value of every facet.
+     *
+     * @param filter the normalized filter criteria
+     * @return the facet counts, or empty if the index is not loaded
+     */
+    public Optional<CoffeeFacetsDTO> findFacets(CoffeeFilterKey filter) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.facets(current.match(filter)));
+    }
+
+    private Optional<QueryResult> query(CoffeeFilterKey filter, Pageable pageable) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() > 1 || (orders.size() == 1 && !CatalogSnapshot.isSortable(orders.get(0).getProperty()))) {
+            return Optional.empty();
+        }
+        String property = orders.isEmpty() ? "id" : orders.get(0).getProperty();
+        boolean descending = !orders.isEmpty() && orders.get(0).isDescending();
+
+        BitSet matches = current.match(filter);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        return Optional.of(new QueryResult(
+                current.page(matches, property, descending, offset, limit),
+                matches.cardinality()));
+    }
+
+    private record QueryResult(List<CoffeeDTO> content, long total) {
+    }
+
+    /**
+     * Loads the whole catalog into a new snapshot, then starts applying the changes
+     * recorded meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<IndexedCoffee> coffees = coffeeRepository.findAllWithDetails().stream()
+                .map(coffee -> new IndexedCoffee(coffeeMapper.toDTO(coffee)))
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+        snapshot = new CatalogSnapshot(coffees);
+        logger.info("Catalog index loaded with {} coffees", coffees.size());
+        refresher.start();
+    }
+
+    /**
+     * Records a committed coffee change, to be reloaded in the background.
+     *
+     * @param event the coffee change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        if (enabled) {
+            refresher.coffeesChanged(List.of(event.getCoffeeId()));
+        }
+    }
+
+    /**
+     * Records a committed roastery change, which reloads the whole catalog in the background.
+     *
+     * @param event the roastery change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        if (enabled) {
+            refresher.allChanged();
+        }
+    }
+
+    /**
+     * Applies the recorded changes and publishes one new snapshot.
+     * Runs on the refresher's thread, in its read-only transaction.
+     */
+    private synchronized void refresh(Changes changes) {
+        if (changes.all()) {
+            rebuild();
+            return;
+        }
+        TreeMap<Long, IndexedCoffee> coffees = new TreeMap<>();
+        snapshot.coffees().forEach(coffee -> coffees.put(coffee.getId(), coffee));
+        // Coffees not found any more were deleted
+        coffees.keySet().removeAll(changes.coffeeIds());
+        coffeeRepository.findAllWithDetailsByIdIn(changes.coffeeIds()).forEach(coffee ->
+                coffees.put(coffee.getId(), new IndexedCoffee(coffeeMapper.toDTO(coffee))));
+
+        snapshot = new CatalogSnapshot(List.copyOf(coffees.values()));
+    }
+
+    /**
+     * Stops the background refreshes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdown();
+    }
+}
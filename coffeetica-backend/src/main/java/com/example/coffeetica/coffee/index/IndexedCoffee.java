@@ -0,0 +1,52 @@
+package com.example.coffeetica.coffee.index;
+
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+
+/**
+ * A coffee as held by the catalog index: the DTO served to clients, plus the
+ * lower-cased text attributes the filters match against.
+ */
+final class IndexedCoffee {
+
+    private final CoffeeDTO dto;
+    private final String name;
+    private final String countryOfOrigin;
+    private final String processingMethod;
+    private final String roasteryName;
+
+    IndexedCoffee(CoffeeDTO dto) {
+        this.dto = dto;
+        this.name = lowerCase(dto.getName());
+        this.countryOfOrigin = lowerCase(dto.getCountryOfOrigin());
+        this.processingMethod = lowerCase(dto.getProcessingMethod());
+        this.roasteryName = dto.getRoastery() != null ? lowerCase(dto.getRoastery().getName()) : null;
+    }
+
+    private static String lowerCase(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+
+    CoffeeDTO getDto() {
+        return dto;
+    }
+
+    Long getId() {
+        return dto.getId();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getCountryOfOrigin() {
+        return countryOfOrigin;
+    }
+
+    String getProcessingMethod() {
+        return processingMethod;
+    }
+
+    String getRoasteryName() {
+        return roasteryName;
+    }
+}
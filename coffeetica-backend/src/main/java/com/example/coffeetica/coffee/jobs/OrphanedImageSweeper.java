@@ -0,0 +1,140 @@
+package com.example.coffeetica.coffee.jobs;
+
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.coffee.services.RoasteryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Removes files from the upload directories that nothing references any more, e.g.
+ * deletions lost to a restart, uploads never assigned, renditions of replaced legacy
+ * images or temporary files left by a crash.
+ * <p>
+ * Files are checked in batches of {@code app.images.sweeper.batch-size}: a file is kept
+ * if its content hash has a blob in the image store, or if a coffee or roastery uses its
+ * URL as its image or a rendition. Files younger than {@code app.images.sweeper.grace-period}
+ * are skipped, as they may belong to an upload or rendition not yet recorded.
+ */
+@Component
+public class OrphanedImageSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanedImageSweeper.class);
+
+    private final ImageStore imageStore;
+    private final CoffeeService coffeeService;
+    private final RoasteryService roasteryService;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    /**
+     * Constructs a new {@link OrphanedImageSweeper}.
+     *
+     * @param imageStore the store listing and deleting the files
+     * @param coffeeService the service looking up the images of coffees
+     * @param roasteryService the service looking up the images of roasteries
+     * @param gracePeriod how old a file must be before it can be removed
+     * @param batchSize the number of files checked per lookup
+     */
+    public OrphanedImageSweeper(ImageStore imageStore,
+                                CoffeeService coffeeService,
+                                RoasteryService roasteryService,
+                                @Value("${app.images.sweeper.grace-period:1h}") Duration gracePeriod,
+                                @Value("${app.images.sweeper.batch-size:500}") int batchSize) {
+        this.imageStore = imageStore;
+        this.coffeeService = coffeeService;
+        this.roasteryService = roasteryService;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Periodically removes the orphaned files.
+     */
+    @Scheduled(cron = "${app.images.sweeper.cron}")
+    public void sweep() {
+        try {
+            int removed = sweepOrphans();
+            if (removed > 0) {
+                logger.info("Removed {} orphaned image files", removed);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to sweep the upload directories", e);
+        }
+    }
+
+    /**
+     * Removes the orphaned files from the upload directories.
+     *
+     * @return the number of files removed
+     * @throws IOException if a directory cannot be read
+     */
+    public int sweepOrphans() throws IOException {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int removed = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Stream<String> files = imageStore.listFiles()) {
+            Iterator<String> urls = files.iterator();
+            while (urls.hasNext()) {
+                String url = urls.next();
+                if (modifiedBefore(url, cutoff)) {
+                    batch.add(url);
+                }
+                if (batch.size() == batchSize) {
+                    removed += removeOrphans(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return removed + removeOrphans(batch);
+    }
+
+    private boolean modifiedBefore(String url, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(imageStore.resolve(url)).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            // Deleted in the meantime
+            return false;
+        }
+    }
+
+    private int removeOrphans(List<String> urls) {
+        if (urls.isEmpty()) {
+            return 0;
+        }
+        Set<String> sha256s = new HashSet<>();
+        for (String url : urls) {
+            ImageStore.blobSha256Of(url).ifPresent(sha256s::add);
+        }
+        Set<String> stored = imageStore.findStored(sha256s);
+
+        List<String> unstored = urls.stream()
+                .filter(url -> ImageStore.blobSha256Of(url).filter(stored::contains).isEmpty())
+                .toList();
+        Set<String> referenced = new HashSet<>(coffeeService.findReferencedCoffeeImageUrls(unstored));
+        referenced.addAll(roasteryService.findReferencedRoasteryImageUrls(unstored));
+
+        int removed = 0;
+        for (String url : unstored) {
+            if (!referenced.contains(url)) {
+                imageStore.deleteOrphan(url);
+                removed++;
+            }
+        }
+        return removed;
+    }
+}
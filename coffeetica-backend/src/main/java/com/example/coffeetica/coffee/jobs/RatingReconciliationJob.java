@@ -0,0 +1,50 @@
+package com.example.coffeetica.coffee.jobs;
+
+import com.example.coffeetica.coffee.services.CoffeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the denormalized rating aggregates on coffees in line with their reviews.
+ * Runs once at startup (backfilling rows created before the aggregates existed)
+ * and periodically afterwards to repair any drift.
+ */
+@Component
+public class RatingReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingReconciliationJob.class);
+
+    private final CoffeeService coffeeService;
+
+    /**
+     * Constructs a new {@link RatingReconciliationJob}.
+     *
+     * @param coffeeService the coffee service performing the reconciliation
+     */
+    public RatingReconciliationJob(CoffeeService coffeeService) {
+        this.coffeeService = coffeeService;
+    }
+
+    /**
+     * Backfills the aggregates once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        reconcile();
+    }
+
+    /**
+     * Periodically corrects coffees whose aggregates have drifted.
+     */
+    @Scheduled(cron = "${app.ratings.reconcile-cron}")
+    public void reconcile() {
+        int corrected = coffeeService.reconcileRatingAggregates();
+        if (corrected > 0) {
+            logger.info("Reconciled rating aggregates of {} coffees", corrected);
+        }
+    }
+}
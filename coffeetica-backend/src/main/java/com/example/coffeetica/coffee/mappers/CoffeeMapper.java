@@ -0,0 +1,61 @@
+package com.example.coffeetica.coffee.mappers;
+
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Maps between {@link CoffeeEntity} and the coffee DTOs.
+ * The implementation is generated at compile time by MapStruct.
+ */
+@Mapper(componentModel = "spring", uses = RoasteryMapper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CoffeeMapper {
+
+    CoffeeDTO toDTO(CoffeeEntity entity);
+
+    /**
+     * Maps the basic coffee fields; reviews and rating aggregates are filled in by the caller.
+     *
+     * @param entity the coffee with its roastery and flavor notes
+     * @return the details DTO without reviews and aggregates
+     */
+    @Mapping(target = "latestReviews", ignore = true)
+    @Mapping(target = "totalReviewsCount", ignore = true)
+    @Mapping(target = "averageRating", ignore = true)
+    CoffeeDetailsDTO toDetailsDTO(CoffeeEntity entity);
+
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "reviews", ignore = true)
+    @Mapping(target = "thumbnailUrl", ignore = true)
+    @Mapping(target = "cardUrl", ignore = true)
+    @Mapping(target = "fullUrl", ignore = true)
+    @Mapping(target = "imagePlaceholder", ignore = true)
+    CoffeeEntity toEntity(CoffeeDTO dto);
+
+    /**
+     * Copies the editable fields of a DTO onto an existing coffee, keeping its ID,
+     * reviews, rating aggregates and image renditions. The roastery is resolved and assigned by the caller.
+     *
+     * @param dto the incoming coffee data
+     * @param entity the coffee to update
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "roastery", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "reviews", ignore = true)
+    @Mapping(target = "thumbnailUrl", ignore = true)
+    @Mapping(target = "cardUrl", ignore = true)
+    @Mapping(target = "fullUrl", ignore = true)
+    @Mapping(target = "imagePlaceholder", ignore = true)
+    void updateEntity(CoffeeDTO dto, @MappingTarget CoffeeEntity entity);
+}
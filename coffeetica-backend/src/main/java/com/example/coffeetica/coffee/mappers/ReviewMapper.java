@@ -0,0 +1,41 @@
+package com.example.coffeetica.coffee.mappers;
+
+import com.example.coffeetica.coffee.models.ReviewDTO;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.ReviewRequestDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps between {@link ReviewEntity} and the review DTOs.
+ * The implementation is generated at compile time by MapStruct.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ReviewMapper {
+
+    /**
+     * Maps the review's own fields. The author and coffee fields are filled in by the caller,
+     * which knows whether these associations are initialized.
+     *
+     * @param entity the review
+     * @return the DTO without author and coffee fields
+     */
+    @Mapping(target = "coffeeId", ignore = true)
+    @Mapping(target = "coffeeName", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    ReviewDTO toDTO(ReviewEntity entity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "coffee", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    ReviewEntity toEntity(ReviewRequestDTO dto);
+
+    default String toString(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toString() : null;
+    }
+}
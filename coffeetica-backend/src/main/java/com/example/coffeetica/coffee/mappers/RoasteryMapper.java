@@ -0,0 +1,42 @@
+package com.example.coffeetica.coffee.mappers;
+
+import com.example.coffeetica.coffee.models.RoasteryDTO;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Maps between {@link RoasteryEntity} and {@link RoasteryDTO}.
+ * The implementation is generated at compile time by MapStruct.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface RoasteryMapper {
+
+    RoasteryDTO toDTO(RoasteryEntity entity);
+
+    @Mapping(target = "coffees", ignore = true)
+    @Mapping(target = "featuredCoffeeId", ignore = true)
+    @Mapping(target = "thumbnailUrl", ignore = true)
+    @Mapping(target = "cardUrl", ignore = true)
+    @Mapping(target = "fullUrl", ignore = true)
+    @Mapping(target = "imagePlaceholder", ignore = true)
+    RoasteryEntity toEntity(RoasteryDTO dto);
+
+    /**
+     * Copies the editable fields of a DTO onto an existing roastery,
+     * keeping its ID, coffees, featured coffee and image renditions.
+     *
+     * @param dto the incoming roastery data
+     * @param entity the roastery to update
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coffees", ignore = true)
+    @Mapping(target = "featuredCoffeeId", ignore = true)
+    @Mapping(target = "thumbnailUrl", ignore = true)
+    @Mapping(target = "cardUrl", ignore = true)
+    @Mapping(target = "fullUrl", ignore = true)
+    @Mapping(target = "imagePlaceholder", ignore = true)
+    void updateEntity(RoasteryDTO dto, @MappingTarget RoasteryEntity entity);
+}
@@ -46,6 +46,12 @@ public class CoffeeDTO {
 
     private String imageUrl; // URL of the uploaded image
 
+    // Renditions of the image, null until it has been processed
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
+    private String imagePlaceholder; // data: URI of a tiny blurred preview
+
     @NotNull(message = "Roastery information is required")
     private RoasteryDTO roastery;
 
@@ -92,6 +98,22 @@ public class CoffeeDTO {
         return imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+
     public RoasteryDTO getRoastery() {
         return roastery;
     }
@@ -136,6 +158,22 @@ public class CoffeeDTO {
         this.imageUrl = imageUrl;
     }
 
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+
     public void setRoastery(RoasteryDTO roastery) {
         this.roastery = roastery;
     }
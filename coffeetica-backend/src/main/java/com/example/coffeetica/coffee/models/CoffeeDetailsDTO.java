@@ -24,6 +24,12 @@ public class CoffeeDetailsDTO {
     private Integer productionYear;
     private String imageUrl;
 
+    // Renditions of the image, null until it has been processed
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
+    private String imagePlaceholder; // data: URI of a tiny blurred preview
+
     private RoasteryDTO roastery;
     private Double averageRating;
     private Integer totalReviewsCount;
@@ -72,6 +78,22 @@ public class CoffeeDetailsDTO {
         return imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+
     public RoasteryDTO getRoastery() {
         return roastery;
     }
@@ -128,6 +150,22 @@ public class CoffeeDetailsDTO {
         this.imageUrl = imageUrl;
     }
 
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+
     public void setRoastery(RoasteryDTO roastery) {
         this.roastery = roastery;
     }
@@ -5,6 +5,7 @@ import com.example.coffeetica.coffee.models.enums.Region;
 import com.example.coffeetica.coffee.models.enums.RoastLevel;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -51,10 +52,44 @@ public class CoffeeEntity {
 
     private String imageUrl; // image path (nullable by default)
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    /**
+     * Downscaled renditions of the image and its inline placeholder, written by bulk
+     * updates once the image has been processed (see {@code ImageRenditionProcessor})
+     * and cleared whenever the image changes. Never written through the entity itself.
+     */
+    @Column(insertable = false, updatable = false)
+    private String thumbnailUrl;
+
+    @Column(insertable = false, updatable = false)
+    private String cardUrl;
+
+    @Column(insertable = false, updatable = false)
+    private String fullUrl;
+
+    @Column(length = 2048, insertable = false, updatable = false)
+    private String imagePlaceholder;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "roastery_id", nullable = false)
     private RoasteryEntity roastery;
 
+    /**
+     * Denormalized rating aggregates, maintained by atomic bulk updates on the review
+     * write path (see {@code CoffeeRepository#applyRatingDelta}). They are never written
+     * through the entity itself, so a stale instance cannot overwrite a concurrent update.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Double ratingSum = 0.0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer reviewCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Double averageRating = 0.0;
+
     @OneToMany(mappedBy = "coffee", cascade = CascadeType.REMOVE)
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private List<ReviewEntity> reviews = new ArrayList<>();
@@ -104,10 +139,38 @@ public class CoffeeEntity {
         return imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+
     public RoasteryEntity getRoastery() {
         return roastery;
     }
 
+    public Double getRatingSum() {
+        return ratingSum;
+    }
+
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
     public List<ReviewEntity> getReviews() {
         return reviews;
     }
@@ -152,10 +215,49 @@ public class CoffeeEntity {
         this.imageUrl = imageUrl;
     }
 
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+
+    /**
+     * Drops the renditions of a replaced image from this instance;
+     * the columns are cleared by {@code CoffeeRepository#clearImageRenditions}.
+     */
+    public void clearImageRenditions() {
+        this.thumbnailUrl = null;
+        this.cardUrl = null;
+        this.fullUrl = null;
+        this.imagePlaceholder = null;
+    }
+
     public void setRoastery(RoasteryEntity roastery) {
         this.roastery = roastery;
     }
 
+    public void setRatingSum(Double ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public void setReviewCount(Integer reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
     public void setReviews(List<ReviewEntity> reviews) {
         this.reviews = reviews;
     }
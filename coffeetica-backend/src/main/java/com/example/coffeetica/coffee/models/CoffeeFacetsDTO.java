@@ -0,0 +1,86 @@
+package com.example.coffeetica.coffee.models;
+
+import java.util.List;
+
+/**
+ * Per-value coffee counts for each filter of the coffee listing, computed under the
+ * current filter, so that the filter UI can show how many coffees each option yields.
+ */
+public class CoffeeFacetsDTO {
+
+    private long total;
+    private List<FacetCountDTO> regions;
+    private List<FacetCountDTO> roastLevels;
+    private List<FacetCountDTO> flavorProfiles;
+    private List<FacetCountDTO> flavorNotes;
+    private List<FacetCountDTO> processingMethods;
+    private List<FacetCountDTO> roasteries;
+    private List<FacetCountDTO> productionYears;
+
+    public CoffeeFacetsDTO() {
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<FacetCountDTO> getRegions() {
+        return regions;
+    }
+
+    public List<FacetCountDTO> getRoastLevels() {
+        return roastLevels;
+    }
+
+    public List<FacetCountDTO> getFlavorProfiles() {
+        return flavorProfiles;
+    }
+
+    public List<FacetCountDTO> getFlavorNotes() {
+        return flavorNotes;
+    }
+
+    public List<FacetCountDTO> getProcessingMethods() {
+        return processingMethods;
+    }
+
+    public List<FacetCountDTO> getRoasteries() {
+        return roasteries;
+    }
+
+    public List<FacetCountDTO> getProductionYears() {
+        return productionYears;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void setRegions(List<FacetCountDTO> regions) {
+        this.regions = regions;
+    }
+
+    public void setRoastLevels(List<FacetCountDTO> roastLevels) {
+        this.roastLevels = roastLevels;
+    }
+
+    public void setFlavorProfiles(List<FacetCountDTO> flavorProfiles) {
+        this.flavorProfiles = flavorProfiles;
+    }
+
+    public void setFlavorNotes(List<FacetCountDTO> flavorNotes) {
+        this.flavorNotes = flavorNotes;
+    }
+
+    public void setProcessingMethods(List<FacetCountDTO> processingMethods) {
+        this.processingMethods = processingMethods;
+    }
+
+    public void setRoasteries(List<FacetCountDTO> roasteries) {
+        this.roasteries = roasteries;
+    }
+
+    public void setProductionYears(List<FacetCountDTO> productionYears) {
+        this.productionYears = productionYears;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.coffeetica.coffee.models;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The number of coffees matching the current filter that have a given facet value,
+ * e.g. {@code {"value": "Washed", "count": 12}}.
+ */
+public class FacetCountDTO {
+
+    private String value;
+    private long count;
+
+    public FacetCountDTO() {
+    }
+
+    public FacetCountDTO(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    /**
+     * Lists the counts of an enum facet in declaration order, including values without matches,
+     * so that every filter option can be shown.
+     *
+     * @param values all values of the enum
+     * @param counts the counts per value; missing values count as zero
+     * @param label the label of a value, e.g. its display name
+     * @param <E> the enum type
+     * @return one count per enum value
+     */
+    public static <E extends Enum<E>> List<FacetCountDTO> forEnum(E[] values, Map<E, Long> counts,
+                                                                  Function<E, String> label) {
+        return Stream.of(values)
+                .map(value -> new FacetCountDTO(label.apply(value), counts.getOrDefault(value, 0L)))
+                .toList();
+    }
+
+    /**
+     * Lists the counts of a free-text facet, most frequent value first.
+     *
+     * @param counts the counts per value
+     * @return the counts, ordered by count (descending) and value
+     */
+    public static List<FacetCountDTO> byCount(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER)))
+                .map(entry -> new FacetCountDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Lists the counts of an ordered facet, e.g. years, in key order.
+     *
+     * @param counts the counts per value, sorted by value
+     * @return the counts, ordered by value
+     */
+    public static List<FacetCountDTO> inKeyOrder(SortedMap<?, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCountDTO(String.valueOf(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.coffeetica.coffee.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image file in the content-addressed store, shared by all coffees and roasteries
+ * whose image has the same content. The reference count is maintained by bulk updates
+ * (see {@code ImageBlobRepository#adjustReferenceCount}) and never written through
+ * a loaded entity.
+ */
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlobEntity {
+
+    /**
+     * The hex-encoded SHA-256 of the content.
+     */
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    /**
+     * The image URL relative to the uploads root, e.g. {@code images/ab/ab12...ef.jpg}.
+     */
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false, length = 50)
+    private String mediaType;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Integer referenceCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public ImageBlobEntity() {
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Integer getReferenceCount() {
+        return referenceCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public void setReferenceCount(Integer referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
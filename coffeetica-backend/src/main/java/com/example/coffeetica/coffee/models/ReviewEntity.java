@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
  * for a specific coffee, along with the user who created the review.
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews",
+        uniqueConstraints = @UniqueConstraint(name = "uk_reviews_user_coffee", columnNames = {"user_id", "coffee_id"}))
 public class ReviewEntity {
 
     @Id
@@ -37,11 +38,11 @@ public class ReviewEntity {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "coffee_id", nullable = false)
     private CoffeeEntity coffee;
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity user;
 
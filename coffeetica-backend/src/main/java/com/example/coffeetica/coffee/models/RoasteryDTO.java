@@ -31,6 +31,12 @@ public class RoasteryDTO {
 
     private String imageUrl; // URL of the uploaded image
 
+    // Renditions of the image, null until it has been processed
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
+    private String imagePlaceholder; // data: URI of a tiny blurred preview
+
     public RoasteryDTO() {
     }
 
@@ -58,6 +64,22 @@ public class RoasteryDTO {
         return imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -81,4 +103,20 @@ public class RoasteryDTO {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
 }
\ No newline at end of file
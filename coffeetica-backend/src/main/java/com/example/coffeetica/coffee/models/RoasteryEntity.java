@@ -29,6 +29,32 @@ public class RoasteryEntity {
 
     private String imageUrl;
 
+    /**
+     * Downscaled renditions of the image and its inline placeholder, written by bulk
+     * updates once the image has been processed (see {@code ImageRenditionProcessor})
+     * and cleared whenever the image changes. Never written through the entity itself.
+     */
+    @Column(insertable = false, updatable = false)
+    private String thumbnailUrl;
+
+    @Column(insertable = false, updatable = false)
+    private String cardUrl;
+
+    @Column(insertable = false, updatable = false)
+    private String fullUrl;
+
+    @Column(length = 2048, insertable = false, updatable = false)
+    private String imagePlaceholder;
+
+    /**
+     * The ID of the roastery's best rated coffee, maintained by bulk updates whenever
+     * ratings or coffees change (see {@code RoasteryRepository#refreshFeaturedCoffees}).
+     * It is never written through the entity itself. Not a foreign key: a deleted
+     * coffee still identifies the roastery that has to pick a new one.
+     */
+    @Column(insertable = false, updatable = false)
+    private Long featuredCoffeeId;
+
     @OneToMany(mappedBy = "roastery", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<CoffeeEntity> coffees;
 
@@ -61,6 +87,26 @@ public class RoasteryEntity {
         return imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+
+    public Long getFeaturedCoffeeId() {
+        return featuredCoffeeId;
+    }
+
     public Set<CoffeeEntity> getCoffees() {
         return coffees;
     }
@@ -89,6 +135,37 @@ public class RoasteryEntity {
         this.imageUrl = imageUrl;
     }
 
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+
+    /**
+     * Drops the renditions of a replaced image from this instance;
+     * the columns are cleared by {@code RoasteryRepository#clearImageRenditions}.
+     */
+    public void clearImageRenditions() {
+        this.thumbnailUrl = null;
+        this.cardUrl = null;
+        this.fullUrl = null;
+        this.imagePlaceholder = null;
+    }
+
+    public void setFeaturedCoffeeId(Long featuredCoffeeId) {
+        this.featuredCoffeeId = featuredCoffeeId;
+    }
+
     public void setCoffees(Set<CoffeeEntity> coffees) {
         this.coffees = coffees;
     }
@@ -0,0 +1,50 @@
+package com.example.coffeetica.coffee.models;
+
+import com.example.coffeetica.coffee.models.enums.SuggestionType;
+
+/**
+ * A typeahead suggestion: a coffee name, roastery name or flavor note completing
+ * the typed prefix, e.g. {@code {"text": "Ethiopia Guji", "type": "Coffee", "id": 3}}.
+ */
+public class SuggestionDTO {
+
+    private String text;
+    private SuggestionType type;
+    /**
+     * The ID of the suggested coffee or roastery; null for flavor notes.
+     */
+    private Long id;
+
+    public SuggestionDTO() {
+    }
+
+    public SuggestionDTO(String text, SuggestionType type, Long id) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public SuggestionType getType() {
+        return type;
+    }
+
+    public void setType(SuggestionType type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.coffeetica.coffee.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The kind of catalog entry a typeahead suggestion completes to.
+ */
+public enum SuggestionType {
+    COFFEE("Coffee"),
+    ROASTERY("Roastery"),
+    FLAVOR_NOTE("Flavor Note");
+
+    private final String displayName;
+
+    SuggestionType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @JsonValue
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -1,23 +1,33 @@
 package com.example.coffeetica.coffee.repositories;
 
+import com.example.coffeetica.coffee.images.ImageReference;
 import com.example.coffeetica.coffee.models.CoffeeEntity;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
  * Repository interface for managing {@link CoffeeEntity} persistence.
- * Extends JPA repositories for CRUD operations, and JPA Specification Executor
- * for custom filtering.
+ * Extends JPA repositories for CRUD operations, JPA Specification Executor
+ * for custom filtering, and {@link CoffeeRepositoryCustom} for count-free slices.
  */
 @Repository
-public interface CoffeeRepository extends JpaRepository<CoffeeEntity, Long>, JpaSpecificationExecutor<CoffeeEntity> {
+public interface CoffeeRepository extends JpaRepository<CoffeeEntity, Long>,
+        JpaSpecificationExecutor<CoffeeEntity>,
+        CoffeeRepositoryCustom {
 
     /**
      * Retrieves all coffees in a paginated format.
@@ -27,6 +37,47 @@ public interface CoffeeRepository extends JpaRepository<CoffeeEntity, Long>, Jpa
      */
     Page<CoffeeEntity> findAll(Pageable pageable);
 
+    /**
+     * Retrieves a coffee together with its roastery and flavor notes in a single query,
+     * for building the coffee details view.
+     *
+     * @param id the ID of the coffee
+     * @return an Optional containing the coffee, or empty if not found
+     */
+    @EntityGraph(attributePaths = {"roastery", "flavorNotes"})
+    @Query("SELECT c FROM CoffeeEntity c WHERE c.id = :id")
+    Optional<CoffeeEntity> findWithDetailsById(@Param("id") Long id);
+
+    /**
+     * Retrieves every coffee together with its roastery and flavor notes,
+     * for building the in-memory catalog index.
+     *
+     * @return all coffees
+     */
+    @EntityGraph(attributePaths = {"roastery", "flavorNotes"})
+    @Query("SELECT c FROM CoffeeEntity c")
+    List<CoffeeEntity> findAllWithDetails();
+
+    /**
+     * Retrieves the given coffees together with their roasteries and flavor notes,
+     * for refreshing them in the in-memory indexes.
+     *
+     * @param ids the IDs of the coffees
+     * @return the coffees that still exist
+     */
+    @EntityGraph(attributePaths = {"roastery", "flavorNotes"})
+    List<CoffeeEntity> findAllWithDetailsByIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves the coffees of a roastery together with their roastery and flavor notes,
+     * for refreshing them in the search index.
+     *
+     * @param roasteryId the ID of the roastery
+     * @return the coffees of the roastery
+     */
+    @EntityGraph(attributePaths = {"roastery", "flavorNotes"})
+    List<CoffeeEntity> findAllWithDetailsByRoasteryId(Long roasteryId);
+
     /**
      * Retrieves coffees belonging to a specific roastery.
      *
@@ -37,18 +88,146 @@ public interface CoffeeRepository extends JpaRepository<CoffeeEntity, Long>, Jpa
     Page<CoffeeEntity> findByRoasteryId(Long roasteryId, Pageable pageable);
 
     /**
-     * Retrieves coffees for a specific roastery, sorted by the average rating (descending).
+     * Retrieves the image URLs of the coffees of a roastery, which are released
+     * when the roastery and its coffees are deleted.
+     *
+     * @param roasteryId the ID of the roastery
+     * @return the non-null image URLs of the roastery's coffees
+     */
+    @Query("SELECT c.imageUrl FROM CoffeeEntity c WHERE c.roastery.id = :roasteryId AND c.imageUrl IS NOT NULL")
+    List<String> findImageUrlsByRoasteryId(@Param("roasteryId") Long roasteryId);
+
+    /**
+     * Retrieves the IDs of the coffees of a roastery, e.g. to announce them as deleted
+     * together with the roastery.
      *
      * @param roasteryId the ID of the roastery
-     * @param pageable pagination and sorting information
-     * @return a page of coffees, highest average rating first
+     * @return the IDs of the roastery's coffees
+     */
+    @Query("SELECT c.id FROM CoffeeEntity c WHERE c.roastery.id = :roasteryId")
+    List<Long> findIdsByRoasteryId(@Param("roasteryId") Long roasteryId);
+
+    /**
+     * Atomically applies a change to the denormalized rating aggregates of a coffee.
+     * All right-hand sides read the pre-update row, so concurrent review writes
+     * serialize on the row lock instead of overwriting each other. The explicit cast
+     * keeps the bound delta typed as a double on every dialect (H2 included).
+     *
+     * @param coffeeId the ID of the coffee
+     * @param ratingDelta the change of the rating sum
+     * @param countDelta the change of the review count (-1, 0 or 1)
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("""
+        UPDATE CoffeeEntity c
+        SET c.ratingSum = c.ratingSum + CAST(:ratingDelta AS Double),
+            c.reviewCount = c.reviewCount + :countDelta,
+            c.averageRating = CASE
+                WHEN c.reviewCount + :countDelta > 0
+                THEN (c.ratingSum + CAST(:ratingDelta AS Double)) / (c.reviewCount + :countDelta)
+                ELSE 0.0
+            END
+        WHERE c.id = :coffeeId
+    """)
+    int applyRatingDelta(@Param("coffeeId") Long coffeeId,
+                         @Param("ratingDelta") double ratingDelta,
+                         @Param("countDelta") int countDelta);
+
+    /**
+     * Recomputes the rating aggregates of the given coffees from their reviews.
+     *
+     * @param coffeeIds the IDs of the coffees to recompute
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE CoffeeEntity c
+        SET c.ratingSum = COALESCE((SELECT SUM(r.rating) FROM ReviewEntity r WHERE r.coffee.id = c.id), 0.0),
+            c.reviewCount = (SELECT CAST(COUNT(r.id) AS Integer) FROM ReviewEntity r WHERE r.coffee.id = c.id),
+            c.averageRating = COALESCE((SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.coffee.id = c.id), 0.0)
+        WHERE c.id IN :coffeeIds
+    """)
+    int recalculateRatingAggregates(@Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /**
+     * Recomputes the rating aggregates of every coffee whose stored values have drifted
+     * from its reviews. Used for the initial backfill and the periodic reconciliation.
+     *
+     * @return the number of corrected rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE CoffeeEntity c
+        SET c.ratingSum = COALESCE((SELECT SUM(r.rating) FROM ReviewEntity r WHERE r.coffee.id = c.id), 0.0),
+            c.reviewCount = (SELECT CAST(COUNT(r.id) AS Integer) FROM ReviewEntity r WHERE r.coffee.id = c.id),
+            c.averageRating = COALESCE((SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.coffee.id = c.id), 0.0)
+        WHERE c.reviewCount <> (SELECT CAST(COUNT(r.id) AS Integer) FROM ReviewEntity r WHERE r.coffee.id = c.id)
+           OR c.ratingSum <> COALESCE((SELECT SUM(r.rating) FROM ReviewEntity r WHERE r.coffee.id = c.id), 0.0)
+    """)
+    int reconcileAllRatingAggregates();
+
+    /**
+     * Retrieves every coffee that has an image, for re-processing the renditions.
+     *
+     * @return the IDs and image URLs of the coffees with an image
+     */
+    @Query("SELECT new com.example.coffeetica.coffee.images.ImageReference(c.id, c.imageUrl) FROM CoffeeEntity c WHERE c.imageUrl IS NOT NULL")
+    List<ImageReference> findImageReferences();
+
+    /**
+     * Picks the URLs still referenced by coffees out of a batch, as the image or one of
+     * its renditions, for sweeping orphaned files.
+     *
+     * @param urls the image file URLs to look up
+     * @return the URLs referenced by at least one coffee
+     */
+    @Query("""
+        SELECT c.imageUrl FROM CoffeeEntity c WHERE c.imageUrl IN :urls
+        UNION SELECT c.thumbnailUrl FROM CoffeeEntity c WHERE c.thumbnailUrl IN :urls
+        UNION SELECT c.cardUrl FROM CoffeeEntity c WHERE c.cardUrl IN :urls
+        UNION SELECT c.fullUrl FROM CoffeeEntity c WHERE c.fullUrl IN :urls
+    """)
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
+    /**
+     * Stores the renditions of a coffee's image, provided the coffee still shows that image.
+     *
+     * @param id the ID of the coffee
+     * @param imageUrl the image the renditions were generated from
+     * @param thumbnailUrl the URL of the thumbnail rendition
+     * @param cardUrl the URL of the card rendition
+     * @param fullUrl the URL of the full rendition
+     * @param imagePlaceholder the inline placeholder
+     * @return the number of updated rows, 0 if the image has been replaced in the meantime
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE CoffeeEntity c
+        SET c.thumbnailUrl = :thumbnailUrl, c.cardUrl = :cardUrl,
+            c.fullUrl = :fullUrl, c.imagePlaceholder = :imagePlaceholder
+        WHERE c.id = :id AND c.imageUrl = :imageUrl
+    """)
+    int updateImageRenditions(@Param("id") Long id,
+                              @Param("imageUrl") String imageUrl,
+                              @Param("thumbnailUrl") String thumbnailUrl,
+                              @Param("cardUrl") String cardUrl,
+                              @Param("fullUrl") String fullUrl,
+                              @Param("imagePlaceholder") String imagePlaceholder);
+
+    /**
+     * Drops the renditions of a coffee's image when the image is replaced.
+     *
+     * @param id the ID of the coffee
+     * @return the number of updated rows
      */
+    @Modifying(flushAutomatically = true)
+    @Transactional
     @Query("""
-        SELECT c FROM CoffeeEntity c LEFT JOIN c.reviews r
-        WHERE c.roastery.id = :roasteryId
-        GROUP BY c.id
-        HAVING COUNT(r.id) > 0
-        ORDER BY AVG(r.rating) DESC
+        UPDATE CoffeeEntity c
+        SET c.thumbnailUrl = NULL, c.cardUrl = NULL, c.fullUrl = NULL, c.imagePlaceholder = NULL
+        WHERE c.id = :id
     """)
-    Page<CoffeeEntity> findFeaturedCoffeeByRoasteryId(@Param("roasteryId") Long roasteryId, Pageable pageable);
+    int clearImageRenditions(@Param("id") Long id);
 }
@@ -0,0 +1,35 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+/**
+ * Custom query methods for {@link CoffeeEntity} that Spring Data cannot derive.
+ */
+public interface CoffeeRepositoryCustom {
+
+    /**
+     * Retrieves a slice of coffees matching the specification without counting all matches:
+     * one extra row is fetched to determine whether a next slice exists.
+     *
+     * @param spec the filter specification (may be null)
+     * @param pageable the pagination and sorting parameters
+     * @return a slice of coffees
+     */
+    Slice<CoffeeEntity> findSlice(Specification<CoffeeEntity> spec, Pageable pageable);
+
+    /**
+     * Counts the distinct coffees matching the specification per value of one attribute,
+     * in a single grouped query. Coffees without a value are not counted.
+     *
+     * @param spec the filter specification (may be null)
+     * @param attribute the attribute to group by: a path such as {@code roastery.name},
+     *                  or {@code flavorNotes} to group by the individual notes
+     * @return the number of matching coffees per attribute value
+     */
+    Map<Object, Long> countGroupedBy(Specification<CoffeeEntity> spec, String attribute);
+}
@@ -0,0 +1,100 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criteria API implementation of {@link CoffeeRepositoryCustom}.
+ */
+public class CoffeeRepositoryCustomImpl implements CoffeeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<CoffeeEntity> findSlice(Specification<CoffeeEntity> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CoffeeEntity> query = criteriaBuilder.createQuery(CoffeeEntity.class);
+        Root<CoffeeEntity> root = query.from(CoffeeEntity.class);
+        query.select(root);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        TypedQuery<CoffeeEntity> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<CoffeeEntity> content = typedQuery.getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Map<Object, Long> countGroupedBy(Specification<CoffeeEntity> spec, String attribute) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<CoffeeEntity> root = query.from(CoffeeEntity.class);
+
+        Expression<?> group;
+        if ("flavorNotes".equals(attribute)) {
+            group = root.join("flavorNotes");
+        } else {
+            Path<?> path = root;
+            for (String segment : attribute.split("\\.")) {
+                path = path.get(segment);
+            }
+            group = path;
+        }
+
+        // Distinct, since a flavor note filter joins the notes and repeats each coffee per matching note
+        query.multiselect(group, criteriaBuilder.countDistinct(root));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.groupBy(group);
+
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            if (tuple.get(0) != null) {
+                counts.put(tuple.get(0), tuple.get(1, Long.class));
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.coffee.models.ImageBlobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link ImageBlobEntity} persistence.
+ */
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlobEntity, String>, ImageBlobRepositoryCustom {
+
+    /**
+     * Atomically adds to the reference count of a blob.
+     *
+     * @param sha256 the hash of the blob
+     * @param delta the number of references added (negative when removed)
+     * @return the number of updated blobs, 0 if the blob is not registered
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ImageBlobEntity b SET b.referenceCount = b.referenceCount + :delta WHERE b.sha256 = :sha256")
+    int adjustReferenceCount(@Param("sha256") String sha256, @Param("delta") int delta);
+
+    /**
+     * Removes a blob if nothing references it any more.
+     *
+     * @param sha256 the hash of the blob
+     * @return 1 if the blob was removed, 0 if it is still referenced or not registered
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM ImageBlobEntity b WHERE b.sha256 = :sha256 AND b.referenceCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+
+    /**
+     * Picks the registered blobs out of a batch of hashes.
+     *
+     * @param sha256s the hashes to look up
+     * @return the hashes that have a blob
+     */
+    @Query("SELECT b.sha256 FROM ImageBlobEntity b WHERE b.sha256 IN :sha256s")
+    List<String> findExistingSha256In(@Param("sha256s") Collection<String> sha256s);
+}
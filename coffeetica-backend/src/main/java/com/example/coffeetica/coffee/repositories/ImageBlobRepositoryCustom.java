@@ -0,0 +1,19 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.coffee.models.ImageBlobEntity;
+
+/**
+ * Custom persistence methods for {@link ImageBlobEntity} that Spring Data cannot derive.
+ */
+public interface ImageBlobRepositoryCustom {
+
+    /**
+     * Registers a blob unless a blob with the same hash exists, e.g. one registered by a
+     * concurrent transaction. A duplicate leaves the current transaction usable, so the
+     * caller can count its reference on the existing blob instead.
+     *
+     * @param blob the blob to register
+     * @return whether the blob was inserted
+     */
+    boolean insertIfAbsent(ImageBlobEntity blob);
+}
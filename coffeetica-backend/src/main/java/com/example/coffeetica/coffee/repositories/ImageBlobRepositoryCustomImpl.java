@@ -0,0 +1,54 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.coffee.models.ImageBlobEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+
+/**
+ * JDBC implementation of {@link ImageBlobRepositoryCustom}.
+ * <p>
+ * The insert runs on the connection of the current transaction behind a savepoint: a
+ * unique violation is rolled back to it, whereas PostgreSQL would otherwise abort the
+ * whole transaction, and Hibernate would mark it rollback-only. Both PostgreSQL and H2
+ * report a unique violation with SQLSTATE {@code 23505}.
+ */
+public class ImageBlobRepositoryCustomImpl implements ImageBlobRepositoryCustom {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String INSERT = "INSERT INTO image_blobs "
+            + "(sha256, path, media_type, size_bytes, reference_count, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean insertIfAbsent(ImageBlobEntity blob) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setString(1, blob.getSha256());
+                statement.setString(2, blob.getPath());
+                statement.setString(3, blob.getMediaType());
+                statement.setLong(4, blob.getSizeBytes());
+                statement.setInt(5, blob.getReferenceCount());
+                statement.setTimestamp(6, Timestamp.valueOf(blob.getCreatedAt()));
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                return false;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        });
+    }
+}
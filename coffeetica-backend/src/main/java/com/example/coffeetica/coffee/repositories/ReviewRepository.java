@@ -3,11 +3,14 @@ package com.example.coffeetica.coffee.repositories;
 import com.example.coffeetica.coffee.models.ReviewEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,27 +19,74 @@ import java.util.Optional;
  * Extends JPA repository for CRUD and pagination, plus custom queries.
  */
 @Repository
-public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
+public interface ReviewRepository extends JpaRepository<ReviewEntity, Long>, JpaSpecificationExecutor<ReviewEntity> {
 
+    /**
+     * Retrieves all reviews in a paginated format, with their authors and coffees
+     * fetched in the same query.
+     *
+     * @param pageable the pagination and sorting parameters
+     * @return a page of reviews
+     */
+    @Override
+    @EntityGraph(attributePaths = {"user", "coffee"})
+    Page<ReviewEntity> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "coffee"})
     Page<ReviewEntity> findByCoffeeId(Long coffeeId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "coffee"})
     Page<ReviewEntity> findByUserId(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "coffee"})
     Optional<ReviewEntity> findByUserIdAndCoffeeId(Long userId, Long coffeeId);
 
+    /**
+     * Retrieves the three latest reviews of a coffee with their authors fetched in the same query.
+     *
+     * @param coffeeId the ID of the coffee
+     * @return up to three reviews, newest first
+     */
+    @EntityGraph(attributePaths = {"user"})
     List<ReviewEntity> findTop3ByCoffeeIdOrderByCreatedAtDesc(Long coffeeId);
 
-    Long countByCoffeeId(Long coffeeId);
+    @Query("SELECT DISTINCT r.coffee.id FROM ReviewEntity r WHERE r.user.id = :userId")
+    List<Long> findReviewedCoffeeIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * The number of reviews written by a user.
+     */
+    interface UserReviewCount {
+
+        Long getUserId();
 
-    @Query("SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.coffee.id = :coffeeId")
-    Double findAverageRatingByCoffeeId(@Param("coffeeId") Long coffeeId);
+        long getReviewCount();
+    }
 
+    long countByUserId(Long userId);
+
+    /**
+     * Counts the reviews of several users in one query; users without reviews are omitted.
+     *
+     * @param userIds the IDs of the users
+     * @return the review count of each user with at least one review
+     */
     @Query("""
-            SELECT r
+            SELECT r.user.id AS userId, COUNT(r) AS reviewCount
             FROM ReviewEntity r
-            WHERE r.user.id = :userId
-              AND r.rating = 5.0
-            ORDER BY r.createdAt DESC
+            WHERE r.user.id IN :userIds
+            GROUP BY r.user.id
             """)
-    Page<ReviewEntity> findReviewsWithRatingFiveByUserId(@Param("userId") Long userId, Pageable pageable);
-}
\ No newline at end of file
+    List<UserReviewCount> countByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Retrieves a page of the IDs of a user's reviews without loading the reviews themselves.
+     *
+     * @param userId the ID of the user
+     * @param pageable the pagination and sorting parameters
+     * @return a page of review IDs
+     */
+    @Query(value = "SELECT r.id FROM ReviewEntity r WHERE r.user.id = :userId",
+            countQuery = "SELECT COUNT(r) FROM ReviewEntity r WHERE r.user.id = :userId")
+    Page<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+}
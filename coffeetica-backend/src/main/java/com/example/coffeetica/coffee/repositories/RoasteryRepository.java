@@ -1,11 +1,20 @@
 package com.example.coffeetica.coffee.repositories;
 
+import com.example.coffeetica.coffee.images.ImageReference;
 import com.example.coffeetica.coffee.models.RoasteryEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -19,4 +28,158 @@ public interface RoasteryRepository extends JpaRepository<RoasteryEntity, Long>,
 
     Page<RoasteryEntity> findAll(Pageable pageable);
 
+    /**
+     * Retrieves the ID of the featured coffee of a roastery without loading the roastery.
+     *
+     * @param roasteryId the ID of the roastery
+     * @return the featured coffee ID, or empty if the roastery does not exist or has none
+     */
+    @Query("SELECT r.featuredCoffeeId FROM RoasteryEntity r WHERE r.id = :roasteryId")
+    Optional<Long> findFeaturedCoffeeIdById(@Param("roasteryId") Long roasteryId);
+
+    /**
+     * Locks the roasteries whose featured coffee changes to the given coffees affect, as
+     * selected by {@link #refreshFeaturedCoffees(Collection, int)}, until the transaction ends.
+     * <p>
+     * A transaction re-selecting the featured coffee of a roastery then waits for another one
+     * doing so to commit, and its selection, a later statement, sees the rating aggregates
+     * that one committed.
+     *
+     * @param coffeeIds the IDs of the changed coffees
+     * @return the IDs of the locked roasteries
+     */
+    @Query(value = """
+        SELECT r.id FROM roasteries r
+        WHERE r.id IN (
+            SELECT c.roastery_id FROM coffees c WHERE c.id IN (:coffeeIds)
+            UNION
+            SELECT f.id FROM roasteries f WHERE f.featured_coffee_id IN (:coffeeIds)
+        )
+        ORDER BY r.id
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Long> lockFeaturedCoffeeRoasteries(@Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /**
+     * Locks every roastery until the transaction ends, like
+     * {@link #lockFeaturedCoffeeRoasteries(Collection)}.
+     *
+     * @return the IDs of all roasteries
+     */
+    @Query(value = "SELECT r.id FROM roasteries r ORDER BY r.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllRoasteries();
+
+    /**
+     * Re-selects the featured coffee of the roasteries affected by changes to the given
+     * coffees: the roasteries owning them and any roastery currently featuring one of
+     * them (which covers coffees moved to another roastery or deleted).
+     * <p>
+     * The featured coffee is the one with the highest average rating among those with
+     * at least {@code minReviews} reviews; ties go to the coffee with more reviews,
+     * then to the older one (lower ID). Roasteries without such a coffee get none.
+     *
+     * @param coffeeIds the IDs of the changed coffees
+     * @param minReviews the minimum number of reviews of a featured coffee, at least 1
+     * @return the number of updated roasteries
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+        UPDATE roasteries SET featured_coffee_id = (
+            SELECT c.id FROM coffees c
+            WHERE c.roastery_id = roasteries.id AND c.review_count >= :minReviews
+            ORDER BY c.average_rating DESC, c.review_count DESC, c.id ASC
+            FETCH FIRST 1 ROWS ONLY
+        )
+        WHERE id IN (
+            SELECT c.roastery_id FROM coffees c WHERE c.id IN (:coffeeIds)
+            UNION
+            SELECT r.id FROM roasteries r WHERE r.featured_coffee_id IN (:coffeeIds)
+        )
+    """, nativeQuery = true)
+    int refreshFeaturedCoffees(@Param("coffeeIds") Collection<Long> coffeeIds,
+                               @Param("minReviews") int minReviews);
+
+    /**
+     * Re-selects the featured coffee of every roastery, by the rules of
+     * {@link #refreshFeaturedCoffees(Collection, int)}.
+     *
+     * @param minReviews the minimum number of reviews of a featured coffee, at least 1
+     * @return the number of updated roasteries
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+        UPDATE roasteries SET featured_coffee_id = (
+            SELECT c.id FROM coffees c
+            WHERE c.roastery_id = roasteries.id AND c.review_count >= :minReviews
+            ORDER BY c.average_rating DESC, c.review_count DESC, c.id ASC
+            FETCH FIRST 1 ROWS ONLY
+        )
+    """, nativeQuery = true)
+    int refreshAllFeaturedCoffees(@Param("minReviews") int minReviews);
+
+    /**
+     * Retrieves every roastery that has an image, for re-processing the renditions.
+     *
+     * @return the IDs and image URLs of the roasteries with an image
+     */
+    @Query("SELECT new com.example.coffeetica.coffee.images.ImageReference(r.id, r.imageUrl) FROM RoasteryEntity r WHERE r.imageUrl IS NOT NULL")
+    List<ImageReference> findImageReferences();
+
+    /**
+     * Picks the URLs still referenced by roasteries out of a batch, as the image or one of
+     * its renditions, for sweeping orphaned files.
+     *
+     * @param urls the image file URLs to look up
+     * @return the URLs referenced by at least one roasterie
+     */
+    @Query("""
+        SELECT r.imageUrl FROM RoasteryEntity r WHERE r.imageUrl IN :urls
+        UNION SELECT r.thumbnailUrl FROM RoasteryEntity r WHERE r.thumbnailUrl IN :urls
+        UNION SELECT r.cardUrl FROM RoasteryEntity r WHERE r.cardUrl IN :urls
+        UNION SELECT r.fullUrl FROM RoasteryEntity r WHERE r.fullUrl IN :urls
+    """)
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
+    /**
+     * Stores the renditions of a roastery's image, provided the roastery still shows that image.
+     *
+     * @param id the ID of the roastery
+     * @param imageUrl the image the renditions were generated from
+     * @param thumbnailUrl the URL of the thumbnail rendition
+     * @param cardUrl the URL of the card rendition
+     * @param fullUrl the URL of the full rendition
+     * @param imagePlaceholder the inline placeholder
+     * @return the number of updated rows, 0 if the image has been replaced in the meantime
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE RoasteryEntity r
+        SET r.thumbnailUrl = :thumbnailUrl, r.cardUrl = :cardUrl,
+            r.fullUrl = :fullUrl, r.imagePlaceholder = :imagePlaceholder
+        WHERE r.id = :id AND r.imageUrl = :imageUrl
+    """)
+    int updateImageRenditions(@Param("id") Long id,
+                              @Param("imageUrl") String imageUrl,
+                              @Param("thumbnailUrl") String thumbnailUrl,
+                              @Param("cardUrl") String cardUrl,
+                              @Param("fullUrl") String fullUrl,
+                              @Param("imagePlaceholder") String imagePlaceholder);
+
+    /**
+     * Drops the renditions of a roastery's image when the image is replaced.
+     *
+     * @param id the ID of the roastery
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE RoasteryEntity r
+        SET r.thumbnailUrl = NULL, r.cardUrl = NULL, r.fullUrl = NULL, r.imagePlaceholder = NULL
+        WHERE r.id = :id
+    """)
+    int clearImageRenditions(@Param("id") Long id);
 }
@@ -0,0 +1,405 @@
+package com.example.coffeetica.coffee.search;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.index.BackgroundRefresher;
+import com.example.coffeetica.coffee.index.BackgroundRefresher.Changes;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * An embedded Lucene index over the text attributes of the coffee catalog, answering
+ * free-text searches ranked by relevance and rating.
+ * <p>
+ * Coffee names, roastery names, origins, processing methods and flavor notes are
+ * tokenized and stemmed with the {@link EnglishAnalyzer}, so "washing" finds "Washed"
+ * coffees. Every search term must match in at least one field, the last term also as
+ * a prefix so that partially typed words match. The text relevance is multiplied by
+ * {@code 1 + ratingWeight * averageRating / 5}, stored per document as a doc value.
+ * <p>
+ * The index lives in memory, is loaded once the application is ready and is updated
+ * incrementally by the catalog change events and by rating changes. The events only
+ * record the affected coffees and roasteries, also while the index is loading; a
+ * {@link BackgroundRefresher} reindexes them and refreshes the searcher once per burst
+ * of changes, off the committing request thread. Searches return empty until the index
+ * is loaded; callers then fall back to the database.
+ */
+@Component
+public class CoffeeSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoffeeSearchIndex.class);
+
+    static final String ID = "id";
+    static final String ROASTERY_ID = "roasteryId";
+    static final String NAME = "name";
+    static final String ROASTERY = "roastery";
+    static final String ORIGIN = "origin";
+    static final String PROCESSING = "processing";
+    static final String NOTES = "notes";
+    static final String RATING_BOOST = "ratingBoost";
+
+    /**
+     * Searched fields and their relative weights.
+     */
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            NAME, 3.0f,
+            ROASTERY, 2.0f,
+            NOTES, 1.5f,
+            ORIGIN, 1.5f,
+            PROCESSING, 1.0f
+    );
+
+    /**
+     * Shorter prefixes expand to too many terms to be a useful match.
+     */
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final double MAX_RATING = 5.0;
+
+    private final CoffeeRepository coffeeRepository;
+    private final double ratingWeight;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private final BackgroundRefresher refresher;
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructs a new {@link CoffeeSearchIndex} with an empty in-memory index.
+     *
+     * @param coffeeRepository the repository the catalog is loaded from
+     * @param ratingWeight how strongly the average rating lifts the text relevance
+     * @param transactionManager the transaction manager for the background refreshes
+     * @param retryDelay how long to wait before retrying a failed refresh
+     */
+    @Autowired
+    public CoffeeSearchIndex(CoffeeRepository coffeeRepository,
+                             @Value("${app.search.rating-weight:0.5}") double ratingWeight,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.catalog.index.refresh-retry-delay:5s}") Duration retryDelay) {
+        this.coffeeRepository = coffeeRepository;
+        this.ratingWeight = ratingWeight;
+        this.refresher = new BackgroundRefresher("search-index-refresh", transactionManager, retryDelay,
+                this::refresh);
+        this.writer = openWriter(analyzer);
+        this.searcherManager = openSearcherManager(writer);
+    }
+
+    /**
+     * Constructs a {@link CoffeeSearchIndex} refreshing on the given executor, without transactions.
+     */
+    CoffeeSearchIndex(CoffeeRepository coffeeRepository, double ratingWeight, Executor executor) {
+        this.coffeeRepository = coffeeRepository;
+        this.ratingWeight = ratingWeight;
+        this.refresher = new BackgroundRefresher(executor, TransactionOperations.withoutTransaction(), this::refresh);
+        this.writer = openWriter(analyzer);
+        this.searcherManager = openSearcherManager(writer);
+    }
+
+    private static IndexWriter openWriter(Analyzer analyzer) {
+        try {
+            return new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SearcherManager openSearcherManager(IndexWriter writer) {
+        try {
+            return new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches the catalog.
+     *
+     * @param text the free-text query
+     * @param pageable the requested page; its sort is ignored, results are ordered by score
+     * @return the page of matching coffee IDs, best first, or empty if the index is not loaded
+     */
+    public Optional<Page<Long>> search(String text, Pageable pageable) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        Query query = parse(text);
+        if (query == null) {
+            return Optional.of(Page.empty(pageable));
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+                int maxDoc = searcher.getIndexReader().maxDoc();
+                if (offset >= maxDoc) {
+                    // Past the last document, e.g. a huge page number: nothing to rank
+                    return Optional.of(new PageImpl<>(List.of(), pageable, searcher.count(query)));
+                }
+                long limit = pageable.isPaged() ? offset + pageable.getPageSize() : maxDoc;
+                TopDocs topDocs = searcher.search(rank(query), (int) Math.min(limit, maxDoc));
+
+                List<Long> ids = new ArrayList<>();
+                ScoreDoc[] hits = topDocs.scoreDocs;
+                for (int i = (int) offset; i < hits.length; i++) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(hits[i].doc).get(ID)));
+                }
+                return Optional.of(new PageImpl<>(ids, pageable, searcher.count(query)));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the text query: every analyzed term must match in some field.
+     *
+     * @param text the free-text query
+     * @return the query, or null if the text has no searchable terms
+     */
+    Query parse(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            boolean prefix = i == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                Query match = new TermQuery(new Term(field, term));
+                if (prefix) {
+                    // An exact match scores on both clauses, a completion on the prefix only
+                    match = new BooleanQuery.Builder()
+                            .add(match, BooleanClause.Occur.SHOULD)
+                            .add(new PrefixQuery(new Term(field, term)), BooleanClause.Occur.SHOULD)
+                            .build();
+                }
+                anyField.add(new BoostQuery(match, boost), BooleanClause.Occur.SHOULD);
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private Query rank(Query query) {
+        return FunctionScoreQuery.boostByValue(query, DoubleValuesSource.fromDoubleField(RATING_BOOST));
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Document toDocument(CoffeeEntity coffee) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(coffee.getId()), Field.Store.YES));
+        addText(document, NAME, coffee.getName());
+        addText(document, ORIGIN, coffee.getCountryOfOrigin());
+        addText(document, PROCESSING, coffee.getProcessingMethod());
+        if (coffee.getRoastery() != null) {
+            document.add(new StringField(ROASTERY_ID, String.valueOf(coffee.getRoastery().getId()), Field.Store.NO));
+            addText(document, ROASTERY, coffee.getRoastery().getName());
+        }
+        if (coffee.getFlavorNotes() != null) {
+            coffee.getFlavorNotes().forEach(note -> addText(document, NOTES, note));
+        }
+        double rating = coffee.getAverageRating() != null ? coffee.getAverageRating() : 0.0;
+        document.add(new DoubleDocValuesField(RATING_BOOST, 1.0 + ratingWeight * rating / MAX_RATING));
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Loads the whole catalog into the index, then starts applying the changes recorded
+     * meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        List<CoffeeEntity> coffees = coffeeRepository.findAllWithDetails();
+        update(() -> {
+            writer.deleteAll();
+            for (CoffeeEntity coffee : coffees) {
+                writer.addDocument(toDocument(coffee));
+            }
+        });
+        loaded = true;
+        logger.info("Search index loaded with {} coffees", coffees.size());
+        refresher.start();
+    }
+
+    /**
+     * Records a committed coffee change, to be reindexed or removed in the background.
+     *
+     * @param event the coffee change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        refresher.coffeesChanged(List.of(event.getCoffeeId()));
+    }
+
+    /**
+     * Records a committed roastery change, whose coffees are reindexed in the background;
+     * a deleted roastery takes its coffees with it.
+     *
+     * @param event the roastery change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        refresher.roasteryChanged(event.getRoasteryId());
+    }
+
+    /**
+     * Records a change to the rating boost of the coffees whose rating aggregates changed.
+     *
+     * @param event the rating change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(CoffeeRatingChangedEvent event) {
+        if (event.isAll()) {
+            refresher.allChanged();
+        } else {
+            refresher.coffeesChanged(event.getCoffeeIds());
+        }
+    }
+
+    /**
+     * Reindexes the recorded coffees and roasteries and refreshes the searcher once.
+     * Runs on the refresher's thread, in its read-only transaction.
+     */
+    private synchronized void refresh(Changes changes) {
+        if (changes.all()) {
+            rebuild();
+            return;
+        }
+        Map<Long, List<CoffeeEntity>> roasteryCoffees = new HashMap<>();
+        for (Long roasteryId : changes.roasteryIds()) {
+            // Empty for a deleted roastery
+            roasteryCoffees.put(roasteryId, coffeeRepository.findAllWithDetailsByRoasteryId(roasteryId));
+        }
+        List<CoffeeEntity> coffees = changes.coffeeIds().isEmpty()
+                ? List.of()
+                : coffeeRepository.findAllWithDetailsByIdIn(changes.coffeeIds());
+        update(() -> {
+            for (Map.Entry<Long, List<CoffeeEntity>> roastery : roasteryCoffees.entrySet()) {
+                writer.deleteDocuments(new Term(ROASTERY_ID, String.valueOf(roastery.getKey())));
+                for (CoffeeEntity coffee : roastery.getValue()) {
+                    writer.addDocument(toDocument(coffee));
+                }
+            }
+            // Coffees not found any more were deleted
+            for (Long coffeeId : changes.coffeeIds()) {
+                writer.deleteDocuments(idTerm(coffeeId));
+            }
+            for (CoffeeEntity coffee : coffees) {
+                writer.addDocument(toDocument(coffee));
+            }
+        });
+    }
+
+    private static Term idTerm(Long coffeeId) {
+        return new Term(ID, String.valueOf(coffeeId));
+    }
+
+    private void update(IndexUpdate update) {
+        try {
+            update.apply();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexUpdate {
+        void apply() throws IOException;
+    }
+
+    /**
+     * Stops the background refreshes and releases the index when the application shuts down.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        refresher.shutdown();
+        searcherManager.close();
+        writer.close();
+    }
+}
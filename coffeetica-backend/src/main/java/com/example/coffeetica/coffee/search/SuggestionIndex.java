@@ -0,0 +1,241 @@
+package com.example.coffeetica.coffee.search;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.index.BackgroundRefresher;
+import com.example.coffeetica.coffee.index.BackgroundRefresher.Changes;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.models.enums.SuggestionType;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.search.SuggestionSnapshot.WeightedSuggestion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Serves typeahead suggestions for coffee names, roastery names and flavor notes from
+ * an in-memory {@link SuggestionSnapshot}, without touching the database per keystroke.
+ * <p>
+ * Suggestions are weighted by popularity: a coffee by its number of reviews, a roastery
+ * and a flavor note by the summed weight of their coffees. The index keeps the catalog
+ * attributes it needs in memory; change events only record the affected IDs, also while
+ * the index is loading, and a {@link BackgroundRefresher} reloads those rows and publishes
+ * a freshly built snapshot once per burst of changes, so writes never pay for the rebuild
+ * and readers never block.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private final CoffeeRepository coffeeRepository;
+    private final RoasteryRepository roasteryRepository;
+
+    /**
+     * The suggestible attributes of every coffee and roastery, ordered by ID so
+     * that the label chosen for differently spelled flavor notes is stable.
+     */
+    private final Map<Long, IndexedCoffee> coffees = new TreeMap<>();
+    private final Map<Long, String> roasteries = new TreeMap<>();
+
+    private volatile SuggestionSnapshot snapshot;
+
+    private final BackgroundRefresher refresher;
+
+    private record IndexedCoffee(String name, Long roasteryId, Set<String> flavorNotes, long weight) {
+    }
+
+    /**
+     * Constructs a new {@link SuggestionIndex}.
+     *
+     * @param coffeeRepository the repository coffees and flavor notes are loaded from
+     * @param roasteryRepository the repository roasteries are loaded from
+     * @param transactionManager the transaction manager for the background refreshes
+     * @param retryDelay how long to wait before retrying a failed refresh
+     */
+    @Autowired
+    public SuggestionIndex(CoffeeRepository coffeeRepository,
+                           RoasteryRepository roasteryRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.catalog.index.refresh-retry-delay:5s}") Duration retryDelay) {
+        this.coffeeRepository = coffeeRepository;
+        this.roasteryRepository = roasteryRepository;
+        this.refresher = new BackgroundRefresher("suggestion-index-refresh", transactionManager, retryDelay,
+                this::refresh);
+    }
+
+    /**
+     * Constructs a {@link SuggestionIndex} refreshing on the given executor, without transactions.
+     */
+    SuggestionIndex(CoffeeRepository coffeeRepository, RoasteryRepository roasteryRepository, Executor executor) {
+        this.coffeeRepository = coffeeRepository;
+        this.roasteryRepository = roasteryRepository;
+        this.refresher = new BackgroundRefresher(executor, TransactionOperations.withoutTransaction(), this::refresh);
+    }
+
+    /**
+     * Suggests completions for a partially typed query.
+     *
+     * @param query the typed text
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, most popular first; empty while the index is loading
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        SuggestionSnapshot current = snapshot;
+        String prefix = SuggestionSnapshot.normalize(query);
+        if (current == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return current.complete(prefix, Math.min(limit, SuggestionSnapshot.MAX_RESULTS));
+    }
+
+    /**
+     * Loads all coffees and roasteries into a new snapshot, then starts applying the
+     * changes recorded meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        coffees.clear();
+        roasteries.clear();
+        roasteryRepository.findAll().forEach(roastery -> roasteries.put(roastery.getId(), roastery.getName()));
+        coffeeRepository.findAllWithDetails().forEach(this::put);
+        publish();
+        logger.info("Suggestion index loaded with {} keys", snapshot.size());
+        refresher.start();
+    }
+
+    /**
+     * Stops the background refreshes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdown();
+    }
+
+    /**
+     * Records a committed coffee change, to be reloaded in the background.
+     *
+     * @param event the coffee change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        refresher.coffeesChanged(List.of(event.getCoffeeId()));
+    }
+
+    /**
+     * Records a committed roastery change, to be reloaded in the background; a deleted
+     * roastery takes its coffees with it.
+     *
+     * @param event the roastery change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        refresher.roasteryChanged(event.getRoasteryId());
+    }
+
+    /**
+     * Records a change to the popularity of coffees whose review counts changed.
+     *
+     * @param event the rating change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(CoffeeRatingChangedEvent event) {
+        if (event.isAll()) {
+            refresher.allChanged();
+        } else {
+            refresher.coffeesChanged(event.getCoffeeIds());
+        }
+    }
+
+    /**
+     * Applies the recorded changes and publishes one new snapshot.
+     * Runs on the refresher's thread, in its read-only transaction.
+     */
+    private synchronized void refresh(Changes changes) {
+        if (changes.all()) {
+            rebuild();
+            return;
+        }
+        for (Long roasteryId : changes.roasteryIds()) {
+            roasteryRepository.findById(roasteryId).ifPresentOrElse(
+                    roastery -> roasteries.put(roastery.getId(), roastery.getName()),
+                    () -> {
+                        roasteries.remove(roasteryId);
+                        coffees.values().removeIf(coffee -> roasteryId.equals(coffee.roasteryId()));
+                    });
+        }
+        if (!changes.coffeeIds().isEmpty()) {
+            // Coffees not found any more were deleted
+            coffees.keySet().removeAll(changes.coffeeIds());
+            coffeeRepository.findAllWithDetailsByIdIn(changes.coffeeIds()).forEach(this::put);
+        }
+        publish();
+    }
+
+    private void put(CoffeeEntity coffee) {
+        RoasteryEntity roastery = coffee.getRoastery();
+        if (roastery != null) {
+            roasteries.put(roastery.getId(), roastery.getName());
+        }
+        long weight = 1L + (coffee.getReviewCount() != null ? coffee.getReviewCount() : 0);
+        coffees.put(coffee.getId(), new IndexedCoffee(coffee.getName(),
+                roastery != null ? roastery.getId() : null,
+                coffee.getFlavorNotes() != null ? Set.copyOf(coffee.getFlavorNotes()) : Set.of(),
+                weight));
+    }
+
+    private void publish() {
+        Map<Long, Long> roasteryWeights = new HashMap<>();
+        Map<String, Long> noteWeights = new HashMap<>();
+        Map<String, String> noteLabels = new HashMap<>();
+        List<WeightedSuggestion> entries = new ArrayList<>();
+
+        coffees.forEach((id, coffee) -> {
+            if (coffee.name() != null) {
+                entries.add(new WeightedSuggestion(new SuggestionDTO(coffee.name(), SuggestionType.COFFEE, id),
+                        coffee.weight()));
+            }
+            if (coffee.roasteryId() != null) {
+                roasteryWeights.merge(coffee.roasteryId(), coffee.weight(), Long::sum);
+            }
+            for (String note : coffee.flavorNotes()) {
+                String key = SuggestionSnapshot.normalize(note);
+                noteWeights.merge(key, coffee.weight(), Long::sum);
+                noteLabels.putIfAbsent(key, note);
+            }
+        });
+        roasteries.forEach((id, name) -> {
+            if (name != null) {
+                entries.add(new WeightedSuggestion(new SuggestionDTO(name, SuggestionType.ROASTERY, id),
+                        1L + roasteryWeights.getOrDefault(id, 0L)));
+            }
+        });
+        noteWeights.forEach((key, weight) -> entries.add(new WeightedSuggestion(
+                new SuggestionDTO(noteLabels.get(key), SuggestionType.FLAVOR_NOTE, null), weight)));
+
+        snapshot = new SuggestionSnapshot(entries);
+    }
+}
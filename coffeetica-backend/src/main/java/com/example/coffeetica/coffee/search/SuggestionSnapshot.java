@@ -0,0 +1,171 @@
+package com.example.coffeetica.coffee.search;
+
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable prefix index over weighted suggestions, laid out as a flattened trie:
+ * the normalized keys are kept in one sorted array, so the completions of any prefix
+ * form a contiguous range found by two binary searches.
+ * <p>
+ * Every suggestion is keyed by its whole text and by each word-initial suffix of it,
+ * so "guji" completes to "Ethiopia Guji". Suggestions are numbered by rank (weight
+ * descending), which turns "best completions of a prefix" into "smallest distinct
+ * ranks in its range". Short, popular prefixes have large ranges; their results are
+ * computed once per snapshot and memoized.
+ */
+final class SuggestionSnapshot {
+
+    /**
+     * The most suggestions a single lookup may return.
+     */
+    static final int MAX_RESULTS = 20;
+
+    /**
+     * Ranges larger than this are memoized instead of scanned on every lookup.
+     */
+    private static final int MEMOIZE_RANGE = 64;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\-_/,.]+");
+
+    private final SuggestionDTO[] suggestions;
+    private final String[] keys;
+    private final int[] ranks;
+    private final Map<String, int[]> memoized = new ConcurrentHashMap<>();
+
+    /**
+     * A suggestion together with its popularity.
+     */
+    record WeightedSuggestion(SuggestionDTO suggestion, long weight) {
+    }
+
+    private record Key(String key, int rank) {
+    }
+
+    /**
+     * Builds the sorted key array for the given suggestions.
+     *
+     * @param entries the suggestions and their weights, in any order
+     */
+    SuggestionSnapshot(List<WeightedSuggestion> entries) {
+        this.suggestions = entries.stream()
+                .sorted(Comparator.comparingLong(WeightedSuggestion::weight).reversed()
+                        .thenComparing(entry -> entry.suggestion().getText()))
+                .map(WeightedSuggestion::suggestion)
+                .toArray(SuggestionDTO[]::new);
+
+        List<Key> entryKeys = new ArrayList<>();
+        for (int rank = 0; rank < suggestions.length; rank++) {
+            for (String key : keys(suggestions[rank].getText())) {
+                entryKeys.add(new Key(key, rank));
+            }
+        }
+        entryKeys.sort(Comparator.comparing(Key::key).thenComparingInt(Key::rank));
+
+        this.keys = new String[entryKeys.size()];
+        this.ranks = new int[entryKeys.size()];
+        for (int i = 0; i < entryKeys.size(); i++) {
+            keys[i] = entryKeys.get(i).key();
+            ranks[i] = entryKeys.get(i).rank();
+        }
+    }
+
+    /**
+     * Lower-cases the text, strips diacritics and collapses separators to single spaces,
+     * so that "Café-Noir" and "cafe noir" share their keys.
+     *
+     * @param text the text to normalize
+     * @return the normalized text, empty for null
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static Set<String> keys(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the best suggestions completing the prefix.
+     *
+     * @param prefix the normalized prefix, not empty
+     * @param limit the maximum number of suggestions, at most {@link #MAX_RESULTS}
+     * @return the suggestions, most popular first
+     */
+    List<SuggestionDTO> complete(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+
+        int[] best = to - from > MEMOIZE_RANGE
+                ? memoized.computeIfAbsent(prefix, key -> bestRanks(from, to))
+                : bestRanks(from, to);
+
+        int count = Math.min(limit, best.length);
+        List<SuggestionDTO> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[best[i]]);
+        }
+        return result;
+    }
+
+    private int[] bestRanks(int from, int to) {
+        int[] range = Arrays.copyOfRange(ranks, from, to);
+        Arrays.sort(range);
+        int[] best = new int[Math.min(MAX_RESULTS, range.length)];
+        int count = 0;
+        for (int i = 0; i < range.length && count < best.length; i++) {
+            // A suggestion can be reached through several of its keys
+            if (count == 0 || best[count - 1] != range[i]) {
+                best[count++] = range[i];
+            }
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of keys in the index
+     */
+    int size() {
+        return keys.length;
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.coffeetica.coffee.services;
 
+import com.example.coffeetica.coffee.images.ImageReference;
+import com.example.coffeetica.coffee.images.ImageRenditions;
 import com.example.coffeetica.coffee.models.CoffeeDTO;
 
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
 import com.example.coffeetica.coffee.models.enums.FlavorProfile;
 import com.example.coffeetica.coffee.models.enums.Region;
 import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.utility.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -56,6 +63,113 @@ public interface CoffeeService {
             Pageable pageable
     );
 
+    /**
+     * Finds coffees by the same optional attributes as {@link #findCoffees}, returning a
+     * slice that only knows whether a next page exists. No COUNT query is executed.
+     *
+     * @param name coffee name (optional)
+     * @param countryOfOrigin coffee origin country (optional)
+     * @param region region enum (optional)
+     * @param roastLevel roast level enum (optional)
+     * @param flavorProfile flavor profile enum (optional)
+     * @param flavorNotes set of flavor notes (optional)
+     * @param processingMethod the method used for coffee processing (optional)
+     * @param minProductionYear optional lower bound for production year
+     * @param maxProductionYear optional upper bound for production year
+     * @param roasteryName optional roastery name filter
+     * @param pageable pagination and sorting info
+     * @return a slice of matching coffees
+     */
+    Slice<CoffeeDTO> findCoffeesSlice(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName,
+            Pageable pageable
+    );
+
+    /**
+     * Finds coffees by the same optional attributes as {@link #findCoffees}, using keyset
+     * pagination: the next page continues after the sort key of the last returned coffee,
+     * and no total count is computed.
+     *
+     * @param name coffee name (optional)
+     * @param countryOfOrigin coffee origin country (optional)
+     * @param region region enum (optional)
+     * @param roastLevel roast level enum (optional)
+     * @param flavorProfile flavor profile enum (optional)
+     * @param flavorNotes set of flavor notes (optional)
+     * @param processingMethod the method used for coffee processing (optional)
+     * @param minProductionYear optional lower bound for production year
+     * @param maxProductionYear optional upper bound for production year
+     * @param roasteryName optional roastery name filter
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of coffees to return
+     * @param sort the sort order; only id, name, productionYear, averageRating and reviewCount are supported
+     * @return the coffees and the cursor of the next page, if any
+     */
+    CursorPage<CoffeeDTO> findCoffeesByCursor(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName,
+            String cursor,
+            int limit,
+            Sort sort
+    );
+
+    /**
+     * Counts the coffees matching the same optional attributes as {@link #findCoffees} per value
+     * of each facet (region, roast level, flavor profile, flavor note, processing method,
+     * roastery and production year).
+     *
+     * @param name coffee name (optional)
+     * @param countryOfOrigin coffee origin country (optional)
+     * @param region region enum (optional)
+     * @param roastLevel roast level enum (optional)
+     * @param flavorProfile flavor profile enum (optional)
+     * @param flavorNotes set of flavor notes (optional)
+     * @param processingMethod the method used for coffee processing (optional)
+     * @param minProductionYear optional lower bound for production year
+     * @param maxProductionYear optional upper bound for production year
+     * @param roasteryName optional roastery name filter
+     * @return the total number of matches and the counts per facet value
+     */
+    CoffeeFacetsDTO findCoffeeFacets(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName
+    );
+
+    /**
+     * Searches coffees by free text over their names, roasteries, origins, processing
+     * methods and flavor notes, best matches first. Relevance is lifted by the average rating.
+     *
+     * @param query the free-text query
+     * @param pageable pagination info; results are always ordered by score
+     * @return a page of matching coffees
+     */
+    Page<CoffeeDTO> searchCoffees(String query, Pageable pageable);
+
     /**
      * Finds a coffee by its ID, returning a basic DTO if found.
      *
@@ -85,10 +199,21 @@ public interface CoffeeService {
     Page<CoffeeDTO> findCoffeesByRoasteryId(Long roasteryId, int page, int size, String sortBy, String direction);
 
     /**
-     * Finds a "featured" coffee for a roastery (e.g. highest rated).
+     * Retrieves coffee details like {@link #findCoffeeDetails(Long)}, served from a
+     * short-lived cache; for views that embed a coffee, such as featured and favorite coffees.
+     *
+     * @param coffeeId the ID of the coffee
+     * @return an Optional containing the coffee details, or empty if not found
+     */
+    Optional<CoffeeDetailsDTO> findCachedCoffeeDetails(Long coffeeId);
+
+    /**
+     * Finds the featured coffee of a roastery: its best rated coffee with at least
+     * {@code app.roastery.featured-coffee.min-reviews} reviews, ties going to more
+     * reviews, then to the older coffee.
      *
      * @param roasteryId the roastery ID
-     * @return a coffee details DTO for the top coffee, or null if none found
+     * @return a coffee details DTO for the featured coffee, or null if none qualifies
      */
     CoffeeDetailsDTO findFeaturedCoffee(Long roasteryId);
 
@@ -123,4 +248,45 @@ public interface CoffeeService {
      * @param imageUrl the new image URL
      */
     void updateCoffeeImageUrl(Long id, String imageUrl);
+
+    /**
+     * Stores the renditions generated for a coffee's image, unless the coffee
+     * has been given another image since.
+     *
+     * @param id the coffee ID
+     * @param imageUrl the image the renditions were generated from
+     * @param renditions the renditions of the image
+     */
+    void updateCoffeeImageRenditions(Long id, String imageUrl, ImageRenditions renditions);
+
+    /**
+     * Lists the coffees that have an image, for re-processing their renditions.
+     *
+     * @return the IDs and image URLs of the coffees
+     */
+    List<ImageReference> findCoffeeImageReferences();
+
+    /**
+     * Picks the URLs still referenced by coffees out of a batch of image file URLs,
+     * as an image or one of its renditions.
+     *
+     * @param urls the URLs to look up
+     * @return the referenced URLs
+     */
+    Set<String> findReferencedCoffeeImageUrls(Collection<String> urls);
+
+    /**
+     * Recomputes the denormalized rating aggregates of the given coffees from their reviews,
+     * e.g. after reviews were removed by a cascade rather than through the review service.
+     *
+     * @param coffeeIds the IDs of the coffees to recompute
+     */
+    void recalculateRatingAggregates(Collection<Long> coffeeIds);
+
+    /**
+     * Corrects the rating aggregates of all coffees that have drifted from their reviews.
+     *
+     * @return the number of corrected coffees
+     */
+    int reconcileRatingAggregates();
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.example.coffeetica.coffee.services;
 
 import com.example.coffeetica.coffee.models.ReviewDTO;
 import com.example.coffeetica.coffee.models.ReviewRequestDTO;
+import com.example.coffeetica.utility.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +40,20 @@ public interface ReviewService {
      */
     Page<ReviewDTO> findReviewsByUserId(Long userId, Pageable pageable);
 
+    /**
+     * Retrieves reviews, optionally restricted to a coffee and/or a user, using keyset
+     * pagination: the next page continues after the sort key of the last returned review,
+     * and no total count is computed.
+     *
+     * @param coffeeId the coffee ID (optional)
+     * @param userId the user ID (optional)
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of reviews to return
+     * @param sort the sort order; only id, createdAt and rating are supported
+     * @return the reviews and the cursor of the next page, if any
+     */
+    CursorPage<ReviewDTO> findReviewsByCursor(Long coffeeId, Long userId, String cursor, int limit, Sort sort);
+
     /**
      * Finds a single review by its ID.
      *
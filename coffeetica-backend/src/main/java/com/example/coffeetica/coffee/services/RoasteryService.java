@@ -1,12 +1,16 @@
 package com.example.coffeetica.coffee.services;
 
+import com.example.coffeetica.coffee.images.ImageReference;
+import com.example.coffeetica.coffee.images.ImageRenditions;
 import com.example.coffeetica.coffee.models.RoasteryDTO;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service interface defining operations for managing roasteries.
@@ -86,4 +90,30 @@ public interface RoasteryService {
      */
     void updateRoasteryImageUrl(Long id, String imageUrl);
 
+    /**
+     * Stores the renditions generated for a roastery's image, unless the roastery
+     * has been given another image since.
+     *
+     * @param id the roastery's ID
+     * @param imageUrl the image the renditions were generated from
+     * @param renditions the renditions of the image
+     */
+    void updateRoasteryImageRenditions(Long id, String imageUrl, ImageRenditions renditions);
+
+    /**
+     * Lists the roasteries that have an image, for re-processing their renditions.
+     *
+     * @return the IDs and image URLs of the roasteries
+     */
+    List<ImageReference> findRoasteryImageReferences();
+
+    /**
+     * Picks the URLs still referenced by roasteries out of a batch of image file URLs,
+     * as an image or one of its renditions.
+     *
+     * @param urls the URLs to look up
+     * @return the referenced URLs
+     */
+    Set<String> findReferencedRoasteryImageUrls(Collection<String> urls);
+
 }
\ No newline at end of file
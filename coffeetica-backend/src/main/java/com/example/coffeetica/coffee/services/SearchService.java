@@ -0,0 +1,21 @@
+package com.example.coffeetica.coffee.services;
+
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for search helpers spanning the whole catalog.
+ */
+public interface SearchService {
+
+    /**
+     * Suggests coffee names, roastery names and flavor notes completing a partially
+     * typed query, most popular first.
+     *
+     * @param query the typed text
+     * @param limit the maximum number of suggestions
+     * @return the suggestions; empty for a blank query
+     */
+    List<SuggestionDTO> suggest(String query, int limit);
+}
@@ -1,5 +1,17 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.cache.CoffeeCountCache;
+import com.example.coffeetica.coffee.cache.CoffeeDetailsCache;
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.ImageAssignedEvent;
+import com.example.coffeetica.coffee.images.ImageReference;
+import com.example.coffeetica.coffee.images.ImageRenditions;
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.index.CoffeeCatalogIndex;
+import com.example.coffeetica.coffee.mappers.CoffeeMapper;
+import com.example.coffeetica.coffee.mappers.ReviewMapper;
 import com.example.coffeetica.coffee.models.*;
 import com.example.coffeetica.coffee.models.enums.FlavorProfile;
 import com.example.coffeetica.coffee.models.enums.Region;
@@ -7,23 +19,37 @@ import com.example.coffeetica.coffee.models.enums.RoastLevel;
 import com.example.coffeetica.coffee.repositories.CoffeeRepository;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
 import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.search.CoffeeSearchIndex;
 import com.example.coffeetica.coffee.services.CoffeeService;
 import com.example.coffeetica.coffee.specification.CoffeeSpecification;
 
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
-import com.example.coffeetica.utility.FileHelper;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.coffeetica.utility.CursorPage;
+import com.example.coffeetica.utility.KeysetCursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import org.modelmapper.ModelMapper;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -33,17 +59,23 @@ import java.util.stream.Collectors;
 @Service
 public class CoffeeServiceImpl implements CoffeeService {
 
+    /**
+     * Non-null coffee columns that keyset pagination can seek on.
+     */
+    private static final Set<String> CURSOR_SORT_PROPERTIES =
+            Set.of("id", "name", "productionYear", "averageRating", "reviewCount");
+
     private final CoffeeRepository coffeeRepository;
     private final ReviewRepository reviewRepository;
     private final RoasteryRepository roasteryRepository;
-    private final ModelMapper modelMapper;
-
-    /**
-     * A file path for uploading coffee images, configured in application.properties,
-     * e.g. app.upload.coffees-path=/uploads/coffees/
-     */
-    @Value("${app.upload.coffees-path}")
-    private String coffeesUploadPath;
+    private final CoffeeMapper coffeeMapper;
+    private final ReviewMapper reviewMapper;
+    private final CoffeeCountCache coffeeCountCache;
+    private final CoffeeDetailsCache coffeeDetailsCache;
+    private final CoffeeCatalogIndex catalogIndex;
+    private final CoffeeSearchIndex searchIndex;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new instance of {@link CoffeeServiceImpl} with the necessary dependencies.
@@ -51,16 +83,37 @@ public class CoffeeServiceImpl implements CoffeeService {
      * @param coffeeRepository the repository for coffee entities
      * @param reviewRepository the repository for review entities
      * @param roasteryRepository the repository for roastery entities
-     * @param modelMapper the model mapper for converting entities and DTOs
+     * @param coffeeMapper the mapper between coffee entities and DTOs
+     * @param reviewMapper the mapper between review entities and DTOs
+     * @param coffeeCountCache the cache of filtered listing totals
+     * @param coffeeDetailsCache the cache of featured and favorite coffee details
+     * @param catalogIndex the in-memory index answering filtered listings
+     * @param searchIndex the full-text index answering catalog searches
+     * @param imageStore the store counting references to coffee images
+     * @param eventPublisher the publisher for catalog change events
      */
     public CoffeeServiceImpl(CoffeeRepository coffeeRepository,
                              ReviewRepository reviewRepository,
                              RoasteryRepository roasteryRepository,
-                             ModelMapper modelMapper) {
+                             CoffeeMapper coffeeMapper,
+                             ReviewMapper reviewMapper,
+                             CoffeeCountCache coffeeCountCache,
+                             CoffeeDetailsCache coffeeDetailsCache,
+                             CoffeeCatalogIndex catalogIndex,
+                             CoffeeSearchIndex searchIndex,
+                             ImageStore imageStore,
+                             ApplicationEventPublisher eventPublisher) {
         this.coffeeRepository = coffeeRepository;
         this.reviewRepository = reviewRepository;
         this.roasteryRepository = roasteryRepository;
-        this.modelMapper = modelMapper;
+        this.coffeeMapper = coffeeMapper;
+        this.reviewMapper = reviewMapper;
+        this.coffeeCountCache = coffeeCountCache;
+        this.coffeeDetailsCache = coffeeDetailsCache;
+        this.catalogIndex = catalogIndex;
+        this.searchIndex = searchIndex;
+        this.imageStore = imageStore;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -69,6 +122,7 @@ public class CoffeeServiceImpl implements CoffeeService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CoffeeDTO> findCoffees(
             String name,
             String countryOfOrigin,
@@ -82,26 +136,220 @@ public class CoffeeServiceImpl implements CoffeeService {
             String roasteryName,
             Pageable pageable
     ) {
+        CoffeeFilterKey filterKey = CoffeeFilterKey.of(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        Optional<Page<CoffeeDTO>> indexed = catalogIndex.findPage(filterKey, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
         Specification<CoffeeEntity> spec = CoffeeSpecification.filterByAttributes(
                 name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
                 processingMethod, minProductionYear, maxProductionYear, roasteryName
         );
 
-        return coffeeRepository.findAll(spec, pageable)
-                .map(entity -> modelMapper.map(entity, CoffeeDTO.class));
+        // Roasteries and flavor notes of the page are initialized in batches
+        // (hibernate.default_batch_fetch_size), keeping the query count independent of the page size.
+        Optional<Long> cachedTotal = coffeeCountCache.get(filterKey);
+        if (cachedTotal.isPresent()) {
+            // The total for this filter is known: skip the COUNT query
+            Slice<CoffeeEntity> slice = coffeeRepository.findSlice(spec, pageable);
+            return new PageImpl<>(slice.getContent(), pageable, cachedTotal.get())
+                    .map(coffeeMapper::toDTO);
+        }
+
+        Page<CoffeeEntity> page = coffeeRepository.findAll(spec, pageable);
+        coffeeCountCache.put(filterKey, page.getTotalElements());
+        return page.map(coffeeMapper::toDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<CoffeeDTO> findCoffeesSlice(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName,
+            Pageable pageable
+    ) {
+        CoffeeFilterKey filterKey = CoffeeFilterKey.of(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        Optional<Slice<CoffeeDTO>> indexed = catalogIndex.findSlice(filterKey, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        Specification<CoffeeEntity> spec = CoffeeSpecification.filterByAttributes(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        return coffeeRepository.findSlice(spec, pageable)
+                .map(coffeeMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CoffeeDTO> findCoffeesByCursor(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName,
+            String cursor,
+            int limit,
+            Sort sort
+    ) {
+        KeysetCursor.requireSortable(sort, CURSOR_SORT_PROPERTIES);
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, CoffeeEntity.class, sort);
+
+        Specification<CoffeeEntity> spec = CoffeeSpecification.filterByAttributes(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        Window<CoffeeEntity> window = coffeeRepository.findBy(spec, query -> query
+                .sortBy(sort)
+                .limit(CursorPage.boundedLimit(limit))
+                .scroll(position));
+
+        return CursorPage.of(window, sort, coffeeMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CoffeeFacetsDTO findCoffeeFacets(
+            String name,
+            String countryOfOrigin,
+            Region region,
+            RoastLevel roastLevel,
+            FlavorProfile flavorProfile,
+            Set<String> flavorNotes,
+            String processingMethod,
+            Integer minProductionYear,
+            Integer maxProductionYear,
+            String roasteryName
+    ) {
+        CoffeeFilterKey filterKey = CoffeeFilterKey.of(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        Optional<CoffeeFacetsDTO> indexed = catalogIndex.findFacets(filterKey);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        // One grouped query per facet, plus the total unless it is cached
+        Specification<CoffeeEntity> spec = CoffeeSpecification.filterByAttributes(
+                name, countryOfOrigin, region, roastLevel, flavorProfile, flavorNotes,
+                processingMethod, minProductionYear, maxProductionYear, roasteryName
+        );
+
+        CoffeeFacetsDTO facets = new CoffeeFacetsDTO();
+        facets.setTotal(coffeeCountCache.get(filterKey).orElseGet(() -> {
+            long total = coffeeRepository.count(spec);
+            coffeeCountCache.put(filterKey, total);
+            return total;
+        }));
+        facets.setRegions(FacetCountDTO.forEnum(Region.values(),
+                countByEnum(spec, "region", Region.class), Region::getDisplayName));
+        facets.setRoastLevels(FacetCountDTO.forEnum(RoastLevel.values(),
+                countByEnum(spec, "roastLevel", RoastLevel.class), RoastLevel::getDisplayName));
+        facets.setFlavorProfiles(FacetCountDTO.forEnum(FlavorProfile.values(),
+                countByEnum(spec, "flavorProfile", FlavorProfile.class), FlavorProfile::getDisplayName));
+        facets.setFlavorNotes(FacetCountDTO.byCount(countByText(spec, "flavorNotes")));
+        facets.setProcessingMethods(FacetCountDTO.byCount(countByText(spec, "processingMethod")));
+        facets.setRoasteries(FacetCountDTO.byCount(countByText(spec, "roastery.name")));
+
+        SortedMap<Integer, Long> years = new TreeMap<>();
+        coffeeRepository.countGroupedBy(spec, "productionYear")
+                .forEach((year, count) -> years.put((Integer) year, count));
+        facets.setProductionYears(FacetCountDTO.inKeyOrder(years));
+        return facets;
+    }
+
+    private <E extends Enum<E>> Map<E, Long> countByEnum(Specification<CoffeeEntity> spec,
+                                                         String attribute,
+                                                         Class<E> type) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        coffeeRepository.countGroupedBy(spec, attribute)
+                .forEach((value, count) -> counts.put(type.cast(value), count));
+        return counts;
+    }
+
+    /**
+     * Counts per text value, ignoring case like the catalog index: differently cased
+     * spellings are merged and labelled with the first one.
+     */
+    private Map<String, Long> countByText(Specification<CoffeeEntity> spec, String attribute) {
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, String> labels = new HashMap<>();
+        coffeeRepository.countGroupedBy(spec, attribute).forEach((value, count) -> {
+            String key = value.toString().toLowerCase();
+            labels.putIfAbsent(key, value.toString());
+            counts.merge(key, count, Long::sum);
+        });
+        Map<String, Long> labelled = new HashMap<>();
+        counts.forEach((key, count) -> labelled.put(labels.get(key), count));
+        return labelled;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CoffeeDTO> searchCoffees(String query, Pageable pageable) {
+        Optional<Page<Long>> hits = searchIndex.search(query, pageable);
+        if (hits.isEmpty()) {
+            // The index is still loading: fall back to a plain name match
+            Specification<CoffeeEntity> spec = CoffeeSpecification.filterByAttributes(
+                    query, null, null, null, null, null, null, null, null, null);
+            return coffeeRepository.findAll(spec, pageable).map(coffeeMapper::toDTO);
+        }
+
+        Page<Long> ids = hits.get();
+        Map<Long, CoffeeEntity> coffees = coffeeRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(CoffeeEntity::getId, coffee -> coffee));
+        // Keep the ranking order; a coffee deleted since the search is skipped
+        List<CoffeeDTO> content = ids.getContent().stream()
+                .map(coffees::get)
+                .filter(Objects::nonNull)
+                .map(coffeeMapper::toDTO)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<CoffeeDTO> findCoffeeById(Long id) {
         return coffeeRepository.findById(id)
-                .map(entity -> modelMapper.map(entity, CoffeeDTO.class));
+                .map(coffeeMapper::toDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<CoffeeDetailsDTO> findCoffeeDetails(Long coffeeId) {
-        return coffeeRepository.findById(coffeeId).map(coffeeEntity -> {
+        // One query for the coffee with roastery and flavor notes, one for the latest reviews
+        // with their authors; the reviews' coffee resolves from the persistence context.
+        return coffeeRepository.findWithDetailsById(coffeeId).map(coffeeEntity -> {
             // Map basic fields
-            CoffeeDetailsDTO details = modelMapper.map(coffeeEntity, CoffeeDetailsDTO.class);
+            CoffeeDetailsDTO details = coffeeMapper.toDetailsDTO(coffeeEntity);
 
             // Retrieve the last 3 reviews
             List<ReviewEntity> latestReviews =
@@ -109,7 +357,7 @@ public class CoffeeServiceImpl implements CoffeeService {
 
             List<ReviewDTO> reviewDTOs = latestReviews.stream()
                     .map(reviewEntity -> {
-                        ReviewDTO dto = modelMapper.map(reviewEntity, ReviewDTO.class);
+                        ReviewDTO dto = reviewMapper.toDTO(reviewEntity);
                         // Assign any missing relationship attributes
                         dto.setUserId(reviewEntity.getUser().getId());
                         dto.setUserName(reviewEntity.getUser().getUsername());
@@ -119,21 +367,16 @@ public class CoffeeServiceImpl implements CoffeeService {
                     .collect(Collectors.toList());
             details.setLatestReviews(reviewDTOs);
 
-            // Calculate average rating
-            Double avg = Optional.ofNullable(
-                    reviewRepository.findAverageRatingByCoffeeId(coffeeId)
-            ).orElse(0.0);
-            details.setAverageRating(avg);
-
-            // Count total reviews
-            int count = reviewRepository.countByCoffeeId(coffeeId).intValue();
-            details.setTotalReviewsCount(count);
+            // Aggregates are maintained incrementally on the review write path
+            details.setAverageRating(Optional.ofNullable(coffeeEntity.getAverageRating()).orElse(0.0));
+            details.setTotalReviewsCount(Optional.ofNullable(coffeeEntity.getReviewCount()).orElse(0));
 
             return details;
         });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CoffeeDTO> findCoffeesByRoasteryId(Long roasteryId,
                                                    int page,
                                                    int size,
@@ -145,31 +388,44 @@ public class CoffeeServiceImpl implements CoffeeService {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         return coffeeRepository.findByRoasteryId(roasteryId, pageable)
-                .map(entity -> modelMapper.map(entity, CoffeeDTO.class));
+                .map(coffeeMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CoffeeDetailsDTO> findCachedCoffeeDetails(Long coffeeId) {
+        return coffeeDetailsCache.get(coffeeId, this::findCoffeeDetails);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CoffeeDetailsDTO findFeaturedCoffee(Long roasteryId) {
-        Pageable pageable = PageRequest.of(0, 1);
-        Page<CoffeeEntity> page = coffeeRepository.findFeaturedCoffeeByRoasteryId(roasteryId, pageable);
-        if (page.hasContent()) {
-            Long coffeeId = page.getContent().get(0).getId();
-            return findCoffeeDetails(coffeeId).orElse(null);
-        }
-        return null;
+        // The featured coffee is stored on the roastery (see FeaturedCoffeeUpdater)
+        return roasteryRepository.findFeaturedCoffeeIdById(roasteryId)
+                .flatMap(this::findCachedCoffeeDetails)
+                .orElse(null);
     }
 
     @Override
+    @Transactional
     public CoffeeDTO saveCoffee(CoffeeDTO coffeeDTO) {
-        CoffeeEntity entity = modelMapper.map(coffeeDTO, CoffeeEntity.class);
+        CoffeeEntity entity = coffeeMapper.toEntity(coffeeDTO);
         CoffeeEntity savedEntity = coffeeRepository.save(entity);
-        return modelMapper.map(savedEntity, CoffeeDTO.class);
+        imageStore.reference(savedEntity.getImageUrl());
+        eventPublisher.publishEvent(new CoffeeChangedEvent(savedEntity.getId(), false));
+        if (savedEntity.getImageUrl() != null) {
+            eventPublisher.publishEvent(new ImageAssignedEvent(
+                    ImageAssignedEvent.Owner.COFFEE, savedEntity.getId(), savedEntity.getImageUrl()));
+        }
+        return coffeeMapper.toDTO(savedEntity);
     }
 
     @Override
+    @Transactional
     public CoffeeDTO updateCoffee(Long id, CoffeeDTO coffeeDTODetails) {
         CoffeeEntity entity = coffeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Coffee not found: " + id));
+        String oldImageUrl = entity.getImageUrl();
 
         // If a roastery is specified, ensure it exists
         if (coffeeDTODetails.getRoastery() != null && coffeeDTODetails.getRoastery().getId() != null) {
@@ -180,31 +436,95 @@ public class CoffeeServiceImpl implements CoffeeService {
         }
 
         // Map the rest of the fields from the DTO to the existing entity
-        modelMapper.map(coffeeDTODetails, entity);
+        coffeeMapper.updateEntity(coffeeDTODetails, entity);
+        replaceImage(entity, oldImageUrl, entity.getImageUrl());
 
         CoffeeEntity updatedEntity = coffeeRepository.save(entity);
-        return modelMapper.map(updatedEntity, CoffeeDTO.class);
+        eventPublisher.publishEvent(new CoffeeChangedEvent(updatedEntity.getId(), false));
+        return coffeeMapper.toDTO(updatedEntity);
     }
 
     @Override
+    @Transactional
     public void deleteCoffee(Long id) {
         CoffeeEntity coffeeEntity = coffeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Coffee not found: " + id));
 
-        FileHelper.deleteImage(coffeesUploadPath, coffeeEntity.getImageUrl());
+        imageStore.release(coffeeEntity.getImageUrl());
         coffeeRepository.delete(coffeeEntity);
+        eventPublisher.publishEvent(new CoffeeChangedEvent(id, true));
     }
 
     @Override
+    @Transactional
     public void updateCoffeeImageUrl(Long id, String newImageUrl) {
         CoffeeEntity coffee = coffeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Coffee not found: " + id));
 
-        String oldImageUrl = coffee.getImageUrl();
-        if (oldImageUrl != null && !oldImageUrl.equals(newImageUrl)) {
-            FileHelper.deleteImage(coffeesUploadPath, oldImageUrl);
-        }
+        replaceImage(coffee, coffee.getImageUrl(), newImageUrl);
         coffee.setImageUrl(newImageUrl);
         coffeeRepository.save(coffee);
+        eventPublisher.publishEvent(new CoffeeChangedEvent(id, false));
+    }
+
+    /**
+     * Moves a coffee's image reference from the old URL to the new one. The new image
+     * is referenced first, so re-assigning the same shared image never drops it to zero.
+     * The renditions of the old image are dropped and the new one is queued for rendering.
+     */
+    private void replaceImage(CoffeeEntity coffee, String oldImageUrl, String newImageUrl) {
+        if (Objects.equals(oldImageUrl, newImageUrl)) {
+            return;
+        }
+        imageStore.reference(newImageUrl);
+        imageStore.release(oldImageUrl);
+        coffeeRepository.clearImageRenditions(coffee.getId());
+        coffee.clearImageRenditions();
+        if (newImageUrl != null) {
+            eventPublisher.publishEvent(new ImageAssignedEvent(
+                    ImageAssignedEvent.Owner.COFFEE, coffee.getId(), newImageUrl));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void updateCoffeeImageRenditions(Long id, String imageUrl, ImageRenditions renditions) {
+        int updated = coffeeRepository.updateImageRenditions(id, imageUrl, renditions.thumbnailUrl(),
+                renditions.cardUrl(), renditions.fullUrl(), renditions.placeholder());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new CoffeeChangedEvent(id, false));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ImageReference> findCoffeeImageReferences() {
+        return coffeeRepository.findImageReferences();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findReferencedCoffeeImageUrls(Collection<String> urls) {
+        return urls.isEmpty() ? Set.of() : new HashSet<>(coffeeRepository.findReferencedImageUrls(urls));
+    }
+
+    @Override
+    @Transactional
+    public void recalculateRatingAggregates(Collection<Long> coffeeIds) {
+        if (coffeeIds == null || coffeeIds.isEmpty()) {
+            return;
+        }
+        coffeeRepository.recalculateRatingAggregates(coffeeIds);
+        eventPublisher.publishEvent(new CoffeeRatingChangedEvent(coffeeIds));
+    }
+
+    @Override
+    @Transactional
+    public int reconcileRatingAggregates() {
+        int corrected = coffeeRepository.reconcileAllRatingAggregates();
+        if (corrected > 0) {
+            eventPublisher.publishEvent(CoffeeRatingChangedEvent.ofAll());
+        }
+        return corrected;
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.mappers.ReviewMapper;
 import com.example.coffeetica.coffee.models.CoffeeEntity;
 import com.example.coffeetica.coffee.models.ReviewDTO;
 import com.example.coffeetica.coffee.models.ReviewEntity;
@@ -7,19 +9,29 @@ import com.example.coffeetica.coffee.models.ReviewRequestDTO;
 import com.example.coffeetica.coffee.repositories.CoffeeRepository;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
 import com.example.coffeetica.coffee.services.ReviewService;
+import com.example.coffeetica.coffee.specification.ReviewSpecification;
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
 import com.example.coffeetica.user.models.UserEntity;
 import com.example.coffeetica.user.repositories.UserRepository;
+import com.example.coffeetica.user.security.AuthenticatedUser;
 import com.example.coffeetica.user.security.JwtTokenProvider;
 import com.example.coffeetica.user.security.SecurityService;
-import org.modelmapper.ModelMapper;
+import com.example.coffeetica.utility.CursorPage;
+import com.example.coffeetica.utility.KeysetCursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,12 +41,23 @@ import java.util.stream.Collectors;
 @Service
 public class ReviewServiceImpl implements ReviewService {
 
+    /**
+     * Non-null review columns that keyset pagination can seek on.
+     */
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "createdAt", "rating");
+
+    /**
+     * The rating that makes a reviewed coffee a candidate for the author's favorite.
+     */
+    private static final double FAVORITE_RATING = 5.0;
+
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final CoffeeRepository coffeeRepository;
-    private final ModelMapper modelMapper;
+    private final ReviewMapper reviewMapper;
     private final JwtTokenProvider jwtTokenProvider; // if used
     private final SecurityService securityService;    // if used
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new ReviewServiceImpl with the required dependencies.
@@ -42,49 +65,73 @@ public class ReviewServiceImpl implements ReviewService {
      * @param reviewRepository the review repository
      * @param userRepository the user repository
      * @param coffeeRepository the coffee repository
-     * @param modelMapper the model mapper
+     * @param reviewMapper the mapper between review entities and DTOs
      * @param jwtTokenProvider the JWT token provider (optional)
      * @param securityService the security service for retrieving current user ID
+     * @param eventPublisher the publisher for rating change events
      */
     public ReviewServiceImpl(ReviewRepository reviewRepository,
                              UserRepository userRepository,
                              CoffeeRepository coffeeRepository,
-                             ModelMapper modelMapper,
+                             ReviewMapper reviewMapper,
                              JwtTokenProvider jwtTokenProvider,
-                             SecurityService securityService) {
+                             SecurityService securityService,
+                             ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.coffeeRepository = coffeeRepository;
-        this.modelMapper = modelMapper;
+        this.reviewMapper = reviewMapper;
         this.jwtTokenProvider = jwtTokenProvider;
         this.securityService = securityService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> findAllReviews(Pageable pageable) {
         return reviewRepository.findAll(pageable)
                 .map(this::mapEntityToDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewDTO> findReviewsByCursor(Long coffeeId, Long userId, String cursor, int limit, Sort sort) {
+        KeysetCursor.requireSortable(sort, CURSOR_SORT_PROPERTIES);
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, ReviewEntity.class, sort);
+
+        Specification<ReviewEntity> spec = ReviewSpecification.filterByCoffeeOrUser(coffeeId, userId);
+        // Authors and coffees of the window are initialized in batches (hibernate.default_batch_fetch_size)
+        Window<ReviewEntity> window = reviewRepository.findBy(spec, query -> query
+                .sortBy(sort)
+                .limit(CursorPage.boundedLimit(limit))
+                .scroll(position));
+
+        return CursorPage.of(window, sort, this::mapEntityToDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<ReviewDTO> findReviewById(Long id) {
         return reviewRepository.findById(id)
                 .map(this::mapEntityToDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> findReviewsByCoffeeId(Long coffeeId, Pageable pageable) {
         return reviewRepository.findByCoffeeId(coffeeId, pageable)
                 .map(this::mapEntityToDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> findReviewsByUserId(Long userId, Pageable pageable) {
         return reviewRepository.findByUserId(userId, pageable)
                 .map(this::mapEntityToDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<ReviewDTO> findReviewByUserAndCoffeeId(String token, Long coffeeId) {
         Long userId = getUserIdFromToken(token);
         return reviewRepository.findByUserIdAndCoffeeId(userId, coffeeId)
@@ -92,25 +139,32 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
+    @Transactional
     public ReviewDTO saveReview(ReviewRequestDTO reviewRequestDTO) {
-        Long userId = securityService.getCurrentUserId();
+        AuthenticatedUser currentUser = securityService.getCurrentUser();
 
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        // The author is only referenced by ID; the authenticated principal carries everything needed
+        UserEntity user = userRepository.getReferenceById(currentUser.getId());
 
         CoffeeEntity coffee = coffeeRepository.findById(reviewRequestDTO.getCoffeeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Coffee not found: " + reviewRequestDTO.getCoffeeId()));
 
-        ReviewEntity entity = modelMapper.map(reviewRequestDTO, ReviewEntity.class);
+        ReviewEntity entity = reviewMapper.toEntity(reviewRequestDTO);
         entity.setUser(user);
         entity.setCoffee(coffee);
         entity.setCreatedAt(LocalDateTime.now());
 
         ReviewEntity savedEntity = reviewRepository.save(entity);
-        return mapEntityToDTO(savedEntity);
+        coffeeRepository.applyRatingDelta(coffee.getId(), savedEntity.getRating(), 1);
+        if (isFavoriteRating(savedEntity.getRating())) {
+            userRepository.refreshFavoriteCoffee(currentUser.getId());
+        }
+        eventPublisher.publishEvent(new CoffeeRatingChangedEvent(List.of(coffee.getId())));
+        return mapEntityToDTO(savedEntity, currentUser.getUsername());
     }
 
     @Override
+    @Transactional
     public ReviewDTO updateReview(Long id, ReviewRequestDTO reviewRequestDTO) {
         ReviewEntity entity = reviewRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found: " + id));
@@ -121,6 +175,9 @@ public class ReviewServiceImpl implements ReviewService {
             throw new RuntimeException("You are not allowed to edit this review.");
         }
 
+        double ratingDelta = reviewRequestDTO.getRating() - entity.getRating();
+        boolean affectsFavorite = isFavoriteRating(entity.getRating()) || isFavoriteRating(reviewRequestDTO.getRating());
+
         // Update fields
         entity.setContent(reviewRequestDTO.getContent());
         entity.setBrewingMethod(reviewRequestDTO.getBrewingMethod());
@@ -128,12 +185,32 @@ public class ReviewServiceImpl implements ReviewService {
         entity.setRating(reviewRequestDTO.getRating());
 
         ReviewEntity updatedEntity = reviewRepository.save(entity);
+        if (ratingDelta != 0) {
+            coffeeRepository.applyRatingDelta(entity.getCoffee().getId(), ratingDelta, 0);
+            if (affectsFavorite) {
+                userRepository.refreshFavoriteCoffee(currentUserId);
+            }
+            eventPublisher.publishEvent(new CoffeeRatingChangedEvent(List.of(entity.getCoffee().getId())));
+        }
         return mapEntityToDTO(updatedEntity);
     }
 
     @Override
+    @Transactional
     public void deleteReview(Long id) {
+        Optional<ReviewEntity> review = reviewRepository.findById(id);
+        review.ifPresent(existing -> {
+            coffeeRepository.applyRatingDelta(existing.getCoffee().getId(), -existing.getRating(), -1);
+            eventPublisher.publishEvent(new CoffeeRatingChangedEvent(List.of(existing.getCoffee().getId())));
+        });
         reviewRepository.deleteById(id);
+        // Runs after the deletion (which it flushes), so the review is no longer a candidate
+        review.filter(existing -> isFavoriteRating(existing.getRating()))
+                .ifPresent(existing -> userRepository.refreshFavoriteCoffee(existing.getUser().getId()));
+    }
+
+    private static boolean isFavoriteRating(Double rating) {
+        return rating != null && rating == FAVORITE_RATING;
     }
 
     /**
@@ -144,14 +221,25 @@ public class ReviewServiceImpl implements ReviewService {
      * @return the mapped ReviewDTO
      */
     private ReviewDTO mapEntityToDTO(ReviewEntity entity) {
-        ReviewDTO dto = modelMapper.map(entity, ReviewDTO.class);
+        return mapEntityToDTO(entity, entity.getUser().getUsername());
+    }
+
+    /**
+     * Maps a ReviewEntity to a ReviewDTO with an already known author name,
+     * so that a lazy author reference is not initialized.
+     *
+     * @param entity the review entity
+     * @param userName the username of the author
+     * @return the mapped ReviewDTO
+     */
+    private ReviewDTO mapEntityToDTO(ReviewEntity entity, String userName) {
+        ReviewDTO dto = reviewMapper.toDTO(entity);
 
         // Set relationship fields
         dto.setUserId(entity.getUser().getId());
-        dto.setUserName(entity.getUser().getUsername());
+        dto.setUserName(userName);
         dto.setCoffeeId(entity.getCoffee().getId());
         dto.setCoffeeName(entity.getCoffee().getName());
-        dto.setCreatedAt(entity.getCreatedAt().toString());
 
         return dto;
     }
@@ -164,9 +252,8 @@ public class ReviewServiceImpl implements ReviewService {
      */
     private Long getUserIdFromToken(String token) {
         String processedToken = token.replace("Bearer ", "");
-        String username = jwtTokenProvider.getIdentifierFromJWT(processedToken);
-        UserEntity user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found for username: " + username));
-        return user.getId();
+        return jwtTokenProvider.getPrincipalFromJWT(processedToken)
+                .map(AuthenticatedUser::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found for token"));
     }
 }
\ No newline at end of file
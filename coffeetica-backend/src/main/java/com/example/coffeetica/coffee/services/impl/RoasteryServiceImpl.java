@@ -1,23 +1,33 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.events.ImageAssignedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.images.ImageReference;
+import com.example.coffeetica.coffee.images.ImageRenditions;
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.mappers.RoasteryMapper;
 import com.example.coffeetica.coffee.models.RoasteryDTO;
 import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
 import com.example.coffeetica.coffee.repositories.RoasteryRepository;
 import com.example.coffeetica.coffee.services.RoasteryService;
 import com.example.coffeetica.coffee.specification.RoasterySpecification;
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
-import com.example.coffeetica.utility.FileHelper;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import org.modelmapper.ModelMapper;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -29,24 +39,30 @@ import java.util.stream.Collectors;
 public class RoasteryServiceImpl implements RoasteryService {
 
     private final RoasteryRepository roasteryRepository;
-    private final ModelMapper modelMapper;
-
-    /**
-     * A file path for uploading roastery images, configured in application.properties.
-     * For example: app.upload.roasteries-path=/uploads/roasteries/
-     */
-    @Value("${app.upload.roasteries-path}")
-    private String roasteriesUploadPath;
+    private final CoffeeRepository coffeeRepository;
+    private final RoasteryMapper roasteryMapper;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new instance of {@link RoasteryServiceImpl}.
      *
      * @param roasteryRepository the repository for roastery entities
-     * @param modelMapper the model mapper for converting entities and DTOs
+     * @param coffeeRepository the repository for coffee entities
+     * @param roasteryMapper the mapper between roastery entities and DTOs
+     * @param imageStore the store counting references to roastery and coffee images
+     * @param eventPublisher the publisher for catalog change events
      */
-    public RoasteryServiceImpl(RoasteryRepository roasteryRepository, ModelMapper modelMapper) {
+    public RoasteryServiceImpl(RoasteryRepository roasteryRepository,
+                               CoffeeRepository coffeeRepository,
+                               RoasteryMapper roasteryMapper,
+                               ImageStore imageStore,
+                               ApplicationEventPublisher eventPublisher) {
         this.roasteryRepository = roasteryRepository;
-        this.modelMapper = modelMapper;
+        this.coffeeRepository = coffeeRepository;
+        this.roasteryMapper = roasteryMapper;
+        this.imageStore = imageStore;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -57,7 +73,7 @@ public class RoasteryServiceImpl implements RoasteryService {
     @Override
     public List<RoasteryDTO> findAllRoasteries() {
         return roasteryRepository.findAll().stream()
-                .map(entity -> modelMapper.map(entity, RoasteryDTO.class))
+                .map(roasteryMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
@@ -74,59 +90,111 @@ public class RoasteryServiceImpl implements RoasteryService {
         );
 
         return roasteryRepository.findAll(spec, pageable)
-                .map(entity -> modelMapper.map(entity, RoasteryDTO.class));
+                .map(roasteryMapper::toDTO);
     }
 
     @Override
     public Optional<RoasteryDTO> findRoasteryById(Long id) {
         return roasteryRepository.findById(id)
-                .map(entity -> modelMapper.map(entity, RoasteryDTO.class));
+                .map(roasteryMapper::toDTO);
     }
 
     @Override
+    @Transactional
     public RoasteryDTO saveRoastery(RoasteryDTO roasteryDTO) {
-        RoasteryEntity entity = modelMapper.map(roasteryDTO, RoasteryEntity.class);
+        RoasteryEntity entity = roasteryMapper.toEntity(roasteryDTO);
         RoasteryEntity savedEntity = roasteryRepository.save(entity);
-        return modelMapper.map(savedEntity, RoasteryDTO.class);
+        imageStore.reference(savedEntity.getImageUrl());
+        eventPublisher.publishEvent(new RoasteryChangedEvent(savedEntity.getId(), false));
+        if (savedEntity.getImageUrl() != null) {
+            eventPublisher.publishEvent(new ImageAssignedEvent(
+                    ImageAssignedEvent.Owner.ROASTERY, savedEntity.getId(), savedEntity.getImageUrl()));
+        }
+        return roasteryMapper.toDTO(savedEntity);
     }
 
     @Override
+    @Transactional
     public RoasteryDTO updateRoastery(Long id, RoasteryDTO roasteryDetails) {
         RoasteryEntity entity = roasteryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Roastery not found with ID: " + id));
+        String oldImageUrl = entity.getImageUrl();
 
         // Map fields from the incoming DTO to the existing entity
-        modelMapper.map(roasteryDetails, entity);
+        roasteryMapper.updateEntity(roasteryDetails, entity);
+        replaceImage(entity, oldImageUrl, entity.getImageUrl());
 
         RoasteryEntity updatedEntity = roasteryRepository.save(entity);
-        return modelMapper.map(updatedEntity, RoasteryDTO.class);
+        eventPublisher.publishEvent(new RoasteryChangedEvent(updatedEntity.getId(), false));
+        return roasteryMapper.toDTO(updatedEntity);
     }
 
     @Override
+    @Transactional
     public void deleteRoastery(Long id) {
         RoasteryEntity roastery = roasteryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Roastery not found with ID: " + id));
 
-        // Delete the associated image file, if any
-        if (roastery.getImageUrl() != null) {
-            FileHelper.deleteImage(roasteriesUploadPath, roastery.getImageUrl());
-        }
+        // Release the images of the roastery and of its coffees, which are deleted with it
+        imageStore.release(roastery.getImageUrl());
+        coffeeRepository.findImageUrlsByRoasteryId(id).forEach(imageStore::release);
+        List<Long> coffeeIds = coffeeRepository.findIdsByRoasteryId(id);
 
         roasteryRepository.deleteById(id);
+        eventPublisher.publishEvent(new RoasteryChangedEvent(id, true, coffeeIds));
     }
 
     @Override
+    @Transactional
     public void updateRoasteryImageUrl(Long id, String newImageUrl) {
         RoasteryEntity roastery = roasteryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Roastery not found with ID: " + id));
 
-        String oldImageUrl = roastery.getImageUrl();
-        if (oldImageUrl != null && !oldImageUrl.equals(newImageUrl)) {
-            FileHelper.deleteImage(roasteriesUploadPath, oldImageUrl);
-        }
-
+        replaceImage(roastery, roastery.getImageUrl(), newImageUrl);
         roastery.setImageUrl(newImageUrl);
         roasteryRepository.save(roastery);
+        eventPublisher.publishEvent(new RoasteryChangedEvent(id, false));
+    }
+
+    /**
+     * Moves a roastery's image reference from the old URL to the new one, referencing
+     * the new image first so that a shared image never drops to zero references.
+     * The renditions of the old image are dropped and the new one is queued for rendering.
+     */
+    private void replaceImage(RoasteryEntity roastery, String oldImageUrl, String newImageUrl) {
+        if (Objects.equals(oldImageUrl, newImageUrl)) {
+            return;
+        }
+        imageStore.reference(newImageUrl);
+        imageStore.release(oldImageUrl);
+        roasteryRepository.clearImageRenditions(roastery.getId());
+        roastery.clearImageRenditions();
+        if (newImageUrl != null) {
+            eventPublisher.publishEvent(new ImageAssignedEvent(
+                    ImageAssignedEvent.Owner.ROASTERY, roastery.getId(), newImageUrl));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void updateRoasteryImageRenditions(Long id, String imageUrl, ImageRenditions renditions) {
+        int updated = roasteryRepository.updateImageRenditions(id, imageUrl, renditions.thumbnailUrl(),
+                renditions.cardUrl(), renditions.fullUrl(), renditions.placeholder());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new RoasteryChangedEvent(id, false));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ImageReference> findRoasteryImageReferences() {
+        return roasteryRepository.findImageReferences();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findReferencedRoasteryImageUrls(Collection<String> urls) {
+        return urls.isEmpty() ? Set.of() : new HashSet<>(roasteryRepository.findReferencedImageUrls(urls));
     }
 }
 
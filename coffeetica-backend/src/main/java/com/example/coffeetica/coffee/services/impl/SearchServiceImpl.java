@@ -0,0 +1,32 @@
+package com.example.coffeetica.coffee.services.impl;
+
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.search.SuggestionIndex;
+import com.example.coffeetica.coffee.services.SearchService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Implementation of the {@link SearchService} interface, answering typeahead
+ * requests from the in-memory {@link SuggestionIndex}.
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Constructs a new {@link SearchServiceImpl}.
+     *
+     * @param suggestionIndex the in-memory prefix index of suggestions
+     */
+    public SearchServiceImpl(SuggestionIndex suggestionIndex) {
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, limit);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.coffeetica.coffee.models.CoffeeEntity;
 import com.example.coffeetica.coffee.models.enums.FlavorProfile;
 import com.example.coffeetica.coffee.models.enums.Region;
 import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -63,15 +64,18 @@ public class CoffeeSpecification {
             // Flavor Notes (case-insensitive, partial match)
             // This example uses OR logic to see if any note matches
             if (flavorNotes != null && !flavorNotes.isEmpty()) {
+                Join<CoffeeEntity, String> notes = root.join("flavorNotes");
                 predicates.add(criteriaBuilder.or(
                         flavorNotes.stream()
                                 .filter(Objects::nonNull)
                                 .map(note -> criteriaBuilder.like(
-                                        criteriaBuilder.lower(root.join("flavorNotes")),
+                                        criteriaBuilder.lower(notes),
                                         "%" + note.toLowerCase() + "%"
                                 ))
                                 .toArray(Predicate[]::new)
                 ));
+                // A coffee with several matching notes must still be listed (and counted) once
+                query.distinct(true);
             }
 
             // Processing Method (case-insensitive, contains)
@@ -0,0 +1,30 @@
+package com.example.coffeetica.coffee.specification;
+
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides static methods for building JPA {@link Specification}s
+ * to filter reviews by their coffee or author.
+ */
+public class ReviewSpecification {
+
+    public static Specification<ReviewEntity> filterByCoffeeOrUser(Long coffeeId, Long userId) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (coffeeId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("coffee").get("id"), coffeeId));
+            }
+            if (userId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("user").get("id"), userId));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
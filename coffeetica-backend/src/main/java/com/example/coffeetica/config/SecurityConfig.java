@@ -2,6 +2,7 @@ package com.example.coffeetica.config;
 
 import com.example.coffeetica.user.security.JwtAuthenticationFilter;
 import com.example.coffeetica.user.security.JwtTokenProvider;
+import com.example.coffeetica.user.security.TokenVersionCache;
 import com.example.coffeetica.user.services.UserService;
 
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,12 +29,14 @@ public class SecurityConfig {
      * Creates and returns the JWT authentication filter.
      *
      * @param tokenProvider the JWT token provider
-     * @param userService the user service to retrieve user details
+     * @param userService the user service to retrieve token versions
+     * @param tokenVersionCache the cache of current token versions
      * @return an instance of {@link JwtAuthenticationFilter}
      */
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserService userService) {
-        return new JwtAuthenticationFilter(tokenProvider, userService);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserService userService,
+                                                           TokenVersionCache tokenVersionCache) {
+        return new JwtAuthenticationFilter(tokenProvider, userService, tokenVersionCache);
     }
 
     /**
@@ -59,7 +62,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/roasteries/**").permitAll() // Roasteries catalog
                         .requestMatchers(HttpMethod.GET, "/api/coffees/**").permitAll() // Coffee catalog
                         .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll() // Reviews catalog
+                        .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll() // Typeahead suggestions
                         .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll() // Static image uploads
+                        .requestMatchers(HttpMethod.HEAD, "/uploads/**").permitAll()
 
                         // Authentication and registration endpoints (public)
                         .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
@@ -90,6 +95,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/roasteries/**").hasRole("Admin") // Admins can create roasteries
                         .requestMatchers(HttpMethod.PUT, "/api/roasteries/**").hasRole("Admin") // Admins can update roasteries
                         .requestMatchers(HttpMethod.DELETE, "/api/roasteries/**").hasRole("Admin") // Admins can delete roasteries
+                        .requestMatchers(HttpMethod.POST, "/api/images/**").hasRole("Admin") // Admins can re-process images
 
                         // Any other request requires authentication
                         .anyRequest().authenticated()
@@ -1,5 +1,6 @@
 package com.example.coffeetica.exceptions;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -26,6 +27,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Handles InvalidCursorException by returning a 400 Bad Request status
+     * along with the exception's message as the response body.
+     *
+     * @param ex the InvalidCursorException instance
+     * @return a ResponseEntity with status 400 and the exception message
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidImageException, thrown for empty, oversized or unsupported uploads,
+     * by returning a 400 Bad Request status along with the exception's message.
+     *
+     * @param ex the InvalidImageException instance
+     * @return a ResponseEntity with status 400 and the exception message
+     */
+    @ExceptionHandler(InvalidImageException.class)
+    public ResponseEntity<String> handleInvalidImage(InvalidImageException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Handles DataIntegrityViolationException, e.g. a second review of the same coffee
+     * by the same user rejected by a unique constraint, by returning a 409 Conflict.
+     *
+     * @param ex the DataIntegrityViolationException instance
+     * @return a ResponseEntity with status 409
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("The request conflicts with existing data");
+    }
+
     /**
      * Handles validation errors thrown by @Valid annotations in DTOs or request bodies.
      *
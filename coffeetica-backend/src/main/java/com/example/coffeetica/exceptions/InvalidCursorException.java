@@ -0,0 +1,17 @@
+package com.example.coffeetica.exceptions;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded, or does not match
+ * the requested sort order.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
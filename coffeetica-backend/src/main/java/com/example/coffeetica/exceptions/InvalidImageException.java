@@ -0,0 +1,17 @@
+package com.example.coffeetica.exceptions;
+
+/**
+ * Thrown when an uploaded image is empty, exceeds the size limit
+ * or is not in a supported format.
+ */
+public class InvalidImageException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidImageException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public InvalidImageException(String message) {
+        super(message);
+    }
+}
@@ -4,14 +4,18 @@ package com.example.coffeetica.user.controllers;
 import com.example.coffeetica.user.models.*;
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
 import com.example.coffeetica.user.repositories.UserRepository;
-import com.example.coffeetica.user.security.JwtTokenProvider;
+import com.example.coffeetica.user.security.SecurityService;
 import com.example.coffeetica.user.services.UserService;
+import com.example.coffeetica.utility.CursorPage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -32,22 +36,22 @@ public class UserController {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final SecurityService securityService;
 
     /**
      * Constructs a new {@link UserController}.
      *
      * @param userService the user service layer
      * @param userRepository the user repository
-     * @param jwtTokenProvider the JWT token provider for auth tokens
+     * @param securityService the security service for the authenticated user
      */
     @Autowired
     public UserController(UserService userService,
                           UserRepository userRepository,
-                          JwtTokenProvider jwtTokenProvider) {
+                          SecurityService securityService) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.jwtTokenProvider = jwtTokenProvider;
+        this.securityService = securityService;
     }
 
     /**
@@ -72,6 +76,29 @@ public class UserController {
         return userService.findAllUsers(search, page, size, sortBy, direction);
     }
 
+    /**
+     * Retrieves users, optionally filtered by a search term, using keyset (cursor) pagination.
+     * Selected instead of {@link #getAllUsers} when the {@code limit} parameter is present.
+     *
+     * @param search optional search string (username/email)
+     * @param cursor the {@code nextCursor} of the previous page (optional, omit for the first page)
+     * @param limit page size (at most {@value CursorPage#MAX_LIMIT})
+     * @param sortBy field to sort by, or "relevance" for typo-tolerant similarity ranking
+     * @param direction sort direction (asc/desc)
+     * @return the user DTOs and the cursor of the next page
+     */
+    @GetMapping(value = "/api/users", params = "limit")
+    @PreAuthorize("permitAll()")
+    public CursorPage<UserDTO> getAllUsersByCursor(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return userService.findUsersByCursor(search, cursor, limit, sortBy, direction);
+    }
+
     /**
      * Registers a new user account (public endpoint).
      *
@@ -118,14 +145,13 @@ public class UserController {
     /**
      * Retrieves info about the currently authenticated user (username, email, roles).
      *
-     * @param token the bearer token
      * @return user info if found, otherwise 404
      */
     @GetMapping("/api/users/me")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String token) {
-        String username = jwtTokenProvider.getIdentifierFromJWT(token.replace("Bearer ", ""));
-        UserEntity user = userRepository.findByUsername(username)
+    public ResponseEntity<?> getCurrentUser() {
+        Long userId = securityService.getCurrentUserId();
+        UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return ResponseEntity.ok(Map.of(
@@ -276,6 +302,25 @@ public class UserController {
         }
     }
 
+    /**
+     * Retrieves a page of the IDs of a user's reviews, newest first by default.
+     *
+     * @param id the user ID
+     * @param pageable pagination configuration
+     * @return a page of review IDs, or 404 if the user does not exist
+     */
+    @GetMapping("/api/users/{id}/review-ids")
+    @PreAuthorize("permitAll()")
+    public ResponseEntity<?> getReviewIds(
+            @PathVariable Long id,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(userService.findReviewIdsOfUser(id, pageable));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
     /**
      * Returns the user's "favorite coffee" if they have a review with rating=5.
      *
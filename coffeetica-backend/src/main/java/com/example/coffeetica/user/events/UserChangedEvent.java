@@ -0,0 +1,18 @@
+package com.example.coffeetica.user.events;
+
+/**
+ * Published when a user's credentials or roles change, or the user is deleted,
+ * so that cached security state for the user can be dropped.
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.coffeetica.user.mappers;
+
+import com.example.coffeetica.user.models.RoleEntity;
+import com.example.coffeetica.user.models.UserDTO;
+import com.example.coffeetica.user.models.UserEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps {@link UserEntity} to {@link UserDTO}.
+ * The implementation is generated at compile time by MapStruct.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    /**
+     * Maps a user with its role names. The review count is not loaded.
+     *
+     * @param entity the user
+     * @return the DTO
+     */
+    @Mapping(target = "reviewCount", ignore = true)
+    UserDTO toDTO(UserEntity entity);
+
+    default Set<String> toRoleNames(Set<RoleEntity> roles) {
+        if (roles == null) {
+            return null;
+        }
+        return roles.stream()
+                .map(RoleEntity::getName)
+                .collect(Collectors.toSet());
+    }
+}
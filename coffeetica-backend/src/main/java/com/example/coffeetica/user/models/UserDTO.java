@@ -27,9 +27,10 @@ public class UserDTO {
     private Set<String> roles;
 
     /**
-     * A set of IDs referencing the user's reviews.
+     * The number of reviews written by the user; the review IDs are paged
+     * separately ({@code GET /api/users/{id}/review-ids}).
      */
-    private Set<Long> reviewIds;
+    private Long reviewCount;
 
     public UserDTO() {
     }
@@ -50,8 +51,8 @@ public class UserDTO {
         return roles;
     }
 
-    public Set<Long> getReviewIds() {
-        return reviewIds;
+    public Long getReviewCount() {
+        return reviewCount;
     }
 
     public void setId(Long id) {
@@ -70,7 +71,7 @@ public class UserDTO {
         this.roles = roles;
     }
 
-    public void setReviewIds(Set<Long> reviewIds) {
-        this.reviewIds = reviewIds;
+    public void setReviewCount(Long reviewCount) {
+        this.reviewCount = reviewCount;
     }
 }
\ No newline at end of file
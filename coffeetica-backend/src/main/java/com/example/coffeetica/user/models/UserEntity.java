@@ -2,6 +2,7 @@ package com.example.coffeetica.user.models;
 
 import com.example.coffeetica.coffee.models.ReviewEntity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -35,6 +36,22 @@ public class UserEntity {
     @Column(nullable = false, unique = true, length = 100)
     private String email;
 
+    /**
+     * Incremented whenever the username, password or roles change, which revokes
+     * all JWTs issued for an older version.
+     */
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    /**
+     * The coffee of the user's most recent 5-star review, maintained by bulk updates on
+     * the review write path (see {@code UserRepository#refreshFavoriteCoffee}).
+     * It is never written through the entity itself.
+     */
+    @Column(name = "favorite_coffee_id", insertable = false, updatable = false)
+    private Long favoriteCoffeeId;
+
     /**
      * Roles assigned to the user.
      */
@@ -90,6 +107,22 @@ public class UserEntity {
         this.email = email;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Long getFavoriteCoffeeId() {
+        return favoriteCoffeeId;
+    }
+
+    public void setFavoriteCoffeeId(Long favoriteCoffeeId) {
+        this.favoriteCoffeeId = favoriteCoffeeId;
+    }
+
     public Set<RoleEntity> getRoles() {
         return roleEntities;
     }
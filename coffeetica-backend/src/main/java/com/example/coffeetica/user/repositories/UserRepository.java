@@ -5,10 +5,14 @@ import com.example.coffeetica.user.models.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -16,13 +20,23 @@ import java.util.Optional;
  * including custom queries for searching by username/email.
  */
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, JpaSpecificationExecutor<UserEntity>,
+        UserRepositoryCustom {
 
+    /**
+     * Finds users whose username or email contains the search term (case-insensitive).
+     * The predicates match the trigram indexes on {@code LOWER(username)} and
+     * {@code LOWER(email)}; callers list all users without a search term instead of
+     * passing null, which would keep the planner from using them.
+     *
+     * @param search the search term, not null
+     * @param pageable pagination and sorting info
+     * @return a page of matching users
+     */
     @Query(value = """
-        SELECT * FROM users u 
-        WHERE (:search IS NULL 
-            OR LOWER(u.username) LIKE LOWER(CONCAT('%', CAST(:search AS varchar), '%')) 
-            OR LOWER(u.email) LIKE LOWER(CONCAT('%', CAST(:search AS varchar), '%')))
+        SELECT * FROM users u
+        WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', CAST(:search AS varchar), '%'))
+            OR LOWER(u.email) LIKE LOWER(CONCAT('%', CAST(:search AS varchar), '%'))
         """, nativeQuery = true)
     Page<UserEntity> findBySearch(@Param("search") String search, Pageable pageable);
 
@@ -36,4 +50,57 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     @Query("SELECT u FROM UserEntity u WHERE u.username = :identifier OR u.email = :identifier")
     Optional<UserEntity> findByUsernameOrEmail(@Param("identifier") String identifier);
-}
\ No newline at end of file
+
+    @Query("SELECT u.tokenVersion FROM UserEntity u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * Retrieves the ID of a user's favorite coffee without loading the user.
+     *
+     * @param userId the ID of the user
+     * @return the favorite coffee ID, or empty if the user does not exist or has none
+     */
+    @Query("SELECT u.favoriteCoffeeId FROM UserEntity u WHERE u.id = :userId")
+    Optional<Long> findFavoriteCoffeeIdById(@Param("userId") Long userId);
+
+    /**
+     * Re-selects a user's favorite coffee: the coffee of their most recent 5-star review
+     * (ties broken by the later review ID), or none. Reads only the user's 5-star reviews
+     * through the partial index on PostgreSQL.
+     *
+     * @param userId the ID of the user
+     * @return the number of updated users
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+        UPDATE users SET favorite_coffee_id = (
+            SELECT r.coffee_id FROM reviews r
+            WHERE r.user_id = users.id AND r.rating = 5.0
+            ORDER BY r.created_at DESC, r.id DESC
+            FETCH FIRST 1 ROWS ONLY
+        )
+        WHERE id = :userId
+    """, nativeQuery = true)
+    int refreshFavoriteCoffee(@Param("userId") Long userId);
+
+    /**
+     * Re-selects the favorite coffee of every user whose favorite is one of the given
+     * coffees, e.g. after the coffees and their reviews were deleted.
+     *
+     * @param coffeeIds the IDs of the coffees, not empty
+     * @return the number of updated users
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+        UPDATE users SET favorite_coffee_id = (
+            SELECT r.coffee_id FROM reviews r
+            WHERE r.user_id = users.id AND r.rating = 5.0
+            ORDER BY r.created_at DESC, r.id DESC
+            FETCH FIRST 1 ROWS ONLY
+        )
+        WHERE favorite_coffee_id IN (:coffeeIds)
+    """, nativeQuery = true)
+    int refreshFavoriteCoffeeOfUsersFavoring(@Param("coffeeIds") Collection<Long> coffeeIds);
+}
@@ -0,0 +1,30 @@
+package com.example.coffeetica.user.repositories;
+
+import java.util.List;
+
+/**
+ * Custom query fragment of {@link UserRepository} for the trigram-ranked user search.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * A user matching a search, with its relevance score.
+     *
+     * @param id the user ID
+     * @param relevance 1 plus the trigram similarity for substring matches,
+     *                  the trigram similarity alone for fuzzy (typo-tolerant) matches
+     */
+    record SearchHit(Long id, double relevance) {
+    }
+
+    /**
+     * Finds users whose username or email contains the term or is similar to it,
+     * most relevant first, continuing after the given hit (keyset pagination).
+     *
+     * @param term the lower-cased search term
+     * @param after the last hit of the previous page, or null for the first page
+     * @param limit the maximum number of hits
+     * @return the hits ordered by relevance descending, then ID ascending
+     */
+    List<SearchHit> searchByRelevance(String term, SearchHit after, int limit);
+}
@@ -0,0 +1,86 @@
+package com.example.coffeetica.user.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.List;
+
+/**
+ * Native SQL implementation of {@link UserRepositoryCustom}.
+ * <p>
+ * On PostgreSQL both the substring filter and the {@code pg_trgm} similarity operator
+ * {@code %} are served by the GIN trigram indexes on {@code LOWER(username)} and
+ * {@code LOWER(email)}. Other databases (H2 in tests) get an equivalent predicate
+ * on the {@code similarity()} function registered by their migrations.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    /**
+     * The minimum similarity of a fuzzy match; the default of {@code pg_trgm.similarity_threshold}.
+     */
+    static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private static final String SUBSTRING_MATCH =
+            "LOWER(u.username) LIKE :pattern OR LOWER(u.email) LIKE :pattern";
+
+    private static final String RELEVANCE = "CAST("
+            + "CASE WHEN " + SUBSTRING_MATCH + " THEN 1 ELSE 0 END"
+            + " + GREATEST(similarity(LOWER(u.username), :term), similarity(LOWER(u.email), :term))"
+            + " AS DOUBLE PRECISION)";
+
+    private static final String POSTGRES_FUZZY_MATCH =
+            "LOWER(u.username) % :term OR LOWER(u.email) % :term";
+
+    private static final String PORTABLE_FUZZY_MATCH =
+            "similarity(LOWER(u.username), :term) >= " + SIMILARITY_THRESHOLD
+                    + " OR similarity(LOWER(u.email), :term) >= " + SIMILARITY_THRESHOLD;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SearchHit> searchByRelevance(String term, SearchHit after, int limit) {
+        String fuzzyMatch = isPostgres() ? POSTGRES_FUZZY_MATCH : PORTABLE_FUZZY_MATCH;
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT u.id, ").append(RELEVANCE).append(" AS relevance FROM users u")
+                .append(" WHERE (").append(SUBSTRING_MATCH).append(" OR ").append(fuzzyMatch).append(")");
+        if (after != null) {
+            sql.append(" AND (").append(RELEVANCE).append(" < :afterRelevance")
+                    .append(" OR (").append(RELEVANCE).append(" = :afterRelevance AND u.id > :afterId))");
+        }
+        sql.append(" ORDER BY relevance DESC, u.id ASC");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("term", term)
+                .setParameter("pattern", "%" + escapeLike(term) + "%")
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("afterRelevance", after.relevance())
+                    .setParameter("afterId", after.id());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new SearchHit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue()))
+                .toList();
+    }
+
+    /**
+     * Escapes the LIKE wildcards of a search term, so that e.g. "_" is matched literally.
+     * Backslash is the default escape character of both PostgreSQL and H2.
+     */
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
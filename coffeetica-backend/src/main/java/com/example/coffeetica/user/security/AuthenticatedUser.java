@@ -0,0 +1,111 @@
+package com.example.coffeetica.user.security;
+
+import com.example.coffeetica.user.models.RoleEntity;
+import com.example.coffeetica.user.models.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The principal of an authenticated request: the user's ID, username, roles and the
+ * token version the credentials were issued for.
+ * <p>
+ * At login it is loaded from the database (including the password hash); on subsequent
+ * requests it is rebuilt from the JWT claims alone, without a password.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final Set<String> roles;
+    private final int tokenVersion;
+    private final List<GrantedAuthority> authorities;
+
+    /**
+     * Constructs a new {@link AuthenticatedUser}.
+     *
+     * @param id the user ID
+     * @param username the username
+     * @param password the password hash, or {@code null} if not known
+     * @param roles the role names without the {@code ROLE_} prefix, e.g. {@code Admin}
+     * @param tokenVersion the user's token version
+     */
+    public AuthenticatedUser(Long id, String username, String password, Set<String> roles, int tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.roles = Set.copyOf(roles);
+        this.tokenVersion = tokenVersion;
+        this.authorities = this.roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .toList();
+    }
+
+    /**
+     * Creates the principal of a user entity, e.g. for a login attempt.
+     *
+     * @param user the user entity with its roles
+     * @return the principal
+     */
+    public static AuthenticatedUser from(UserEntity user) {
+        Set<String> roles = user.getRoles().stream()
+                .map(RoleEntity::getName)
+                .collect(Collectors.toSet());
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), roles, user.getTokenVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
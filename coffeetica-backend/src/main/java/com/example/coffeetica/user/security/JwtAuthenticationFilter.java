@@ -4,7 +4,6 @@ package com.example.coffeetica.user.security;
 import com.example.coffeetica.user.services.UserService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -19,21 +18,29 @@ import java.io.IOException;
  * A filter that reads the JWT token from the Authorization header,
  * validates it, and sets the authentication in the SecurityContext
  * if valid.
+ * <p>
+ * The principal is rebuilt from the token claims. The only lookup is the user's current
+ * token version, served by the {@link TokenVersionCache}, which rejects tokens issued
+ * before the user's username, password or roles changed.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserService userService;
+    private final TokenVersionCache tokenVersionCache;
 
     /**
      * Constructs a {@link JwtAuthenticationFilter} with required dependencies.
      *
-     * @param tokenProvider the JWT token provider
-     * @param userService   the user service for loading user details
+     * @param tokenProvider     the JWT token provider
+     * @param userService       the user service for loading token versions
+     * @param tokenVersionCache the cache of current token versions
      */
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserService userService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserService userService,
+                                   TokenVersionCache tokenVersionCache) {
         this.tokenProvider = tokenProvider;
         this.userService = userService;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     /**
@@ -54,26 +61,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         String token = getTokenFromRequest(request);
 
-        if (token != null && tokenProvider.validateToken(token)) {
-            // Extract the username/email from the token
-            String identifier = tokenProvider.getIdentifierFromJWT(token);
+        if (token != null) {
+            // Verify the token and rebuild the principal from its claims in a single parse
+            tokenProvider.getPrincipalFromJWT(token)
+                    .filter(this::isCurrentTokenVersion)
+                    .ifPresent(principal -> {
+                        // Set up authentication
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                principal, null, principal.getAuthorities()
+                        );
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            // Load user details via username/email
-            UserDetails userDetails = userService.loadUserByUsernameOrEmail(identifier);
-
-            // Set up authentication
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities()
-            );
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-            // Store in SecurityContext
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                        // Store in SecurityContext
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    });
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Checks that the token was issued for the user's current token version,
+     * i.e. it has not been revoked and the user still exists.
+     */
+    private boolean isCurrentTokenVersion(AuthenticatedUser principal) {
+        return tokenVersionCache.currentVersion(principal.getId(), userService::findTokenVersion)
+                .map(version -> version == principal.getTokenVersion())
+                .orElse(false);
+    }
+
     /**
      * Attempts to retrieve the JWT token from the Authorization header,
      * returning null if not present or improperly formed.
@@ -1,69 +1,164 @@
 package com.example.coffeetica.user.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A provider class for generating and validating JWT tokens,
  * as well as extracting the identifier (username/email).
+ * <p>
+ * Besides the subject, a token carries the user ID, the role names and the user's
+ * token version, so that an {@link AuthenticatedUser} can be rebuilt from the token alone.
+ * <p>
+ * The signing key and the parser are built once. Tokens are verified and parsed in a single
+ * call, and the claims of recently verified tokens are cached by the SHA-256 digest of the
+ * token until the token expires, so that repeated requests with the same token skip the
+ * signature check ({@code app.jwt.verified-cache.maximum-size}, 0 disables the cache).
  */
 @Component
 public class JwtTokenProvider {
 
-    private final String jwtSecret;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
     private final long jwtExpirationInMs;
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
 
     /**
      * Constructs a new {@link JwtTokenProvider} with the secret key and expiration
      * time read from application properties.
      *
-     * @param jwtSecret a secret key for signing the JWT
+     * @param jwtSecret a Base64-encoded secret key for signing the JWT
      * @param jwtExpirationInMs expiration time in milliseconds
+     * @param verifiedCacheSize the maximum number of verified tokens whose claims are cached
      */
     public JwtTokenProvider(
             @Value("${app.jwt.secret}") String jwtSecret,
-            @Value("${app.jwt.expiration}") long jwtExpirationInMs
+            @Value("${app.jwt.expiration}") long jwtExpirationInMs,
+            @Value("${app.jwt.verified-cache.maximum-size:10000}") long verifiedCacheSize
     ) {
-        this.jwtSecret = jwtSecret;
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
     }
 
     /**
      * Generates a JWT token for the authenticated user.
      *
-     * @param authentication the authentication object containing user principal
+     * @param authentication the authentication object containing an {@link AuthenticatedUser} principal
      * @return a signed JWT token
+     * @throws IllegalArgumentException if the principal is not an {@link AuthenticatedUser}
      */
     public String generateToken(Authentication authentication) {
-        String username = authentication.getName(); // could be username/email
+        if (!(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new IllegalArgumentException("Unsupported principal type for token generation");
+        }
+        return generateToken(user);
+    }
+
+    /**
+     * Generates a JWT token for a user.
+     *
+     * @param user the user the token is issued for
+     * @return a signed JWT token
+     */
+    public String generateToken(AuthenticatedUser user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, user.getRoles())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiration of a token and returns its claims.
+     * Claims of recently verified tokens are served from the cache while the token is valid.
+     *
+     * @param token the JWT token
+     * @return the claims, or empty if the token is invalid or expired
+     */
+    public Optional<Claims> validateAndGetClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        ByteBuffer digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (isExpired(cached)) {
+                verifiedTokens.invalidate(digest);
+                return Optional.empty();
+            }
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Malformed, expired, unsupported or wrongly signed token
+            return Optional.empty();
+        }
+    }
+
     /**
      * Extracts the identifier (username or email) from a JWT token.
      *
      * @param token the JWT token
-     * @return the subject (identifier) stored in the token
+     * @return the subject (identifier) stored in the token, or {@code null} if the token is invalid
      */
     public String getIdentifierFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return validateAndGetClaims(token)
+                .map(Claims::getSubject)
+                .orElse(null);
+    }
+
+    /**
+     * Verifies a JWT token and rebuilds the principal from its claims.
+     *
+     * @param token the JWT token
+     * @return the principal, or empty if the token is invalid or does not carry the user claims
+     *         (e.g. a token issued by an older version of the application)
+     */
+    public Optional<AuthenticatedUser> getPrincipalFromJWT(String token) {
+        return validateAndGetClaims(token).flatMap(this::toPrincipal);
     }
 
     /**
@@ -73,13 +168,60 @@ public class JwtTokenProvider {
      * @return true if valid, false otherwise
      */
     public boolean validateToken(String token) {
+        return validateAndGetClaims(token).isPresent();
+    }
+
+    private Optional<AuthenticatedUser> toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        Collection<?> roles = claims.get(CLAIM_ROLES, Collection.class);
+        if (userId == null || tokenVersion == null || roles == null) {
+            return Optional.empty();
+        }
+
+        Set<String> roleNames = new HashSet<>();
+        roles.forEach(role -> roleNames.add(String.valueOf(role)));
+        return Optional.of(new AuthenticatedUser(
+                userId.longValue(), claims.getSubject(), null, roleNames, tokenVersion.intValue()));
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    private static ByteBuffer digest(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException | ExpiredJwtException |
-                 UnsupportedJwtException | IllegalArgumentException ex) {
-            // Could log the exception here
-            return false;
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Keeps cached claims no longer than their token is valid.
+     */
+    private static final class UntilTokenExpires implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMs = Math.max(0, expiration.getTime() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(remainingMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
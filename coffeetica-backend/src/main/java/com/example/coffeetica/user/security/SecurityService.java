@@ -2,9 +2,6 @@ package com.example.coffeetica.user.security;
 
 import com.example.coffeetica.coffee.models.ReviewEntity;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
-import com.example.coffeetica.user.models.UserEntity;
-import com.example.coffeetica.user.repositories.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -18,43 +15,41 @@ import java.util.Optional;
 @Service
 public class SecurityService {
 
-    private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
 
     /**
      * Constructs a new {@link SecurityService}.
      *
-     * @param userRepository the user repository
      * @param reviewRepository the review repository
      */
-    public SecurityService(UserRepository userRepository,
-                           ReviewRepository reviewRepository) {
-        this.userRepository = userRepository;
+    public SecurityService(ReviewRepository reviewRepository) {
         this.reviewRepository = reviewRepository;
     }
 
     /**
-     * Retrieves the ID of the currently authenticated user from the SecurityContext.
+     * Retrieves the currently authenticated user from the SecurityContext.
+     * The principal is built from the JWT claims, so no database lookup is needed.
      *
-     * @return the ID of the authenticated user
+     * @return the authenticated user
      * @throws RuntimeException if no user is authenticated
      */
-    public Long getCurrentUserId() {
+    public AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null
-                || !(authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User)) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
             throw new RuntimeException("No authenticated user found");
         }
+        return principal;
+    }
 
-        org.springframework.security.core.userdetails.User principal =
-                (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
-
-        String username = principal.getUsername();
-
-        UserEntity user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+    /**
+     * Retrieves the ID of the currently authenticated user from the SecurityContext.
+     *
+     * @return the ID of the authenticated user
+     * @throws RuntimeException if no user is authenticated
+     */
+    public Long getCurrentUserId() {
+        return getCurrentUser().getId();
     }
 
     /**
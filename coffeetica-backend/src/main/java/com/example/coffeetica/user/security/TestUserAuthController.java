@@ -4,8 +4,6 @@ import com.example.coffeetica.user.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,8 +15,8 @@ import java.util.Map;
  * REST controller that provides a simplified authentication endpoint for a predefined
  * test admin user, intended strictly for demo or portfolio purposes.
  *
- * This endpoint bypasses password validation and does not assign any roles or authorities.
- * It simply generates a JWT token for a fixed username configured via application properties.
+ * This endpoint bypasses password validation. It simply generates a JWT token, carrying
+ * the user's stored roles, for a fixed username configured via application properties.
  *
  * Configuration example (in application.properties):
  * testadmin.username=testuser
@@ -44,7 +42,7 @@ public class TestUserAuthController {
      * Constructs the {@link TestUserAuthController} with required dependencies.
      *
      * @param jwtTokenProvider the JWT token provider used to generate authentication tokens
-     * @param userRepository   the repository for accessing user data (not used in this implementation but injected for consistency/future use)
+     * @param userRepository   the repository for loading the test user
      */
 
     public TestUserAuthController(JwtTokenProvider jwtTokenProvider, UserRepository userRepository) {
@@ -61,14 +59,13 @@ public class TestUserAuthController {
     public ResponseEntity<?> autoLogin() {
 
         try {
-            // Create authentication with just the username (no password, no authorities)
-            Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    testAdminUsername,
-                    null
-            );
+            // Load the test user, whose ID and roles are carried by the token
+            AuthenticatedUser testUser = userRepository.findByUsername(testAdminUsername)
+                    .map(AuthenticatedUser::from)
+                    .orElseThrow(() -> new IllegalStateException("Test user not found: " + testAdminUsername));
 
             // Generate the JWT token
-            String token = jwtTokenProvider.generateToken(authentication);
+            String token = jwtTokenProvider.generateToken(testUser);
 
             return ResponseEntity.ok(Map.of("token", token));
 
@@ -0,0 +1,73 @@
+package com.example.coffeetica.user.security;
+
+import com.example.coffeetica.user.events.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caches the current token version of each user by user ID, so that the
+ * {@link JwtAuthenticationFilter} can reject revoked tokens without a database
+ * query on every request.
+ * <p>
+ * Entries expire after {@code app.security.token-version-cache.ttl}, and a user's
+ * entry is evicted once a {@link UserChangedEvent} for the user commits.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final Cache<Long, Integer> versions;
+
+    /**
+     * Constructs a new {@link TokenVersionCache}.
+     *
+     * @param ttl how long a cached version stays valid
+     * @param maximumSize the maximum number of cached users
+     */
+    public TokenVersionCache(@Value("${app.security.token-version-cache.ttl:5m}") Duration ttl,
+                             @Value("${app.security.token-version-cache.maximum-size:10000}") long maximumSize) {
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the current token version of a user, loading and caching it on a miss.
+     * Unknown users are not cached.
+     *
+     * @param userId the user ID
+     * @param loader loads the version from the database
+     * @return the current version, or empty if the user does not exist
+     */
+    public Optional<Integer> currentVersion(Long userId, Function<Long, Optional<Integer>> loader) {
+        return Optional.ofNullable(versions.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Evicts the cached version of a user.
+     *
+     * @param userId the user ID
+     */
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+    }
+
+    /**
+     * Drops all cached versions.
+     */
+    public void invalidateAll() {
+        versions.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUserId());
+    }
+}
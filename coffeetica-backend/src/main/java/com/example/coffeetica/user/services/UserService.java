@@ -5,7 +5,9 @@ import com.example.coffeetica.user.models.AdminUpdateUserRequestDTO;
 import com.example.coffeetica.user.models.RegisterRequestDTO;
 import com.example.coffeetica.user.models.UpdateUserRequestDTO;
 import com.example.coffeetica.user.models.UserDTO;
+import com.example.coffeetica.utility.CursorPage;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -38,6 +40,24 @@ public interface UserService extends UserDetailsService {
      */
     Page<UserDTO> findAllUsers(String search, int page, int size, String sortBy, String direction);
 
+    /**
+     * Retrieves users matching an optional search term using keyset pagination:
+     * the next page continues after the sort key of the last returned user,
+     * and no total count is computed.
+     * <p>
+     * Sorting by "relevance" ranks the users by trigram similarity to the search term,
+     * which also matches misspelled usernames and emails; without a search term it
+     * falls back to sorting by ID.
+     *
+     * @param search    optional search string to match against username or email
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param limit     the maximum number of users to return
+     * @param sortBy    the field to sort by: "id", "username", "email" or "relevance"
+     * @param direction the sort direction: "asc" or "desc"
+     * @return the users and the cursor of the next page, if any
+     */
+    CursorPage<UserDTO> findUsersByCursor(String search, String cursor, int limit, String sortBy, String direction);
+
     /**
      * Registers a new user account, encoding the password and assigning
      * a default role of "User" if not otherwise specified.
@@ -111,8 +131,19 @@ public interface UserService extends UserDetailsService {
     Optional<UserDTO> findUserById(Long id);
 
     /**
-     * Locates a "favorite coffee" for the user if they have a 5-star review.
-     * Returns the top coffee with rating=5 if one exists.
+     * Retrieves a page of the IDs of a user's reviews; the reviews themselves
+     * are not loaded.
+     *
+     * @param userId the ID of the user
+     * @param pageable the pagination and sorting parameters
+     * @return a page of review IDs
+     * @throws Exception if the user does not exist
+     */
+    Page<Long> findReviewIdsOfUser(Long userId, Pageable pageable) throws Exception;
+
+    /**
+     * Locates a "favorite coffee" for the user if they have a 5-star review:
+     * the coffee of their most recent one, served from the ID stored on the user.
      *
      * @param userId the ID of the user
      * @return an {@link Optional} of {@link CoffeeDetailsDTO} if found, otherwise empty
@@ -142,6 +173,15 @@ public interface UserService extends UserDetailsService {
      */
     UserDetails loadUserByUsernameOrEmail(String identifier) throws UsernameNotFoundException;
 
+    /**
+     * Retrieves the current token version of a user. Tokens issued for
+     * an older version are no longer accepted.
+     *
+     * @param userId the ID of the user
+     * @return the token version, or empty if the user does not exist
+     */
+    Optional<Integer> findTokenVersion(Long userId);
+
     /**
      * For Spring Security integration. Although you may not explicitly call this,
      * Spring Security calls it automatically. Your implementation typically delegates
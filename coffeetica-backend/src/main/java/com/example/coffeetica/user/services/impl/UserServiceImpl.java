@@ -1,31 +1,51 @@
 package com.example.coffeetica.user.services.impl;
 
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
-import com.example.coffeetica.coffee.models.ReviewEntity;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
+import com.example.coffeetica.coffee.repositories.ReviewRepository.UserReviewCount;
 import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.user.mappers.UserMapper;
 import com.example.coffeetica.user.models.*;
 import com.example.coffeetica.user.repositories.RoleRepository;
 import com.example.coffeetica.user.repositories.UserRepository;
+import com.example.coffeetica.user.repositories.UserRepositoryCustom.SearchHit;
+import com.example.coffeetica.user.events.UserChangedEvent;
+import com.example.coffeetica.user.security.AuthenticatedUser;
 import com.example.coffeetica.user.security.SecurityService;
 import com.example.coffeetica.user.services.UserService;
+import com.example.coffeetica.user.specification.UserSpecification;
+import com.example.coffeetica.utility.CursorPage;
+import com.example.coffeetica.utility.KeysetCursor;
 
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,13 +57,29 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+    /**
+     * Non-null user columns that keyset pagination can seek on.
+     */
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "username", "email");
+
+    /**
+     * Sort value selecting the similarity-ranked cursor listing of a search.
+     */
+    private static final String RELEVANCE_SORT = "relevance";
+
+    /**
+     * Keys of a relevance cursor, in sort order.
+     */
+    private static final Map<String, Class<?>> RELEVANCE_CURSOR_KEYS = relevanceCursorKeys();
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final CoffeeService coffeeService;
     private final ReviewRepository reviewRepository;
     private final SecurityService securityService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new {@link UserServiceImpl} with required dependencies.
@@ -51,53 +87,150 @@ public class UserServiceImpl implements UserService {
      * @param userRepository repository for user entities
      * @param roleRepository repository for role entities
      * @param passwordEncoder password encoder for user credentials
-     * @param modelMapper model mapper for DTO conversions
+     * @param userMapper mapper from user entities to DTOs
      * @param coffeeService coffee service for coffee details
      * @param reviewRepository repository for review entities
      * @param securityService security service for current user checks
+     * @param eventPublisher publisher of user change events
      */
     public UserServiceImpl(
             UserRepository userRepository,
             RoleRepository roleRepository,
             PasswordEncoder passwordEncoder,
-            ModelMapper modelMapper,
+            UserMapper userMapper,
             CoffeeService coffeeService,
             ReviewRepository reviewRepository,
-            SecurityService securityService
+            SecurityService securityService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.coffeeService = coffeeService;
         this.reviewRepository = reviewRepository;
         this.securityService = securityService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserDTO> findAllUsers(String search, int page, int size, String sortBy, String direction) {
         Sort sort = direction.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<UserEntity> userEntities = userRepository.findBySearch(search, pageable);
-
-        return userEntities.map(entity -> {
-            UserDTO dto = new UserDTO();
-            dto.setId(entity.getId());
-            dto.setUsername(entity.getUsername());
-            dto.setEmail(entity.getEmail());
-            dto.setRoles(entity.getRoles().stream()
-                    .map(RoleEntity::getName)
-                    .collect(Collectors.toSet()));
-            // If you want the user's review IDs:
-            Set<Long> reviewIds = entity.getReviews().stream()
-                    .map(ReviewEntity::getId)
-                    .collect(Collectors.toSet());
-            dto.setReviewIds(reviewIds);
-            return dto;
-        });
+        Page<UserEntity> userEntities = search == null || search.isBlank()
+                ? userRepository.findAll(pageable)
+                : userRepository.findBySearch(search, pageable);
+
+        Map<Long, Long> reviewCounts = countReviews(userEntities.getContent());
+        return userEntities.map(entity -> mapToListDTO(entity, reviewCounts));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> findUsersByCursor(String search, String cursor, int limit, String sortBy, String direction) {
+        if (RELEVANCE_SORT.equals(sortBy)) {
+            if (search != null && !search.isBlank()) {
+                return findUsersByRelevance(search, cursor, limit);
+            }
+            sortBy = "id";
+        }
+        Sort sort = direction.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+        KeysetCursor.requireSortable(sort, CURSOR_SORT_PROPERTIES);
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, UserEntity.class, sort);
+
+        Window<UserEntity> window = userRepository.findBy(UserSpecification.matchesSearch(search), query -> query
+                .sortBy(sort)
+                .limit(CursorPage.boundedLimit(limit))
+                .scroll(position));
+
+        Map<Long, Long> reviewCounts = countReviews(window.getContent());
+        return CursorPage.of(window, sort, entity -> mapToListDTO(entity, reviewCounts));
+    }
+
+    /**
+     * Lists the users matching a search most similar first, tolerating typos,
+     * continuing after the relevance and ID of the cursor.
+     */
+    private CursorPage<UserDTO> findUsersByRelevance(String search, String cursor, int limit) {
+        Map<String, Object> keys = KeysetCursor.decode(cursor, RELEVANCE_CURSOR_KEYS);
+        SearchHit after = keys != null
+                ? new SearchHit((Long) keys.get("id"), (Double) keys.get(RELEVANCE_SORT))
+                : null;
+        int boundedLimit = CursorPage.boundedLimit(limit);
+
+        List<SearchHit> hits = userRepository.searchByRelevance(
+                search.trim().toLowerCase(Locale.ROOT), after, boundedLimit + 1);
+        boolean hasNext = hits.size() > boundedLimit;
+        if (hasNext) {
+            hits = hits.subList(0, boundedLimit);
+        }
+
+        List<UserEntity> found = userRepository.findAllById(hits.stream().map(SearchHit::id).toList());
+        Map<Long, UserEntity> users = found.stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        Map<Long, Long> reviewCounts = countReviews(found);
+        List<UserDTO> items = hits.stream()
+                .map(hit -> users.get(hit.id()))
+                .filter(Objects::nonNull)
+                .map(entity -> mapToListDTO(entity, reviewCounts))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            SearchHit last = hits.get(hits.size() - 1);
+            Map<String, Object> nextKeys = new LinkedHashMap<>();
+            nextKeys.put(RELEVANCE_SORT, last.relevance());
+            nextKeys.put("id", last.id());
+            nextCursor = KeysetCursor.encode(nextKeys);
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private static Map<String, Class<?>> relevanceCursorKeys() {
+        Map<String, Class<?>> keys = new LinkedHashMap<>();
+        keys.put(RELEVANCE_SORT, Double.class);
+        keys.put("id", Long.class);
+        return keys;
+    }
+
+    /**
+     * Counts the reviews of a page of users with a single aggregate query,
+     * instead of loading each user's reviews.
+     *
+     * @param users the users of the page
+     * @return the review count by user ID; users without reviews are absent
+     */
+    private Map<Long, Long> countReviews(List<UserEntity> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        return reviewRepository.countByUserIdIn(users.stream().map(UserEntity::getId).toList()).stream()
+                .collect(Collectors.toMap(UserReviewCount::getUserId, UserReviewCount::getReviewCount));
+    }
+
+    /**
+     * Maps a user entity to the DTO returned by the user listings.
+     *
+     * @param entity the user entity
+     * @param reviewCounts the review counts of the listed users
+     * @return the mapped UserDTO
+     */
+    private UserDTO mapToListDTO(UserEntity entity, Map<Long, Long> reviewCounts) {
+        UserDTO dto = new UserDTO();
+        dto.setId(entity.getId());
+        dto.setUsername(entity.getUsername());
+        dto.setEmail(entity.getEmail());
+        dto.setRoles(entity.getRoles().stream()
+                .map(RoleEntity::getName)
+                .collect(Collectors.toSet()));
+        dto.setReviewCount(reviewCounts.getOrDefault(entity.getId(), 0L));
+        return dto;
     }
 
     @Override
@@ -122,7 +255,7 @@ public class UserServiceImpl implements UserService {
         user.setRoles(Set.of(userRole));
 
         UserEntity savedUser = userRepository.save(user);
-        return modelMapper.map(savedUser, UserDTO.class);
+        return userMapper.toDTO(savedUser);
     }
 
     @Override
@@ -137,10 +270,11 @@ public class UserServiceImpl implements UserService {
 
         user.setEmail(request.getEmail());
         UserEntity updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserDTO.class);
+        return userMapper.toDTO(updatedUser);
     }
 
     @Override
+    @Transactional
     public UserDTO adminUpdateUser(Long userId, AdminUpdateUserRequestDTO request) throws Exception {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new Exception("User not found with id: " + userId));
@@ -164,6 +298,8 @@ public class UserServiceImpl implements UserService {
                 throw new Exception("This username is already taken.");
             }
             user.setUsername(request.getUsername());
+            // Tokens carry the username as their subject
+            revokeTokens(user);
         }
 
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -175,10 +311,11 @@ public class UserServiceImpl implements UserService {
         }
 
         UserEntity updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserDTO.class);
+        return userMapper.toDTO(updatedUser);
     }
 
     @Override
+    @Transactional
     public void changeUserPassword(Long userId, String currentPassword, String newPassword) throws Exception {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new Exception("User not found with id: " + userId));
@@ -196,10 +333,12 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeTokens(user);
         userRepository.save(user);
     }
 
     @Override
+    @Transactional
     public void resetUserPassword(Long userId, String newPassword) throws Exception {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new Exception("User not found with id: " + userId));
@@ -218,12 +357,14 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeTokens(user);
         userRepository.save(user);
 
         logger.info("Admin reset password for user {}", userId);
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long userId) throws Exception {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new Exception("User not found with id: " + userId));
@@ -242,10 +383,17 @@ public class UserServiceImpl implements UserService {
         }
 
         logger.info("Deleting user {}", userId);
+
+        // The user's reviews are removed by cascade, so the affected coffees
+        // have their rating aggregates recomputed afterwards
+        List<Long> reviewedCoffeeIds = reviewRepository.findReviewedCoffeeIdsByUserId(userId);
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        coffeeService.recalculateRatingAggregates(reviewedCoffeeIds);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<UserDTO> findUserById(Long id) {
         return userRepository.findById(id).map(entity -> {
             UserDTO userDTO = new UserDTO();
@@ -253,35 +401,62 @@ public class UserServiceImpl implements UserService {
             userDTO.setUsername(entity.getUsername());
             userDTO.setEmail(entity.getEmail());
             userDTO.setRoles(entity.getRoles().stream().map(RoleEntity::getName).collect(Collectors.toSet()));
-
-            // example if you want to map review IDs
-            Set<Long> reviewIds = entity.getReviews().stream()
-                    .map(review -> review.getId())
-                    .collect(Collectors.toSet());
-            userDTO.setReviewIds(reviewIds);
-
+            userDTO.setReviewCount(reviewRepository.countByUserId(entity.getId()));
             return userDTO;
         });
     }
 
     @Override
-    public Optional<CoffeeDetailsDTO> findFavoriteCoffeeOfUser(Long userId) throws Exception {
+    @Transactional(readOnly = true)
+    public Page<Long> findReviewIdsOfUser(Long userId, Pageable pageable) throws Exception {
         if (!userRepository.existsById(userId)) {
             throw new Exception("User not found with id: " + userId);
         }
+        return reviewRepository.findIdsByUserId(userId, pageable);
+    }
 
-        Page<ReviewEntity> topReviews = reviewRepository
-                .findReviewsWithRatingFiveByUserId(userId, PageRequest.of(0, 1));
-
-        if (topReviews.isEmpty()) {
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CoffeeDetailsDTO> findFavoriteCoffeeOfUser(Long userId) throws Exception {
+        // The favorite is maintained on the user by the review write path
+        Optional<Long> favoriteCoffeeId = userRepository.findFavoriteCoffeeIdById(userId);
+        if (favoriteCoffeeId.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
+                throw new Exception("User not found with id: " + userId);
+            }
             return Optional.empty();
         }
+        return coffeeService.findCachedCoffeeDetails(favoriteCoffeeId.get());
+    }
 
-        ReviewEntity review = topReviews.getContent().get(0);
-        return coffeeService.findCoffeeDetails(review.getCoffee().getId());
+    /**
+     * Re-selects the favorite coffee of the users who favored a coffee that was deleted
+     * together with its reviews.
+     *
+     * @param event the coffee change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCoffeeChanged(CoffeeChangedEvent event) {
+        if (event.isDeleted()) {
+            userRepository.refreshFavoriteCoffeeOfUsersFavoring(List.of(event.getCoffeeId()));
+        }
+    }
+
+    /**
+     * Re-selects the favorite coffee of the users who favored one of the coffees deleted
+     * together with a roastery and their reviews.
+     *
+     * @param event the roastery change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRoasteryChanged(RoasteryChangedEvent event) {
+        if (event.isDeleted() && !event.getDeletedCoffeeIds().isEmpty()) {
+            userRepository.refreshFavoriteCoffeeOfUsersFavoring(event.getDeletedCoffeeIds());
+        }
     }
 
     @Override
+    @Transactional
     public UserDTO updateUserRoles(Long userId, Set<String> roles) throws Exception {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new Exception("User not found with id: " + userId));
@@ -294,8 +469,9 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setRoles(roleEntities);
+        revokeTokens(user);
         UserEntity updated = userRepository.save(user);
-        return modelMapper.map(updated, UserDTO.class);
+        return userMapper.toDTO(updated);
     }
 
     /**
@@ -307,13 +483,18 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDetails loadUserByUsernameOrEmail(String identifier) {
-        logger.info("Loading user by identifier: {}", identifier);
+        logger.debug("Loading user by identifier: {}", identifier);
         UserEntity user = userRepository.findByUsernameOrEmail(identifier)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + identifier));
 
         return toSpringSecurityUser(user);
     }
 
+    @Override
+    public Optional<Integer> findTokenVersion(Long userId) {
+        return userRepository.findTokenVersionById(userId);
+    }
+
     /**
      * Spring Security calls this method by default.
      * We delegate to loadUserByUsernameOrEmail.
@@ -328,18 +509,18 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Converts a user entity to Spring Security's User object.
+     * Converts a user entity to the principal used by Spring Security.
      */
     private UserDetails toSpringSecurityUser(UserEntity user) {
-        String[] roles = user.getRoles().stream()
-                .map(RoleEntity::getName)
-                .map(name -> "ROLE_" + name)
-                .toArray(String[]::new);
-
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getPassword())
-                .authorities(roles)
-                .build();
+        return AuthenticatedUser.from(user);
+    }
+
+    /**
+     * Bumps the user's token version, so that tokens issued before this change are rejected,
+     * and publishes a {@link UserChangedEvent} to drop the cached version once the change commits.
+     */
+    private void revokeTokens(UserEntity user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.example.coffeetica.user.specification;
+
+import com.example.coffeetica.user.models.UserEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Provides static methods for building JPA {@link Specification}s
+ * to filter users by a search term.
+ */
+public class UserSpecification {
+
+    /**
+     * Matches users whose username or email contains the search term (case-insensitive).
+     * A null or blank search term matches all users.
+     *
+     * @param search the search term (optional)
+     * @return the specification
+     */
+    public static Specification<UserEntity> matchesSearch(String search) {
+        return (root, query, criteriaBuilder) -> {
+            if (search == null || search.isBlank()) {
+                return criteriaBuilder.conjunction();
+            }
+            String pattern = "%" + search.toLowerCase() + "%";
+            return criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), pattern)
+            );
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.coffeetica.utility;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A lean page of results for keyset (cursor) pagination: the items and an opaque
+ * cursor pointing after the last item, or {@code null} on the last page.
+ * Unlike {@link org.springframework.data.domain.Page}, no total count is computed.
+ *
+ * @param <T> the item type
+ */
+public class CursorPage<T> {
+
+    /**
+     * Upper bound for the number of items requested per cursor page.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Returns an empty, final cursor page.
+     *
+     * @param <T> the item type
+     * @return a page with no items and no next cursor
+     */
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(Collections.emptyList(), null);
+    }
+
+    /**
+     * Builds a cursor page from a keyset-scrolled window, mapping each item.
+     *
+     * @param window the window returned by a keyset scroll query
+     * @param sort the sort of the query, recorded in the cursor
+     * @param mapper the item mapper (e.g. entity to DTO)
+     * @param <E> the source item type
+     * @param <T> the target item type
+     * @return the mapped items with the cursor of the last one, if more items follow
+     */
+    public static <E, T> CursorPage<T> of(Window<E> window, Sort sort,
+                                          Function<? super E, ? extends T> mapper) {
+        List<T> items = window.getContent().stream()
+                .<T>map(mapper)
+                .toList();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1), sort)
+                : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Clamps a requested limit to the range {@code [1, MAX_LIMIT]}.
+     *
+     * @param limit the requested limit
+     * @return the effective limit
+     */
+    public static int boundedLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
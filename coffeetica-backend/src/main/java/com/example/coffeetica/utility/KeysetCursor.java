@@ -0,0 +1,188 @@
+package com.example.coffeetica.utility;
+
+import com.example.coffeetica.exceptions.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes and decodes opaque keyset pagination cursors.
+ * <p>
+ * A cursor holds the sort key values of the last returned row, e.g.
+ * {@code {"createdAt":"2024-05-01T10:00","id":"42"}}, as URL-safe Base64 JSON.
+ * Values are stored as strings and converted back using the entity field types,
+ * so that the seek predicate compares values of the right type. Cursors of entity
+ * queries also carry the sort they were issued for, e.g. {@code "$sort":"createdAt:DESC"},
+ * since the same keys continue a different page in the opposite direction.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> KEYS_TYPE = new TypeReference<>() {};
+
+    /**
+     * The cursor entry holding the sort, named so that it cannot clash with an entity property.
+     */
+    private static final String SORT_KEY = "$sort";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Ensures that a sort only uses properties supported for keyset pagination,
+     * i.e. non-null columns of the entity itself.
+     *
+     * @param sort the requested sort
+     * @param sortableProperties the supported properties
+     * @throws InvalidCursorException if the sort uses any other property
+     */
+    public static void requireSortable(Sort sort, Set<String> sortableProperties) {
+        sort.forEach(order -> {
+            if (!sortableProperties.contains(order.getProperty())) {
+                throw new InvalidCursorException(
+                        "Unsupported sort property for cursor pagination: " + order.getProperty());
+            }
+        });
+    }
+
+    /**
+     * Encodes the keys of a scroll position and the sort they were issued for into an
+     * opaque cursor.
+     *
+     * @param position the keyset position after the last returned row
+     * @param sort the sort of the query
+     * @return the cursor string
+     */
+    public static String encode(KeysetScrollPosition position, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>(position.getKeys());
+        keys.put(SORT_KEY, describe(sort));
+        return encode(keys);
+    }
+
+    /**
+     * Encodes sort key values into an opaque cursor, for queries whose sort keys are
+     * computed (e.g. a relevance score) rather than entity columns.
+     *
+     * @param keys the sort key values of the last returned row, in sort order
+     * @return the cursor string
+     */
+    public static String encode(Map<String, ?> keys) {
+        Map<String, String> rawKeys = new LinkedHashMap<>();
+        keys.forEach((property, value) -> rawKeys.put(property, String.valueOf(value)));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(rawKeys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into a forward keyset position, or the initial position
+     * when no cursor is given.
+     *
+     * @param cursor the cursor from a previous page (optional)
+     * @param entityType the entity class the keys refer to
+     * @param sort the sort of the query; the cursor must have been issued for it, with
+     *             the same properties and directions, and carry their keys plus {@code id}
+     * @return the scroll position to continue from
+     * @throws InvalidCursorException if the cursor is malformed or was issued for another sort
+     */
+    public static KeysetScrollPosition decode(String cursor, Class<?> entityType, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Set<String> expectedProperties = new LinkedHashSet<>();
+        sort.forEach(order -> expectedProperties.add(order.getProperty()));
+        expectedProperties.add("id");
+        expectedProperties.add(SORT_KEY);
+        Map<String, String> rawKeys = decodeRaw(cursor, expectedProperties);
+        if (!describe(sort).equals(rawKeys.remove(SORT_KEY))) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        rawKeys.forEach((property, value) -> keys.put(property, convertField(entityType, property, value)));
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Decodes a cursor issued by {@link #encode(Map)} into typed key values.
+     *
+     * @param cursor the cursor from a previous page (optional)
+     * @param keyTypes the expected keys and their types
+     * @return the key values, or {@code null} when no cursor is given
+     * @throws InvalidCursorException if the cursor is malformed or carries other keys
+     */
+    public static Map<String, Object> decode(String cursor, Map<String, Class<?>> keyTypes) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        decodeRaw(cursor, keyTypes.keySet())
+                .forEach((property, value) -> keys.put(property, convert(keyTypes.get(property), property, value)));
+        return keys;
+    }
+
+    private static Map<String, String> decodeRaw(String cursor, Set<String> expectedProperties) {
+        Map<String, String> rawKeys;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            rawKeys = objectMapper.readValue(new String(json, StandardCharsets.UTF_8), KEYS_TYPE);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (rawKeys == null || !rawKeys.keySet().equals(expectedProperties)) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order");
+        }
+        return rawKeys;
+    }
+
+    private static String describe(Sort sort) {
+        return sort.stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .collect(Collectors.joining(","));
+    }
+
+    private static Object convertField(Class<?> entityType, String property, String value) {
+        Field field = ReflectionUtils.findField(entityType, property);
+        if (field == null) {
+            throw new InvalidCursorException("Unknown cursor key: " + property);
+        }
+        return convert(field.getType(), property, value);
+    }
+
+    private static Object convert(Class<?> type, String property, String value) {
+        try {
+            if (type == String.class) {
+                return value;
+            } else if (type == Long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (type == Double.class) {
+                return Double.valueOf(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor value for key: " + property);
+        }
+        throw new InvalidCursorException("Unsupported cursor key: " + property);
+    }
+}
@@ -0,0 +1,71 @@
+-- Baseline: the schema as previously generated by Hibernate from the entity mappings.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE roles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, user_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE roasteries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    country VARCHAR(255) NOT NULL,
+    founding_year INTEGER NOT NULL,
+    website_url VARCHAR(255) NOT NULL,
+    image_url VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE coffees (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    country_of_origin VARCHAR(255) NOT NULL,
+    region VARCHAR(255) CHECK (region IN ('AFRICA', 'ASIA', 'SOUTH_AMERICA', 'CENTRAL_AMERICA')),
+    roast_level VARCHAR(255) CHECK (roast_level IN ('LIGHT', 'MEDIUM', 'DARK')),
+    flavor_profile VARCHAR(255) CHECK (flavor_profile IN ('BERRY', 'CHOCOLATE', 'CITRUS', 'DRIED_FRUIT', 'EARTHY',
+        'FLORAL', 'HERBAL', 'NUTTY', 'SMOKY', 'SPICE', 'TROPICAL', 'WINE')),
+    processing_method VARCHAR(255) NOT NULL,
+    production_year INTEGER NOT NULL,
+    image_url VARCHAR(255),
+    roastery_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_coffees_roastery FOREIGN KEY (roastery_id) REFERENCES roasteries (id)
+);
+
+CREATE TABLE coffee_flavor_notes (
+    coffee_id BIGINT NOT NULL,
+    flavor_note VARCHAR(255) NOT NULL,
+    PRIMARY KEY (coffee_id, flavor_note),
+    CONSTRAINT fk_coffee_flavor_notes_coffee FOREIGN KEY (coffee_id) REFERENCES coffees (id)
+);
+
+CREATE TABLE reviews (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    content VARCHAR(10000) NOT NULL,
+    rating FLOAT(53) NOT NULL,
+    brewing_method VARCHAR(50) NOT NULL,
+    brewing_description VARCHAR(200),
+    created_at TIMESTAMP(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    coffee_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reviews_coffee FOREIGN KEY (coffee_id) REFERENCES coffees (id)
+);
@@ -0,0 +1,12 @@
+-- Columns introduced after the released schema captured by V1. Databases adopted at the
+-- baseline version skip V1 and lack them, so they are added here for every database.
+
+-- Denormalized rating aggregates of each coffee, maintained on the review write path.
+-- Existing coffees start at zero and are backfilled by the rating reconciliation at startup.
+ALTER TABLE coffees ADD COLUMN rating_sum FLOAT(53) DEFAULT 0 NOT NULL;
+ALTER TABLE coffees ADD COLUMN review_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE coffees ADD COLUMN average_rating FLOAT(53) DEFAULT 0 NOT NULL;
+
+-- Version of each user's JWTs, incremented when the username, password or roles change
+-- to revoke the tokens issued before.
+ALTER TABLE users ADD COLUMN token_version INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,18 @@
+-- Indexes for the hot read paths. PostgreSQL does not index foreign keys on its own,
+-- so without these every per-coffee, per-user and per-roastery lookup scans the table.
+
+-- Latest reviews of a coffee (coffee page, top-3 preview): filter and order from the index
+CREATE INDEX idx_reviews_coffee_created_at ON reviews (coffee_id, created_at DESC);
+
+-- Reviews of a user, newest first (profile page)
+CREATE INDEX idx_reviews_user_created_at ON reviews (user_id, created_at DESC);
+
+-- One review per user and coffee; also serves the review lookup by user and coffee
+-- and the reviewed-coffees query. Fails if duplicates exist; resolve them before migrating.
+ALTER TABLE reviews ADD CONSTRAINT uk_reviews_user_coffee UNIQUE (user_id, coffee_id);
+
+-- Coffees of a roastery
+CREATE INDEX idx_coffees_roastery ON coffees (roastery_id);
+
+-- coffee_flavor_notes needs no separate (coffee_id) index: its primary key
+-- (coffee_id, flavor_note) leads with coffee_id and serves the collection loads.
@@ -0,0 +1,7 @@
+-- The featured (best rated) coffee of each roastery, maintained by the application
+-- on rating and catalog changes and filled in for existing data at startup.
+-- Deliberately not a foreign key: see RoasteryEntity#featuredCoffeeId.
+ALTER TABLE roasteries ADD COLUMN featured_coffee_id BIGINT;
+
+-- Finds the roasteries featuring a moved or deleted coffee
+CREATE INDEX idx_roasteries_featured_coffee ON roasteries (featured_coffee_id);
@@ -0,0 +1,14 @@
+-- The favorite coffee of each user (the coffee of their most recent 5-star review),
+-- maintained by the application on the review write path. Not a foreign key, for the
+-- same reason as roasteries.featured_coffee_id.
+ALTER TABLE users ADD COLUMN favorite_coffee_id BIGINT;
+
+-- Finds the users favoring a deleted coffee
+CREATE INDEX idx_users_favorite_coffee ON users (favorite_coffee_id);
+
+UPDATE users SET favorite_coffee_id = (
+    SELECT r.coffee_id FROM reviews r
+    WHERE r.user_id = users.id AND r.rating = 5.0
+    ORDER BY r.created_at DESC, r.id DESC
+    FETCH FIRST 1 ROWS ONLY
+);
@@ -0,0 +1,11 @@
+-- Content-addressed image files, keyed by the SHA-256 of their content and shared by
+-- every coffee and roastery showing the same image. reference_count is the number of
+-- image_url columns pointing at the blob; the file is deleted when it drops to zero.
+CREATE TABLE image_blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    path VARCHAR(255) NOT NULL,
+    media_type VARCHAR(50) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    reference_count INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Renditions of coffee and roastery images (downscaled, re-encoded copies in the image
+-- store) and a tiny inline placeholder, written once an image has been processed.
+-- Null until then; rows predating them are filled by the bulk re-process command.
+ALTER TABLE coffees ADD COLUMN thumbnail_url VARCHAR(255);
+ALTER TABLE coffees ADD COLUMN card_url VARCHAR(255);
+ALTER TABLE coffees ADD COLUMN full_url VARCHAR(255);
+ALTER TABLE coffees ADD COLUMN image_placeholder VARCHAR(2048);
+
+ALTER TABLE roasteries ADD COLUMN thumbnail_url VARCHAR(255);
+ALTER TABLE roasteries ADD COLUMN card_url VARCHAR(255);
+ALTER TABLE roasteries ADD COLUMN full_url VARCHAR(255);
+ALTER TABLE roasteries ADD COLUMN image_placeholder VARCHAR(2048);
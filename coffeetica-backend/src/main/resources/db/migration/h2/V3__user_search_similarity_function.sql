@@ -0,0 +1,3 @@
+-- H2 has no pg_trgm: provide a compatible similarity() so that the user search
+-- runs the same ranking in tests. Without trigram indexes H2 scans the table.
+CREATE ALIAS IF NOT EXISTS SIMILARITY DETERMINISTIC FOR 'com.example.coffeetica.utility.TrigramSimilarity.similarity';
@@ -0,0 +1,6 @@
+-- Trigram indexes for the admin user search. They serve both the substring filter
+-- (LOWER(x) LIKE '%term%') and the fuzzy similarity operator (LOWER(x) % 'term').
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (LOWER(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (LOWER(email) gin_trgm_ops);
@@ -0,0 +1,9 @@
+-- Hot-path indexes that rely on PostgreSQL features (partial and expression indexes).
+
+-- Five-star reviews of a user, newest first (profile favorites): only the matching rows are indexed
+CREATE INDEX IF NOT EXISTS idx_reviews_user_five_star ON reviews (user_id, created_at DESC) WHERE rating = 5.0;
+
+-- Flavor note filter (LOWER(flavor_note) LIKE '%note%'): an infix match needs a trigram index,
+-- a B-tree on LOWER(flavor_note) would only serve equality and prefix matches
+CREATE INDEX IF NOT EXISTS idx_coffee_flavor_notes_note_trgm
+    ON coffee_flavor_notes USING gin (LOWER(flavor_note) gin_trgm_ops);
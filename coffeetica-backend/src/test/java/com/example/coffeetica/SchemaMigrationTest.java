@@ -0,0 +1,78 @@
+package com.example.coffeetica;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a database created by the released version, whose schema Hibernate generated
+ * before the migrations existed, is adopted at the baseline version and migrated to the
+ * current schema: the context only starts if Hibernate validates the migrated schema.
+ * <p>
+ * The legacy database is the baseline migration itself, with rows inserted before the
+ * migration, so a column added to the baseline instead of a later migration fails here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class SchemaMigrationTest {
+
+    @TestConfiguration
+    static class LegacyDatabase {
+
+        /**
+         * Creates the released schema with some data, then runs the configured migration.
+         */
+        @Bean
+        FlywayMigrationStrategy migrateLegacyDatabase() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__baseline_schema.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbcTemplate.update("INSERT INTO users (id, username, email, password) "
+                        + "VALUES (1, 'john', 'john@example.com', 'password')");
+                jdbcTemplate.update("INSERT INTO roasteries (id, name, country, founding_year, website_url) "
+                        + "VALUES (1, 'Roastery', 'Poland', 2010, 'https://roastery.example.com')");
+                jdbcTemplate.update("INSERT INTO coffees (id, name, country_of_origin, region, processing_method, "
+                        + "production_year, roastery_id) VALUES (1, 'Coffee', 'Ethiopia', 'AFRICA', 'Washed', 2023, 1)");
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tests that the legacy database is baselined, migrated to the latest version, and
+     * that its rows get the defaults of the columns added since.
+     */
+    @Test
+    public void testLegacyDatabaseIsMigratedToCurrentSchema() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals(0, flyway.info().pending().length);
+        MigrationInfo latest = Arrays.stream(flyway.info().all())
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertEquals(latest.getVersion(), flyway.info().current().getVersion());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = 1", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT review_count FROM coffees WHERE id = 1", Integer.class));
+        assertEquals(0.0, jdbcTemplate.queryForObject("SELECT average_rating FROM coffees WHERE id = 1", Double.class));
+    }
+}
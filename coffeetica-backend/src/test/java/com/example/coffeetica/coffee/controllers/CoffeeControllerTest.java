@@ -2,11 +2,15 @@ package com.example.coffeetica.coffee.controllers;
 
 import com.example.coffeetica.coffee.models.CoffeeDTO;
 import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.models.FacetCountDTO;
 import com.example.coffeetica.coffee.models.enums.Region;
 import com.example.coffeetica.coffee.services.CoffeeService;
 import com.example.coffeetica.coffee.util.CoffeeTestData;
 
+import com.example.coffeetica.exceptions.InvalidCursorException;
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
+import com.example.coffeetica.utility.CursorPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -18,6 +22,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -33,6 +38,8 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -197,6 +204,47 @@ public class CoffeeControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Test Coffee"));
     }
 
+    /**
+     * Tests that passing a limit switches the coffee listing to cursor mode,
+     * returning the items and the next cursor without page metadata.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testThatListCoffeesWithLimitReturnsCursorPage() throws Exception {
+        CoffeeDTO coffeeDTO = new CoffeeDTO();
+        coffeeDTO.setId(1L);
+        coffeeDTO.setName("Test Coffee");
+
+        when(coffeeService.findCoffeesByCursor(
+                eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), eq("abc"), eq(9), eq(Sort.by("name").ascending())
+        )).thenReturn(new CursorPage<>(List.of(coffeeDTO), "next"));
+
+        mockMvc.perform(get("/api/coffees?cursor=abc&limit=9&sortBy=name&direction=asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(coffeeDTO.getId()))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    /**
+     * Tests that an undecodable cursor results in 400 Bad Request.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testThatListCoffeesWithInvalidCursorReturns400() throws Exception {
+        when(coffeeService.findCoffeesByCursor(
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                eq("garbage"), anyInt(), any(Sort.class)
+        )).thenThrow(new InvalidCursorException("Malformed cursor"));
+
+        mockMvc.perform(get("/api/coffees?cursor=garbage&limit=9"))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Tests that deleting a coffee returns 204 No Content even if the coffee
      * does not exist, assuming the service layer does not throw an exception.
@@ -295,6 +343,51 @@ public class CoffeeControllerTest {
                 .andExpect(jsonPath("$.content[0].region").value("Africa"));
     }
 
+    /**
+     * Tests that facet counts are returned for the filter given as query parameters.
+     *
+     * @throws Exception if the request or JSON parsing fails
+     */
+    @Test
+    void testGetCoffeeFacetsReturnsCountsForFilter() throws Exception {
+        CoffeeFacetsDTO facets = new CoffeeFacetsDTO();
+        facets.setTotal(3);
+        facets.setRegions(List.of(new FacetCountDTO("Africa", 3), new FacetCountDTO("Asia", 0)));
+        facets.setProcessingMethods(List.of(new FacetCountDTO("Washed", 2), new FacetCountDTO("Natural", 1)));
+
+        when(coffeeService.findCoffeeFacets(
+                eq(null), eq(null), eq(Region.AFRICA), eq(null), eq(null),
+                eq(null), eq(null), eq(2020), eq(null), eq(null))
+        ).thenReturn(facets);
+
+        mockMvc.perform(get("/api/coffees/facets")
+                        .param("region", "AFRICA")
+                        .param("minProductionYear", "2020"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.regions[0].value").value("Africa"))
+                .andExpect(jsonPath("$.regions[1].count").value(0))
+                .andExpect(jsonPath("$.processingMethods[0].value").value("Washed"));
+    }
+
+    /**
+     * Tests that a free-text search returns the ranked page from the service.
+     *
+     * @throws Exception if the request or JSON parsing fails
+     */
+    @Test
+    void testSearchCoffeesReturnsRankedPage() throws Exception {
+        CoffeeDTO coffee = CoffeeTestData.createTestCoffeeDTO();
+        when(coffeeService.searchCoffees(eq("washed chocolate"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(coffee)));
+
+        mockMvc.perform(get("/api/coffees/search")
+                        .param("q", "washed chocolate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(coffee.getId()))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
     /**
      * Tests uploading an image for a coffee, expecting 200 OK on success.
      *
@@ -306,10 +399,27 @@ public class CoffeeControllerTest {
         doNothing().when(coffeeService).updateCoffeeImageUrl(eq(1L), anyString());
 
         MockMultipartFile file = new MockMultipartFile(
-                "file", "coffee.jpg", "image/jpeg", "TestImage".getBytes()
+                "file", "coffee.jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10}
         );
         mockMvc.perform(multipart("/api/coffees/1/upload-image").file(file))
                 .andExpect(status().isOk())
                 .andExpect(content().string(Matchers.containsString("File uploaded successfully")));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that uploading a file which is not an image is rejected with 400 Bad Request,
+     * whatever its declared content type, without updating the coffee.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testUploadCoffeeImageRejectsNonImage() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "coffee.jpg", "image/jpeg", "TestImage".getBytes()
+        );
+        mockMvc.perform(multipart("/api/coffees/1/upload-image").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unsupported image format"));
+        verify(coffeeService, never()).updateCoffeeImageUrl(anyLong(), anyString());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.coffeetica.coffee.controllers;
+
+import com.example.coffeetica.coffee.images.ImageRenditionProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the {@link ImageController}, run with the security filters enabled
+ * since re-processing is restricted to admins.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+public class ImageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImageRenditionProcessor imageRenditionProcessor;
+
+    /**
+     * Tests that an admin can start re-processing all images.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @WithMockUser(roles = "Admin")
+    void testReprocessImagesReturnsAccepted() throws Exception {
+        when(imageRenditionProcessor.reprocessAll()).thenReturn(12);
+
+        mockMvc.perform(post("/api/images/reprocess"))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string("Re-processing 12 images"));
+    }
+
+    /**
+     * Tests that a regular user cannot re-process images.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @WithMockUser(roles = "User")
+    void testReprocessImagesIsForbiddenForUsers() throws Exception {
+        mockMvc.perform(post("/api/images/reprocess"))
+                .andExpect(status().isForbidden());
+        verify(imageRenditionProcessor, never()).reprocessAll();
+    }
+}
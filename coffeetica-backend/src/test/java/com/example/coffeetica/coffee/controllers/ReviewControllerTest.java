@@ -3,6 +3,7 @@ package com.example.coffeetica.coffee.controllers;
 import com.example.coffeetica.coffee.models.ReviewDTO;
 import com.example.coffeetica.coffee.models.ReviewRequestDTO;
 import com.example.coffeetica.coffee.services.ReviewService;
+import com.example.coffeetica.utility.CursorPage;
 import com.example.coffeetica.coffee.util.CoffeeTestData;
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -200,6 +201,28 @@ public class ReviewControllerTest {
                 .andExpect(jsonPath("$.number").value(0));
     }
 
+    /**
+     * Tests that passing a limit switches the review listing to cursor mode,
+     * sorted by creation date (newest first) by default.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testThatListReviewsWithLimitReturnsCursorPage() throws Exception {
+        ReviewDTO sampleReview = CoffeeTestData.createTestReviewDTO();
+        sampleReview.setId(5L);
+
+        when(reviewService.findReviewsByCursor(isNull(), isNull(), isNull(), eq(10),
+                eq(Sort.by("createdAt").descending())))
+                .thenReturn(new CursorPage<>(List.of(sampleReview), null));
+
+        mockMvc.perform(get("/api/reviews/all?limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(5L))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
     /**
      * Tests that deleting a review returns 204 No Content,
      * even if it doesn't exist (assuming the service doesn't throw an error).
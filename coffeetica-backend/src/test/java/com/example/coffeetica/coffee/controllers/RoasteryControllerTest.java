@@ -287,7 +287,7 @@ public class RoasteryControllerTest {
         // Mock roastery exists
         doNothing().when(roasteryService).updateRoasteryImageUrl(eq(1L), anyString());
 
-        MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", "TestImage".getBytes());
+        MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10});
         mockMvc.perform(MockMvcRequestBuilders.multipart("/api/roasteries/1/upload-image").file(file))
                 .andExpect(status().isOk())
                 .andExpect(content().string(Matchers.containsString("File uploaded successfully")));
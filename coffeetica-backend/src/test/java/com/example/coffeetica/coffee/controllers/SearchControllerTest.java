@@ -0,0 +1,71 @@
+package com.example.coffeetica.coffee.controllers;
+
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.models.enums.SuggestionType;
+import com.example.coffeetica.coffee.services.SearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the {@link SearchController}, run with the security filters enabled
+ * since suggestions must be available to anonymous visitors.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+public class SearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SearchService searchService;
+
+    /**
+     * Tests that an anonymous user gets the suggestions for the typed prefix.
+     *
+     * @throws Exception if the request or JSON parsing fails
+     */
+    @Test
+    void testSuggestReturnsSuggestionsForAnonymousUser() throws Exception {
+        when(searchService.suggest("eth", 5)).thenReturn(List.of(
+                new SuggestionDTO("Ethiopia Guji", SuggestionType.COFFEE, 3L),
+                new SuggestionDTO("Ethiopian Heirloom", SuggestionType.FLAVOR_NOTE, null)));
+
+        mockMvc.perform(get("/api/search/suggest")
+                        .param("q", "eth")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Ethiopia Guji"))
+                .andExpect(jsonPath("$[0].type").value("Coffee"))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].type").value("Flavor Note"));
+    }
+
+    /**
+     * Tests that the default limit is applied when none is given.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testSuggestUsesDefaultLimit() throws Exception {
+        when(searchService.suggest("ke", 8)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "ke"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
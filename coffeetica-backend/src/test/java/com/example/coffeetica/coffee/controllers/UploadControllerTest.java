@@ -0,0 +1,209 @@
+package com.example.coffeetica.coffee.controllers;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the {@link UploadController}, serving images from temporary upload
+ * directories with the security filters enabled, as anonymous visitors see them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+public class UploadControllerTest {
+
+    private static final String SHA256 = "ab" + "0123456789abcdef".repeat(4).substring(2);
+    private static final String IMAGE_URL = "/uploads/images/ab/" + SHA256 + ".png";
+    private static final byte[] IMAGE = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LEGACY_IMAGE = "legacy coffee photo".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    static Path uploads;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void uploadPaths(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.images-path", () -> uploads.resolve("images").toString());
+        registry.add("app.upload.coffees-path", () -> uploads.resolve("coffees").toString());
+        registry.add("app.upload.roasteries-path", () -> uploads.resolve("roasteries").toString());
+    }
+
+    @BeforeAll
+    static void writeImages() throws Exception {
+        Files.createDirectories(uploads.resolve("images/ab"));
+        Files.createDirectories(uploads.resolve("coffees"));
+        Files.write(uploads.resolve("images/ab/" + SHA256 + ".png"), IMAGE);
+        Files.write(uploads.resolve("images/ab/.upload-1.tmp"), IMAGE);
+        Files.write(uploads.resolve("coffees/photo.jpg"), LEGACY_IMAGE);
+    }
+
+    /**
+     * Tests that a content-addressed image is served whole, tagged with its hash
+     * and cacheable forever.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testServeContentAddressedImage() throws Exception {
+        mockMvc.perform(get(IMAGE_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SHA256 + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, IMAGE.length))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(IMAGE));
+    }
+
+    /**
+     * Tests that a HEAD request gets the headers without the content.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testHeadReturnsHeadersOnly() throws Exception {
+        mockMvc.perform(head(IMAGE_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, IMAGE.length))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Tests that a client holding the current version gets 304 Not Modified.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testIfNoneMatchReturnsNotModified() throws Exception {
+        mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", \"" + SHA256 + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SHA256 + "\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Tests that a byte range is served as partial content.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testRangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+
+        mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    /**
+     * Tests that a range of another version of the image, per If-Range, is ignored
+     * in favour of the whole image.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testRangeOfOtherVersionReturnsWholeImage() throws Exception {
+        mockMvc.perform(get(IMAGE_URL)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(IMAGE));
+    }
+
+    /**
+     * Tests that a range beyond the end of the image is rejected with 416.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testUnsatisfiableRangeIsRejected() throws Exception {
+        mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=10-20"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    /**
+     * Tests that a legacy image is tagged with the hash of its content and revalidated
+     * instead of being cached forever.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testServeLegacyImage() throws Exception {
+        String etag = "\"" + HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(LEGACY_IMAGE)) + "\"";
+
+        mockMvc.perform(get("/uploads/coffees/photo.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, no-cache"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(content().bytes(LEGACY_IMAGE));
+    }
+
+    /**
+     * Tests that legacy images keep being served under the extension of the client's
+     * file name, whatever its case, including {@code jpeg}.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testServeLegacyImageWithClientExtension() throws Exception {
+        Files.write(uploads.resolve("coffees/x_photo.JPEG"), LEGACY_IMAGE);
+        Files.createDirectories(uploads.resolve("roasteries"));
+        Files.write(uploads.resolve("roasteries/x_logo.PNG"), LEGACY_IMAGE);
+
+        mockMvc.perform(get("/uploads/coffees/x_photo.JPEG"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(content().bytes(LEGACY_IMAGE));
+        mockMvc.perform(get("/uploads/roasteries/x_logo.PNG"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"));
+    }
+
+    /**
+     * Tests that missing images, temporary files and paths outside the upload
+     * directories are not found.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testUnknownFilesAreNotFound() throws Exception {
+        mockMvc.perform(get("/uploads/images/ab/" + SHA256 + ".jpg"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/images/ab/.upload-1.tmp"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/other/photo.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.coffeetica.coffee.featured;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the featured coffee selection of {@link FeaturedCoffeeUpdater} against the
+ * migrated H2 schema: the review threshold, the tie-breaking rules, and the roasteries
+ * re-evaluated when coffees are rated, moved or deleted.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.roastery.featured-coffee.min-reviews=2"
+})
+@Import(FeaturedCoffeeUpdater.class)
+public class FeaturedCoffeeUpdaterTest {
+
+    @Autowired
+    private FeaturedCoffeeUpdater updater;
+
+    @Autowired
+    private RoasteryRepository roasteryRepository;
+
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private RoasteryEntity roastery;
+    private RoasteryEntity otherRoastery;
+
+    @BeforeEach
+    void setUp() {
+        roastery = roastery("First Roastery");
+        otherRoastery = roastery("Second Roastery");
+    }
+
+    private RoasteryEntity roastery(String name) {
+        RoasteryEntity entity = new RoasteryEntity();
+        entity.setName(name);
+        entity.setCountry("Poland");
+        entity.setFoundingYear(2010);
+        entity.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    /**
+     * Persists a coffee with the given rating aggregates.
+     */
+    private CoffeeEntity coffee(RoasteryEntity owner, double averageRating, int reviewCount) {
+        CoffeeEntity coffee = new CoffeeEntity();
+        coffee.setName("Coffee");
+        coffee.setCountryOfOrigin("Ethiopia");
+        coffee.setRegion(Region.AFRICA);
+        coffee.setRoastLevel(RoastLevel.LIGHT);
+        coffee.setFlavorProfile(FlavorProfile.BERRY);
+        coffee.setProcessingMethod("Washed");
+        coffee.setProductionYear(2023);
+        coffee.setRoastery(owner);
+        entityManager.persist(coffee);
+        entityManager.flush();
+        coffeeRepository.applyRatingDelta(coffee.getId(), averageRating * reviewCount, reviewCount);
+        return coffee;
+    }
+
+    private Optional<Long> featuredOf(RoasteryEntity owner) {
+        entityManager.clear();
+        return roasteryRepository.findFeaturedCoffeeIdById(owner.getId());
+    }
+
+    /**
+     * Tests that coffees below the review threshold are never featured.
+     */
+    @Test
+    public void testCoffeesBelowThresholdAreNotFeatured() {
+        CoffeeEntity fewReviews = coffee(roastery, 5.0, 1);
+        CoffeeEntity enoughReviews = coffee(roastery, 3.0, 2);
+
+        updater.refreshAll();
+        assertEquals(Optional.of(enoughReviews.getId()), featuredOf(roastery));
+
+        coffeeRepository.applyRatingDelta(enoughReviews.getId(), -6.0, -2);
+        updater.onRatingChanged(new CoffeeRatingChangedEvent(List.of(enoughReviews.getId(), fewReviews.getId())));
+        assertEquals(Optional.empty(), featuredOf(roastery));
+    }
+
+    /**
+     * Tests that equal ratings are decided by the number of reviews, then by the older coffee.
+     */
+    @Test
+    public void testTiesPreferMoreReviewsThenOlderCoffee() {
+        CoffeeEntity older = coffee(roastery, 4.0, 2);
+        CoffeeEntity newer = coffee(roastery, 4.0, 2);
+        updater.refreshAll();
+        assertEquals(Optional.of(older.getId()), featuredOf(roastery));
+
+        coffeeRepository.applyRatingDelta(newer.getId(), 4.0, 1);
+        updater.onRatingChanged(new CoffeeRatingChangedEvent(List.of(newer.getId())));
+        assertEquals(Optional.of(newer.getId()), featuredOf(roastery));
+    }
+
+    /**
+     * Tests that a rating change only re-evaluates the roastery of the rated coffee.
+     */
+    @Test
+    public void testRatingChangeUpdatesOnlyAffectedRoastery() {
+        CoffeeEntity first = coffee(roastery, 4.0, 2);
+        coffee(otherRoastery, 4.0, 2);
+
+        updater.onRatingChanged(new CoffeeRatingChangedEvent(List.of(first.getId())));
+
+        assertEquals(Optional.of(first.getId()), featuredOf(roastery));
+        assertEquals(Optional.empty(), featuredOf(otherRoastery));
+    }
+
+    /**
+     * Tests that moving or deleting the featured coffee makes its former roastery pick another one.
+     */
+    @Test
+    public void testMovedAndDeletedCoffeesAreReplaced() {
+        CoffeeEntity best = coffee(roastery, 5.0, 2);
+        CoffeeEntity runnerUp = coffee(roastery, 4.0, 2);
+        updater.refreshAll();
+
+        CoffeeEntity moved = entityManager.find(CoffeeEntity.class, best.getId());
+        moved.setRoastery(entityManager.find(RoasteryEntity.class, otherRoastery.getId()));
+        entityManager.flush();
+        updater.onCoffeeChanged(new CoffeeChangedEvent(best.getId(), false));
+        assertEquals(Optional.of(runnerUp.getId()), featuredOf(roastery));
+        assertEquals(Optional.of(best.getId()), featuredOf(otherRoastery));
+
+        coffeeRepository.deleteById(runnerUp.getId());
+        entityManager.flush();
+        updater.onCoffeeChanged(new CoffeeChangedEvent(runnerUp.getId(), true));
+        assertEquals(Optional.empty(), featuredOf(roastery));
+    }
+
+    /**
+     * Tests that the rating reconciliation re-selects the featured coffee of every roastery,
+     * replacing a stale choice.
+     */
+    @Test
+    public void testReconciliationReplacesStaleChoices() {
+        CoffeeEntity best = coffee(roastery, 5.0, 2);
+        CoffeeEntity stale = coffee(roastery, 4.0, 2);
+        entityManager.createNativeQuery("UPDATE roasteries SET featured_coffee_id = :coffeeId WHERE id = :roasteryId")
+                .setParameter("coffeeId", stale.getId())
+                .setParameter("roasteryId", roastery.getId())
+                .executeUpdate();
+        assertEquals(Optional.of(stale.getId()), featuredOf(roastery));
+
+        updater.onRatingChanged(CoffeeRatingChangedEvent.ofAll());
+        assertEquals(Optional.of(best.getId()), featuredOf(roastery));
+    }
+
+    /**
+     * Tests that the roasteries locked before a re-selection are those it updates: the
+     * current owner of a moved coffee and the roastery still featuring it.
+     */
+    @Test
+    public void testAffectedRoasteriesAreLocked() {
+        CoffeeEntity best = coffee(roastery, 5.0, 2);
+        coffee(otherRoastery, 4.0, 2);
+        RoasteryEntity unrelated = roastery("Third Roastery");
+        updater.refreshAll();
+
+        CoffeeEntity moved = entityManager.find(CoffeeEntity.class, best.getId());
+        moved.setRoastery(entityManager.find(RoasteryEntity.class, otherRoastery.getId()));
+        entityManager.flush();
+
+        assertEquals(List.of(roastery.getId(), otherRoastery.getId()),
+                roasteryRepository.lockFeaturedCoffeeRoasteries(List.of(best.getId())));
+        assertEquals(List.of(roastery.getId(), otherRoastery.getId(), unrelated.getId()),
+                roasteryRepository.lockAllRoasteries());
+    }
+}
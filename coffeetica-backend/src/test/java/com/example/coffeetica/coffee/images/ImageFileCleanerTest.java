@@ -0,0 +1,36 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageReleasedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ImageFileCleaner}, verifying that released images are deleted
+ * in the background and that a failed deletion does not stop later ones.
+ */
+public class ImageFileCleanerTest {
+
+    private final ImageStore imageStore = mock(ImageStore.class);
+    private final ImageFileCleaner cleaner = new ImageFileCleaner(imageStore);
+
+    @AfterEach
+    void tearDown() {
+        cleaner.shutdown();
+    }
+
+    /**
+     * Tests that the files of released images are deleted, even after a failed deletion.
+     */
+    @Test
+    public void testReleasedImagesAreDeletedInBackground() {
+        doThrow(new IllegalStateException("disk error")).when(imageStore).deleteReleased("coffees/a.jpg");
+
+        cleaner.onImageReleased(new ImageReleasedEvent("coffees/a.jpg"));
+        cleaner.onImageReleased(new ImageReleasedEvent("images/ab/b.jpg"));
+
+        verify(imageStore, timeout(5000)).deleteReleased("images/ab/b.jpg");
+        verify(imageStore).deleteReleased("coffees/a.jpg");
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.coffeetica.coffee.images;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ImageRenderer}, verifying the rendition sizes, the EXIF
+ * orientation handling, metadata stripping and the placeholder.
+ */
+public class ImageRendererTest {
+
+    private static final String SHA256 = "ab" + "0123456789abcdef".repeat(4).substring(2);
+
+    @TempDir
+    Path uploads;
+
+    private ImageStore imageStore;
+    private ImageRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(new ImageUploadReceiver(DataSize.ofMegabytes(5)), null,
+                uploads.resolve("images").toString(),
+                uploads.resolve("coffees").toString(),
+                uploads.resolve("roasteries").toString(), null);
+        renderer = new ImageRenderer(imageStore);
+    }
+
+    private void write(String url, byte[] content) throws Exception {
+        Path file = imageStore.resolve(url);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+    }
+
+    private BufferedImage read(String url) throws Exception {
+        return ImageIO.read(imageStore.resolve(url).toFile());
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, format, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Builds a JPEG with an EXIF APP1 segment holding the given orientation
+     * and a camera model, inserted right after the start-of-image marker.
+     */
+    private static byte[] jpegWithExif(BufferedImage image, int orientation) throws Exception {
+        byte[] jpeg = encode(image, "jpg");
+        byte[] model = "TestCam\0".getBytes(StandardCharsets.US_ASCII);
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,                   // big endian, IFD at offset 8
+                0, 2,                                          // two entries
+                0x01, 0x10, 0, 2, 0, 0, 0, 8, 0, 0, 0, 38,     // Model, ASCII, 8 bytes at offset 38
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, // Orientation, SHORT
+                0, 0, 0, 0                                     // no next IFD
+        };
+        ByteArrayOutputStream app1 = new ByteArrayOutputStream();
+        app1.write("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        app1.write(tiff);
+        app1.write(model);
+        int length = app1.size() + 2;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length});
+        app1.writeTo(out);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    private static boolean contains(byte[] content, String text) {
+        byte[] needle = text.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i + needle.length <= content.length; i++) {
+            if (Arrays.equals(content, i, i + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests that a large transparent PNG is downscaled into all renditions, keeping its
+     * aspect ratio, and that the placeholder is a small inline JPEG.
+     */
+    @Test
+    public void testRenderDownscalesIntoRenditions() throws Exception {
+        String url = "images/ab/" + SHA256 + ".png";
+        write(url, encode(new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_ARGB), "png"));
+
+        ImageRenditions renditions = renderer.render(url, false).orElseThrow();
+
+        assertEquals(ImageRendition.THUMBNAIL.urlFor(SHA256), renditions.thumbnailUrl());
+        BufferedImage full = read(renditions.fullUrl());
+        BufferedImage card = read(renditions.cardUrl());
+        BufferedImage thumbnail = read(renditions.thumbnailUrl());
+        assertEquals(1600, full.getWidth());
+        assertEquals(800, full.getHeight());
+        assertEquals(600, card.getWidth());
+        assertEquals(300, card.getHeight());
+        assertEquals(200, thumbnail.getWidth());
+        assertEquals(100, thumbnail.getHeight());
+        // Transparency is flattened onto white
+        Color pixel = new Color(thumbnail.getRGB(100, 50));
+        assertTrue(pixel.getRed() > 240 && pixel.getGreen() > 240 && pixel.getBlue() > 240);
+
+        assertTrue(renditions.placeholder().startsWith("data:image/jpeg;base64,"));
+        assertTrue(renditions.placeholder().length() < 2048);
+    }
+
+    /**
+     * Tests that small images are not upscaled.
+     */
+    @Test
+    public void testRenderDoesNotUpscale() throws Exception {
+        String url = "images/ab/" + SHA256 + ".png";
+        write(url, encode(new BufferedImage(300, 150, BufferedImage.TYPE_INT_RGB), "png"));
+
+        ImageRenditions renditions = renderer.render(url, false).orElseThrow();
+
+        assertEquals(300, read(renditions.fullUrl()).getWidth());
+        assertEquals(300, read(renditions.cardUrl()).getWidth());
+        assertEquals(200, read(renditions.thumbnailUrl()).getWidth());
+    }
+
+    /**
+     * Tests that a legacy photo taken in portrait is turned upright by its EXIF orientation
+     * and that its renditions carry no EXIF data.
+     */
+    @Test
+    public void testRenderAppliesOrientationAndStripsExif() throws Exception {
+        byte[] photo = jpegWithExif(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), 6);
+        assertEquals(6, ImageRenderer.readOrientation(writeLegacy(photo)));
+
+        ImageRenditions renditions = renderer.render("coffees/photo.jpg", false).orElseThrow();
+
+        BufferedImage card = read(renditions.cardUrl());
+        assertEquals(300, card.getWidth());
+        assertEquals(600, card.getHeight());
+        for (String url : new String[]{renditions.thumbnailUrl(), renditions.cardUrl(), renditions.fullUrl()}) {
+            byte[] content = Files.readAllBytes(imageStore.resolve(url));
+            assertFalse(contains(content, "Exif"));
+            assertFalse(contains(content, "TestCam"));
+        }
+    }
+
+    private Path writeLegacy(byte[] content) throws Exception {
+        write("coffees/photo.jpg", content);
+        return imageStore.resolve("coffees/photo.jpg");
+    }
+
+    /**
+     * Tests that formats without a decoder are left without renditions.
+     */
+    @Test
+    public void testRenderSkipsUndecodableFormats() throws Exception {
+        String url = "images/ab/" + SHA256 + ".webp";
+        write(url, new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P', 'V', 'P', '8', ' '});
+
+        assertEquals(Optional.empty(), renderer.render(url, false));
+        assertFalse(Files.exists(imageStore.resolve(ImageRendition.FULL.urlFor(SHA256))));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageAssignedEvent;
+import com.example.coffeetica.coffee.events.ImageAssignedEvent.Owner;
+import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.coffee.services.RoasteryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ImageRenditionProcessor}, verifying that renditions are stored
+ * for the image they were generated from, that the queue is bounded and that
+ * re-processing covers every coffee and roastery image.
+ */
+public class ImageRenditionProcessorTest {
+
+    private static final ImageRenditions RENDITIONS =
+            new ImageRenditions("images/ab/t.jpg", "images/ab/c.jpg", "images/ab/f.jpg", "data:image/jpeg;base64,");
+
+    private final ImageRenderer imageRenderer = mock(ImageRenderer.class);
+    private final CoffeeService coffeeService = mock(CoffeeService.class);
+    private final RoasteryService roasteryService = mock(RoasteryService.class);
+
+    private ImageRenditionProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        // One worker and one waiting image
+        processor = new ImageRenditionProcessor(imageRenderer, coffeeService, roasteryService, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    /**
+     * Tests that an assigned image is rendered in the background and its renditions
+     * are stored on the coffee showing it.
+     */
+    @Test
+    public void testAssignedImageIsRendered() throws Exception {
+        when(imageRenderer.render("images/ab/x.jpg", false)).thenReturn(Optional.of(RENDITIONS));
+
+        processor.onImageAssigned(new ImageAssignedEvent(Owner.COFFEE, 7L, "images/ab/x.jpg"));
+
+        verify(coffeeService, timeout(5000)).updateCoffeeImageRenditions(7L, "images/ab/x.jpg", RENDITIONS);
+        verifyNoInteractions(roasteryService);
+    }
+
+    /**
+     * Tests that images beyond the queue capacity are skipped instead of blocking.
+     */
+    @Test
+    public void testSubmitSkipsImagesWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageRenderer.render(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(RENDITIONS);
+        });
+
+        assertTrue(processor.submit(Owner.ROASTERY, 1L, "images/ab/1.jpg"));
+        assertTrue(processor.submit(Owner.ROASTERY, 2L, "images/ab/2.jpg"));
+        assertFalse(processor.submit(Owner.ROASTERY, 3L, "images/ab/3.jpg"));
+
+        release.countDown();
+        verify(roasteryService, timeout(5000)).updateRoasteryImageRenditions(2L, "images/ab/2.jpg", RENDITIONS);
+        verify(roasteryService, never()).updateRoasteryImageRenditions(eq(3L), anyString(), any());
+    }
+
+    /**
+     * Tests that re-processing regenerates the renditions of all coffee and roastery images.
+     */
+    @Test
+    public void testReprocessAllRendersEveryImage() throws Exception {
+        when(coffeeService.findCoffeeImageReferences()).thenReturn(List.of(
+                new ImageReference(1L, "coffees/a.jpg"), new ImageReference(2L, "images/ab/b.jpg")));
+        when(roasteryService.findRoasteryImageReferences()).thenReturn(List.of(
+                new ImageReference(3L, "roasteries/c.png")));
+        when(imageRenderer.render(anyString(), eq(true))).thenReturn(Optional.of(RENDITIONS));
+
+        assertEquals(3, processor.reprocessAll());
+
+        verify(coffeeService, timeout(5000)).updateCoffeeImageRenditions(1L, "coffees/a.jpg", RENDITIONS);
+        verify(coffeeService, timeout(5000)).updateCoffeeImageRenditions(2L, "images/ab/b.jpg", RENDITIONS);
+        verify(roasteryService, timeout(5000)).updateRoasteryImageRenditions(3L, "roasteries/c.png", RENDITIONS);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.events.ImageReleasedEvent;
+import com.example.coffeetica.coffee.images.ImageStore.StoredImage;
+import com.example.coffeetica.coffee.models.ImageBlobEntity;
+import com.example.coffeetica.coffee.repositories.ImageBlobRepository;
+import com.example.coffeetica.exceptions.InvalidImageException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the content-addressed {@link ImageStore} against the H2 schema built by the
+ * Flyway migrations: identical uploads share one file, references are counted and the
+ * file is scheduled for deletion once the last reference is released.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class ImageStoreTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path uploads;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Object> events = new ArrayList<>();
+
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(new ImageUploadReceiver(DataSize.ofKilobytes(100)), imageBlobRepository,
+                uploads.resolve("images").toString(),
+                uploads.resolve("coffees").toString(),
+                uploads.resolve("roasteries").toString(), events::add);
+    }
+
+    private StoredImage upload(String name) throws Exception {
+        return imageStore.store(new MockMultipartFile("file", name, "image/jpeg", JPEG));
+    }
+
+    private Path fileOf(StoredImage image) {
+        return uploads.resolve(image.url());
+    }
+
+    /**
+     * Tests that uploading the same content twice yields one file under one immutable URL.
+     */
+    @Test
+    public void testStoreDeduplicatesIdenticalUploads() throws Exception {
+        StoredImage first = upload("a.jpg");
+        StoredImage second = upload("b.jpg");
+
+        assertEquals(first.url(), second.url());
+        assertTrue(first.url().matches("images/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg"));
+        assertEquals(first.sha256(), ImageStore.sha256Of(first.url()).orElseThrow());
+        assertArrayEquals(JPEG, Files.readAllBytes(fileOf(first)));
+    }
+
+    private List<String> releasedUrls() {
+        return events.stream()
+                .map(event -> ((ImageReleasedEvent) event).getImageUrl())
+                .toList();
+    }
+
+    /**
+     * Tests that a shared image survives until its last reference is released, that its
+     * blob is removed then, and that its file and renditions are only deleted afterwards.
+     */
+    @Test
+    public void testReleaseDeletesImageWithLastReference() throws Exception {
+        StoredImage image = upload("a.jpg");
+        imageStore.reference(image.url());
+        imageStore.reference(upload("b.jpg").url());
+        // The counts are maintained by bulk updates, bypassing the persistence context
+        entityManager.clear();
+
+        ImageBlobEntity blob = imageBlobRepository.findById(image.sha256()).orElseThrow();
+        assertEquals(2, blob.getReferenceCount());
+        assertEquals("image/jpeg", blob.getMediaType());
+        assertEquals(JPEG.length, blob.getSizeBytes());
+
+        imageStore.release(image.url());
+        assertTrue(imageBlobRepository.existsById(image.sha256()));
+        assertTrue(events.isEmpty());
+
+        Path thumbnail = uploads.resolve(ImageRendition.THUMBNAIL.urlFor(image.sha256()));
+        Files.write(thumbnail, JPEG);
+        imageStore.release(image.url());
+        assertFalse(imageBlobRepository.existsById(image.sha256()));
+        assertEquals(List.of(image.url()), releasedUrls());
+        // The files outlive the transaction until the cleaner deletes them
+        assertTrue(Files.exists(fileOf(image)));
+
+        imageStore.deleteReleased(image.url());
+        assertFalse(Files.exists(fileOf(image)));
+        assertFalse(Files.exists(thumbnail));
+    }
+
+    /**
+     * Tests that an image uploaded and referenced again before its released files are
+     * deleted is kept.
+     */
+    @Test
+    public void testDeleteReleasedKeepsImageReferencedAgain() throws Exception {
+        StoredImage image = upload("a.jpg");
+        imageStore.reference(image.url());
+        imageStore.release(image.url());
+        // Each step runs in its own transaction in production
+        entityManager.clear();
+
+        imageStore.reference(upload("b.jpg").url());
+        imageStore.deleteReleased(image.url());
+
+        assertTrue(Files.exists(fileOf(image)));
+    }
+
+    /**
+     * Tests that registering a blob a concurrent first reference registered already
+     * leaves the transaction usable, so that the reference is counted on that blob.
+     */
+    @Test
+    public void testDuplicateRegistrationKeepsTransactionUsable() throws Exception {
+        StoredImage image = upload("a.jpg");
+        ImageBlobEntity blob = new ImageBlobEntity();
+        blob.setSha256(image.sha256());
+        blob.setPath(image.url());
+        blob.setMediaType(image.type().getMediaType());
+        blob.setSizeBytes(image.size());
+        blob.setReferenceCount(1);
+
+        assertTrue(imageBlobRepository.insertIfAbsent(blob));
+        assertFalse(imageBlobRepository.insertIfAbsent(blob));
+        imageStore.reference(image.url());
+
+        entityManager.clear();
+        assertEquals(2, imageBlobRepository.findById(image.sha256()).orElseThrow().getReferenceCount());
+    }
+
+    /**
+     * Tests that legacy images are deleted by name and that unknown content-addressed
+     * URLs cannot be referenced.
+     */
+    @Test
+    public void testLegacyAndUnknownImages() throws Exception {
+        Path legacy = Files.createDirectories(uploads.resolve("coffees")).resolve("old.jpg");
+        Files.write(legacy, JPEG);
+
+        imageStore.reference("coffees/old.jpg");
+        imageStore.release("coffees/old.jpg");
+        assertEquals(List.of("coffees/old.jpg"), releasedUrls());
+
+        imageStore.deleteReleased("coffees/old.jpg");
+        assertFalse(Files.exists(legacy));
+        assertThrows(InvalidImageException.class,
+                () -> imageStore.reference("images/ab/" + "ab".repeat(32) + ".jpg"));
+    }
+}
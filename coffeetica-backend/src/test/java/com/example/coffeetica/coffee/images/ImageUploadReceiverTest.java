@@ -0,0 +1,102 @@
+package com.example.coffeetica.coffee.images;
+
+import com.example.coffeetica.coffee.images.ImageUploadReceiver.ReceivedImage;
+import com.example.coffeetica.exceptions.InvalidImageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ImageUploadReceiver}, verifying format detection from the content,
+ * hashing while streaming, the size limit and that rejected uploads leave no files behind.
+ */
+public class ImageUploadReceiverTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path directory;
+
+    private final ImageUploadReceiver receiver = new ImageUploadReceiver(DataSize.ofKilobytes(100));
+
+    private static byte[] png(int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) 7);
+        System.arraycopy(PNG_HEADER, 0, content, 0, PNG_HEADER.length);
+        return content;
+    }
+
+    /**
+     * Tests that an image is stored under a name with the extension of its detected format,
+     * whatever the client claimed, together with the SHA-256 of its content.
+     */
+    @Test
+    public void testReceiveStoresImageWithHash() throws Exception {
+        byte[] content = png(70_000);
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", content);
+
+        ReceivedImage image = receiver.receive(file, directory);
+
+        assertEquals(ImageType.PNG, image.type());
+        assertTrue(image.fileName().endsWith(".png"));
+        assertEquals(content.length, image.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), image.sha256());
+        assertArrayEquals(content, Files.readAllBytes(directory.resolve(image.fileName())));
+        assertEquals(1, countFiles());
+    }
+
+    /**
+     * Tests that files which are not images are rejected whatever their declared type.
+     */
+    @Test
+    public void testReceiveRejectsNonImages() throws Exception {
+        MultipartFile file = new MockMultipartFile("file", "coffee.jpg", "image/jpeg", "<html></html>".getBytes());
+
+        assertThrows(InvalidImageException.class, () -> receiver.receive(file, directory));
+        assertEquals(0, countFiles());
+    }
+
+    /**
+     * Tests that the size limit is enforced while streaming, even when the declared
+     * size understates the content.
+     */
+    @Test
+    public void testReceiveEnforcesLimitWhileStreaming() throws Exception {
+        byte[] content = png(200_000);
+        MultipartFile file = new MockMultipartFile("file", "big.png", "image/png", content) {
+            @Override
+            public long getSize() {
+                return 1;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(content);
+            }
+        };
+
+        assertThrows(InvalidImageException.class, () -> receiver.receive(file, directory));
+        assertThrows(InvalidImageException.class, () -> receiver.receive(
+                new MockMultipartFile("file", "big.png", "image/png", content), directory));
+        assertEquals(0, countFiles());
+    }
+
+    private long countFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.coffeetica.coffee.index;
+
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.mappers.CoffeeMapperImpl;
+import com.example.coffeetica.coffee.mappers.RoasteryMapperImpl;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.models.FacetCountDTO;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CoffeeCatalogIndex}, verifying that filters, sorting and
+ * pagination match the database listing and that change events keep the index current.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CoffeeCatalogIndexTest {
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    private CoffeeCatalogIndex catalogIndex;
+
+    private CoffeeEntity kenya;
+    private CoffeeEntity brazil;
+    private CoffeeEntity ethiopia;
+
+    @BeforeEach
+    void setUp() {
+        catalogIndex = new CoffeeCatalogIndex(coffeeRepository, new CoffeeMapperImpl(new RoasteryMapperImpl()), true,
+                Runnable::run);
+
+        RoasteryEntity otherRoastery = CoffeeTestData.createTestRoasteryEntity();
+        otherRoastery.setId(2L);
+        otherRoastery.setName("Other Roastery");
+
+        kenya = coffee(1L, "Kenya AA", Region.AFRICA, RoastLevel.LIGHT, FlavorProfile.BERRY,
+                Set.of("Blackcurrant", "Grapefruit"), "Washed", 2023, otherRoastery);
+        brazil = coffee(2L, "Nutty Brazil", Region.SOUTH_AMERICA, RoastLevel.MEDIUM, FlavorProfile.NUTTY,
+                Set.of("Chocolate", "Nuts"), "Natural", 2024, CoffeeTestData.createTestRoasteryEntity());
+        ethiopia = coffee(3L, "Ethiopia Guji", Region.AFRICA, RoastLevel.LIGHT, FlavorProfile.FLORAL,
+                Set.of("Jasmine", "Dark Chocolate"), "Washed", 2024, CoffeeTestData.createTestRoasteryEntity());
+    }
+
+    private static CoffeeEntity coffee(Long id, String name, Region region, RoastLevel roastLevel,
+                                       FlavorProfile flavorProfile, Set<String> flavorNotes,
+                                       String processingMethod, int productionYear, RoasteryEntity roastery) {
+        CoffeeEntity coffee = CoffeeTestData.createTestCoffeeEntity();
+        coffee.setId(id);
+        coffee.setName(name);
+        coffee.setRegion(region);
+        coffee.setRoastLevel(roastLevel);
+        coffee.setFlavorProfile(flavorProfile);
+        coffee.setFlavorNotes(new HashSet<>(flavorNotes));
+        coffee.setProcessingMethod(processingMethod);
+        coffee.setProductionYear(productionYear);
+        coffee.setRoastery(roastery);
+        return coffee;
+    }
+
+    private void load(CoffeeEntity... coffees) {
+        when(coffeeRepository.findAllWithDetails()).thenReturn(List.of(coffees));
+        catalogIndex.rebuild();
+    }
+
+    private static CoffeeFilterKey filter(Region region, Set<String> flavorNotes, String processingMethod,
+                                          Integer minProductionYear, String roasteryName) {
+        return CoffeeFilterKey.of(null, null, region, null, null, flavorNotes, processingMethod,
+                minProductionYear, null, roasteryName);
+    }
+
+    private static List<Long> ids(Slice<CoffeeDTO> slice) {
+        return slice.getContent().stream().map(CoffeeDTO::getId).toList();
+    }
+
+    /**
+     * Tests that the index does not answer queries before it has been loaded.
+     */
+    @Test
+    public void testQueriesAreNotAnsweredBeforeLoading() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertTrue(catalogIndex.findPage(filter(null, null, null, null, null), pageable).isEmpty());
+    }
+
+    /**
+     * Tests that a disabled index never loads the catalog.
+     */
+    @Test
+    public void testDisabledIndexDoesNotLoad() {
+        catalogIndex = new CoffeeCatalogIndex(coffeeRepository, new CoffeeMapperImpl(new RoasteryMapperImpl()), false,
+                Runnable::run);
+
+        catalogIndex.rebuild();
+
+        verifyNoInteractions(coffeeRepository);
+        assertTrue(catalogIndex.findPage(filter(null, null, null, null, null), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    /**
+     * Tests that enum, text, flavor note, year and roastery filters are intersected,
+     * with the same case-insensitive "contains" semantics as the database filter.
+     */
+    @Test
+    public void testFiltersAreIntersected() {
+        load(kenya, brazil, ethiopia);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+
+        assertEquals(List.of(1L, 3L), ids(catalogIndex.findPage(filter(Region.AFRICA, null, null, null, null), pageable).orElseThrow()));
+        assertEquals(List.of(2L, 3L), ids(catalogIndex.findPage(filter(null, Set.of("CHOCOLATE"), null, null, null), pageable).orElseThrow()));
+        assertEquals(List.of(3L), ids(catalogIndex.findPage(filter(Region.AFRICA, null, "wash", 2024, null), pageable).orElseThrow()));
+        assertEquals(List.of(2L, 3L), ids(catalogIndex.findPage(filter(null, null, null, null, "best roastery"), pageable).orElseThrow()));
+        assertEquals(List.of(), ids(catalogIndex.findPage(filter(Region.ASIA, null, null, null, null), pageable).orElseThrow()));
+    }
+
+    /**
+     * Tests that the name filter matches a case-insensitive substring.
+     */
+    @Test
+    public void testNameFilterMatchesSubstring() {
+        load(kenya, brazil, ethiopia);
+        CoffeeFilterKey byName = CoffeeFilterKey.of("BRAZ", null, null, null, null, null, null, null, null, null);
+
+        Page<CoffeeDTO> page = catalogIndex.findPage(byName, PageRequest.of(0, 10)).orElseThrow();
+
+        assertEquals(List.of(2L), ids(page));
+    }
+
+    /**
+     * Tests sorted pagination, including the total of a page and the next-page flag of a slice.
+     */
+    @Test
+    public void testSortedPagination() {
+        load(kenya, brazil, ethiopia);
+        CoffeeFilterKey all = filter(null, null, null, null, null);
+
+        Page<CoffeeDTO> byIdDesc = catalogIndex.findPage(all, PageRequest.of(0, 2, Sort.by("id").descending())).orElseThrow();
+        assertEquals(List.of(3L, 2L), ids(byIdDesc));
+        assertEquals(3, byIdDesc.getTotalElements());
+
+        Page<CoffeeDTO> byName = catalogIndex.findPage(all, PageRequest.of(1, 2, Sort.by("name").ascending())).orElseThrow();
+        assertEquals(List.of(2L), ids(byName));
+
+        Slice<CoffeeDTO> byYear = catalogIndex.findSlice(all, PageRequest.of(0, 2, Sort.by("productionYear").descending())).orElseThrow();
+        assertEquals(List.of(3L, 2L), ids(byYear));
+        assertTrue(byYear.hasNext());
+    }
+
+    /**
+     * Tests that sort orders the index does not keep are left to the database.
+     */
+    @Test
+    public void testUnsupportedSortIsNotAnswered() {
+        load(kenya, brazil, ethiopia);
+
+        Optional<Page<CoffeeDTO>> result = catalogIndex.findPage(filter(null, null, null, null, null),
+                PageRequest.of(0, 10, Sort.by("averageRating").descending()));
+
+        assertTrue(result.isEmpty());
+    }
+
+    /**
+     * Tests that coffee change events update and remove single coffees.
+     */
+    @Test
+    public void testCoffeeChangesAreApplied() {
+        load(kenya, brazil);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        CoffeeFilterKey africa = filter(Region.AFRICA, null, null, null, null);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(ethiopia));
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        assertEquals(List.of(1L, 3L), ids(catalogIndex.findPage(africa, pageable).orElseThrow()));
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(1L))).thenReturn(List.of());
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(1L, true));
+        assertEquals(List.of(3L), ids(catalogIndex.findPage(africa, pageable).orElseThrow()));
+    }
+
+    /**
+     * Tests that changes arriving before the background refresh runs are applied
+     * together, with one reload and one new snapshot.
+     */
+    @Test
+    public void testPendingChangesAreCoalesced() {
+        List<Runnable> refreshes = new ArrayList<>();
+        catalogIndex = new CoffeeCatalogIndex(coffeeRepository, new CoffeeMapperImpl(new RoasteryMapperImpl()), true,
+                refreshes::add);
+        load(kenya, brazil);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        CoffeeFilterKey africa = filter(Region.AFRICA, null, null, null, null);
+
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(1L, true));
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        assertEquals(1, refreshes.size());
+        // Nothing is applied on the publishing thread
+        assertEquals(List.of(1L), ids(catalogIndex.findPage(africa, pageable).orElseThrow()));
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(1L, 3L))).thenReturn(List.of(ethiopia));
+        refreshes.remove(0).run();
+        assertEquals(List.of(3L), ids(catalogIndex.findPage(africa, pageable).orElseThrow()));
+        verify(coffeeRepository).findAllWithDetailsByIdIn(Set.of(1L, 3L));
+
+        // A later change schedules the next refresh
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(2L, false));
+        assertEquals(1, refreshes.size());
+    }
+
+    /**
+     * Tests that changes committed while the index is loading are applied once it is loaded.
+     */
+    @Test
+    public void testChangesDuringLoadingAreAppliedAfterLoading() {
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        verifyNoInteractions(coffeeRepository);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(ethiopia));
+        load(kenya, brazil);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(catalogIndex.findPage(filter(null, null, null, null, null),
+                PageRequest.of(0, 10, Sort.by("id").ascending())).orElseThrow()));
+    }
+
+    /**
+     * Tests that a change whose refresh failed is kept and applied by the retry.
+     */
+    @Test
+    public void testFailedRefreshIsRetried() {
+        load(kenya, brazil);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L)))
+                .thenThrow(new IllegalStateException("Connection lost"))
+                .thenReturn(List.of(ethiopia));
+        catalogIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+
+        assertEquals(List.of(1L, 3L), ids(catalogIndex.findPage(filter(Region.AFRICA, null, null, null, null),
+                PageRequest.of(0, 10, Sort.by("id").ascending())).orElseThrow()));
+        verify(coffeeRepository, times(2)).findAllWithDetailsByIdIn(Set.of(3L));
+    }
+
+    /**
+     * Tests that facet counts are computed under the current filter, listing every enum
+     * value and only the text values that occur, with their original spelling.
+     */
+    @Test
+    public void testFacetsAreCountedUnderFilter() {
+        load(kenya, brazil, ethiopia);
+
+        CoffeeFacetsDTO facets = catalogIndex.findFacets(filter(null, null, "washed", null, null)).orElseThrow();
+
+        assertEquals(2, facets.getTotal());
+        assertEquals(Region.values().length, facets.getRegions().size());
+        assertEquals(2, facets.getRegions().get(Region.AFRICA.ordinal()).getCount());
+        assertEquals(0, facets.getRegions().get(Region.SOUTH_AMERICA.ordinal()).getCount());
+        assertEquals(List.of("Blackcurrant", "Dark Chocolate", "Grapefruit", "Jasmine"),
+                facets.getFlavorNotes().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(List.of("Washed"), facets.getProcessingMethods().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(List.of("Best Roastery", "Other Roastery"),
+                facets.getRoasteries().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(List.of("2023", "2024"), facets.getProductionYears().stream().map(FacetCountDTO::getValue).toList());
+    }
+}
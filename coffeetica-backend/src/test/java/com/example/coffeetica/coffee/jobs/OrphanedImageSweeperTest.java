@@ -0,0 +1,135 @@
+package com.example.coffeetica.coffee.jobs;
+
+import com.example.coffeetica.coffee.images.ImageRendition;
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.images.ImageUploadReceiver;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.repositories.ImageBlobRepository;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.coffee.services.RoasteryService;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link OrphanedImageSweeper} against the H2 schema built by the Flyway
+ * migrations: files backed by a blob or used by a coffee or roastery are kept, old
+ * unreferenced files are removed and recent ones are left alone.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class OrphanedImageSweeperTest {
+
+    private static final String STORED = "ab" + "1".repeat(62);
+    private static final String UNSTORED = "cd" + "2".repeat(62);
+    private static final String LEGACY_CONTENT = "ef" + "3".repeat(62);
+    private static final String RECENT = "12" + "4".repeat(62);
+
+    @TempDir
+    Path uploads;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+
+    @Autowired
+    private RoasteryRepository roasteryRepository;
+
+    private ImageStore imageStore;
+    private OrphanedImageSweeper sweeper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        imageStore = new ImageStore(new ImageUploadReceiver(DataSize.ofKilobytes(100)), imageBlobRepository,
+                uploads.resolve("images").toString(),
+                uploads.resolve("coffees").toString(),
+                uploads.resolve("roasteries").toString(), event -> { });
+
+        CoffeeService coffeeService = mock(CoffeeService.class);
+        RoasteryService roasteryService = mock(RoasteryService.class);
+        when(coffeeService.findReferencedCoffeeImageUrls(anyCollection())).thenAnswer(invocation ->
+                new HashSet<>(coffeeRepository.findReferencedImageUrls(invocation.getArgument(0, Collection.class))));
+        when(roasteryService.findReferencedRoasteryImageUrls(anyCollection())).thenAnswer(invocation ->
+                new HashSet<>(roasteryRepository.findReferencedImageUrls(invocation.getArgument(0, Collection.class))));
+
+        // Small batches, so that the files are checked across several lookups
+        sweeper = new OrphanedImageSweeper(imageStore, coffeeService, roasteryService, Duration.ofHours(1), 2);
+    }
+
+    private Path write(String url, Instant modified) throws Exception {
+        Path file = imageStore.resolve(url);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+
+    /**
+     * Tests that only old files nothing references are removed.
+     */
+    @Test
+    public void testSweepRemovesOnlyOldUnreferencedFiles() throws Exception {
+        Instant old = Instant.now().minus(Duration.ofDays(1));
+
+        // A stored image and its rendition
+        Path stored = write("images/ab/" + STORED + ".jpg", old);
+        imageStore.reference("images/ab/" + STORED + ".jpg");
+        Path storedRendition = write(ImageRendition.THUMBNAIL.urlFor(STORED), old);
+
+        // A legacy coffee image with one rendition still in use and one left over
+        Path legacy = write("coffees/legacy.jpg", old);
+        Path usedRendition = write(ImageRendition.CARD.urlFor(LEGACY_CONTENT), old);
+        Path staleRendition = write(ImageRendition.THUMBNAIL.urlFor(LEGACY_CONTENT), old);
+        RoasteryEntity roastery = CoffeeTestData.createTestRoasteryEntity();
+        roastery.setId(null);
+        roastery = roasteryRepository.save(roastery);
+        CoffeeEntity coffee = CoffeeTestData.createTestCoffeeEntity();
+        coffee.setId(null);
+        coffee.setRoastery(roastery);
+        coffee.setImageUrl("coffees/legacy.jpg");
+        coffee = coffeeRepository.save(coffee);
+        coffeeRepository.updateImageRenditions(coffee.getId(), "coffees/legacy.jpg",
+                null, ImageRendition.CARD.urlFor(LEGACY_CONTENT), null, null);
+
+        // Orphans: an unassigned upload, a deleted roastery's image and a crashed upload
+        Path unstored = write("images/cd/" + UNSTORED + ".png", old);
+        Path roasteryImage = write("roasteries/gone.png", old);
+        Path temporary = write("images/ab/.upload-1.tmp", old);
+        // An upload that may still be assigned
+        Path recent = write("images/12/" + RECENT + ".jpg", Instant.now());
+
+        assertEquals(4, sweeper.sweepOrphans());
+
+        assertTrue(Files.exists(stored));
+        assertTrue(Files.exists(storedRendition));
+        assertTrue(Files.exists(legacy));
+        assertTrue(Files.exists(usedRendition));
+        assertTrue(Files.exists(recent));
+        assertFalse(Files.exists(staleRendition));
+        assertFalse(Files.exists(unstored));
+        assertFalse(Files.exists(roasteryImage));
+        assertFalse(Files.exists(temporary));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.coffeetica.coffee.mappers;
+
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the generated {@link CoffeeMapper} implementation.
+ */
+public class CoffeeMapperTest {
+
+    private final CoffeeMapper coffeeMapper = new CoffeeMapperImpl(new RoasteryMapperImpl());
+
+    /**
+     * Tests that an entity is mapped to a DTO including its roastery and flavor notes.
+     */
+    @Test
+    public void testToDTOMapsRoasteryAndFlavorNotes() {
+        CoffeeEntity entity = CoffeeTestData.createTestCoffeeEntity();
+
+        CoffeeDTO dto = coffeeMapper.toDTO(entity);
+
+        assertEquals(entity.getId(), dto.getId());
+        assertEquals(entity.getName(), dto.getName());
+        assertEquals(entity.getFlavorNotes(), dto.getFlavorNotes());
+        assertEquals(entity.getRoastery().getName(), dto.getRoastery().getName());
+    }
+
+    /**
+     * Tests that the details mapping leaves reviews and rating aggregates to the caller.
+     */
+    @Test
+    public void testToDetailsDTOSkipsReviewAggregates() {
+        CoffeeEntity entity = CoffeeTestData.createTestCoffeeEntity();
+        entity.setAverageRating(4.5);
+        entity.setReviewCount(2);
+
+        CoffeeDetailsDTO dto = coffeeMapper.toDetailsDTO(entity);
+
+        assertEquals(entity.getName(), dto.getName());
+        assertNull(dto.getAverageRating());
+        assertNull(dto.getLatestReviews());
+    }
+
+    /**
+     * Tests that updating an entity keeps its ID and managed roastery untouched.
+     */
+    @Test
+    public void testUpdateEntityKeepsIdAndRoastery() {
+        CoffeeEntity entity = CoffeeTestData.createTestCoffeeEntity();
+        RoasteryEntity roastery = entity.getRoastery();
+        CoffeeDTO dto = CoffeeTestData.createTestCoffeeDTO();
+        dto.setId(99L);
+        dto.setName("Renamed");
+        dto.getRoastery().setName("Other Roastery");
+
+        coffeeMapper.updateEntity(dto, entity);
+
+        assertEquals(1L, entity.getId());
+        assertEquals("Renamed", entity.getName());
+        assertSame(roastery, entity.getRoastery());
+        assertEquals("Best Roastery", roastery.getName());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.coffeetica.coffee.repositories;
+
+import com.example.coffeetica.user.repositories.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the hot-path repository queries against the schema built by the Flyway migrations
+ * and asserts, via {@code EXPLAIN}, that no table is read by a full scan.
+ * <p>
+ * The statements are the ones Hibernate actually issues, captured by a
+ * {@link StatementInspector}, so a query shape that defeats the indexes (e.g. a derived
+ * query filtering on an outer-joined parent instead of the foreign key) fails the build.
+ * PostgreSQL-only indexes (partial, trigram) are not visible to H2 and are not covered.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.coffeetica.coffee.repositories.QueryPlanTest$RecordingStatementInspector"
+})
+public class QueryPlanTest {
+
+    private static final Pageable NEWEST_FIRST = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+
+    @Autowired
+    private RoasteryRepository roasteryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records every SQL statement prepared by Hibernate.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.statements.clear();
+    }
+
+    /**
+     * Asserts that all statements issued so far read every table through an index.
+     * Parameters are bound to 1, which is type-compatible with all ID and paging parameters.
+     */
+    private void assertIndexedAccess() {
+        List<String> statements = List.copyOf(RecordingStatementInspector.statements);
+        assertFalse(statements.isEmpty(), "No statement was issued");
+        for (String sql : statements) {
+            String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    int parameterCount = statement.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameterCount; i++) {
+                        statement.setLong(i, 1L);
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        return resultSet.getString(1);
+                    }
+                }
+            });
+            assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan:\n" + plan);
+        }
+    }
+
+    @Test
+    public void testReviewsOfCoffeeUseIndex() {
+        reviewRepository.findByCoffeeId(1L, NEWEST_FIRST);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testLatestReviewsOfCoffeeUseIndex() {
+        reviewRepository.findTop3ByCoffeeIdOrderByCreatedAtDesc(1L);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testReviewsOfUserUseIndex() {
+        reviewRepository.findByUserId(1L, NEWEST_FIRST);
+        reviewRepository.findIdsByUserId(1L, NEWEST_FIRST);
+        reviewRepository.countByUserIdIn(List.of(1L, 2L));
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testReviewOfUserAndCoffeeUsesIndex() {
+        reviewRepository.findByUserIdAndCoffeeId(1L, 1L);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testReviewedCoffeeIdsUseIndex() {
+        reviewRepository.findReviewedCoffeeIdsByUserId(1L);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testFavoriteCoffeeRefreshUsesIndex() {
+        userRepository.refreshFavoriteCoffee(1L);
+        userRepository.refreshFavoriteCoffeeOfUsersFavoring(List.of(1L));
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testCoffeesOfRoasteryUseIndex() {
+        coffeeRepository.findByRoasteryId(1L, PageRequest.of(0, 10));
+        coffeeRepository.findAllWithDetailsByRoasteryId(1L);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testFeaturedCoffeeRefreshUsesIndex() {
+        roasteryRepository.refreshFeaturedCoffees(List.of(1L, 2L), 3);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testCoffeeDetailsUseIndex() {
+        coffeeRepository.findWithDetailsById(1L);
+        coffeeRepository.findAllWithDetailsByIdIn(List.of(1L, 2L));
+        assertIndexedAccess();
+    }
+}
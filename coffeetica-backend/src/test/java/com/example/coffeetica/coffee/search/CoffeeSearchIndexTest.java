@@ -0,0 +1,230 @@
+package com.example.coffeetica.coffee.search;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CoffeeSearchIndex}, verifying stemming, prefix matching,
+ * rating-aware ranking and the incremental updates driven by change events.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CoffeeSearchIndexTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    private CoffeeSearchIndex searchIndex;
+
+    private RoasteryEntity otherRoastery;
+    private CoffeeEntity kenya;
+    private CoffeeEntity brazil;
+    private CoffeeEntity ethiopia;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new CoffeeSearchIndex(coffeeRepository, 0.5, Runnable::run);
+
+        otherRoastery = CoffeeTestData.createTestRoasteryEntity();
+        otherRoastery.setId(2L);
+        otherRoastery.setName("Nordic Roasters");
+
+        kenya = coffee(1L, "Kenya AA", "Kenya", "Washed", Set.of("Blackcurrant", "Grapefruit"), 4.0, otherRoastery);
+        brazil = coffee(2L, "Nutty Brazil", "Brazil", "Natural", Set.of("Chocolate", "Nuts"), 3.0,
+                CoffeeTestData.createTestRoasteryEntity());
+        ethiopia = coffee(3L, "Ethiopia Guji", "Ethiopia", "Washed", Set.of("Jasmine", "Chocolate"), 5.0,
+                CoffeeTestData.createTestRoasteryEntity());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchIndex.close();
+    }
+
+    private static CoffeeEntity coffee(Long id, String name, String country, String processingMethod,
+                                       Set<String> flavorNotes, double averageRating, RoasteryEntity roastery) {
+        CoffeeEntity coffee = CoffeeTestData.createTestCoffeeEntity();
+        coffee.setId(id);
+        coffee.setName(name);
+        coffee.setCountryOfOrigin(country);
+        coffee.setProcessingMethod(processingMethod);
+        coffee.setFlavorNotes(new HashSet<>(flavorNotes));
+        coffee.setAverageRating(averageRating);
+        coffee.setRoastery(roastery);
+        return coffee;
+    }
+
+    private void load(CoffeeEntity... coffees) {
+        when(coffeeRepository.findAllWithDetails()).thenReturn(List.of(coffees));
+        searchIndex.rebuild();
+    }
+
+    private List<Long> search(String text) {
+        return searchIndex.search(text, PAGE).orElseThrow().getContent();
+    }
+
+    /**
+     * Tests that the index does not answer searches before it has been loaded.
+     */
+    @Test
+    public void testSearchIsNotAnsweredBeforeLoading() {
+        assertTrue(searchIndex.search("kenya", PAGE).isEmpty());
+    }
+
+    /**
+     * Tests that terms are stemmed, so inflected forms match, and that all terms must match.
+     */
+    @Test
+    public void testTermsAreStemmedAndRequired() {
+        load(kenya, brazil, ethiopia);
+
+        assertEquals(Set.of(1L, 3L), Set.copyOf(search("washing")));
+        assertEquals(List.of(3L), search("washed jasmine"));
+        assertEquals(List.of(), search("washed nuts"));
+    }
+
+    /**
+     * Tests that the last term also matches as a prefix, across all searched fields.
+     */
+    @Test
+    public void testLastTermMatchesAsPrefix() {
+        load(kenya, brazil, ethiopia);
+
+        assertEquals(Set.of(2L, 3L), Set.copyOf(search("choc")));
+        assertEquals(List.of(1L), search("nordic roast"));
+        assertEquals(List.of(3L), search("Ethiop"));
+    }
+
+    /**
+     * Tests that among equally relevant matches the better rated coffee ranks first,
+     * and that a name match outranks a weaker field match.
+     */
+    @Test
+    public void testRankingCombinesRelevanceAndRating() {
+        load(kenya, brazil, ethiopia);
+
+        assertEquals(List.of(3L, 2L), search("chocolate"));
+
+        CoffeeEntity chocolateBlend = coffee(4L, "Chocolate Blend", "Colombia", "Washed", Set.of("Cherry"), 1.0,
+                CoffeeTestData.createTestRoasteryEntity());
+        load(kenya, brazil, ethiopia, chocolateBlend);
+
+        assertEquals(4L, search("chocolate").get(0));
+    }
+
+    /**
+     * Tests that queries without searchable terms return an empty page, and that the
+     * total counts all matches rather than the requested page.
+     */
+    @Test
+    public void testEmptyQueriesAndTotals() {
+        load(kenya, brazil, ethiopia);
+
+        assertEquals(0, searchIndex.search("the", PAGE).orElseThrow().getTotalElements());
+
+        Page<Long> firstPage = searchIndex.search("washed", PageRequest.of(0, 1)).orElseThrow();
+        assertEquals(1, firstPage.getContent().size());
+        assertEquals(2, firstPage.getTotalElements());
+    }
+
+    /**
+     * Tests that pages beyond the last document are empty instead of overflowing the
+     * number of hits requested from Lucene.
+     */
+    @Test
+    public void testPagesBeyondTheIndexAreEmpty() {
+        load(kenya, brazil, ethiopia);
+
+        Page<Long> farPage = searchIndex.search("washed", PageRequest.of(300_000_000, 10)).orElseThrow();
+        assertTrue(farPage.getContent().isEmpty());
+        assertEquals(2, farPage.getTotalElements());
+
+        assertTrue(searchIndex.search("washed", PageRequest.of(Integer.MAX_VALUE, Integer.MAX_VALUE))
+                .orElseThrow().getContent().isEmpty());
+    }
+
+    /**
+     * Tests that coffee, roastery and rating changes are applied incrementally.
+     */
+    @Test
+    public void testChangesAreApplied() {
+        load(kenya, brazil);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(ethiopia), List.of());
+        searchIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        assertEquals(List.of(3L), search("guji"));
+
+        searchIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, true));
+        assertEquals(List.of(), search("guji"));
+
+        otherRoastery.setName("Southern Roasters");
+        when(coffeeRepository.findAllWithDetailsByRoasteryId(2L)).thenReturn(List.of(kenya), List.of());
+        searchIndex.onRoasteryChanged(new RoasteryChangedEvent(2L, false));
+        assertEquals(List.of(1L), search("southern"));
+        assertEquals(List.of(), search("nordic"));
+
+        searchIndex.onRoasteryChanged(new RoasteryChangedEvent(2L, true));
+        assertEquals(List.of(), search("kenya"));
+
+        load(kenya, brazil, ethiopia);
+        assertEquals(List.of(3L, 2L), search("chocolate"));
+        brazil.setAverageRating(5.0);
+        ethiopia.setAverageRating(1.0);
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(2L, 3L))).thenReturn(List.of(brazil, ethiopia));
+        searchIndex.onRatingChanged(new CoffeeRatingChangedEvent(List.of(2L, 3L)));
+        assertEquals(List.of(2L, 3L), search("chocolate"));
+    }
+
+    /**
+     * Tests that changes committed while the index is loading are applied once it is loaded.
+     */
+    @Test
+    public void testChangesDuringLoadingAreAppliedAfterLoading() {
+        searchIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        verifyNoInteractions(coffeeRepository);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(ethiopia));
+        load(kenya, brazil);
+
+        assertEquals(List.of(3L), search("guji"));
+    }
+
+    /**
+     * Tests that a change whose refresh failed is kept and applied by the retry.
+     */
+    @Test
+    public void testFailedRefreshIsRetried() {
+        load(kenya, brazil);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L)))
+                .thenThrow(new IllegalStateException("Connection lost"))
+                .thenReturn(List.of(ethiopia));
+        searchIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+
+        assertEquals(List.of(3L), search("guji"));
+        verify(coffeeRepository, times(2)).findAllWithDetailsByIdIn(Set.of(3L));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.coffeetica.coffee.search;
+
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.SuggestionDTO;
+import com.example.coffeetica.coffee.models.enums.SuggestionType;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
+import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SuggestionIndex}, verifying prefix and word-start completion,
+ * popularity ranking and the incremental updates driven by change events.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SuggestionIndexTest {
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    @Mock
+    private RoasteryRepository roasteryRepository;
+
+    private SuggestionIndex suggestionIndex;
+
+    private RoasteryEntity roastery;
+    private RoasteryEntity otherRoastery;
+    private CoffeeEntity kenya;
+    private CoffeeEntity ethiopia;
+    private CoffeeEntity brazil;
+
+    @BeforeEach
+    void setUp() {
+        suggestionIndex = new SuggestionIndex(coffeeRepository, roasteryRepository, Runnable::run);
+
+        roastery = CoffeeTestData.createTestRoasteryEntity();
+        otherRoastery = CoffeeTestData.createTestRoasteryEntity();
+        otherRoastery.setId(2L);
+        otherRoastery.setName("Kaffa Roasters");
+
+        kenya = coffee(1L, "Kenya AA", Set.of("Blackcurrant"), 2, otherRoastery);
+        ethiopia = coffee(2L, "Ethiopia Guji", Set.of("Jasmine", "Bergamot"), 10, roastery);
+        brazil = coffee(3L, "Café Brasil", Set.of("Chocolate", "jasmine"), 0, roastery);
+    }
+
+    private static CoffeeEntity coffee(Long id, String name, Set<String> flavorNotes, int reviewCount,
+                                       RoasteryEntity roastery) {
+        CoffeeEntity coffee = CoffeeTestData.createTestCoffeeEntity();
+        coffee.setId(id);
+        coffee.setName(name);
+        coffee.setFlavorNotes(new HashSet<>(flavorNotes));
+        coffee.setReviewCount(reviewCount);
+        coffee.setRoastery(roastery);
+        return coffee;
+    }
+
+    private void load(CoffeeEntity... coffees) {
+        when(roasteryRepository.findAll()).thenReturn(List.of(roastery, otherRoastery));
+        when(coffeeRepository.findAllWithDetails()).thenReturn(List.of(coffees));
+        suggestionIndex.rebuild();
+    }
+
+    private List<String> texts(String query) {
+        return suggestionIndex.suggest(query, 10).stream().map(SuggestionDTO::getText).toList();
+    }
+
+    /**
+     * Tests that nothing is suggested before loading or for a blank query.
+     */
+    @Test
+    public void testNothingIsSuggestedBeforeLoadingOrForBlankQuery() {
+        assertEquals(List.of(), suggestionIndex.suggest("ke", 10));
+
+        load(kenya, ethiopia, brazil);
+
+        assertEquals(List.of(), suggestionIndex.suggest("  ", 10));
+    }
+
+    /**
+     * Tests that completions match the start of the text or of any word in it,
+     * ignoring case and diacritics, across coffees, roasteries and flavor notes.
+     */
+    @Test
+    public void testPrefixAndWordStartCompletion() {
+        load(kenya, ethiopia, brazil);
+
+        assertEquals(List.of("Kaffa Roasters", "Kenya AA"), texts("k"));
+        assertEquals(List.of("Ethiopia Guji"), texts("guj"));
+        assertEquals(List.of("Café Brasil"), texts("CAFE"));
+        assertEquals(List.of("Kaffa Roasters"), texts("roasters"));
+        assertEquals(List.of(), texts("xyz"));
+
+        SuggestionDTO note = suggestionIndex.suggest("berg", 10).get(0);
+        assertEquals(SuggestionType.FLAVOR_NOTE, note.getType());
+        assertNull(note.getId());
+    }
+
+    /**
+     * Tests that suggestions are ranked by popularity, that differently cased flavor
+     * notes are merged, and that the limit is honoured.
+     */
+    @Test
+    public void testSuggestionsAreRankedByPopularity() {
+        load(kenya, ethiopia, brazil);
+
+        // Best Roastery has Ethiopia (11) and Brasil (1); Ethiopia itself weighs 11
+        assertEquals(List.of("Best Roastery", "Bergamot"), texts("be"));
+        // Both coffees with jasmine count towards one suggestion
+        assertEquals(List.of("Jasmine"), texts("jas"));
+        assertEquals(1, suggestionIndex.suggest("e", 1).size());
+    }
+
+    /**
+     * Tests that coffee, roastery and rating changes are applied incrementally.
+     */
+    @Test
+    public void testChangesAreApplied() {
+        load(kenya, ethiopia);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(brazil), List.of());
+        suggestionIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        assertEquals(List.of("Café Brasil"), texts("bra"));
+
+        suggestionIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, true));
+        assertEquals(List.of(), texts("bra"));
+
+        otherRoastery.setName("Nordic Roasters");
+        when(roasteryRepository.findById(2L)).thenReturn(Optional.of(otherRoastery), Optional.empty());
+        suggestionIndex.onRoasteryChanged(new RoasteryChangedEvent(2L, false));
+        assertEquals(List.of("Nordic Roasters"), texts("nor"));
+        assertEquals(List.of("Kenya AA"), texts("k"));
+
+        suggestionIndex.onRoasteryChanged(new RoasteryChangedEvent(2L, true));
+        assertEquals(List.of(), texts("k"));
+
+        load(kenya, ethiopia, brazil);
+        assertEquals(List.of("Best Roastery", "Bergamot", "Blackcurrant", "Café Brasil"), texts("b"));
+        brazil.setReviewCount(20);
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(brazil));
+        suggestionIndex.onRatingChanged(new CoffeeRatingChangedEvent(List.of(3L)));
+        assertEquals(List.of("Best Roastery", "Café Brasil", "Bergamot", "Blackcurrant"), texts("b"));
+    }
+
+    /**
+     * Tests that changes committed while the index is loading are applied once it is loaded.
+     */
+    @Test
+    public void testChangesDuringLoadingAreAppliedAfterLoading() {
+        suggestionIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+        verifyNoInteractions(coffeeRepository);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L))).thenReturn(List.of(brazil));
+        load(kenya, ethiopia);
+
+        assertEquals(List.of("Café Brasil"), texts("bra"));
+    }
+
+    /**
+     * Tests that a change whose refresh failed is kept and applied by the retry.
+     */
+    @Test
+    public void testFailedRefreshIsRetried() {
+        load(kenya, ethiopia);
+
+        when(coffeeRepository.findAllWithDetailsByIdIn(Set.of(3L)))
+                .thenThrow(new IllegalStateException("Connection lost"))
+                .thenReturn(List.of(brazil));
+        suggestionIndex.onCoffeeChanged(new CoffeeChangedEvent(3L, false));
+
+        assertEquals(List.of("Café Brasil"), texts("bra"));
+        verify(coffeeRepository, times(2)).findAllWithDetailsByIdIn(Set.of(3L));
+    }
+}
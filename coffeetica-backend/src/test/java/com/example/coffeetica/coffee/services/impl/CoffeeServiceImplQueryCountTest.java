@@ -0,0 +1,315 @@
+package com.example.coffeetica.coffee.services.impl;
+
+import com.example.coffeetica.coffee.cache.CoffeeCountCache;
+import com.example.coffeetica.coffee.cache.CoffeeDetailsCache;
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.index.CoffeeCatalogIndex;
+import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.models.FacetCountDTO;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.mappers.CoffeeMapperImpl;
+import com.example.coffeetica.coffee.mappers.ReviewMapperImpl;
+import com.example.coffeetica.coffee.mappers.RoasteryMapperImpl;
+import com.example.coffeetica.coffee.search.CoffeeSearchIndex;
+import com.example.coffeetica.user.models.UserEntity;
+import com.example.coffeetica.utility.CursorPage;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements issued by the {@link CoffeeServiceImpl} read paths
+ * against an in-memory database, so that lazy-loading regressions (N+1) fail the build.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CoffeeServiceImpl.class, CoffeeCountCache.class, CoffeeDetailsCache.class, CoffeeMapperImpl.class, RoasteryMapperImpl.class, ReviewMapperImpl.class})
+public class CoffeeServiceImplQueryCountTest {
+
+    /**
+     * Never loaded here, so every listing goes to the database.
+     */
+    @MockBean
+    private CoffeeCatalogIndex catalogIndex;
+
+    @MockBean
+    private CoffeeSearchIndex searchIndex;
+
+    @MockBean
+    private ImageStore imageStore;
+
+    @Autowired
+    private CoffeeServiceImpl coffeeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CoffeeCountCache coffeeCountCache;
+
+    private Statistics statistics;
+    private CoffeeEntity coffee;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName("Test Roastery");
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2010);
+        roastery.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(roastery);
+
+        coffee = persistCoffee("Test Coffee", roastery);
+
+        for (int i = 1; i <= 5; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+
+            ReviewEntity review = new ReviewEntity();
+            review.setContent("Review " + i);
+            review.setBrewingMethod("V60");
+            review.setRating(4.0);
+            review.setCreatedAt(LocalDateTime.now().minusDays(i));
+            review.setCoffee(coffee);
+            review.setUser(user);
+            entityManager.persist(review);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        coffeeCountCache.invalidateAll();
+        statistics.clear();
+    }
+
+    /**
+     * Tests that the coffee details view, including roastery, flavor notes and the
+     * latest reviews with their authors, is built with exactly two SQL statements.
+     */
+    @Test
+    public void testFindCoffeeDetailsUsesTwoStatements() {
+        Optional<CoffeeDetailsDTO> result = coffeeService.findCoffeeDetails(coffee.getId());
+
+        assertTrue(result.isPresent());
+        CoffeeDetailsDTO details = result.get();
+        assertEquals("Test Roastery", details.getRoastery().getName());
+        assertEquals(Set.of("Cherry", "Cocoa"), details.getFlavorNotes());
+        assertEquals(3, details.getLatestReviews().size());
+        assertEquals("user1", details.getLatestReviews().get(0).getUserName());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a page of the filtered coffee listing costs a constant number of statements
+     * regardless of its size: the page, the count, one batch of roasteries and one batch
+     * of flavor notes.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {9, 100})
+    public void testFindCoffeesUsesConstantStatementsPerPage(int pageSize) {
+        for (int r = 0; r < 10; r++) {
+            RoasteryEntity roastery = new RoasteryEntity();
+            roastery.setName("Roastery " + r);
+            roastery.setCountry("Poland");
+            roastery.setFoundingYear(2000 + r);
+            roastery.setWebsiteUrl("https://roastery" + r + ".example.com");
+            entityManager.persist(roastery);
+            for (int c = 0; c < 12; c++) {
+                persistCoffee("Coffee " + r + "-" + c, roastery);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<CoffeeDTO> page = coffeeService.findCoffees(
+                null, null, Region.AFRICA, null, null, null, null, null, null, null,
+                PageRequest.of(0, pageSize, Sort.by("name").ascending()));
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        page.getContent().forEach(dto -> {
+            assertNotNull(dto.getRoastery().getName());
+            assertEquals(Set.of("Cherry", "Cocoa"), dto.getFlavorNotes());
+        });
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that flipping to the next page of the same filter reuses the cached total
+     * instead of running the COUNT query again.
+     */
+    @Test
+    public void testFindCoffeesSkipsCountQueryWhenTotalIsCached() {
+        for (int i = 0; i < 20; i++) {
+            persistCoffee("Coffee " + i, coffee.getRoastery());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<CoffeeDTO> first = coffeeService.findCoffees(
+                null, null, Region.AFRICA, null, null, null, null, null, null, null,
+                PageRequest.of(0, 9, Sort.by("name")));
+        entityManager.clear();
+        statistics.clear();
+        Page<CoffeeDTO> second = coffeeService.findCoffees(
+                null, null, Region.AFRICA, null, null, null, null, null, null, null,
+                PageRequest.of(1, 9, Sort.by("name")));
+
+        assertEquals(21, first.getTotalElements());
+        assertEquals(21, second.getTotalElements());
+        assertEquals(9, second.getNumberOfElements());
+        // Page query plus the roastery and flavor-note batches, but no COUNT
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a slice reports whether a next page exists without counting.
+     */
+    @Test
+    public void testFindCoffeesSliceDetectsNextPageWithoutCountQuery() {
+        for (int i = 0; i < 9; i++) {
+            persistCoffee("Coffee " + i, coffee.getRoastery());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Slice<CoffeeDTO> first = coffeeService.findCoffeesSlice(
+                null, null, null, null, null, null, null, null, null, null,
+                PageRequest.of(0, 9, Sort.by("name")));
+        assertTrue(first.hasNext());
+        assertEquals(9, first.getNumberOfElements());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        Slice<CoffeeDTO> second = coffeeService.findCoffeesSlice(
+                null, null, null, null, null, null, null, null, null, null,
+                PageRequest.of(1, 9, Sort.by("name")));
+        assertFalse(second.hasNext());
+        assertEquals(1, second.getNumberOfElements());
+    }
+
+    /**
+     * Tests that walking the coffee listing with cursors returns every coffee exactly once,
+     * in sort order, and that each page costs the same statements without a count query.
+     */
+    @Test
+    public void testFindCoffeesByCursorWalksAllCoffeesWithoutCountQuery() {
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName("Cursor Roastery");
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2015);
+        roastery.setWebsiteUrl("https://cursor.example.com");
+        entityManager.persist(roastery);
+        for (int i = 0; i < 40; i++) {
+            // Duplicate names exercise the id tie-breaker
+            persistCoffee("Coffee " + (i % 7), roastery);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Sort sort = Sort.by("name").ascending();
+        List<String> walkedNames = new ArrayList<>();
+        Set<Long> walkedIds = new HashSet<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            CursorPage<CoffeeDTO> page = coffeeService.findCoffeesByCursor(
+                    null, null, null, null, null, null, null, null, null, null, cursor, 9, sort);
+            assertTrue(statistics.getPrepareStatementCount() <= 3,
+                    "Expected at most 3 statements per page but was " + statistics.getPrepareStatementCount());
+            page.getItems().forEach(dto -> {
+                assertTrue(walkedIds.add(dto.getId()), "Coffee returned twice: " + dto.getId());
+                walkedNames.add(dto.getName());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(41, walkedIds.size());
+        assertEquals(walkedNames.stream().sorted().toList(), walkedNames);
+    }
+
+    /**
+     * Tests that facet counts without the catalog index cost one grouped query per facet
+     * plus the total, independent of the number of facet values.
+     */
+    @Test
+    public void testFindCoffeeFacetsUsesOneGroupedQueryPerFacet() {
+        for (int i = 0; i < 4; i++) {
+            CoffeeEntity other = persistCoffee("Other " + i, coffee.getRoastery());
+            other.setProductionYear(2020 + i);
+            other.setProcessingMethod(i % 2 == 0 ? "Natural" : "Washed");
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        CoffeeFacetsDTO facets = coffeeService.findCoffeeFacets(
+                null, null, Region.AFRICA, null, null, Set.of("cherry", "cocoa"), null, null, null, null);
+
+        assertEquals(8, statistics.getPrepareStatementCount());
+        assertEquals(5, facets.getTotal());
+        assertEquals("Africa", facets.getRegions().get(0).getValue());
+        assertEquals(5, facets.getRegions().get(0).getCount());
+        assertEquals(0, facets.getRegions().get(1).getCount());
+        assertEquals(List.of("Cherry", "Cocoa"), facets.getFlavorNotes().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(5, facets.getFlavorNotes().get(0).getCount());
+        assertEquals("Washed", facets.getProcessingMethods().get(0).getValue());
+        assertEquals(3, facets.getProcessingMethods().get(0).getCount());
+        assertEquals(List.of("2020", "2021", "2022", "2023"),
+                facets.getProductionYears().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(2, facets.getProductionYears().get(3).getCount());
+    }
+
+    private CoffeeEntity persistCoffee(String name, RoasteryEntity roastery) {
+        CoffeeEntity entity = new CoffeeEntity();
+        entity.setName(name);
+        entity.setCountryOfOrigin("Ethiopia");
+        entity.setRegion(Region.AFRICA);
+        entity.setRoastLevel(RoastLevel.LIGHT);
+        entity.setFlavorProfile(FlavorProfile.BERRY);
+        entity.setFlavorNotes(new HashSet<>(Set.of("Cherry", "Cocoa")));
+        entity.setProcessingMethod("Washed");
+        entity.setProductionYear(2023);
+        entity.setRoastery(roastery);
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -1,27 +1,45 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.mappers.CoffeeMapper;
+import com.example.coffeetica.coffee.mappers.ReviewMapper;
+import com.example.coffeetica.coffee.cache.CoffeeCountCache;
+import com.example.coffeetica.coffee.cache.CoffeeDetailsCache;
+import com.example.coffeetica.coffee.cache.CoffeeFilterKey;
+import com.example.coffeetica.coffee.events.CoffeeChangedEvent;
+import com.example.coffeetica.coffee.events.ImageAssignedEvent;
+import com.example.coffeetica.coffee.images.ImageRenditions;
+import com.example.coffeetica.coffee.images.ImageStore;
+import com.example.coffeetica.coffee.index.CoffeeCatalogIndex;
 import com.example.coffeetica.coffee.models.CoffeeDTO;
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
 import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.CoffeeFacetsDTO;
+import com.example.coffeetica.coffee.models.FacetCountDTO;
 import com.example.coffeetica.coffee.models.RoasteryEntity;
 import com.example.coffeetica.coffee.repositories.CoffeeRepository;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
 import com.example.coffeetica.coffee.repositories.RoasteryRepository;
+import com.example.coffeetica.coffee.search.CoffeeSearchIndex;
 import com.example.coffeetica.coffee.util.CoffeeTestData;
 
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.BeforeEach;
-import org.modelmapper.ModelMapper;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,7 +67,28 @@ public class CoffeeServiceImplTest {
     private RoasteryRepository roasteryRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private CoffeeMapper coffeeMapper;
+
+    @Mock
+    private ReviewMapper reviewMapper;
+
+    @Mock
+    private CoffeeCountCache coffeeCountCache;
+
+    @Spy
+    private CoffeeDetailsCache coffeeDetailsCache = new CoffeeDetailsCache(Duration.ofMinutes(1), 100);
+
+    @Mock
+    private CoffeeCatalogIndex catalogIndex;
+
+    @Mock
+    private CoffeeSearchIndex searchIndex;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private CoffeeServiceImpl coffeeService;
@@ -72,16 +111,17 @@ public class CoffeeServiceImplTest {
      */
     @Test
     public void testThatCoffeeIsSaved() {
-        when(modelMapper.map(sampleCoffeeDTO, CoffeeEntity.class)).thenReturn(sampleCoffeeEntity);
+        when(coffeeMapper.toEntity(sampleCoffeeDTO)).thenReturn(sampleCoffeeEntity);
         when(coffeeRepository.save(sampleCoffeeEntity)).thenReturn(sampleCoffeeEntity);
-        when(modelMapper.map(sampleCoffeeEntity, CoffeeDTO.class)).thenReturn(sampleCoffeeDTO);
+        when(coffeeMapper.toDTO(sampleCoffeeEntity)).thenReturn(sampleCoffeeDTO);
 
         CoffeeDTO result = coffeeService.saveCoffee(sampleCoffeeDTO);
 
         assertEquals(sampleCoffeeDTO, result);
-        verify(modelMapper).map(sampleCoffeeDTO, CoffeeEntity.class);
+        verify(coffeeMapper).toEntity(sampleCoffeeDTO);
         verify(coffeeRepository).save(sampleCoffeeEntity);
-        verify(modelMapper).map(sampleCoffeeEntity, CoffeeDTO.class);
+        verify(coffeeMapper).toDTO(sampleCoffeeEntity);
+        verify(eventPublisher).publishEvent(any(CoffeeChangedEvent.class));
     }
 
     /**
@@ -92,14 +132,14 @@ public class CoffeeServiceImplTest {
     public void testThatFindByIdReturnsCoffeeWhenExists() {
         Long id = 1L;
         when(coffeeRepository.findById(id)).thenReturn(Optional.of(sampleCoffeeEntity));
-        when(modelMapper.map(sampleCoffeeEntity, CoffeeDTO.class)).thenReturn(sampleCoffeeDTO);
+        when(coffeeMapper.toDTO(sampleCoffeeEntity)).thenReturn(sampleCoffeeDTO);
 
         Optional<CoffeeDTO> result = coffeeService.findCoffeeById(id);
 
         assertTrue(result.isPresent());
         assertEquals(sampleCoffeeDTO, result.get());
         verify(coffeeRepository).findById(id);
-        verify(modelMapper).map(sampleCoffeeEntity, CoffeeDTO.class);
+        verify(coffeeMapper).toDTO(sampleCoffeeEntity);
     }
 
     /**
@@ -114,7 +154,7 @@ public class CoffeeServiceImplTest {
 
         assertFalse(result.isPresent());
         verify(coffeeRepository).findById(id);
-        verifyNoInteractions(modelMapper);
+        verifyNoInteractions(coffeeMapper);
     }
 
     /**
@@ -134,6 +174,95 @@ public class CoffeeServiceImplTest {
 
         assertTrue(result.isEmpty());
         verify(coffeeRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(coffeeCountCache).put(any(CoffeeFilterKey.class), eq(0L));
+    }
+
+    /**
+     * Tests that a cached total for the filter is reused: the page is loaded
+     * as a slice and no COUNT query is executed.
+     */
+    @Test
+    public void testListCoffeesUsesCachedTotalInsteadOfCountQuery() {
+        when(coffeeCountCache.get(any(CoffeeFilterKey.class))).thenReturn(Optional.of(42L));
+        Pageable pageable = PageRequest.of(1, 5);
+        when(coffeeRepository.findSlice(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleCoffeeEntity), pageable, true));
+        when(coffeeMapper.toDTO(sampleCoffeeEntity)).thenReturn(sampleCoffeeDTO);
+
+        Page<CoffeeDTO> result = coffeeService.findCoffees(
+                "Kenya", null, null, null, null, null, null,
+                null, null, null, pageable
+        );
+
+        assertEquals(42L, result.getTotalElements());
+        assertEquals(List.of(sampleCoffeeDTO), result.getContent());
+        verify(coffeeRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    /**
+     * Tests that a listing the catalog index can answer is served without any
+     * repository access.
+     */
+    @Test
+    public void testListCoffeesIsServedFromCatalogIndex() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Page<CoffeeDTO> indexedPage = new PageImpl<>(List.of(sampleCoffeeDTO), pageable, 1);
+        when(catalogIndex.findPage(any(CoffeeFilterKey.class), eq(pageable))).thenReturn(Optional.of(indexedPage));
+
+        Page<CoffeeDTO> result = coffeeService.findCoffees(
+                null, null, null, null, null, null, null,
+                null, null, null, pageable
+        );
+
+        assertSame(indexedPage, result);
+        verifyNoInteractions(coffeeRepository, coffeeCountCache);
+    }
+
+    /**
+     * Tests that facets counted by the database merge differently cased text values
+     * under their first spelling, like the catalog index.
+     */
+    @Test
+    public void testFacetFallbackMergesTextValuesIgnoringCase() {
+        when(catalogIndex.findFacets(any(CoffeeFilterKey.class))).thenReturn(Optional.empty());
+        when(coffeeCountCache.get(any(CoffeeFilterKey.class))).thenReturn(Optional.of(3L));
+        Map<Object, Long> notes = new LinkedHashMap<>();
+        notes.put("Chocolate", 2L);
+        notes.put("Jasmine", 1L);
+        notes.put("chocolate", 1L);
+        when(coffeeRepository.countGroupedBy(any(), anyString())).thenReturn(Map.of());
+        when(coffeeRepository.countGroupedBy(any(), eq("flavorNotes"))).thenReturn(notes);
+
+        CoffeeFacetsDTO facets = coffeeService.findCoffeeFacets(
+                null, null, null, null, null, null, null, null, null, null);
+
+        assertEquals(List.of("Chocolate", "Jasmine"),
+                facets.getFlavorNotes().stream().map(FacetCountDTO::getValue).toList());
+        assertEquals(List.of(3L, 1L),
+                facets.getFlavorNotes().stream().map(FacetCountDTO::getCount).toList());
+    }
+
+    /**
+     * Tests that search results are loaded in the ranking order of the search index,
+     * keeping the index's total.
+     */
+    @Test
+    public void testSearchCoffeesKeepsRankingOrder() {
+        Pageable pageable = PageRequest.of(0, 5);
+        CoffeeEntity other = CoffeeTestData.createTestCoffeeEntity();
+        other.setId(2L);
+        CoffeeDTO otherDTO = CoffeeTestData.createTestCoffeeDTO();
+        otherDTO.setId(2L);
+        when(searchIndex.search("chocolate", pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(2L, 1L), pageable, 7)));
+        when(coffeeRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(sampleCoffeeEntity, other));
+        when(coffeeMapper.toDTO(sampleCoffeeEntity)).thenReturn(sampleCoffeeDTO);
+        when(coffeeMapper.toDTO(other)).thenReturn(otherDTO);
+
+        Page<CoffeeDTO> result = coffeeService.searchCoffees("chocolate", pageable);
+
+        assertEquals(List.of(2L, 1L), result.getContent().stream().map(CoffeeDTO::getId).toList());
+        assertEquals(7, result.getTotalElements());
     }
 
     /**
@@ -145,7 +274,7 @@ public class CoffeeServiceImplTest {
         Page<CoffeeEntity> coffeePage = new PageImpl<>(List.of(sampleCoffeeEntity));
         when(coffeeRepository.findAll(any(Specification.class), any(Pageable.class)))
                 .thenReturn(coffeePage);
-        when(modelMapper.map(sampleCoffeeEntity, CoffeeDTO.class)).thenReturn(sampleCoffeeDTO);
+        when(coffeeMapper.toDTO(sampleCoffeeEntity)).thenReturn(sampleCoffeeDTO);
 
         Pageable pageable = PageRequest.of(0, 5);
         Page<CoffeeDTO> result = coffeeService.findCoffees(
@@ -155,7 +284,7 @@ public class CoffeeServiceImplTest {
 
         assertFalse(result.isEmpty());
         assertEquals(sampleCoffeeDTO, result.getContent().get(0));
-        verify(modelMapper).map(sampleCoffeeEntity, CoffeeDTO.class);
+        verify(coffeeMapper).toDTO(sampleCoffeeEntity);
         verify(coffeeRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
@@ -195,6 +324,50 @@ public class CoffeeServiceImplTest {
 
         coffeeService.deleteCoffee(id);
         verify(coffeeRepository).delete(sampleCoffeeEntity);
+        verify(imageStore).release(sampleCoffeeEntity.getImageUrl());
+    }
+
+    /**
+     * Tests that replacing a coffee's image references the new image before
+     * releasing the old one, so that a shared image is never dropped in between.
+     */
+    @Test
+    public void testUpdateCoffeeImageUrlMovesImageReference() {
+        Long id = 1L;
+        sampleCoffeeEntity.setImageUrl("images/ab/old.png");
+        when(coffeeRepository.findById(id)).thenReturn(Optional.of(sampleCoffeeEntity));
+
+        coffeeService.updateCoffeeImageUrl(id, "images/cd/new.png");
+
+        InOrder inOrder = inOrder(imageStore);
+        inOrder.verify(imageStore).reference("images/cd/new.png");
+        inOrder.verify(imageStore).release("images/ab/old.png");
+        assertEquals("images/cd/new.png", sampleCoffeeEntity.getImageUrl());
+        // The renditions of the old image are dropped and the new image is queued for rendering
+        verify(coffeeRepository).clearImageRenditions(id);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ImageAssignedEvent assigned
+                && assigned.getOwnerId().equals(id) && assigned.getImageUrl().equals("images/cd/new.png")));
+    }
+
+    /**
+     * Tests that renditions are stored only while the coffee still shows the image
+     * they were generated from, refreshing the catalog when they are.
+     */
+    @Test
+    public void testUpdateCoffeeImageRenditionsRequiresSameImage() {
+        ImageRenditions renditions = new ImageRenditions("t.jpg", "c.jpg", "f.jpg", "data:,");
+        when(coffeeRepository.updateImageRenditions(1L, "images/ab/a.png", "t.jpg", "c.jpg", "f.jpg", "data:,"))
+                .thenReturn(1);
+        when(coffeeRepository.updateImageRenditions(2L, "images/ab/replaced.png", "t.jpg", "c.jpg", "f.jpg", "data:,"))
+                .thenReturn(0);
+
+        coffeeService.updateCoffeeImageRenditions(1L, "images/ab/a.png", renditions);
+        coffeeService.updateCoffeeImageRenditions(2L, "images/ab/replaced.png", renditions);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof CoffeeChangedEvent changed
+                && changed.getCoffeeId().equals(1L)));
+        verify(eventPublisher, never()).publishEvent(argThat((Object event) -> event instanceof CoffeeChangedEvent changed
+                && changed.getCoffeeId().equals(2L)));
     }
 
     /**
@@ -234,8 +407,8 @@ public class CoffeeServiceImplTest {
         when(coffeeRepository.findById(id)).thenReturn(Optional.of(sampleCoffeeEntity));
         when(coffeeRepository.save(sampleCoffeeEntity)).thenReturn(sampleCoffeeEntity);
 
-        lenient().doNothing().when(modelMapper).map(any(CoffeeDTO.class), any(CoffeeEntity.class));
-        when(modelMapper.map(any(CoffeeEntity.class), eq(CoffeeDTO.class))).thenReturn(sampleCoffeeDTO);
+        lenient().doNothing().when(coffeeMapper).updateEntity(any(CoffeeDTO.class), any(CoffeeEntity.class));
+        when(coffeeMapper.toDTO(any(CoffeeEntity.class))).thenReturn(sampleCoffeeDTO);
 
         Long roasteryId = sampleCoffeeDTO.getRoastery().getId();
         when(roasteryRepository.findById(eq(roasteryId)))
@@ -245,6 +418,57 @@ public class CoffeeServiceImplTest {
         assertEquals(sampleCoffeeDTO, updatedCoffee);
         verify(coffeeRepository).findById(id);
         verify(coffeeRepository).save(sampleCoffeeEntity);
-        verify(modelMapper).map(sampleCoffeeEntity, CoffeeDTO.class);
+        verify(coffeeMapper).toDTO(sampleCoffeeEntity);
+    }
+
+    /**
+     * Tests that coffee details take the average rating and review count from the
+     * denormalized aggregates instead of querying the reviews table.
+     */
+    @Test
+    public void testFindCoffeeDetailsUsesStoredRatingAggregates() {
+        Long id = 1L;
+        sampleCoffeeEntity.setAverageRating(4.5);
+        sampleCoffeeEntity.setReviewCount(2);
+        when(coffeeRepository.findWithDetailsById(id)).thenReturn(Optional.of(sampleCoffeeEntity));
+        when(coffeeMapper.toDetailsDTO(sampleCoffeeEntity)).thenReturn(new CoffeeDetailsDTO());
+        when(reviewRepository.findTop3ByCoffeeIdOrderByCreatedAtDesc(id)).thenReturn(Collections.emptyList());
+
+        Optional<CoffeeDetailsDTO> result = coffeeService.findCoffeeDetails(id);
+
+        assertTrue(result.isPresent());
+        assertEquals(4.5, result.get().getAverageRating());
+        assertEquals(2, result.get().getTotalReviewsCount());
+        verify(reviewRepository).findTop3ByCoffeeIdOrderByCreatedAtDesc(id);
+        verifyNoMoreInteractions(reviewRepository);
+    }
+
+    /**
+     * Tests that recalculating aggregates for an empty set of coffees is a no-op.
+     */
+    @Test
+    public void testRecalculateRatingAggregatesSkipsEmptyIds() {
+        coffeeService.recalculateRatingAggregates(Collections.emptyList());
+        verifyNoInteractions(coffeeRepository);
+    }
+
+    /**
+     * Tests that the featured coffee is looked up by the ID stored on the roastery,
+     * that its details are served from the cache on repeated lookups,
+     * and that a roastery without one has no featured coffee.
+     */
+    @Test
+    public void testFindFeaturedCoffeeUsesStoredId() {
+        when(roasteryRepository.findFeaturedCoffeeIdById(1L)).thenReturn(Optional.of(1L));
+        when(coffeeRepository.findWithDetailsById(1L)).thenReturn(Optional.of(sampleCoffeeEntity));
+        when(coffeeMapper.toDetailsDTO(sampleCoffeeEntity)).thenReturn(new CoffeeDetailsDTO());
+        when(reviewRepository.findTop3ByCoffeeIdOrderByCreatedAtDesc(1L)).thenReturn(Collections.emptyList());
+
+        assertNotNull(coffeeService.findFeaturedCoffee(1L));
+        assertNotNull(coffeeService.findFeaturedCoffee(1L));
+        verify(coffeeRepository, times(1)).findWithDetailsById(1L);
+
+        when(roasteryRepository.findFeaturedCoffeeIdById(2L)).thenReturn(Optional.empty());
+        assertNull(coffeeService.findFeaturedCoffee(2L));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,250 @@
+package com.example.coffeetica.coffee.services.impl;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.ReviewDTO;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.ReviewRequestDTO;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.util.CoffeeTestData;
+import com.example.coffeetica.coffee.mappers.ReviewMapperImpl;
+import com.example.coffeetica.exceptions.InvalidCursorException;
+import com.example.coffeetica.user.models.UserEntity;
+import com.example.coffeetica.user.security.AuthenticatedUser;
+import com.example.coffeetica.user.security.JwtTokenProvider;
+import com.example.coffeetica.user.security.SecurityService;
+import com.example.coffeetica.utility.CursorPage;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the number of SQL statements issued by the paged {@link ReviewServiceImpl} finders,
+ * so that per-row loading of review authors and coffees fails the build.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ReviewServiceImpl.class, ReviewMapperImpl.class})
+public class ReviewServiceImplQueryCountTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+
+    @Autowired
+    private ReviewServiceImpl reviewService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private SecurityService securityService;
+
+    private Statistics statistics;
+    private final List<CoffeeEntity> coffees = new ArrayList<>();
+    private final List<UserEntity> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName("Test Roastery");
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2010);
+        roastery.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(roastery);
+
+        for (int i = 0; i < 6; i++) {
+            CoffeeEntity coffee = new CoffeeEntity();
+            coffee.setName("Coffee " + i);
+            coffee.setCountryOfOrigin("Ethiopia");
+            coffee.setRegion(Region.AFRICA);
+            coffee.setRoastLevel(RoastLevel.LIGHT);
+            coffee.setFlavorProfile(FlavorProfile.BERRY);
+            coffee.setProcessingMethod("Washed");
+            coffee.setProductionYear(2023);
+            coffee.setRoastery(roastery);
+            entityManager.persist(coffee);
+            coffees.add(coffee);
+
+            UserEntity user = new UserEntity();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        // Every user reviews every coffee: 36 reviews with distinct authors and coffees per page
+        for (UserEntity user : users) {
+            for (CoffeeEntity coffee : coffees) {
+                ReviewEntity review = new ReviewEntity();
+                review.setContent("Review");
+                review.setBrewingMethod("V60");
+                review.setRating(4.0);
+                review.setCreatedAt(LocalDateTime.now());
+                review.setCoffee(coffee);
+                review.setUser(user);
+                entityManager.persist(review);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    /**
+     * Tests that a page of all reviews is served by the page query and the count query.
+     */
+    @Test
+    public void testFindAllReviewsUsesConstantStatements() {
+        Page<ReviewDTO> page = reviewService.findAllReviews(PAGE);
+
+        assertEquals(20, page.getNumberOfElements());
+        assertAuthorsAndCoffeesMapped(page);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a page of a coffee's reviews is served by the page query alone
+     * when it fits on the first page.
+     */
+    @Test
+    public void testFindReviewsByCoffeeIdUsesConstantStatements() {
+        Page<ReviewDTO> page = reviewService.findReviewsByCoffeeId(coffees.get(0).getId(), PAGE);
+
+        assertEquals(6, page.getNumberOfElements());
+        assertAuthorsAndCoffeesMapped(page);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a page of a user's reviews is served by the page query alone
+     * when it fits on the first page.
+     */
+    @Test
+    public void testFindReviewsByUserIdUsesConstantStatements() {
+        Page<ReviewDTO> page = reviewService.findReviewsByUserId(users.get(0).getId(), PAGE);
+
+        assertEquals(6, page.getNumberOfElements());
+        assertAuthorsAndCoffeesMapped(page);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that walking a coffee's reviews with cursors returns each review once,
+     * newest first, with a constant number of statements per page (the window plus one batch
+     * of authors and one of coffees) and no count query.
+     */
+    @Test
+    public void testFindReviewsByCursorUsesConstantStatementsPerPage() {
+        Set<Long> walkedIds = new HashSet<>();
+        List<String> walkedDates = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<ReviewDTO> page = reviewService.findReviewsByCursor(
+                    null, null, cursor, 10, Sort.by("createdAt").descending());
+            assertTrue(statistics.getPrepareStatementCount() <= 3,
+                    "Expected at most 3 statements per page but was " + statistics.getPrepareStatementCount());
+            page.getItems().forEach(dto -> {
+                assertTrue(walkedIds.add(dto.getId()), "Review returned twice: " + dto.getId());
+                assertNotNull(dto.getUserName());
+                assertNotNull(dto.getCoffeeName());
+                walkedDates.add(dto.getCreatedAt());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(36, walkedIds.size());
+        assertEquals(4, pages);
+        List<LocalDateTime> dates = walkedDates.stream().map(LocalDateTime::parse).toList();
+        for (int i = 1; i < dates.size(); i++) {
+            assertFalse(dates.get(i).isAfter(dates.get(i - 1)));
+        }
+    }
+
+    /**
+     * Tests that a cursor is rejected for the opposite direction of the sort it was issued for.
+     */
+    @Test
+    public void testCursorIsRejectedForOtherDirection() {
+        String cursor = reviewService.findReviewsByCursor(
+                null, null, null, 10, Sort.by("createdAt").descending()).getNextCursor();
+        assertNotNull(cursor);
+
+        assertThrows(InvalidCursorException.class, () -> reviewService.findReviewsByCursor(
+                null, null, cursor, 10, Sort.by("createdAt").ascending()));
+        assertEquals(10, reviewService.findReviewsByCursor(
+                null, null, cursor, 10, Sort.by("createdAt").descending()).getItems().size());
+    }
+
+    /**
+     * Tests that saving a review takes the author from the authenticated principal:
+     * only the coffee is loaded, then the review is inserted, the coffee's rating
+     * aggregates are updated and, for a five-star review, the author's favorite coffee
+     * is refreshed, without any user lookup.
+     */
+    @Test
+    public void testSaveReviewDoesNotLookUpAuthor() {
+        // A user who has not reviewed any coffee yet: one review per user and coffee
+        UserEntity author = new UserEntity();
+        author.setUsername("newcomer");
+        author.setEmail("newcomer@example.com");
+        author.setPassword("secret");
+        entityManager.persist(author);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        when(securityService.getCurrentUser()).thenReturn(
+                new AuthenticatedUser(author.getId(), author.getUsername(), null, Set.of("User"), 0));
+
+        ReviewRequestDTO request = CoffeeTestData.createTestReviewRequestDTO();
+        request.setCoffeeId(coffees.get(0).getId());
+
+        ReviewDTO saved = reviewService.saveReview(request);
+
+        assertEquals(author.getId(), saved.getUserId());
+        assertEquals(author.getUsername(), saved.getUserName());
+        assertEquals(5.0, request.getRating());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    private void assertAuthorsAndCoffeesMapped(Page<ReviewDTO> page) {
+        page.getContent().forEach(dto -> {
+            assertNotNull(dto.getUserName());
+            assertNotNull(dto.getCoffeeName());
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.events.CoffeeRatingChangedEvent;
+import com.example.coffeetica.coffee.mappers.ReviewMapper;
 import com.example.coffeetica.coffee.models.CoffeeEntity;
 import com.example.coffeetica.coffee.models.ReviewDTO;
 import com.example.coffeetica.coffee.models.ReviewEntity;
@@ -11,18 +13,20 @@ import com.example.coffeetica.coffee.util.CoffeeTestData;
 import com.example.coffeetica.exceptions.ResourceNotFoundException;
 import com.example.coffeetica.user.models.UserEntity;
 import com.example.coffeetica.user.repositories.UserRepository;
+import com.example.coffeetica.user.security.AuthenticatedUser;
 import com.example.coffeetica.user.security.SecurityService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.BeforeEach;
-import org.modelmapper.ModelMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -56,7 +60,7 @@ class ReviewServiceImplTest {
     private CoffeeRepository coffeeRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private ReviewMapper reviewMapper;
 
     @Mock
     private JwtTokenProvider jwtTokenProvider;
@@ -64,6 +68,9 @@ class ReviewServiceImplTest {
     @Mock
     private SecurityService securityService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ReviewServiceImpl reviewService;
 
@@ -99,40 +106,44 @@ class ReviewServiceImplTest {
         Long currentUserId = sampleUser.getId();
 
         // Current user matches the user in sampleUser
-        when(securityService.getCurrentUserId()).thenReturn(currentUserId);
-        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(securityService.getCurrentUser()).thenReturn(currentUser());
+        when(userRepository.getReferenceById(currentUserId)).thenReturn(sampleUser);
         when(coffeeRepository.findById(sampleRequestDTO.getCoffeeId()))
                 .thenReturn(Optional.of(sampleCoffee));
 
-        // ModelMapper stubs
-        when(modelMapper.map(sampleRequestDTO, ReviewEntity.class)).thenReturn(sampleReviewEntity);
+        // Mapper stubs
+        when(reviewMapper.toEntity(sampleRequestDTO)).thenReturn(sampleReviewEntity);
         when(reviewRepository.save(sampleReviewEntity)).thenReturn(sampleReviewEntity);
-        when(modelMapper.map(sampleReviewEntity, ReviewDTO.class)).thenReturn(sampleReviewDTO);
+        when(reviewMapper.toDTO(sampleReviewEntity)).thenReturn(sampleReviewDTO);
 
         // Action
         ReviewDTO result = reviewService.saveReview(sampleRequestDTO);
 
         // Verification
         assertEquals(sampleReviewDTO, result);
-        verify(securityService).getCurrentUserId();
-        verify(userRepository).findById(currentUserId);
+        verify(securityService).getCurrentUser();
+        // The author is taken from the authenticated principal, without a user lookup
+        verify(userRepository).getReferenceById(currentUserId);
+        verify(userRepository, never()).findById(any());
         verify(coffeeRepository).findById(sampleRequestDTO.getCoffeeId());
         verify(reviewRepository).save(sampleReviewEntity);
+        verify(coffeeRepository).applyRatingDelta(sampleCoffee.getId(), sampleReviewEntity.getRating(), 1);
+        // A five-star review may become the author's favorite
+        verify(userRepository).refreshFavoriteCoffee(currentUserId);
+        verify(eventPublisher).publishEvent(any(CoffeeRatingChangedEvent.class));
     }
 
     /**
-     * Tests that saving a review throws ResourceNotFoundException
-     * if the user is missing in the database.
+     * Tests that saving a review fails without touching any repository
+     * if no user is authenticated.
      */
     @Test
-    void testSaveReviewThrowsWhenUserNotFound() {
-        Long invalidUserId = 99999L;
-        when(securityService.getCurrentUserId()).thenReturn(invalidUserId);
-        when(userRepository.findById(invalidUserId)).thenReturn(Optional.empty());
+    void testSaveReviewThrowsWhenNotAuthenticated() {
+        when(securityService.getCurrentUser()).thenThrow(new RuntimeException("No authenticated user found"));
 
-        assertThrows(ResourceNotFoundException.class,
+        assertThrows(RuntimeException.class,
                 () -> reviewService.saveReview(sampleRequestDTO));
-        verifyNoInteractions(coffeeRepository, reviewRepository);
+        verifyNoInteractions(userRepository, coffeeRepository, reviewRepository);
     }
 
     /**
@@ -141,9 +152,7 @@ class ReviewServiceImplTest {
      */
     @Test
     void testSaveReviewThrowsWhenCoffeeNotFound() {
-        Long currentUserId = sampleUser.getId();
-        when(securityService.getCurrentUserId()).thenReturn(currentUserId);
-        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(securityService.getCurrentUser()).thenReturn(currentUser());
         when(coffeeRepository.findById(sampleRequestDTO.getCoffeeId())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
@@ -158,7 +167,7 @@ class ReviewServiceImplTest {
     void testFindReviewByIdFound() {
         Long reviewId = 1L;
         when(reviewRepository.findById(reviewId)).thenReturn(Optional.of(sampleReviewEntity));
-        when(modelMapper.map(sampleReviewEntity, ReviewDTO.class)).thenReturn(sampleReviewDTO);
+        when(reviewMapper.toDTO(sampleReviewEntity)).thenReturn(sampleReviewDTO);
 
         Optional<ReviewDTO> result = reviewService.findReviewById(reviewId);
         assertTrue(result.isPresent());
@@ -202,7 +211,7 @@ class ReviewServiceImplTest {
         Page<ReviewEntity> reviewEntityPage = new PageImpl<>(List.of(sampleReviewEntity), pageable, 1);
 
         when(reviewRepository.findAll(pageable)).thenReturn(reviewEntityPage);
-        when(modelMapper.map(sampleReviewEntity, ReviewDTO.class)).thenReturn(sampleReviewDTO);
+        when(reviewMapper.toDTO(sampleReviewEntity)).thenReturn(sampleReviewDTO);
 
         Page<ReviewDTO> reviews = reviewService.findAllReviews(pageable);
 
@@ -218,7 +227,7 @@ class ReviewServiceImplTest {
         Page<ReviewEntity> entityPage = new PageImpl<>(List.of(sampleReviewEntity));
         when(reviewRepository.findByCoffeeId(eq(sampleCoffee.getId()), any(Pageable.class)))
                 .thenReturn(entityPage);
-        when(modelMapper.map(sampleReviewEntity, ReviewDTO.class)).thenReturn(sampleReviewDTO);
+        when(reviewMapper.toDTO(sampleReviewEntity)).thenReturn(sampleReviewDTO);
 
         Page<ReviewDTO> result = reviewService.findReviewsByCoffeeId(sampleCoffee.getId(), Pageable.unpaged());
         assertFalse(result.isEmpty());
@@ -235,6 +244,21 @@ class ReviewServiceImplTest {
         verify(reviewRepository).deleteById(1L);
     }
 
+    /**
+     * Tests that deleting an existing review removes its rating from the coffee aggregates.
+     */
+    @Test
+    void testDeleteReviewDecrementsRatingAggregates() {
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(sampleReviewEntity));
+
+        reviewService.deleteReview(1L);
+
+        verify(coffeeRepository).applyRatingDelta(sampleCoffee.getId(), -sampleReviewEntity.getRating(), -1);
+        verify(reviewRepository).deleteById(1L);
+        // The deleted five-star review may have been the author's favorite
+        verify(userRepository).refreshFavoriteCoffee(sampleUser.getId());
+    }
+
     /**
      * Tests that updateReview updates a review's fields if user is the owner.
      */
@@ -248,7 +272,7 @@ class ReviewServiceImplTest {
 
         // Suppose after saving, we map back to the same sampleReviewDTO
         when(reviewRepository.save(sampleReviewEntity)).thenReturn(sampleReviewEntity);
-        when(modelMapper.map(sampleReviewEntity, ReviewDTO.class)).thenReturn(sampleReviewDTO);
+        when(reviewMapper.toDTO(sampleReviewEntity)).thenReturn(sampleReviewDTO);
 
         // Create a request from test data but override some fields:
         ReviewRequestDTO updateRequest = CoffeeTestData.createTestReviewRequestDTO();
@@ -267,6 +291,11 @@ class ReviewServiceImplTest {
 
         // The final returned object is sampleReviewDTO
         assertEquals(sampleReviewDTO, updated);
+
+        // The rating went from 5.0 to 4.5 without changing the review count
+        verify(coffeeRepository).applyRatingDelta(sampleCoffee.getId(), -0.5, 0);
+        // The review no longer has five stars, so the author's favorite is recomputed
+        verify(userRepository).refreshFavoriteCoffee(sampleUser.getId());
     }
 
     /**
@@ -299,4 +328,11 @@ class ReviewServiceImplTest {
         assertThrows(RuntimeException.class,
                 () -> reviewService.updateReview(reviewId, request));
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the authenticated principal of the sample user, as rebuilt from a token.
+     */
+    private AuthenticatedUser currentUser() {
+        return new AuthenticatedUser(sampleUser.getId(), sampleUser.getUsername(), null, Set.of("User"), 0);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.coffeetica.coffee.services.impl;
 
+import com.example.coffeetica.coffee.mappers.RoasteryMapper;
+import com.example.coffeetica.coffee.events.RoasteryChangedEvent;
+import com.example.coffeetica.coffee.images.ImageStore;
 import com.example.coffeetica.coffee.models.RoasteryDTO;
 import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.repositories.CoffeeRepository;
 import com.example.coffeetica.coffee.repositories.RoasteryRepository;
 import com.example.coffeetica.coffee.util.CoffeeTestData;
 
@@ -9,14 +13,16 @@ import com.example.coffeetica.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.modelmapper.ModelMapper;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,7 +38,16 @@ public class RoasteryServiceImplTest {
     private RoasteryRepository roasteryRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private CoffeeRepository coffeeRepository;
+
+    @Mock
+    private RoasteryMapper roasteryMapper;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private RoasteryServiceImpl underTest;
@@ -55,16 +70,17 @@ public class RoasteryServiceImplTest {
      */
     @Test
     public void testThatRoasteryIsSaved() {
-        when(modelMapper.map(sampleRoasteryDTO, RoasteryEntity.class)).thenReturn(sampleRoasteryEntity);
+        when(roasteryMapper.toEntity(sampleRoasteryDTO)).thenReturn(sampleRoasteryEntity);
         when(roasteryRepository.save(sampleRoasteryEntity)).thenReturn(sampleRoasteryEntity);
-        when(modelMapper.map(sampleRoasteryEntity, RoasteryDTO.class)).thenReturn(sampleRoasteryDTO);
+        when(roasteryMapper.toDTO(sampleRoasteryEntity)).thenReturn(sampleRoasteryDTO);
 
         RoasteryDTO result = underTest.saveRoastery(sampleRoasteryDTO);
 
         assertEquals(sampleRoasteryDTO, result);
-        verify(modelMapper).map(sampleRoasteryDTO, RoasteryEntity.class);
+        verify(roasteryMapper).toEntity(sampleRoasteryDTO);
         verify(roasteryRepository).save(sampleRoasteryEntity);
-        verify(modelMapper).map(sampleRoasteryEntity, RoasteryDTO.class);
+        verify(roasteryMapper).toDTO(sampleRoasteryEntity);
+        verify(eventPublisher).publishEvent(any(RoasteryChangedEvent.class));
     }
 
     /**
@@ -75,14 +91,14 @@ public class RoasteryServiceImplTest {
     public void testThatFindByIdReturnsRoasteryWhenExists() {
         Long id = 1L;
         when(roasteryRepository.findById(id)).thenReturn(Optional.of(sampleRoasteryEntity));
-        when(modelMapper.map(sampleRoasteryEntity, RoasteryDTO.class)).thenReturn(sampleRoasteryDTO);
+        when(roasteryMapper.toDTO(sampleRoasteryEntity)).thenReturn(sampleRoasteryDTO);
 
         Optional<RoasteryDTO> result = underTest.findRoasteryById(id);
 
         assertTrue(result.isPresent());
         assertEquals(sampleRoasteryDTO, result.get());
         verify(roasteryRepository).findById(id);
-        verify(modelMapper).map(sampleRoasteryEntity, RoasteryDTO.class);
+        verify(roasteryMapper).toDTO(sampleRoasteryEntity);
     }
 
     /**
@@ -97,7 +113,7 @@ public class RoasteryServiceImplTest {
 
         assertFalse(result.isPresent());
         verify(roasteryRepository).findById(id);
-        verifyNoInteractions(modelMapper);
+        verifyNoInteractions(roasteryMapper);
     }
 
     /**
@@ -111,7 +127,7 @@ public class RoasteryServiceImplTest {
 
         assertTrue(result.isEmpty());
         verify(roasteryRepository).findAll();
-        verifyNoInteractions(modelMapper);
+        verifyNoInteractions(roasteryMapper);
     }
 
     /**
@@ -121,14 +137,14 @@ public class RoasteryServiceImplTest {
     @Test
     public void testListRoasteriesReturnsRoasteriesWhenExist() {
         when(roasteryRepository.findAll()).thenReturn(List.of(sampleRoasteryEntity));
-        when(modelMapper.map(sampleRoasteryEntity, RoasteryDTO.class)).thenReturn(sampleRoasteryDTO);
+        when(roasteryMapper.toDTO(sampleRoasteryEntity)).thenReturn(sampleRoasteryDTO);
 
         List<RoasteryDTO> result = underTest.findAllRoasteries();
 
         assertEquals(1, result.size());
         assertEquals(sampleRoasteryDTO, result.get(0));
         verify(roasteryRepository).findAll();
-        verify(modelMapper).map(sampleRoasteryEntity, RoasteryDTO.class);
+        verify(roasteryMapper).toDTO(sampleRoasteryEntity);
     }
 
     /**
@@ -159,16 +175,26 @@ public class RoasteryServiceImplTest {
 
     /**
      * Tests that deleteRoastery deletes the roastery if it exists,
-     * verifying the repository's deleteById is invoked.
+     * verifying the repository's deleteById is invoked and that the images
+     * of the roastery and of its coffees are released.
      */
     @Test
     public void testDeleteRoasteryDeletesRoastery() {
         Long id = 1L;
         when(roasteryRepository.findById(id)).thenReturn(Optional.of(sampleRoasteryEntity));
+        when(coffeeRepository.findImageUrlsByRoasteryId(id)).thenReturn(List.of("images/ab/coffee.jpg"));
+        when(coffeeRepository.findIdsByRoasteryId(id)).thenReturn(List.of(5L, 6L));
 
         underTest.deleteRoastery(id);
 
         verify(roasteryRepository, times(1)).deleteById(id);
+        verify(imageStore).release(sampleRoasteryEntity.getImageUrl());
+        verify(imageStore).release("images/ab/coffee.jpg");
+        // The deleted coffees are announced, e.g. to re-select the favorites of their reviewers
+        ArgumentCaptor<RoasteryChangedEvent> event = ArgumentCaptor.forClass(RoasteryChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isDeleted());
+        assertEquals(Set.of(5L, 6L), event.getValue().getDeletedCoffeeIds());
     }
 
     /**
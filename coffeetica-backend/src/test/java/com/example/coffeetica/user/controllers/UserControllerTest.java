@@ -5,6 +5,7 @@ import com.example.coffeetica.user.models.UpdateUserRequestDTO;
 import com.example.coffeetica.user.models.UserDTO;
 import com.example.coffeetica.user.security.SecurityService;
 import com.example.coffeetica.user.services.UserService;
+import com.example.coffeetica.utility.CursorPage;
 import com.example.coffeetica.user.util.UserTestData;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -22,6 +23,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -95,6 +97,25 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.content").isEmpty());
     }
 
+    /**
+     * Tests that passing a limit to GET /api/users switches to cursor mode.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testGetAllUsersWithLimitReturnsCursorPage() throws Exception {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(1L);
+        userDTO.setUsername("cursorUser");
+        when(userService.findUsersByCursor(isNull(), isNull(), eq(10), eq("id"), eq("asc")))
+                .thenReturn(new CursorPage<>(List.of(userDTO), "next"));
+
+        mockMvc.perform(get("/api/users?limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].username").value("cursorUser"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
     /**
      * Tests retrieving a specific user by ID with GET /api/users/{id}.
      * Expects 200 OK if found.
@@ -113,6 +134,29 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.username").value(userDTO.getUsername()));
     }
 
+    /**
+     * Tests that GET /api/users/{id}/review-ids pages the review IDs newest first by default,
+     * and returns 404 for an unknown user.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testGetReviewIdsReturnsPageOfIds() throws Exception {
+        Pageable newestFirst = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+        when(userService.findReviewIdsOfUser(1L, newestFirst))
+                .thenReturn(new PageImpl<>(List.of(7L, 3L), newestFirst, 2));
+        when(userService.findReviewIdsOfUser(eq(999L), any(Pageable.class)))
+                .thenThrow(new Exception("User not found with id: 999"));
+
+        mockMvc.perform(get("/api/users/{id}/review-ids", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0]").value(7))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/users/{id}/review-ids", 999L))
+                .andExpect(status().isNotFound());
+    }
+
     /**
      * Tests retrieving a specific user by ID returns 404 if not found.
      */
@@ -0,0 +1,222 @@
+package com.example.coffeetica.user.repositories;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.user.models.UserEntity;
+import com.example.coffeetica.user.repositories.UserRepositoryCustom.SearchHit;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the user search queries and the favorite coffee maintenance of {@link UserRepository}
+ * against the H2 schema built by the Flyway migrations, where {@code similarity()} is provided
+ * by the H2 function alias.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserEntity johnSmith;
+    private UserEntity jonSmith;
+
+    @BeforeEach
+    void setUp() {
+        johnSmith = save("johnsmith", "john@example.com");
+        jonSmith = save("jonsmith", "jon@mail.com");
+        save("alice", "alice@example.com");
+        save("smithy_1", "a@smithy.com");
+        save("smithy_2", "b@smithy.com");
+        save("smithy_3", "c@smithy.com");
+    }
+
+    private UserEntity save(String username, String email) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+
+    /**
+     * Tests that a misspelled search still finds similar usernames, closest first,
+     * while unrelated users are left out.
+     */
+    @Test
+    public void testSearchByRelevanceToleratesTypos() {
+        List<SearchHit> hits = userRepository.searchByRelevance("jhonsmith", null, 10);
+
+        assertEquals(List.of(jonSmith.getId(), johnSmith.getId()), ids(hits));
+        assertTrue(hits.get(0).relevance() > hits.get(1).relevance());
+        assertTrue(hits.get(1).relevance() >= UserRepositoryCustomImpl.SIMILARITY_THRESHOLD);
+    }
+
+    /**
+     * Tests that substring matches rank above fuzzy matches.
+     */
+    @Test
+    public void testSubstringMatchesRankFirst() {
+        List<SearchHit> hits = userRepository.searchByRelevance("johnsmith", null, 10);
+
+        assertEquals(List.of(johnSmith.getId(), jonSmith.getId()), ids(hits));
+        assertTrue(hits.get(0).relevance() > 1.0);
+        assertTrue(hits.get(1).relevance() < 1.0);
+    }
+
+    /**
+     * Tests that keyset paging after the last hit returns the same sequence as a single
+     * large page, including users tied on relevance.
+     */
+    @Test
+    public void testSearchByRelevancePagesWithoutGapsOrDuplicates() {
+        List<Long> expected = ids(userRepository.searchByRelevance("smith", null, 10));
+        assertEquals(5, expected.size());
+
+        List<Long> paged = new ArrayList<>();
+        SearchHit after = null;
+        List<SearchHit> page;
+        do {
+            page = userRepository.searchByRelevance("smith", after, 2);
+            paged.addAll(ids(page));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 2);
+
+        assertEquals(expected, paged);
+    }
+
+    /**
+     * Tests that LIKE wildcards in the search term are matched literally.
+     */
+    @Test
+    public void testWildcardsAreMatchedLiterally() {
+        assertEquals(3, userRepository.searchByRelevance("y_", null, 10).size());
+        assertTrue(userRepository.searchByRelevance("h_s", null, 10).isEmpty());
+    }
+
+    private CoffeeEntity coffee(RoasteryEntity roastery) {
+        CoffeeEntity coffee = new CoffeeEntity();
+        coffee.setName("Coffee");
+        coffee.setCountryOfOrigin("Ethiopia");
+        coffee.setRegion(Region.AFRICA);
+        coffee.setRoastLevel(RoastLevel.LIGHT);
+        coffee.setFlavorProfile(FlavorProfile.BERRY);
+        coffee.setProcessingMethod("Washed");
+        coffee.setProductionYear(2023);
+        coffee.setRoastery(roastery);
+        entityManager.persist(coffee);
+        return coffee;
+    }
+
+    private ReviewEntity review(UserEntity author, CoffeeEntity coffee, double rating, LocalDateTime createdAt) {
+        ReviewEntity review = new ReviewEntity();
+        review.setContent("Review");
+        review.setBrewingMethod("V60");
+        review.setRating(rating);
+        review.setCreatedAt(createdAt);
+        review.setCoffee(coffee);
+        review.setUser(author);
+        entityManager.persist(review);
+        return review;
+    }
+
+    private Optional<Long> favoriteOf(UserEntity user) {
+        entityManager.clear();
+        return userRepository.findFavoriteCoffeeIdById(user.getId());
+    }
+
+    /**
+     * Tests that the favorite coffee is the one of the latest five-star review, that it is
+     * cleared when no five-star review is left, and that users favoring a removed coffee
+     * fall back to their previous five-star coffee.
+     */
+    @Test
+    public void testRefreshFavoriteCoffee() {
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName("Roastery");
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2010);
+        roastery.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(roastery);
+        CoffeeEntity older = coffee(roastery);
+        CoffeeEntity newer = coffee(roastery);
+        CoffeeEntity merelyGood = coffee(roastery);
+        LocalDateTime now = LocalDateTime.now();
+        review(johnSmith, older, 5.0, now.minusDays(3));
+        ReviewEntity newerReview = review(johnSmith, newer, 5.0, now.minusDays(2));
+        review(johnSmith, merelyGood, 4.5, now.minusDays(1));
+
+        userRepository.refreshFavoriteCoffee(johnSmith.getId());
+        assertEquals(Optional.of(newer.getId()), favoriteOf(johnSmith));
+        assertEquals(Optional.empty(), favoriteOf(jonSmith));
+
+        entityManager.remove(entityManager.find(ReviewEntity.class, newerReview.getId()));
+        userRepository.refreshFavoriteCoffeeOfUsersFavoring(List.of(newer.getId()));
+        assertEquals(Optional.of(older.getId()), favoriteOf(johnSmith));
+
+        entityManager.createQuery("DELETE FROM ReviewEntity r WHERE r.user.id = :userId")
+                .setParameter("userId", johnSmith.getId())
+                .executeUpdate();
+        userRepository.refreshFavoriteCoffee(johnSmith.getId());
+        assertEquals(Optional.empty(), favoriteOf(johnSmith));
+    }
+
+    /**
+     * Tests that deleting a roastery with its coffees and reviews lets the users who
+     * favored any of those coffees fall back to their remaining five-star reviews.
+     */
+    @Test
+    public void testFavoritesOfDeletedRoasteryCoffeesAreReplaced() {
+        RoasteryEntity kept = roastery("Kept Roastery");
+        RoasteryEntity deleted = roastery("Deleted Roastery");
+        CoffeeEntity remaining = coffee(kept);
+        CoffeeEntity first = coffee(deleted);
+        CoffeeEntity second = coffee(deleted);
+        LocalDateTime now = LocalDateTime.now();
+        review(johnSmith, remaining, 5.0, now.minusDays(2));
+        review(johnSmith, first, 5.0, now.minusDays(1));
+        review(jonSmith, second, 5.0, now.minusDays(1));
+        userRepository.refreshFavoriteCoffee(johnSmith.getId());
+        userRepository.refreshFavoriteCoffee(jonSmith.getId());
+        assertEquals(Optional.of(first.getId()), favoriteOf(johnSmith));
+        assertEquals(Optional.of(second.getId()), favoriteOf(jonSmith));
+
+        // The roastery takes its coffees and their reviews with it
+        entityManager.remove(entityManager.find(RoasteryEntity.class, deleted.getId()));
+        userRepository.refreshFavoriteCoffeeOfUsersFavoring(List.of(first.getId(), second.getId()));
+
+        assertEquals(Optional.of(remaining.getId()), favoriteOf(johnSmith));
+        assertEquals(Optional.empty(), favoriteOf(jonSmith));
+    }
+
+    private RoasteryEntity roastery(String name) {
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName(name);
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2010);
+        roastery.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(roastery);
+        return roastery;
+    }
+}
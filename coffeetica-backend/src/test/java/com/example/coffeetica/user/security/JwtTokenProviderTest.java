@@ -0,0 +1,85 @@
+package com.example.coffeetica.user.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JwtTokenProvider}, verifying that principals round-trip through
+ * the token claims and that invalid or expired tokens are rejected, with and without
+ * the verified-token cache.
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET =
+            "dGhpcy1pcy1hLXZlcnktbG9uZy1zZWNyZXQta2V5LWZvci10ZXN0aW5nLWhzNTEyLXNpZ25hdHVyZXMtb25seS0xMjM0NTY3ODkw";
+
+    private final AuthenticatedUser user =
+            new AuthenticatedUser(42L, "testUser", "hash", Set.of("User", "Admin"), 3);
+
+    /**
+     * Tests that the principal rebuilt from a token carries the ID, username,
+     * roles and token version, but no password.
+     */
+    @Test
+    void testPrincipalRoundTrip() {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100);
+
+        String token = provider.generateToken(user);
+        Optional<AuthenticatedUser> principal = provider.getPrincipalFromJWT(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals(42L, principal.get().getId());
+        assertEquals("testUser", principal.get().getUsername());
+        assertEquals(Set.of("User", "Admin"), principal.get().getRoles());
+        assertEquals(3, principal.get().getTokenVersion());
+        assertNull(principal.get().getPassword());
+        assertEquals("testUser", provider.getIdentifierFromJWT(token));
+    }
+
+    /**
+     * Tests that a cached token stays valid on repeated verification.
+     */
+    @Test
+    void testRepeatedValidationUsesSameClaims() {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100);
+        String token = provider.generateToken(user);
+
+        assertSame(provider.validateAndGetClaims(token).orElseThrow(),
+                provider.validateAndGetClaims(token).orElseThrow());
+    }
+
+    /**
+     * Tests that tampered, foreign, malformed and empty tokens are rejected.
+     */
+    @Test
+    void testInvalidTokensAreRejected() {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100);
+        String token = provider.generateToken(user);
+        String otherSecret = SECRET.replace('d', 'e');
+        String foreignToken = new JwtTokenProvider(otherSecret, 60_000, 0).generateToken(user);
+
+        assertFalse(provider.validateToken(token.substring(0, token.length() - 2) + "xx"));
+        assertFalse(provider.validateToken(foreignToken));
+        assertFalse(provider.validateToken("not-a-token"));
+        assertFalse(provider.validateToken(""));
+        assertTrue(provider.getPrincipalFromJWT(foreignToken).isEmpty());
+    }
+
+    /**
+     * Tests that expired tokens are rejected, with and without the cache.
+     */
+    @Test
+    void testExpiredTokensAreRejected() {
+        for (long cacheSize : new long[]{0, 100}) {
+            JwtTokenProvider provider = new JwtTokenProvider(SECRET, -1_000, cacheSize);
+            String token = provider.generateToken(user);
+
+            assertFalse(provider.validateToken(token));
+            assertFalse(provider.validateToken(token));
+        }
+    }
+}
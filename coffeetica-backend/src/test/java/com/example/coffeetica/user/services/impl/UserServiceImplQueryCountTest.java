@@ -0,0 +1,154 @@
+package com.example.coffeetica.user.services.impl;
+
+import com.example.coffeetica.coffee.models.CoffeeEntity;
+import com.example.coffeetica.coffee.models.ReviewEntity;
+import com.example.coffeetica.coffee.models.RoasteryEntity;
+import com.example.coffeetica.coffee.models.enums.FlavorProfile;
+import com.example.coffeetica.coffee.models.enums.Region;
+import com.example.coffeetica.coffee.models.enums.RoastLevel;
+import com.example.coffeetica.coffee.services.CoffeeService;
+import com.example.coffeetica.user.mappers.UserMapperImpl;
+import com.example.coffeetica.user.models.RoleEntity;
+import com.example.coffeetica.user.models.UserDTO;
+import com.example.coffeetica.user.models.UserEntity;
+import com.example.coffeetica.user.security.SecurityService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements issued by the {@link UserServiceImpl} user lookups,
+ * so that loading each listed user's reviews fails the build.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserServiceImpl.class, UserMapperImpl.class})
+public class UserServiceImplQueryCountTest {
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private CoffeeService coffeeService;
+
+    @MockBean
+    private SecurityService securityService;
+
+    private Statistics statistics;
+    private final List<UserEntity> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        RoleEntity role = new RoleEntity();
+        role.setName("Reviewer");
+        entityManager.persist(role);
+
+        RoasteryEntity roastery = new RoasteryEntity();
+        roastery.setName("Test Roastery");
+        roastery.setCountry("Poland");
+        roastery.setFoundingYear(2010);
+        roastery.setWebsiteUrl("https://roastery.example.com");
+        entityManager.persist(roastery);
+
+        List<CoffeeEntity> coffees = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            CoffeeEntity coffee = new CoffeeEntity();
+            coffee.setName("Coffee " + i);
+            coffee.setCountryOfOrigin("Ethiopia");
+            coffee.setRegion(Region.AFRICA);
+            coffee.setRoastLevel(RoastLevel.LIGHT);
+            coffee.setFlavorProfile(FlavorProfile.BERRY);
+            coffee.setProcessingMethod("Washed");
+            coffee.setProductionYear(2023);
+            coffee.setRoastery(roastery);
+            entityManager.persist(coffee);
+            coffees.add(coffee);
+        }
+
+        // User i reviews the first i coffees, so every user has a different review count
+        for (int i = 0; i < 5; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setRoles(Set.of(role));
+            entityManager.persist(user);
+            users.add(user);
+
+            for (int j = 0; j < i; j++) {
+                ReviewEntity review = new ReviewEntity();
+                review.setContent("Review");
+                review.setBrewingMethod("V60");
+                review.setRating(4.0);
+                review.setCreatedAt(LocalDateTime.now().minusMinutes(j));
+                review.setCoffee(coffees.get(j));
+                review.setUser(user);
+                entityManager.persist(review);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    /**
+     * Tests that a page of users is served by the page query, one batch of roles and one
+     * aggregate query for the review counts, regardless of how many reviews the users wrote.
+     */
+    @Test
+    public void testFindAllUsersUsesConstantNumberOfStatements() {
+        Page<UserDTO> page = userService.findAllUsers(null, 0, 20, "id", "asc");
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L),
+                page.getContent().stream().map(UserDTO::getReviewCount).toList());
+        assertEquals(Set.of("Reviewer"), page.getContent().get(0).getRoles());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a single user is served with a count query instead of loading their reviews,
+     * and that the review IDs are paged newest first without loading the reviews.
+     */
+    @Test
+    public void testFindUserByIdCountsReviews() throws Exception {
+        UserEntity prolific = users.get(4);
+
+        assertEquals(4L, userService.findUserById(prolific.getId()).orElseThrow().getReviewCount());
+
+        Page<Long> reviewIds = userService.findReviewIdsOfUser(prolific.getId(),
+                PageRequest.of(0, 3, Sort.by("createdAt").descending()));
+        assertEquals(3, reviewIds.getNumberOfElements());
+        assertEquals(4, reviewIds.getTotalElements());
+        assertEquals(0, statistics.getEntityStatistics(ReviewEntity.class.getName()).getLoadCount());
+    }
+}
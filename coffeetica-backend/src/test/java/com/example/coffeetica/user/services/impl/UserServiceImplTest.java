@@ -1,23 +1,29 @@
 package com.example.coffeetica.user.services.impl;
 
+import com.example.coffeetica.coffee.models.CoffeeDetailsDTO;
+import com.example.coffeetica.user.mappers.UserMapper;
 import com.example.coffeetica.coffee.repositories.ReviewRepository;
 import com.example.coffeetica.user.models.*;
+import com.example.coffeetica.user.events.UserChangedEvent;
 import com.example.coffeetica.user.repositories.RoleRepository;
 import com.example.coffeetica.user.repositories.UserRepository;
+import com.example.coffeetica.user.repositories.UserRepositoryCustom.SearchHit;
 import com.example.coffeetica.user.services.impl.UserServiceImpl;
 import com.example.coffeetica.user.util.UserTestData;
+import com.example.coffeetica.utility.CursorPage;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
-import org.modelmapper.ModelMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -26,6 +32,7 @@ import static org.mockito.Mockito.*;
 
 import com.example.coffeetica.coffee.services.CoffeeService;
 
+import com.example.coffeetica.user.security.AuthenticatedUser;
 import com.example.coffeetica.user.security.SecurityService;
 import org.junit.jupiter.api.BeforeEach;
 
@@ -52,7 +59,7 @@ class UserServiceImplTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
 
     @Mock
     private CoffeeService coffeeService;
@@ -63,6 +70,9 @@ class UserServiceImplTest {
     @Mock
     private SecurityService securityService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl underTest;
 
@@ -115,7 +125,7 @@ class UserServiceImplTest {
         });
 
         // After saving, we map entity -> userDTO
-        when(modelMapper.map(any(UserEntity.class), eq(UserDTO.class))).thenReturn(sampleUserDTO);
+        when(userMapper.toDTO(any(UserEntity.class))).thenReturn(sampleUserDTO);
 
         // Action
         UserDTO result = underTest.registerNewUserAccount(sampleRegisterRequest);
@@ -126,7 +136,7 @@ class UserServiceImplTest {
         verify(roleRepository).findByName("User");
         verify(passwordEncoder).encode("rawPassword");
         verify(userRepository).save(any(UserEntity.class));
-        verify(modelMapper).map(any(UserEntity.class), eq(UserDTO.class));
+        verify(userMapper).toDTO(any(UserEntity.class));
 
         assertEquals(sampleUserDTO, result);
         // sampleUserDTO has no .getPassword() by design
@@ -145,6 +155,7 @@ class UserServiceImplTest {
         UserDetails userDetails = underTest.loadUserByUsername(username);
 
         assertEquals(username, userDetails.getUsername());
+        assertInstanceOf(AuthenticatedUser.class, userDetails);
         assertTrue(userDetails.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_Admin")));
     }
@@ -184,6 +195,7 @@ class UserServiceImplTest {
         underTest.deleteUser(userId);
 
         verify(userRepository).deleteById(userId);
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
     }
 
     /**
@@ -229,11 +241,14 @@ class UserServiceImplTest {
         UserDTO finalDTO = UserTestData.createTestUserDTO();
         finalDTO.setUsername("updatedUser");
         finalDTO.setEmail("updateduser@example.com");
-        when(modelMapper.map(any(UserEntity.class), eq(UserDTO.class))).thenReturn(finalDTO);
+        when(userMapper.toDTO(any(UserEntity.class))).thenReturn(finalDTO);
 
         UserDTO result = underTest.adminUpdateUser(userId, request);
 
         verify(userRepository).save(any(UserEntity.class));
+        // The username is the token subject, so existing tokens are revoked
+        assertEquals(1, targetUser.getTokenVersion());
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
         assertEquals("updatedUser", result.getUsername());
         assertEquals("updateduser@example.com", result.getEmail());
     }
@@ -254,16 +269,18 @@ class UserServiceImplTest {
 
         // Save
         UserEntity updatedUser = existingUser;
-        updatedUser.setEmail("newemail@example.com");
         when(userRepository.save(any(UserEntity.class))).thenReturn(updatedUser);
 
         // final map
         UserDTO finalDTO = UserTestData.createTestUserDTO();
         finalDTO.setEmail("newemail@example.com");
-        when(modelMapper.map(updatedUser, UserDTO.class)).thenReturn(finalDTO);
+        when(userMapper.toDTO(updatedUser)).thenReturn(finalDTO);
 
         UserDTO result = underTest.updateUserEmail(userId, request);
         verify(userRepository).save(any(UserEntity.class));
+        // The email is not part of the token, so existing tokens stay valid
+        assertEquals(0, existingUser.getTokenVersion());
+        verifyNoInteractions(eventPublisher);
         assertEquals("newemail@example.com", result.getEmail());
     }
 
@@ -277,6 +294,8 @@ class UserServiceImplTest {
         Long targetUserId = 99L;
         UserEntity targetUser = new UserEntity();
         targetUser.setId(99L);
+        targetUser.setUsername("plainUser");
+        targetUser.setEmail("plainuser@example.com");
         targetUser.setRoles(Set.of(userRoleEntity)); // "User"
         when(userRepository.findById(targetUserId)).thenReturn(Optional.of(targetUser));
 
@@ -297,6 +316,58 @@ class UserServiceImplTest {
 
         underTest.resetUserPassword(targetUserId, "newSecret");
         verify(userRepository).save(any(UserEntity.class));
+        assertEquals(1, targetUser.getTokenVersion());
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    /**
+     * Tests the relevance-sorted cursor listing: users are returned in the order of the
+     * search hits, and the next cursor continues after the relevance and ID of the last one.
+     */
+    @Test
+    void testFindUsersByCursor_Relevance() {
+        UserEntity first = UserTestData.createTestUserEntity();
+        first.setId(5L);
+        UserEntity second = UserTestData.createAnotherUserEntity();
+        second.setId(3L);
+        when(userRepository.searchByRelevance("jon", null, 3)).thenReturn(List.of(
+                new SearchHit(5L, 1.5), new SearchHit(3L, 0.4), new SearchHit(8L, 0.3)));
+        when(userRepository.findAllById(List.of(5L, 3L))).thenReturn(List.of(second, first));
+
+        CursorPage<UserDTO> page = underTest.findUsersByCursor(" Jon ", null, 2, "relevance", "desc");
+
+        assertEquals(List.of(5L, 3L), page.getItems().stream().map(UserDTO::getId).toList());
+        assertNotNull(page.getNextCursor());
+
+        when(userRepository.searchByRelevance("jon", new SearchHit(3L, 0.4), 3))
+                .thenReturn(List.of(new SearchHit(8L, 0.3)));
+        when(userRepository.findAllById(List.of(8L))).thenReturn(List.of());
+
+        CursorPage<UserDTO> next = underTest.findUsersByCursor("jon", page.getNextCursor(), 2, "relevance", "desc");
+        assertNull(next.getNextCursor());
+    }
+
+    /**
+     * Tests that the favorite coffee is read from the ID stored on the user and served
+     * from the cached coffee details, without scanning the user's reviews, and that a
+     * user without a favorite gets none while an unknown user is rejected.
+     */
+    @Test
+    void testFindFavoriteCoffeeOfUser() throws Exception {
+        CoffeeDetailsDTO details = new CoffeeDetailsDTO();
+        when(userRepository.findFavoriteCoffeeIdById(1L)).thenReturn(Optional.of(7L));
+        when(coffeeService.findCachedCoffeeDetails(7L)).thenReturn(Optional.of(details));
+
+        assertEquals(Optional.of(details), underTest.findFavoriteCoffeeOfUser(1L));
+        verifyNoInteractions(reviewRepository);
+
+        when(userRepository.findFavoriteCoffeeIdById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(true);
+        assertEquals(Optional.empty(), underTest.findFavoriteCoffeeOfUser(2L));
+
+        when(userRepository.findFavoriteCoffeeIdById(3L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(3L)).thenReturn(false);
+        assertThrows(Exception.class, () -> underTest.findFavoriteCoffeeOfUser(3L));
     }
 
-}
\ No newline at end of file
+}
@@ -130,7 +130,7 @@ const CoffeesListPage: React.FC = () => {
               <div>
                 {coffee.imageUrl ? (
                   <img
-                    src={`${import.meta.env.VITE_IMAGE_BASE_URL}${coffee.imageUrl}`}
+                    src={`${import.meta.env.VITE_IMAGE_BASE_URL}${coffee.thumbnailUrl ?? coffee.imageUrl}`}
                     width="123"
                     height="196"
                     alt={coffee.name}
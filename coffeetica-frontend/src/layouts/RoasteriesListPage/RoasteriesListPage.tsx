@@ -88,7 +88,7 @@ const RoasteriesListPage: React.FC = () => {
                             <div style={{ maxWidth: '123px', maxHeight: '196px' }}>
                                 {roastery.imageUrl ? (
                                     <img
-                                        src={`${import.meta.env.VITE_IMAGE_BASE_URL}${roastery.imageUrl}`}
+                                        src={`${import.meta.env.VITE_IMAGE_BASE_URL}${roastery.thumbnailUrl ?? roastery.imageUrl}`}
                                         style={{
                                             maxWidth: '100%',
                                             maxHeight: '100%',
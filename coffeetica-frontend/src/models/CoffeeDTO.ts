@@ -11,5 +11,9 @@ export interface CoffeeDTO {
     processingMethod: string;
     productionYear: number;
     imageUrl?: string;
+    thumbnailUrl?: string;
+    cardUrl?: string;
+    fullUrl?: string;
+    imagePlaceholder?: string;
     roastery: RoasteryDTO;
   }
\ No newline at end of file
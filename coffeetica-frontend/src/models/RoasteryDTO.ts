@@ -5,4 +5,8 @@ export interface RoasteryDTO {
     foundingYear: number;
     websiteUrl: string;
     imageUrl?: string;
+    thumbnailUrl?: string;
+    cardUrl?: string;
+    fullUrl?: string;
+    imagePlaceholder?: string;
   }
\ No newline at end of file